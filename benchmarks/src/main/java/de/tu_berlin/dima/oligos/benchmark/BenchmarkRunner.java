@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.benchmark;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line options, but writes
+ * the results as JSON by default, so runs of different commits can be
+ * compared, e.g. with the JMH Visualizer.
+ * <br />
+ * The result file is named after the <code>oligos.benchmark.label</code>
+ * system property, e.g. the abbreviated commit hash, or after the current time
+ * if the property is not set:
+ * <pre>
+ * java -Doligos.benchmark.label=$(git rev-parse --short HEAD) -jar benchmarks.jar
+ * </pre>
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {
+  }
+
+  public static void main(final String[] args)
+      throws CommandLineOptionException, IOException, RunnerException {
+    CommandLineOptions cli = new CommandLineOptions(args);
+    if (cli.shouldHelp()) {
+      cli.showHelp();
+      return;
+    }
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+    if (!cli.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+    if (!cli.getResult().hasValue()) {
+      String label = System.getProperty("oligos.benchmark.label"
+          , new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()));
+      options.result("jmh-result-" + label + ".json");
+    }
+    Runner runner = new Runner(options.build());
+    if (cli.shouldList()) {
+      runner.list();
+    } else {
+      runner.run();
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.benchmark;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Maps;
+
+import de.tu_berlin.dima.oligos.io.DistributionWriter;
+import de.tu_berlin.dima.oligos.stat.Column;
+import de.tu_berlin.dima.oligos.stat.distribution.histogram.CustomHistogram;
+import de.tu_berlin.dima.oligos.stat.distribution.histogram.Histogram;
+import de.tu_berlin.dima.oligos.stat.distribution.histogram.Histograms;
+import de.tu_berlin.dima.oligos.stat.distribution.histogram.QuantileHistogram;
+import de.tu_berlin.dima.oligos.type.util.Constraint;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+import de.tu_berlin.dima.oligos.type.util.operator.Operator;
+
+/**
+ * Benchmarks building and reading histograms, as done for every profiled
+ * column, by the number of buckets and the column type.
+ * <br />
+ * The quantile histogram has a bucket for every {@link #STEP}th value of the
+ * type, and every tenth bucket contains a most frequent value. Lookups probe
+ * random values and buckets.
+ * <br />
+ * <code>DECIMAL</code> columns use the <code>TreeMap</code> based
+ * {@link QuantileHistogram}, which takes minutes per operation for the large
+ * bucket counts, run it explicitly with <code>-p type=DECIMAL</code>.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistogramBenchmark {
+
+  private static final int STEP = 10;
+  private static final int PROBES = 1024;
+
+  @Param({ "10", "100", "1000", "10000", "100000" })
+  private int buckets;
+
+  @Param({ "INTEGER", "BIGINT", "DOUBLE", "DATE", "TIMESTAMP" })
+  private ValueType type;
+
+  private Operator<Object> operator;
+  private Object[] lowerBounds;
+  private Object[] upperBounds;
+  private long[] frequencies;
+  private QuantileHistogram<Object> quantiles;
+  private Map<Object, Long> mostFrequent;
+  private Histogram<Object> combined;
+  private DistributionWriter writer;
+  private Object[] probes;
+  private int[] probeBuckets;
+  private int probe;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    operator = type.getOperator();
+    Random random = new Random(42L);
+    lowerBounds = new Object[buckets];
+    upperBounds = new Object[buckets];
+    frequencies = new long[buckets];
+    quantiles = Histograms.newQuantileHistogram(type.value(0), operator);
+    mostFrequent = Maps.newHashMap();
+    for (int i = 0; i < buckets; i++) {
+      lowerBounds[i] = type.value(i * STEP + 1);
+      upperBounds[i] = type.value((i + 1) * STEP);
+      frequencies[i] = 100L + random.nextInt(100);
+      quantiles.addBound(upperBounds[i], frequencies[i]);
+      if (i % 10 == 0) {
+        mostFrequent.put(type.value(i * STEP + STEP / 2), 10L);
+      }
+    }
+    combined = Histograms.combineHistograms(quantiles, mostFrequent, operator);
+    Column<Object> column = new Column<Object>("BENCHMARK", "TABLE", "COLUMN"
+        , new TypeInfo(type.name(), 8, 0, type.getType())
+        , Collections.<Constraint>emptySet(), type.value(0), upperBounds[buckets - 1]
+        , buckets * STEP, 0L, combined, operator, type.getParser());
+    writer = new DistributionWriter(column, new File("COLUMN.distribution")
+        , new File("COLUMN.domain"));
+    probes = new Object[PROBES];
+    probeBuckets = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = type.value(random.nextInt(buckets * STEP));
+      probeBuckets[i] = random.nextInt(buckets);
+    }
+  }
+
+  private int nextProbe() {
+    probe = (probe + 1) & (PROBES - 1);
+    return probe;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Histogram<Object> combineHistograms() throws SQLException {
+    return Histograms.combineHistograms(quantiles, mostFrequent, operator);
+  }
+
+  @Benchmark
+  public int getBucketOf() {
+    return quantiles.getBucketOf(probes[nextProbe()]);
+  }
+
+  @Benchmark
+  public Object getLowerBoundAt() {
+    return quantiles.getLowerBoundAt(probeBuckets[nextProbe()]);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Histogram<Object> customHistogramAdd() {
+    CustomHistogram<Object> histogram = new CustomHistogram<Object>(operator);
+    for (int i = 0; i < buckets; i++) {
+      histogram.add(lowerBounds[i], upperBounds[i], frequencies[i]);
+    }
+    return histogram;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Histogram<Object> getExactValues() {
+    return combined.getExactValues();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public String getDistributionString() throws SQLException {
+    return writer.getDistributionString();
+  }
+}
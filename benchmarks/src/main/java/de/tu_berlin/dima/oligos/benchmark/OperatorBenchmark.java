@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.benchmark;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tu_berlin.dima.oligos.type.util.operator.Operator;
+import de.tu_berlin.dima.oligos.type.util.operator.Operators;
+
+/**
+ * Benchmarks incrementing and decrementing values, once through the generic
+ * {@link Operators} methods, which look up the operator of the value's class,
+ * and once through the {@link Operator} directly.
+ * <br />
+ * <code>VARCHAR</code> is left out, since strings have no registered
+ * operator.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperatorBenchmark {
+
+  private static final int VALUES = 1024;
+
+  @Param({ "SMALLINT", "TINYINT", "INTEGER", "BIGINT", "BIGINTEGER", "DECIMAL", "DOUBLE"
+      , "REAL", "DATE", "TIME", "TIMESTAMP", "CHAR" })
+  private ValueType type;
+
+  private Operator<Object> operator;
+  private Object[] values;
+  private int index;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    operator = type.getOperator();
+    values = new Object[VALUES];
+    for (int i = 0; i < VALUES; i++) {
+      values[i] = type.value(i * 7919);
+    }
+  }
+
+  private Object nextValue() {
+    index = (index + 1) & (VALUES - 1);
+    return values[index];
+  }
+
+  @Benchmark
+  public Object operatorsIncrement() throws SQLException {
+    return Operators.increment(nextValue());
+  }
+
+  @Benchmark
+  public Object operatorsDecrement() throws SQLException {
+    return Operators.decrement(nextValue());
+  }
+
+  @Benchmark
+  public Object operatorIncrement() {
+    return operator.increment(nextValue());
+  }
+
+  @Benchmark
+  public Object operatorDecrement() {
+    return operator.decrement(nextValue());
+  }
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tu_berlin.dima.oligos.type.util.parser.Parser;
+
+/**
+ * Benchmarks parsing catalog literals, e.g. the bounds of the catalog
+ * histograms, with the {@link Parser} of every column type.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+  private static final int LITERALS = 1024;
+
+  @Param
+  private ValueType type;
+
+  private Parser<Object> parser;
+  private String[] literals;
+  private int index;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    parser = type.getParser();
+    literals = new String[LITERALS];
+    for (int i = 0; i < LITERALS; i++) {
+      literals[i] = type.literal(i * 7919);
+    }
+  }
+
+  @Benchmark
+  public Object fromString() {
+    index = (index + 1) & (LITERALS - 1);
+    return parser.fromString(literals[index]);
+  }
+}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.benchmark;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+import de.tu_berlin.dima.oligos.type.util.operator.Operator;
+import de.tu_berlin.dima.oligos.type.util.operator.OperatorManager;
+import de.tu_berlin.dima.oligos.type.util.operator.StringOperator;
+import de.tu_berlin.dima.oligos.type.util.parser.BigDecimalParser;
+import de.tu_berlin.dima.oligos.type.util.parser.BigIntegerParser;
+import de.tu_berlin.dima.oligos.type.util.parser.ByteParser;
+import de.tu_berlin.dima.oligos.type.util.parser.CharParser;
+import de.tu_berlin.dima.oligos.type.util.parser.DateParser;
+import de.tu_berlin.dima.oligos.type.util.parser.DoubleParser;
+import de.tu_berlin.dima.oligos.type.util.parser.FloatParser;
+import de.tu_berlin.dima.oligos.type.util.parser.IntegerParser;
+import de.tu_berlin.dima.oligos.type.util.parser.LongParser;
+import de.tu_berlin.dima.oligos.type.util.parser.Parser;
+import de.tu_berlin.dima.oligos.type.util.parser.ShortParser;
+import de.tu_berlin.dima.oligos.type.util.parser.StringParser;
+import de.tu_berlin.dima.oligos.type.util.parser.TimeParser;
+import de.tu_berlin.dima.oligos.type.util.parser.TimestampParser;
+
+/**
+ * Column types the benchmarks are parameterized by, along with the
+ * {@link Operator} and {@link Parser} Oligos uses for them.
+ * <br />
+ * {@link #value(int)} maps an index to a value of the type, which ascends
+ * with the index as far as the domain of the type allows. {@link #literal(int)}
+ * returns the same value as catalog literal, as the {@link Parser} reads it.
+ * The Oracle <code>DATE</code> parser is left out, since it needs the Oracle
+ * JDBC driver.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public enum ValueType {
+
+  SMALLINT(Short.class, new ShortParser(), false) {
+    @Override
+    public Object value(final int index) {
+      return (short) (index % Short.MAX_VALUE);
+    }
+  },
+  TINYINT(Byte.class, new ByteParser(), false) {
+    @Override
+    public Object value(final int index) {
+      return (byte) (index % Byte.MAX_VALUE);
+    }
+  },
+  INTEGER(Integer.class, new IntegerParser(), false) {
+    @Override
+    public Object value(final int index) {
+      return index;
+    }
+  },
+  BIGINT(Long.class, new LongParser(), false) {
+    @Override
+    public Object value(final int index) {
+      return 1000000000000L + index;
+    }
+  },
+  BIGINTEGER(BigInteger.class, new BigIntegerParser(), false) {
+    @Override
+    public Object value(final int index) {
+      return BigInteger.valueOf(1000000000000L + index);
+    }
+  },
+  DECIMAL(BigDecimal.class, new BigDecimalParser(), false) {
+    @Override
+    public Object value(final int index) {
+      return BigDecimal.valueOf(index);
+    }
+  },
+  DOUBLE(Double.class, new DoubleParser(), false) {
+    @Override
+    public Object value(final int index) {
+      return index + 0.5;
+    }
+  },
+  REAL(Float.class, new FloatParser(), false) {
+    @Override
+    public Object value(final int index) {
+      return index + 0.5f;
+    }
+  },
+  DATE(Date.class, new DateParser(), true) {
+    @Override
+    public Object value(final int index) {
+      return new Date(EPOCH + TimeUnit.DAYS.toMillis(index / 8));
+    }
+  },
+  TIME(Time.class, new TimeParser(), true) {
+    @Override
+    public Object value(final int index) {
+      return new Time(TimeUnit.SECONDS.toMillis(index % 86400));
+    }
+  },
+  TIMESTAMP(Timestamp.class, new TimestampParser(), true) {
+    @Override
+    public Object value(final int index) {
+      return new Timestamp(EPOCH + TimeUnit.SECONDS.toMillis(index));
+    }
+
+    /**
+     * Returns the DB2 notation, e.g. <code>'2014-01-01-12.30.00.000000'</code>.
+     */
+    @Override
+    public String literal(final int index) {
+      char[] chrs = String.format("%-26s", value(index).toString())
+          .replace(' ', '0').toCharArray();
+      chrs[10] = '-';
+      chrs[13] = '.';
+      chrs[16] = '.';
+      return "'" + String.valueOf(chrs) + "'";
+    }
+  },
+  CHAR(Character.class, new CharParser(), true) {
+    @Override
+    public Object value(final int index) {
+      return (char) ('A' + index % 26);
+    }
+  },
+  VARCHAR(String.class, new StringParser(), true) {
+    @Override
+    public Object value(final int index) {
+      return String.format("VALUE%08d", index);
+    }
+
+    @Override
+    public Operator<Object> getOperator() {
+      return STRING_OPERATOR;
+    }
+  };
+
+  /** 2014-01-01 00:00:00 UTC */
+  private static final long EPOCH = 1388534400000L;
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static final Operator<Object> STRING_OPERATOR = (Operator) new StringOperator();
+
+  private final Class<?> type;
+  private final Parser<?> parser;
+  private final boolean quoted;
+
+  private ValueType(final Class<?> type, final Parser<?> parser, final boolean quoted) {
+    this.type = type;
+    this.parser = parser;
+    this.quoted = quoted;
+  }
+
+  /**
+   * Returns the value at the index.
+   */
+  public abstract Object value(int index);
+
+  /**
+   * Returns the value at the index as literal, as it is stored in the
+   * catalog.
+   */
+  public String literal(final int index) {
+    String value = value(index).toString();
+    return quoted ? "'" + value + "'" : value;
+  }
+
+  public Class<?> getType() {
+    return type;
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public Operator<Object> getOperator() {
+    return (Operator) OperatorManager.getOperator(type);
+  }
+
+  @SuppressWarnings("unchecked")
+  public Parser<Object> getParser() {
+    return (Parser<Object>) parser;
+  }
+}
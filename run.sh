@@ -13,6 +13,8 @@ DB="sampledb"
 OUT="/tmp/oligos"
 # Name of the Myriad generator (default=example-gen)
 NAME="example-gen"
+# Number of parallel profiling workers/ connections (default=1)
+THREADS=1
 
 if [ "$#" -ne 3 ]; then
     echo "Usage:"
@@ -25,4 +27,4 @@ JDBC=$2
 SCHEMA=$3
 read -s -p "Password: " PASS
 echo ""
-java -cp $OLIGOS:$JDBC de.tu_berlin.dima.oligos.Oligos -j $VENDOR -h $HOST -P $PORT -u $USER -p $PASS -D $DB -o $OUT -g $NAME $SCHEMA
+java -cp $OLIGOS:$JDBC de.tu_berlin.dima.oligos.Oligos -j $VENDOR -h $HOST -P $PORT -u $USER -p $PASS -D $DB -o $OUT -g $NAME -t $THREADS $SCHEMA
@@ -15,19 +15,33 @@
  ******************************************************************************/
 package de.tu_berlin.dima.oligos;
 
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import de.tu_berlin.dima.oligos.type.util.ColumnId;
 
+/**
+ * Set of fully qualified columns.
+ * <br />
+ * Besides the flat set of columns, which is iterated in insertion order, the
+ * schema keeps an insertion ordered index from schema to table to columns, so
+ * {@link #schemas()}, {@link #tablesIn(String)}, and
+ * {@link #columnsIn(String, String)} are map lookups that return
+ * unmodifiable views of the index instead of copies.
+ */
 public class DenseSchema implements Iterable<ColumnId> {
 
   private final Set<ColumnId> columns;
+  private final Map<String, Map<String, Set<String>>> index;
 
   public DenseSchema() {
     columns = Sets.newLinkedHashSet();
+    index = Maps.newLinkedHashMap();
   }
 
   public DenseSchema(ColumnId... columns) {
@@ -46,43 +60,51 @@ public class DenseSchema implements Iterable<ColumnId> {
         !column.getSchema().isEmpty() &&
         !column.getTable().isEmpty() &&
         !column.getColumn().isEmpty());
-    columns.add(column);
+    if (columns.add(column)) {
+      Map<String, Set<String>> tables = index.get(column.getSchema());
+      if (tables == null) {
+        tables = Maps.newLinkedHashMap();
+        index.put(column.getSchema(), tables);
+      }
+      Set<String> cols = tables.get(column.getTable());
+      if (cols == null) {
+        cols = Sets.newLinkedHashSet();
+        tables.put(column.getTable(), cols);
+      }
+      cols.add(column.getColumn());
+    }
+  }
+
+  public boolean contains(final ColumnId column) {
+    return columns.contains(column);
+  }
+
+  public int size() {
+    return columns.size();
   }
 
   public Set<String> schemas() {
-    Set<String> schemas = Sets.newLinkedHashSet();
-    for (ColumnId column : columns) {
-      String schema = column.getSchema();
-      schemas.add(schema);
-    }
-    return schemas;
+    return Collections.unmodifiableSet(index.keySet());
   }
 
   public Set<String> tablesIn(final String schema) {
-    Set<String> tables = Sets.newLinkedHashSet();
-    for (ColumnId column : columns) {
-      if (column.getSchema().equals(schema)) {
-        String table = column.getTable();
-        tables.add(table);
-      }
-    }
-    return tables;
+    Map<String, Set<String>> tables = index.get(schema);
+    return (tables != null)
+        ? Collections.unmodifiableSet(tables.keySet())
+        : Collections.<String>emptySet();
   }
 
   public Set<String> columnsIn(final String schema, final String table) {
-    Set<String> cols = Sets.newLinkedHashSet();
-    for (ColumnId column : columns) {
-      if (column.getSchema().equals(schema) && column.getTable().equals(table)) {
-        String col = column.getColumn();
-        cols.add(col);
-      }
-    }
-    return cols;
+    Map<String, Set<String>> tables = index.get(schema);
+    Set<String> cols = (tables != null) ? tables.get(table) : null;
+    return (cols != null)
+        ? Collections.unmodifiableSet(cols)
+        : Collections.<String>emptySet();
   }
 
   @Override
   public Iterator<ColumnId> iterator() {
-    return columns.iterator();
+    return Collections.unmodifiableSet(columns).iterator();
   }
 
   @Override
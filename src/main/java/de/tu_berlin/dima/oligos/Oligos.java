@@ -15,23 +15,45 @@
  ******************************************************************************/
 package de.tu_berlin.dima.oligos;
 
-import com.google.common.collect.Maps;
+import com.google.common.base.Function;
 import com.google.common.collect.Sets;
 import de.tu_berlin.dima.oligos.cli.CommandLineInterface;
 import de.tu_berlin.dima.oligos.db.*;
+import de.tu_berlin.dima.oligos.db.db2.Db2CatalogSnapshot;
 import de.tu_berlin.dima.oligos.db.db2.Db2ColumnConnector;
+import de.tu_berlin.dima.oligos.db.db2.Db2ForeignKeyExtractor;
 import de.tu_berlin.dima.oligos.db.db2.Db2MetaConnector;
 import de.tu_berlin.dima.oligos.db.db2.Db2SchemaConnector;
 import de.tu_berlin.dima.oligos.db.db2.Db2TableConnector;
 import de.tu_berlin.dima.oligos.db.oracle.*;
+import de.tu_berlin.dima.oligos.db.replay.CatalogDump;
+import de.tu_berlin.dima.oligos.db.replay.ReplayMetaConnector;
+import de.tu_berlin.dima.oligos.db.replay.ReplaySchemaConnector;
+import de.tu_berlin.dima.oligos.db.replay.ReplayTableConnector;
 import de.tu_berlin.dima.oligos.exception.TypeNotSupportedException;
 import de.tu_berlin.dima.oligos.exception.UnsupportedTypeException;
+import de.tu_berlin.dima.oligos.io.AbstractMyriadWriter;
 import de.tu_berlin.dima.oligos.io.MyriadWriter;
+import de.tu_berlin.dima.oligos.io.SnapshotStore;
+import de.tu_berlin.dima.oligos.io.StreamingMyriadWriter;
+import de.tu_berlin.dima.oligos.io.Writer;
+import de.tu_berlin.dima.oligos.profiler.AdaptiveLimiter;
 import de.tu_berlin.dima.oligos.profiler.ColumnProfiler;
+import de.tu_berlin.dima.oligos.profiler.ColumnProfilerFactory;
+import de.tu_berlin.dima.oligos.profiler.ParallelSchemaProfiler;
 import de.tu_berlin.dima.oligos.profiler.PseudoColumnProfiler;
 import de.tu_berlin.dima.oligos.profiler.SchemaProfiler;
+import de.tu_berlin.dima.oligos.profiler.StagedSchemaProfiler;
 import de.tu_berlin.dima.oligos.profiler.TableProfiler;
+import de.tu_berlin.dima.oligos.stat.Column;
 import de.tu_berlin.dima.oligos.stat.Schema;
+import de.tu_berlin.dima.oligos.stat.Table;
+import de.tu_berlin.dima.oligos.trace.Phase;
+import de.tu_berlin.dima.oligos.trace.ProfilingMetrics;
+import de.tu_berlin.dima.oligos.trace.ProgressReporter;
+import de.tu_berlin.dima.oligos.trace.Trace;
+import de.tu_berlin.dima.oligos.trace.Trace.Span;
+import de.tu_berlin.dima.oligos.trace.TraceReport;
 import de.tu_berlin.dima.oligos.type.util.ColumnId;
 import de.tu_berlin.dima.oligos.type.util.Constraint;
 import de.tu_berlin.dima.oligos.type.util.TypeInfo;
@@ -45,23 +67,33 @@ import de.tu_berlin.dima.oligos.type.util.operator.numerical.*;
 import de.tu_berlin.dima.oligos.type.util.parser.*;
 import org.apache.commons.cli.ParseException;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.log4j.BasicConfigurator;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
+import org.javatuples.Quartet;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.*;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class Oligos {
 
   private static final Logger LOGGER = Logger.getLogger(Oligos.class);
 
+  /** Number of threads writing distribution files in the staged pipeline. */
+  private static final int OUTPUT_THREADS = 2;
+
   public static ColumnProfiler<?> getProfiler(final ColumnId columnId, final TypeInfo type
       , final JdbcConnector jdbcConnector, final MetaConnector metaConnector)
           throws SQLException {
@@ -76,6 +108,13 @@ public class Oligos {
       , final String column, final TypeInfo type, final JdbcConnector jdbcConnector
       , final MetaConnector metaConnector)
       throws SQLException {
+    return getProfiler(schema, table, column, type, jdbcConnector, metaConnector, null);
+  }
+
+  public static ColumnProfiler<?> getProfiler(final String schema, final  String table
+      , final String column, final TypeInfo type, final JdbcConnector jdbcConnector
+      , final MetaConnector metaConnector, final Db2CatalogSnapshot snapshot)
+      throws SQLException {
     ColumnProfiler<?> profiler = null;
     LOGGER.trace("type = " + type.toString());
     String typeName = type.getTypeName().toLowerCase();
@@ -84,63 +123,63 @@ public class Oligos {
       Parser<Short> p = new ShortParser();
       Operator<Short> op = new ShortOperator();
       ColumnConnector<Short> connector = new Db2ColumnConnector<Short>(
-          jdbcConnector, schema, table, column, p);      
+          jdbcConnector, schema, table, column, p, snapshot);      
       profiler = new ColumnProfiler<Short>(
           schema, table, column, type, isEnum, connector, op, p);
     } else if (typeName.equals("integer")) {
       Parser<Integer> p = new IntegerParser();
       Operator<Integer> op = new IntegerOperator();
       ColumnConnector<Integer> connector = new Db2ColumnConnector<Integer>(
-          jdbcConnector, schema, table, column, p);      
+          jdbcConnector, schema, table, column, p, snapshot);      
       profiler = new ColumnProfiler<Integer>(
           schema, table, column, type, isEnum, connector, op, p);
     } else if (typeName.equals("bigint")) {
       Parser<Long> p = new LongParser();
       Operator<Long> op = new LongOperator();
       ColumnConnector<Long> connector = new Db2ColumnConnector<Long>(
-          jdbcConnector, schema, table, column, p);      
+          jdbcConnector, schema, table, column, p, snapshot);      
       profiler = new ColumnProfiler<Long>(
           schema, table, column, type, isEnum, connector, op, p);
     } else if (typeName.equals("decimal")) {
       Parser<BigDecimal> p = new BigDecimalParser();
       Operator<BigDecimal> op = new BigDecimalOperator();
       ColumnConnector<BigDecimal> connector = new Db2ColumnConnector<BigDecimal>(
-          jdbcConnector, schema, table, column, p); 
+          jdbcConnector, schema, table, column, p, snapshot); 
       profiler = new ColumnProfiler<BigDecimal>(
           schema, table, column, type, isEnum, connector, op, p);
     } else if (typeName.equals("float")) {
       Parser<Float> p = new FloatParser();
       Operator<Float> op = new FloatOperator();
       ColumnConnector<Float> connector = new Db2ColumnConnector<Float>(
-          jdbcConnector, schema, table, column, p);
+          jdbcConnector, schema, table, column, p, snapshot);
       profiler = new ColumnProfiler<Float>(
           schema, table, column, type, isEnum, connector, op, p);
     } else if (typeName.equals("double")) {
       Parser<Double> p = new DoubleParser();
       Operator<Double> op = new DoubleOperator();
       ColumnConnector<Double> connector = new Db2ColumnConnector<Double>(
-          jdbcConnector, schema, table, column, p);
+          jdbcConnector, schema, table, column, p, snapshot);
       profiler = new ColumnProfiler<Double>(
           schema, table, column, type, isEnum, connector, op, p);
     } else if (typeName.equals("timestamp")) {
       Parser<Timestamp> p = new TimestampParser();
       Operator<Timestamp> op = new TimestampOperator();
       ColumnConnector<Timestamp> connector = new Db2ColumnConnector<Timestamp>(
-          jdbcConnector, schema, table, column, p);
+          jdbcConnector, schema, table, column, p, snapshot);
       profiler = new ColumnProfiler<Timestamp>(
           schema, table, column, type, isEnum, connector, op, p);
     } else if (typeName.equals("time")) {
       Parser<Time> p = new TimeParser();
       Operator<Time> op = new TimeOperator();
       ColumnConnector<Time> connector = new Db2ColumnConnector<Time>(
-          jdbcConnector, schema, table, column, p);
+          jdbcConnector, schema, table, column, p, snapshot);
       profiler = new ColumnProfiler<Time>(
           schema, table, column, type, isEnum, connector, op, p);
     } else if (typeName.equals("date")) {
       Parser<Date> p = new DateParser();
       Operator<Date> op = new DateOperator();
       ColumnConnector<Date> connector = new Db2ColumnConnector<Date>(
-          jdbcConnector, schema, table, column, p); 
+          jdbcConnector, schema, table, column, p, snapshot); 
       profiler = new ColumnProfiler<Date>(
           schema, table, column, type, isEnum, connector, op, p);
     } else if ((typeName.equals("char") || typeName.equals("varchar"))
@@ -148,13 +187,13 @@ public class Oligos {
       Parser<Character> p = new CharParser();
       Operator<Character> op = new CharOperator();
       ColumnConnector<Character> connector = new Db2ColumnConnector<Character>(
-          jdbcConnector, schema, table, column, p); 
+          jdbcConnector, schema, table, column, p, snapshot); 
       profiler = new ColumnProfiler<Character>(
           schema, table, column, type, isEnum, connector, op, p);
     } else {
       Parser<String> p = new StringParser();
       ColumnConnector<String> connector = new Db2ColumnConnector<String>(
-          jdbcConnector, schema, table, column, p);
+          jdbcConnector, schema, table, column, p, snapshot);
       Set<Constraint> constraints = connector.getConstraints();
       if (constraints.contains(Constraint.UNIQUE) ||
           constraints.contains(Constraint.PRIMARY_KEY)) {
@@ -171,6 +210,13 @@ public class Oligos {
   public static ColumnProfiler<?> getProfilerOracle(final String schema, final  String table
           , final String column, final TypeInfo type, final JdbcConnector jdbcConnector
           , final MetaConnector metaConnector) throws SQLException {
+    return getProfilerOracle(schema, table, column, type, jdbcConnector, metaConnector, null);
+  }
+
+  public static ColumnProfiler<?> getProfilerOracle(final String schema, final  String table
+          , final String column, final TypeInfo type, final JdbcConnector jdbcConnector
+          , final MetaConnector metaConnector, final OracleCatalogSnapshot snapshot)
+          throws SQLException {
     ColumnProfiler<?> profiler = null;
     String typeName = type.getTypeName().toLowerCase();
     boolean isEnum = metaConnector.isEnumerated(schema, table, column);
@@ -178,31 +224,31 @@ public class Oligos {
       if (type.getScale() == 0) {
         Parser<BigInteger> p = new BigIntegerParser();
         Operator<BigInteger> op = new BigIntegerOperator();
-        ColumnConnector<BigInteger> connector = new OracleColumnConnector<>(jdbcConnector, schema, table, column, p);
+        ColumnConnector<BigInteger> connector = new OracleColumnConnector<>(jdbcConnector, schema, table, column, p, snapshot);
         profiler = new ColumnProfiler<BigInteger>(schema, table, column, type, isEnum, connector, op, p);
       } else {
         Parser<BigDecimal> p = new BigDecimalParser();
         Operator<BigDecimal> op = new BigDecimalOperator();
-        ColumnConnector<BigDecimal> connector = new OracleColumnConnector<>(jdbcConnector, schema, table, column, p);
+        ColumnConnector<BigDecimal> connector = new OracleColumnConnector<>(jdbcConnector, schema, table, column, p, snapshot);
         profiler = new ColumnProfiler<BigDecimal>(schema, table, column, type, isEnum, connector, op, p);
       }
     }
     else if (typeName.equals("date")) {
       Parser<Date> p = new DateParser();
       Operator<Date> op = new DateOperator();
-      ColumnConnector<Date> connector = new OracleColumnConnector<>(jdbcConnector, schema, table, column, p);
+      ColumnConnector<Date> connector = new OracleColumnConnector<>(jdbcConnector, schema, table, column, p, snapshot);
       profiler = new ColumnProfiler<Date>(schema, table, column, type, isEnum, connector, op, p);
     }
     else if (typeName.equals("time")) {
       Parser<Time> p = new TimeParser();
       Operator<Time> op = new TimeOperator();
-      ColumnConnector<Time> connector = new OracleColumnConnector<>(jdbcConnector, schema, table, column, p);
+      ColumnConnector<Time> connector = new OracleColumnConnector<>(jdbcConnector, schema, table, column, p, snapshot);
       profiler = new ColumnProfiler<Time>(schema, table, column, type, isEnum, connector, op, p);
     }
     else if (typeName.equals("timestamp")) {
       Parser<Timestamp> p = new TimestampParser();
       Operator<Timestamp> op = new TimestampOperator();
-      ColumnConnector<Timestamp> connector = new OracleColumnConnector<>(jdbcConnector, schema, table, column, p);
+      ColumnConnector<Timestamp> connector = new OracleColumnConnector<>(jdbcConnector, schema, table, column, p, snapshot);
       profiler = new ColumnProfiler<Timestamp>(schema, table, column, type, isEnum, connector, op, p);
     }
     // treat char as strings, due to Oracle's conversion to numbers no trimming is allowed
@@ -211,12 +257,12 @@ public class Oligos {
       if (type.getLength() == 1) {
         Parser<Character> p = new CharParser();
         Operator<Character> op = new CharOperator();
-        ColumnConnector<Character> connector = new OracleColumnConnector<>(jdbcConnector, schema, table, column, p);
+        ColumnConnector<Character> connector = new OracleColumnConnector<>(jdbcConnector, schema, table, column, p, snapshot);
         profiler = new ColumnProfiler<Character>(schema, table, column, type, isEnum, connector, op, p);
       } else {
         Parser<String> p = new StringParser();
         Operator<String> op = new StringOperator();
-        ColumnConnector<String> connector = new OracleColumnConnector<>(jdbcConnector, schema, table, column, p);
+        ColumnConnector<String> connector = new OracleColumnConnector<>(jdbcConnector, schema, table, column, p, snapshot);
         Set<Constraint> constraints = connector.getConstraints();
         if (constraints.contains(Constraint.UNIQUE) || constraints.contains(Constraint.PRIMARY_KEY))
           throw new UnsupportedTypeException(typeName, Constraint.UNIQUE);
@@ -230,53 +276,513 @@ public class Oligos {
 
   }
   
+  public static ColumnProfilerFactory getProfilerFactory(final DriverName driverName
+      , final Db2CatalogSnapshot db2Snapshot, final OracleCatalogSnapshot oracleSnapshot) {
+    return new ColumnProfilerFactory() {
+      @Override
+      public ColumnProfiler<?> create(final ColumnId columnId, final TypeInfo type
+          , final JdbcConnector jdbcConnector) throws SQLException {
+        String schema = columnId.getSchema();
+        String table = columnId.getTable();
+        String column = columnId.getColumn();
+        switch (driverName) {
+          case db2:
+            MetaConnector db2MetaConnector = new Db2MetaConnector(jdbcConnector, db2Snapshot);
+            return getProfiler(schema, table, column, type, jdbcConnector, db2MetaConnector
+                , db2Snapshot);
+          case oracle:
+            MetaConnector oracleMetaConnector =
+                new OracleMetaConnector(jdbcConnector, oracleSnapshot);
+            return getProfilerOracle(schema, table, column, type, jdbcConnector
+                , oracleMetaConnector, oracleSnapshot);
+          default:
+            throw new IllegalArgumentException("Unknown database driver " + driverName);
+        }
+      }
+    };
+  }
+
+  /**
+   * Creates a profiler factory for replaying a {@link CatalogDump}. The column
+   * connectors are backed by the captured catalog snapshot and never use the
+   * (absent) JDBC connector. Columns the snapshot does not cover are rejected
+   * with an <code>SQLException</code> naming the column, instead of falling
+   * back to database queries.
+   */
+  public static ColumnProfilerFactory getReplayProfilerFactory(final CatalogDump dump) {
+    final MetaConnector metaConnector = new ReplayMetaConnector(dump);
+    return new ColumnProfilerFactory() {
+      @Override
+      public ColumnProfiler<?> create(final ColumnId columnId, final TypeInfo type
+          , final JdbcConnector jdbcConnector) throws SQLException {
+        String schema = columnId.getSchema();
+        String table = columnId.getTable();
+        String column = columnId.getColumn();
+        if (!dump.isCovered(columnId)) {
+          throw new SQLException("Captured catalog has no statistics for " + columnId);
+        }
+        switch (dump.getDriverName()) {
+          case db2:
+            return getProfiler(schema, table, column, type, null, metaConnector
+                , dump.getDb2Snapshot());
+          case oracle:
+            return getProfilerOracle(schema, table, column, type, null
+                , metaConnector, dump.getOracleSnapshot());
+          default:
+            throw new IllegalArgumentException("Unknown database driver " + dump.getDriverName());
+        }
+      }
+    };
+  }
+
+  /**
+   * Profiles the captured columns that are covered by the input schema, or
+   * all captured columns if there is no input schema.
+   */
+  private static void profileReplay(final CatalogDump dump
+      , final CommandLineInterface cli) throws SQLException, IOException {
+    SparseSchema sparseSchema = cli.getInputSchema();
+    DenseSchema inputSchema = new DenseSchema();
+    for (ColumnId columnId : dump.getColumns().keySet()) {
+      if (sparseSchema == null || sparseSchema.contains(columnId)) {
+        inputSchema.addColumn(columnId);
+      }
+    }
+    SchemaConnector schemaConnector = new ReplaySchemaConnector(dump);
+    TableConnector tableConnector = new ReplayTableConnector(dump);
+    ColumnProfilerFactory profilerFactory = getReplayProfilerFactory(dump);
+    ProgressReporter progress = startMetrics(inputSchema, cli);
+    try {
+      if (cli.isPipelineEnabled()) {
+        profilePipelined(inputSchema, dump.getColumns(), schemaConnector, tableConnector
+            , profilerFactory, null, cli);
+      } else {
+        Set<Schema> profiledSchemas = profileSequential(inputSchema, dump.getColumns()
+            , schemaConnector, tableConnector, profilerFactory, null);
+        writeSpecification(profiledSchemas, cli);
+      }
+    } finally {
+      progress.stop();
+    }
+  }
+
+  private static AbstractMyriadWriter createWriter(final Schema schema
+      , final CommandLineInterface cli) {
+    File outputDir = cli.getOutputDirectory();
+    String generatorName = cli.getGeneratorName();
+    return cli.isStreamingEnabled()
+        ? new StreamingMyriadWriter(schema, outputDir, generatorName)
+        : new MyriadWriter(schema, outputDir, generatorName);
+  }
+
+  private static void writeSpecification(final Set<Schema> profiledSchemas
+      , final CommandLineInterface cli) throws IOException, SQLException {
+    LOGGER.info("Generating generator specification ...");
+    LOGGER.info("Writing generator specification ...");
+    for (Schema schema : profiledSchemas) {
+      Writer writer = createWriter(schema, cli);
+      writePrototype(writer);
+    }
+  }
+
+  private static void writePrototype(final Writer writer) throws IOException, SQLException {
+    Span span = Trace.getInstance().start(Phase.PROTOTYPE_WRITING);
+    try {
+      writer.write();
+    } finally {
+      span.stop();
+    }
+  }
+
+  /**
+   * Registers the trace and the live metrics as query listeners of the
+   * connector, if they are enabled.
+   */
+  private static void addQueryListeners(final JdbcConnector connector) {
+    if (Trace.getInstance().isEnabled()) {
+      connector.addQueryListener(Trace.getInstance());
+    }
+    if (ProfilingMetrics.getInstance().isEnabled()) {
+      connector.addQueryListener(ProfilingMetrics.getInstance());
+    }
+  }
+
+  private static void addQueryListeners(final JdbcConnectorPool pool) {
+    if (Trace.getInstance().isEnabled()) {
+      pool.addQueryListener(Trace.getInstance());
+    }
+    if (ProfilingMetrics.getInstance().isEnabled()) {
+      pool.addQueryListener(ProfilingMetrics.getInstance());
+    }
+  }
+
+  /**
+   * Starts the live metrics for the columns of the input schema, registers
+   * them at JMX and starts the progress log if requested.
+   * @return the progress reporter, which has to be stopped after profiling
+   */
+  private static ProgressReporter startMetrics(final DenseSchema inputSchema
+      , final CommandLineInterface cli) {
+    ProfilingMetrics metrics = ProfilingMetrics.getInstance();
+    metrics.start(inputSchema.size());
+    if (cli.isJmxEnabled()) {
+      metrics.register();
+    }
+    ProgressReporter progress = new ProgressReporter(metrics);
+    if (cli.getProgressInterval() > 0) {
+      progress.start(cli.getProgressInterval(), TimeUnit.SECONDS);
+    }
+    return progress;
+  }
+
+  /**
+   * Writes the trace report next to the generator output, if tracing is
+   * enabled.
+   */
+  private static void writeTrace(final CommandLineInterface cli) throws IOException {
+    if (cli.isTraceEnabled()) {
+      new TraceReport(Trace.getInstance()).write(cli.getOutputDirectory()
+          , cli.getGeneratorName());
+    }
+  }
+
+  /**
+   * Profiles the input schema table by table and writes the distribution
+   * (domain) files of each table as soon as it is profiled. Only the column
+   * meta data is kept for the generator prototype, which is written once the
+   * schema is complete, so the distributions of at most one table are held in
+   * memory at a time.
+   * <br />
+   * References are retrieved upfront, since they decide which columns get a
+   * distribution file.
+   */
+  private static void profilePipelined(final DenseSchema inputSchema
+      , final Map<ColumnId, TypeInfo> columnTypes, final SchemaConnector schemaConnector
+      , final TableConnector tableConnector, final ColumnProfilerFactory profilerFactory
+      , final JdbcConnector jdbcConnector, final CommandLineInterface cli)
+          throws SQLException, IOException {
+    for (String schema : inputSchema.schemas()) {
+      Set<Quartet<String, String, String, String>> references =
+          schemaConnector.getReferences(schema);
+      Set<Table> pendingTables = Sets.newLinkedHashSet();
+      for (String table : inputSchema.tablesIn(schema)) {
+        pendingTables.add(new Table(schema, table, 0));
+      }
+      AbstractMyriadWriter distributionWriter =
+          createWriter(new Schema(schema, pendingTables, references), cli);
+      Set<Table> profiledTables = Sets.newLinkedHashSet();
+      for (String table : inputSchema.tablesIn(schema)) {
+        TableProfiler tableProfiler = new TableProfiler(schema, table, tableConnector);
+        for (String column : inputSchema.columnsIn(schema, table)) {
+          ColumnId columnId = new ColumnId(schema, table, column);
+          TypeInfo type = columnTypes.get(columnId);
+          tableProfiler.addColumnProfiler(
+              profilerFactory.create(columnId, type, jdbcConnector));
+        }
+        Table profiledTable = tableProfiler.profile();
+        distributionWriter.writeDistributions(profiledTable);
+        ProfilingMetrics.getInstance().tableReleased(profiledTable);
+        profiledTables.add(profiledTable.withoutDistributions());
+      }
+      LOGGER.info("Writing generator specification for " + schema + " ...");
+      AbstractMyriadWriter writer =
+          createWriter(new Schema(schema, profiledTables, references), cli);
+      writer.setWriteDistributions(false);
+      writePrototype(writer);
+    }
+  }
+
+  /**
+   * Profiles the input schema like {@link #profilePipelined}, but with
+   * <code>threads</code> workers fetching the catalog statistics while the
+   * histograms of already fetched columns are built and their distribution
+   * (domain) files are written, see {@link StagedSchemaProfiler}.
+   */
+  private static void profileStaged(final DenseSchema inputSchema
+      , final Map<ColumnId, TypeInfo> columnTypes, final SchemaConnector schemaConnector
+      , final TableConnector tableConnector, final ColumnProfilerFactory profilerFactory
+      , final String connectionString, final Properties props, final int threads
+      , final CommandLineInterface cli) throws SQLException, IOException {
+    JdbcConnectorPool pool = new JdbcConnectorPool(connectionString, props, threads);
+    addQueryListeners(pool);
+    ExecutorService fetchExecutor = Executors.newFixedThreadPool(threads);
+    ExecutorService buildExecutor = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors());
+    ExecutorService outputExecutor = Executors.newFixedThreadPool(OUTPUT_THREADS);
+    try {
+      for (String schema : inputSchema.schemas()) {
+        Set<Quartet<String, String, String, String>> references =
+            schemaConnector.getReferences(schema);
+        Set<Table> pendingTables = Sets.newLinkedHashSet();
+        for (String table : inputSchema.tablesIn(schema)) {
+          pendingTables.add(new Table(schema, table, 0));
+        }
+        final AbstractMyriadWriter distributionWriter =
+            createWriter(new Schema(schema, pendingTables, references), cli);
+        Function<Column<?>, Column<?>> output = new Function<Column<?>, Column<?>>() {
+          @Override
+          public Column<?> apply(final Column<?> column) {
+            try {
+              distributionWriter.writeDistributions(column);
+            } catch (IOException e) {
+              throw new RuntimeException(e);
+            } catch (SQLException e) {
+              throw new RuntimeException(e);
+            }
+            ProfilingMetrics.getInstance().columnReleased(column);
+            return column.withoutDistribution();
+          }
+        };
+        StagedSchemaProfiler schemaProfiler = new StagedSchemaProfiler(schema, references
+            , tableConnector, profilerFactory, pool, fetchExecutor, buildExecutor
+            , outputExecutor, 2 * threads, output);
+        for (String table : inputSchema.tablesIn(schema)) {
+          schemaProfiler.addTable(table);
+          for (String column : inputSchema.columnsIn(schema, table)) {
+            ColumnId columnId = new ColumnId(schema, table, column);
+            schemaProfiler.addColumn(columnId, columnTypes.get(columnId));
+          }
+        }
+        Schema profiledSchema = schemaProfiler.profile();
+        LOGGER.info("Writing generator specification for " + schema + " ...");
+        AbstractMyriadWriter writer = createWriter(profiledSchema, cli);
+        writer.setWriteDistributions(false);
+        writePrototype(writer);
+      }
+    } finally {
+      fetchExecutor.shutdownNow();
+      buildExecutor.shutdownNow();
+      outputExecutor.shutdownNow();
+      pool.close();
+    }
+  }
+
+  /**
+   * Loads the DB2 catalog statistics for the input schema. Single tables are
+   * loaded on their own, otherwise the statistics of the whole schema are
+   * loaded at once.
+   */
+  private static Db2CatalogSnapshot loadDb2Snapshot(final SparseSchema sparseSchema
+      , final JdbcConnector jdbcConnector) throws SQLException {
+    Db2CatalogSnapshot snapshot = new Db2CatalogSnapshot();
+    for (String schema : sparseSchema.schemas()) {
+      Collection<String> tables = sparseSchema.tablesIn(schema);
+      if (tables.size() == 1) {
+        snapshot.loadTable(jdbcConnector, schema, tables.iterator().next());
+      } else {
+        snapshot.loadSchema(jdbcConnector, schema);
+      }
+    }
+    return snapshot;
+  }
+
+  /**
+   * Reads the DB2 catalog snapshot from the snapshot file, refreshes the
+   * statistics of the input schema and writes the snapshot back. Only tables
+   * whose statistics changed since the snapshot was written are reloaded, this
+   * saves catalog queries but every table of the input schema is profiled and
+   * written as before.
+   */
+  private static Db2CatalogSnapshot refreshDb2Snapshot(final SparseSchema sparseSchema
+      , final JdbcConnector jdbcConnector, final File snapshotFile)
+          throws SQLException, IOException {
+    Db2CatalogSnapshot snapshot = SnapshotStore.read(snapshotFile, Db2CatalogSnapshot.class);
+    if (snapshot == null) {
+      snapshot = new Db2CatalogSnapshot();
+    }
+    for (String schema : sparseSchema.schemas()) {
+      Collection<String> tables = sparseSchema.tablesIn(schema);
+      String table = (tables.size() == 1) ? tables.iterator().next() : null;
+      int reloaded = snapshot.refresh(jdbcConnector, schema, table);
+      LOGGER.info("Reloaded catalog statistics of " + reloaded + " tables in " + schema);
+    }
+    SnapshotStore.write(snapshotFile, snapshot);
+    return snapshot;
+  }
+
+  /**
+   * Reads the Oracle dictionary snapshot from the snapshot file, refreshes the
+   * statistics of the input schema and writes the snapshot back. Only tables
+   * that were analyzed since the snapshot was written are reloaded, this saves
+   * dictionary queries but every table of the input schema is profiled and
+   * written as before.
+   */
+  private static OracleCatalogSnapshot refreshOracleSnapshot(final SparseSchema sparseSchema
+      , final JdbcConnector jdbcConnector, final File snapshotFile)
+          throws SQLException, IOException {
+    OracleCatalogSnapshot snapshot = SnapshotStore.read(snapshotFile, OracleCatalogSnapshot.class);
+    if (snapshot == null) {
+      snapshot = new OracleCatalogSnapshot();
+    }
+    for (String schema : sparseSchema.schemas()) {
+      int reloaded = snapshot.refreshOwner(jdbcConnector, schema);
+      LOGGER.info("Reloaded dictionary statistics of " + reloaded + " tables of " + schema);
+    }
+    SnapshotStore.write(snapshotFile, snapshot);
+    return snapshot;
+  }
+
+  private static File getSnapshotFile(final CommandLineInterface cli) {
+    String fileName = cli.getDatabase() + "." + cli.dbDriver.driverName + ".snapshot";
+    return new File(cli.getOutputDirectory(), fileName);
+  }
+
+  private static Set<Schema> profileSequential(final DenseSchema inputSchema
+      , final Map<ColumnId, TypeInfo> columnTypes, final SchemaConnector schemaConnector
+      , final TableConnector tableConnector, final ColumnProfilerFactory profilerFactory
+      , final JdbcConnector jdbcConnector) throws SQLException {
+    Set<SchemaProfiler> profilers = Sets.newLinkedHashSet();
+    for (String schema : inputSchema.schemas()) {
+      SchemaProfiler schemaProfiler = new SchemaProfiler(schema,
+          schemaConnector);
+      profilers.add(schemaProfiler);
+      for (String table : inputSchema.tablesIn(schema)) {
+        TableProfiler tableProfiler = new TableProfiler(schema, table, tableConnector);
+        schemaProfiler.add(tableProfiler);
+        for (String column : inputSchema.columnsIn(schema, table)) {
+          ColumnId columnId = new ColumnId(schema, table, column);
+          TypeInfo type = columnTypes.get(columnId);
+          ColumnProfiler<?> columnProfiler =
+              profilerFactory.create(columnId, type, jdbcConnector);
+          tableProfiler.addColumnProfiler(columnProfiler);
+        }
+      }
+    }
+    // profiling statistical data
+    Set<Schema> profiledSchemas = Sets.newLinkedHashSet();
+    for (SchemaProfiler schemaProfiler : profilers) {
+      Schema profiledSchema = schemaProfiler.profile();
+      profiledSchemas.add(profiledSchema);
+    }
+    return profiledSchemas;
+  }
+
+  private static Set<Schema> profileParallel(final DenseSchema inputSchema
+      , final Map<ColumnId, TypeInfo> columnTypes, final SchemaConnector schemaConnector
+      , final TableConnector tableConnector, final ColumnProfilerFactory profilerFactory
+      , final String connectionString, final Properties props, final int threads
+      , final AdaptiveLimiter limiter) throws SQLException {
+    JdbcConnectorPool pool = new JdbcConnectorPool(connectionString, props, threads);
+    addQueryListeners(pool);
+    if (limiter != null) {
+      pool.addQueryListener(limiter);
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      Set<Schema> profiledSchemas = Sets.newLinkedHashSet();
+      for (String schema : inputSchema.schemas()) {
+        ParallelSchemaProfiler schemaProfiler = new ParallelSchemaProfiler(schema,
+            schemaConnector, tableConnector, profilerFactory, pool, executor, limiter);
+        for (String table : inputSchema.tablesIn(schema)) {
+          schemaProfiler.addTable(table);
+          for (String column : inputSchema.columnsIn(schema, table)) {
+            ColumnId columnId = new ColumnId(schema, table, column);
+            schemaProfiler.addColumn(columnId, columnTypes.get(columnId));
+          }
+        }
+        profiledSchemas.add(schemaProfiler.profile());
+      }
+      if (limiter != null) {
+        LOGGER.info("Adaptive concurrency: " + limiter);
+      }
+      return profiledSchemas;
+    } finally {
+      executor.shutdownNow();
+      pool.close();
+    }
+  }
+
   public static void main(String[] args) throws TypeNotSupportedException {
     BasicConfigurator.configure();
 
     // TODO create cmdline option for setting logger level
     Logger.getRootLogger().setLevel(Level.INFO);
     CommandLineInterface cli = new CommandLineInterface(args);
+    JdbcConnector jdbcConnector = null;
+    ProgressReporter progress = null;
     try {
       // TODO hard exit if the parsing fails!
       // better catch exceptions and log them
       if (!cli.parse()) {
         System.exit(2);
       }
-      
+      Trace trace = Trace.getInstance();
+      if (cli.isTraceEnabled()) {
+        trace.enable();
+      }
+      if (cli.isJmxEnabled() || cli.getProgressInterval() > 0) {
+        ProfilingMetrics.getInstance().enable();
+      }
+
+      if (cli.getReplayFile() != null) {
+        LOGGER.info("Reading captured catalog ...");
+        CatalogDump dump = SnapshotStore.read(cli.getReplayFile(), CatalogDump.class);
+        if (dump == null) {
+          LOGGER.error("Cannot read captured catalog " + cli.getReplayFile());
+          System.exit(2);
+        }
+        LOGGER.info("Profiling captured catalog ...");
+        profileReplay(dump, cli);
+        writeTrace(cli);
+        return;
+      }
+
       Properties props = new Properties();
       props.setProperty("user", cli.getUsername());
       props.setProperty("password", cli.getPassword());
       Connection connection = DriverManager.getConnection(cli.getConnectionString(), props);
-      JdbcConnector jdbcConnector = new JdbcConnector(connection);
+      jdbcConnector = new JdbcConnector(connection);
+      addQueryListeners(jdbcConnector);
+      SparseSchema sparseSchema = cli.getInputSchema();
       MetaConnector metaConnector = null;
+      Db2CatalogSnapshot db2Snapshot = null;
+      OracleCatalogSnapshot oracleSnapshot = null;
       Driver dbDriver = cli.dbDriver;
+      Span loading = trace.start(Phase.CATALOG_LOADING);
       switch (dbDriver.driverName){
         case db2:
+          LOGGER.info("Loading catalog statistics ...");
+          if (cli.isCacheEnabled()) {
+            db2Snapshot = refreshDb2Snapshot(sparseSchema, jdbcConnector
+                , getSnapshotFile(cli));
+          } else {
+            db2Snapshot = loadDb2Snapshot(sparseSchema, jdbcConnector);
+          }
+          jdbcConnector.setForeignKeyExtractor(new Db2ForeignKeyExtractor());
           LOGGER.trace("metaConnector = Db2MetaConnector");
-          metaConnector = new Db2MetaConnector(jdbcConnector);
+          metaConnector = new Db2MetaConnector(jdbcConnector, db2Snapshot);
           break;
         case oracle:
-          metaConnector = new OracleMetaConnector(jdbcConnector);
+          LOGGER.info("Loading data dictionary statistics ...");
+          if (cli.isCacheEnabled()) {
+            oracleSnapshot = refreshOracleSnapshot(sparseSchema, jdbcConnector
+                , getSnapshotFile(cli));
+          } else {
+            oracleSnapshot = new OracleCatalogSnapshot();
+            for (String schema : sparseSchema.schemas()) {
+              oracleSnapshot.loadOwner(jdbcConnector, schema);
+            }
+          }
+          jdbcConnector.setForeignKeyExtractor(new OracleForeignKeyExtractor());
+          metaConnector = new OracleMetaConnector(jdbcConnector, oracleSnapshot);
           break;
         default:
           LOGGER.error("Unknown database driver. Supported drivers are: " + DriverName.values());
       }
+      loading.stop();
       
       // validating schema
       LOGGER.info("Validating input schema ...");
-      SparseSchema sparseSchema = cli.getInputSchema();
       LOGGER.trace("User specified schema " + sparseSchema);
-      DenseSchema inputSchema = DbUtils.populateSchema(sparseSchema, jdbcConnector, metaConnector);
+      // obtaining type information/ column meta data along the way
+      Span validation = trace.start(Phase.VALIDATION);
+      Pair<DenseSchema, Map<ColumnId, TypeInfo>> resolvedSchema =
+          DbUtils.resolveSchema(sparseSchema, jdbcConnector, metaConnector);
+      validation.stop();
+      DenseSchema inputSchema = resolvedSchema.getLeft();
+      Map<ColumnId, TypeInfo> columnTypes = resolvedSchema.getRight();
       LOGGER.trace("Populated and validated schema " + inputSchema);
 
-      // obtaining type information/ column meta data
-      LOGGER.info("Retrieving column meta data ...");
-      Map<ColumnId, TypeInfo> columnTypes = Maps.newLinkedHashMap();
-      for (ColumnId columnId : inputSchema) {
-      	TypeInfo type = metaConnector.getColumnType(columnId);
-        columnTypes.put(columnId, type);
-      }
-
       // creating connectors and profilers
       LOGGER.info("Establashing database connection ...");
       SchemaConnector schemaConnector = null;
@@ -284,53 +790,58 @@ public class Oligos {
       switch(dbDriver.driverName){
         case db2:
           schemaConnector = new Db2SchemaConnector(jdbcConnector);
-          tableConnector = new Db2TableConnector(jdbcConnector);
+          tableConnector = new Db2TableConnector(jdbcConnector, db2Snapshot);
           break;
         case oracle:
           schemaConnector = new OracleSchemaConnector(jdbcConnector);
-          tableConnector = new OracleTableConnector(jdbcConnector);
+          tableConnector = new OracleTableConnector(jdbcConnector, oracleSnapshot);
       }
-      Set<SchemaProfiler> profilers = Sets.newLinkedHashSet();
-      for (String schema : inputSchema.schemas()) {
-        SchemaProfiler schemaProfiler = new SchemaProfiler(schema,
-            schemaConnector);
-        profilers.add(schemaProfiler);
-        for (String table : inputSchema.tablesIn(schema)) {
-          TableProfiler tableProfiler = new TableProfiler(schema, table, tableConnector);
-          schemaProfiler.add(tableProfiler);
-          for (String column : inputSchema.columnsIn(schema, table)) {
-            ColumnId columnId = new ColumnId(schema, table, column);
-            TypeInfo type = columnTypes.get(columnId);
-            ColumnProfiler<?> columnProfiler = null;
-            switch(dbDriver.driverName){
-            case db2:
-                columnProfiler = getProfiler(schema, table, column, type, jdbcConnector, metaConnector);
-                break;
-            case oracle:
-                columnProfiler = getProfilerOracle(schema, table, column, type, jdbcConnector, metaConnector);
-            }
-            tableProfiler.addColumnProfiler(columnProfiler);
+      if (cli.getCaptureFile() != null) {
+        LOGGER.info("Capturing catalog ...");
+        Serializable snapshot = (db2Snapshot != null) ? db2Snapshot : oracleSnapshot;
+        CatalogDump dump = CatalogDump.capture(dbDriver.driverName, snapshot, inputSchema
+            , columnTypes, metaConnector, tableConnector, schemaConnector);
+        SnapshotStore.write(cli.getCaptureFile(), dump);
+      }
+      ColumnProfilerFactory profilerFactory = getProfilerFactory(dbDriver.driverName
+          , db2Snapshot, oracleSnapshot);
+      progress = startMetrics(inputSchema, cli);
+      int threads = cli.getThreads();
+      if (cli.isPipelineEnabled()) {
+        if (cli.isAdaptive()) {
+          LOGGER.warn("Ignoring adaptive concurrency in pipeline mode");
+        }
+        if (threads > 1) {
+          LOGGER.info("Profiling schema in stages using " + threads + " workers ...");
+          profileStaged(inputSchema, columnTypes, schemaConnector, tableConnector
+              , profilerFactory, cli.getConnectionString(), props, threads, cli);
+        } else {
+          LOGGER.info("Profiling schema table by table ...");
+          profilePipelined(inputSchema, columnTypes, schemaConnector, tableConnector
+              , profilerFactory, jdbcConnector, cli);
+        }
+      } else {
+        Set<Schema> profiledSchemas = null;
+        if (threads > 1) {
+          AdaptiveLimiter limiter = null;
+          if (cli.isAdaptive()) {
+            LOGGER.info("Profiling schema using " + cli.getAdaptiveFloor() + " to " + threads
+                + " workers ...");
+            limiter = new AdaptiveLimiter(cli.getAdaptiveFloor(), threads);
+          } else {
+            LOGGER.info("Profiling schema using " + threads + " workers ...");
           }
+          profiledSchemas = profileParallel(inputSchema, columnTypes, schemaConnector
+              , tableConnector, profilerFactory, cli.getConnectionString(), props, threads
+              , limiter);
+        } else {
+          LOGGER.info("Profiling schema ...");
+          profiledSchemas = profileSequential(inputSchema, columnTypes, schemaConnector
+              , tableConnector, profilerFactory, jdbcConnector);
         }
+        writeSpecification(profiledSchemas, cli);
       }
-      // profiling statistical data
-      LOGGER.info("Profiling schema ...");
-      Set<Schema> profiledSchemas = Sets.newLinkedHashSet();
-      for (SchemaProfiler schemaProfiler : profilers) {
-        Schema profiledSchema = schemaProfiler.profile();
-        profiledSchemas.add(profiledSchema);
-      }
-      
-      LOGGER.info("Generating generator specification ...");
-      File outputDir = cli.getOutputDirectory();
-      String generatorName = cli.getGeneratorName();
-      LOGGER.info("Writing generator specification ...");
-      for (Schema schema : profiledSchemas) {
-        MyriadWriter writer = new MyriadWriter(schema, outputDir, generatorName);
-        writer.write();
-      }
-      LOGGER.info("Closing database connection ...");
-      connection.close();
+      writeTrace(cli);
     } catch (SQLException e) {
       LOGGER.error(e.getLocalizedMessage());
       LOGGER.debug(ExceptionUtils.getStackTrace(e));
@@ -340,6 +851,19 @@ public class Oligos {
     } catch (ParseException e) {
       LOGGER.error(e.getMessage());
       cli.printHelpMessage();
+    } finally {
+      if (progress != null) {
+        progress.stop();
+      }
+      if (jdbcConnector != null) {
+        LOGGER.info("Closing database connection ...");
+        try {
+          jdbcConnector.close();
+        } catch (SQLException e) {
+          LOGGER.error(e.getLocalizedMessage());
+          LOGGER.debug(ExceptionUtils.getStackTrace(e));
+        }
+      }
     }
   }
   
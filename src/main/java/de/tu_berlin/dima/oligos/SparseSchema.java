@@ -22,6 +22,8 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+
 public class SparseSchema {
   
   private final Map<String, Map<String, Set<String>>> schemas;
@@ -72,6 +74,30 @@ public class SparseSchema {
     }
   }
 
+  /**
+   * Checks whether the column is part of the schema, i.e. its schema is
+   * given and either without tables or with the column's table, which in
+   * turn is either without columns or with the column.
+   * @param columnId the column to check
+   * @return <code>true</code> if the schema covers the column
+   * @since 0.3.1
+   */
+  public boolean contains(final ColumnId columnId) {
+    String schema = columnId.getSchema();
+    String table = columnId.getTable();
+    if (!schemas().contains(schema)) {
+      return false;
+    }
+    if (tablesIn(schema).isEmpty()) {
+      return true;
+    }
+    if (!tablesIn(schema).contains(table)) {
+      return false;
+    }
+    Set<String> columns = columnsIn(schema, table);
+    return columns.isEmpty() || columns.contains(columnId.getColumn());
+  }
+
   @Override
   public String toString() {
     return schemas.toString();
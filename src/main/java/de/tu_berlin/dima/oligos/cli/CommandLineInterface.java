@@ -34,9 +34,30 @@ public class CommandLineInterface {
       .addOption("P", "port", true, "Database port")
       .addOption("o", "output", true, "Path to the output folder")
       .addOption("g", "generator", true, "Name of the generator")
+      .addOption("t", "threads", true, "Number of parallel profiling workers (default 1)")
+      .addOption("", "adaptive", true, "Adapt the number of concurrently profiled columns "
+          + "to the catalog query latency, between the given floor and --threads")
+      .addOption("c", "cache", false, "Cache the catalog statistics in the output folder "
+          + "and only reload the statistics of tables that changed since the last run, "
+          + "all tables are still profiled and written")
+      .addOption("", "capture", true, "Write the catalog statistics of the input schema "
+          + "to the given file for a later replay")
+      .addOption("", "replay", true, "Profile from a file written by --capture instead of "
+          + "connecting to a database, the schema argument is optional")
+      .addOption("", "stream", false, "Write the generator prototype as a stream instead "
+          + "of building it in memory, recommended for large schemas")
+      .addOption("", "pipeline", false, "Write the distributions of each table as soon as "
+          + "it is profiled and only keep the column meta data afterwards, "
+          + "with several threads fetching, histogram building, and writing overlap")
+      .addOption("", "trace", false, "Write a report of the time spent per phase, catalog "
+          + "query kind, and column next to the generator output")
+      .addOption("", "jmx", false, "Expose live profiling metrics through JMX")
+      .addOption("", "progress", true, "Log the profiling progress every given number "
+          + "of seconds")
       .addOption("", "help", false, "Show help");
   private static final String USAGE = Oligos.class.getSimpleName() +
-      " -u <user> -h <host> -d <database> -p <port> -g <generator name> [-j <db driver flag>] SCHEMA";
+      " -u <user> -h <host> -d <database> -p <port> -g <generator name> [-j <db driver flag>] SCHEMA\n" +
+      Oligos.class.getSimpleName() + " --replay <file> -o <output> -g <generator name> [SCHEMA]";
   private static final String HEADER = Oligos.class.getSimpleName()
       + " is a application to infer statistical information from a database catalog.";
 
@@ -53,6 +74,16 @@ public class CommandLineInterface {
   private File outputDirectory;
   private String generatorName;
   private SparseSchema inputSchema;
+  private int threads;
+  private int adaptiveFloor;
+  private boolean cacheEnabled;
+  private File captureFile;
+  private File replayFile;
+  private boolean streamingEnabled;
+  private boolean pipelineEnabled;
+  private boolean traceEnabled;
+  private boolean jmxEnabled;
+  private int progressInterval;
   public Driver dbDriver;
 	 
   public CommandLineInterface(String[] args) {
@@ -68,21 +99,39 @@ public class CommandLineInterface {
     CommandLineParser parser = new PosixParser();
     commandLine = parser.parse(OPTS, inputString);
     if (checkOptions(commandLine, helpFormatter)) {
-      // get database credentials
-      this.hostname = commandLine.getOptionValue("hostname");
-      this.port = Integer.parseInt(commandLine.getOptionValue("port"));
-      this.database = commandLine.getOptionValue("database");
-      // use DB2_JDBC or Oracle_JDBC driver
-      this.dbDriver = new Driver(commandLine.getOptionValue("jdbc"));
-      this.username = commandLine.getOptionValue("username");
-      this.password = commandLine.getOptionValue("password");
+      if (commandLine.hasOption("replay")) {
+        this.replayFile = new File(commandLine.getOptionValue("replay"));
+      } else {
+        // get database credentials
+        this.hostname = commandLine.getOptionValue("hostname");
+        this.port = Integer.parseInt(commandLine.getOptionValue("port"));
+        this.database = commandLine.getOptionValue("database");
+        // use DB2_JDBC or Oracle_JDBC driver
+        this.dbDriver = new Driver(commandLine.getOptionValue("jdbc"));
+        this.username = commandLine.getOptionValue("username");
+        this.password = commandLine.getOptionValue("password");
+      }
+      if (commandLine.hasOption("capture")) {
+        this.captureFile = new File(commandLine.getOptionValue("capture"));
+      }
       //this.jdbcConnector = new JdbcConnector(hostname, port, database, dbDriver);
       // get output information
       this.outputDirectory = new File(commandLine.getOptionValue("output"));
       this.generatorName = commandLine.getOptionValue("generator");
+      // get the number of profiling workers
+      this.threads = Integer.parseInt(commandLine.getOptionValue("threads", "1"));
+      this.adaptiveFloor = Integer.parseInt(commandLine.getOptionValue("adaptive", "0"));
+      this.cacheEnabled = commandLine.hasOption("cache");
+      this.streamingEnabled = commandLine.hasOption("stream");
+      this.pipelineEnabled = commandLine.hasOption("pipeline");
+      this.traceEnabled = commandLine.hasOption("trace");
+      this.jmxEnabled = commandLine.hasOption("jmx");
+      this.progressInterval = Integer.parseInt(commandLine.getOptionValue("progress", "0"));
       // get the input schema
       String schemaSequence = StringUtils.join(commandLine.getArgs());
-      this.inputSchema = SchemaParser.parse(schemaSequence);
+      if (replayFile == null || !schemaSequence.isEmpty()) {
+        this.inputSchema = SchemaParser.parse(schemaSequence);
+      }
       return true;
     } else {
       return false;
@@ -126,6 +175,73 @@ public class CommandLineInterface {
     return inputSchema;
   }
 
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * Checks whether the number of concurrently profiled columns adapts to the
+   * catalog query latency.
+   * @since 0.3.1
+   */
+  public boolean isAdaptive() {
+    return adaptiveFloor > 0;
+  }
+
+  /**
+   * Returns the lowest number of concurrently profiled columns in adaptive
+   * mode, the highest is {@link #getThreads()}.
+   * @since 0.3.1
+   */
+  public int getAdaptiveFloor() {
+    return adaptiveFloor;
+  }
+
+  public boolean isCacheEnabled() {
+    return cacheEnabled;
+  }
+
+  public boolean isStreamingEnabled() {
+    return streamingEnabled;
+  }
+
+  public boolean isPipelineEnabled() {
+    return pipelineEnabled;
+  }
+
+  public boolean isTraceEnabled() {
+    return traceEnabled;
+  }
+
+  public boolean isJmxEnabled() {
+    return jmxEnabled;
+  }
+
+  /**
+   * Returns the period of the progress log in seconds.
+   * @return the period or 0 if no progress is logged
+   * @since 0.3.1
+   */
+  public int getProgressInterval() {
+    return progressInterval;
+  }
+
+  /**
+   * Returns the file the catalog is captured to.
+   * @return the capture file or <code>null</code> if nothing is captured
+   */
+  public File getCaptureFile() {
+    return captureFile;
+  }
+
+  /**
+   * Returns the captured catalog file to profile from.
+   * @return the replay file or <code>null</code> if a database is profiled
+   */
+  public File getReplayFile() {
+    return replayFile;
+  }
+
   public void printHelpMessage() {
     helpFormatter.printHelp(Oligos.class.getSimpleName() + " <options> <schema>", OPTS);
   }
@@ -135,6 +251,14 @@ public class CommandLineInterface {
       formatter.printHelp(USAGE, HEADER, OPTS, "");
       return false;
     }
+    if (cmd.hasOption("replay")) {
+      if (cmd.hasOption("capture") || cmd.hasOption("cache")) {
+        System.out.println("Replay cannot be combined with capture or cache");
+        formatter.printHelp(USAGE, HEADER, OPTS, "");
+        return false;
+      }
+      return checkOutputOptions(cmd, formatter);
+    }
     if (!cmd.hasOption("username")) {
       System.out
           .println("Please specify a username for the database connection");
@@ -158,16 +282,6 @@ public class CommandLineInterface {
       formatter.printHelp(Oligos.class.getSimpleName(), OPTS);
       return false;
     }
-    if (!cmd.hasOption("generator")) {
-      System.out.println("Please specify data generator name");
-      formatter.printHelp(USAGE, HEADER, OPTS, "");
-      return false;
-    }
-    if (!cmd.hasOption("output")) {
-      System.out.println("Please specify output directory");
-      formatter.printHelp(USAGE, HEADER, OPTS, "");
-      return false;
-    }
     if (!cmd.hasOption("password")) {
       System.out
           .println("Please specify a password for the database connection");
@@ -180,6 +294,47 @@ public class CommandLineInterface {
     	return false;
     }
 
+    return checkOutputOptions(cmd, formatter);
+  }
+
+  private static boolean checkOutputOptions(CommandLine cmd, HelpFormatter formatter) {
+    if (!cmd.hasOption("generator")) {
+      System.out.println("Please specify data generator name");
+      formatter.printHelp(USAGE, HEADER, OPTS, "");
+      return false;
+    }
+    if (!cmd.hasOption("output")) {
+      System.out.println("Please specify output directory");
+      formatter.printHelp(USAGE, HEADER, OPTS, "");
+      return false;
+    }
+    if (cmd.hasOption("threads")) {
+      String threads = cmd.getOptionValue("threads");
+      if (!StringUtils.isNumeric(threads) || Integer.parseInt(threads) < 1) {
+        System.out.println("Please specify a positive number of threads");
+        formatter.printHelp(Oligos.class.getSimpleName(), OPTS);
+        return false;
+      }
+    }
+    if (cmd.hasOption("progress")) {
+      String interval = cmd.getOptionValue("progress");
+      if (!StringUtils.isNumeric(interval) || Integer.parseInt(interval) < 1) {
+        System.out.println("Please specify a positive progress interval in seconds");
+        formatter.printHelp(Oligos.class.getSimpleName(), OPTS);
+        return false;
+      }
+    }
+    if (cmd.hasOption("adaptive")) {
+      String floor = cmd.getOptionValue("adaptive");
+      String threads = cmd.getOptionValue("threads", "1");
+      if (!StringUtils.isNumeric(floor) || Integer.parseInt(floor) < 1
+          || Integer.parseInt(floor) > Integer.parseInt(threads)) {
+        System.out.println("Please specify a positive adaptive floor of at most the number "
+            + "of threads");
+        formatter.printHelp(Oligos.class.getSimpleName(), OPTS);
+        return false;
+      }
+    }
     return true;
   }
 }
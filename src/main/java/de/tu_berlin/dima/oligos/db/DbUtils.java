@@ -18,15 +18,19 @@ package de.tu_berlin.dima.oligos.db;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.math.util.MultidimensionalCounter.Iterator;
 import org.apache.log4j.Logger;
 
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import de.tu_berlin.dima.oligos.DenseSchema;
 import de.tu_berlin.dima.oligos.SparseSchema;
 import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
 
 
 public class DbUtils {
@@ -65,50 +69,78 @@ public class DbUtils {
 	 */
   public static DenseSchema populateSchema(SparseSchema sparseSchema, JdbcConnector connector, MetaConnector metaConnector)
       throws SQLException {
+    return resolveSchema(sparseSchema, connector, metaConnector).getLeft();
+  }
+
+  /**
+   * Validates the input schema against the catalog and retrieves the type
+   * information of its columns at the same time.
+   * <br />
+   * Instead of checking every schema, table, and column on its own, all
+   * columns of a schema are read with a single meta data call, the tables
+   * and columns of the input schema are then looked up in memory. Columns
+   * without statistics are skipped with a warning, the meta connector should
+   * therefore answer {@link MetaConnector#hasStatistics(ColumnId)} from a
+   * catalog snapshot.
+   *
+   * @param sparseSchema The input schema
+   * @param connector Connector for the catalog meta data
+   * @param metaConnector Connector for the column statistics
+   * @return the validated schema and the type information of its columns
+   * @throws SQLException if a database access error occurs
+   * @since 0.3.1
+   */
+  public static Pair<DenseSchema, Map<ColumnId, TypeInfo>> resolveSchema(
+      SparseSchema sparseSchema, JdbcConnector connector, MetaConnector metaConnector)
+      throws SQLException {
     DenseSchema denseSchema = new DenseSchema();
+    Map<ColumnId, TypeInfo> columnTypes = Maps.newLinkedHashMap();
     for (String schema : sparseSchema.schemas()) {
-      if (connector.checkSchema(schema)) {
-        // Get the tables from the schema
-        Collection<String> tables = sparseSchema.tablesIn(schema);
-        if (tables.isEmpty()) {
-          tables = connector.getTables(schema);
+      Map<ColumnId, TypeInfo> catalog = connector.typeQuery(schema);
+      if (catalog.isEmpty() && !connector.checkSchema(schema)) {
+        LOGGER.error("schema does not exist");
+        System.exit(-1);
+      }
+      // catalog columns by table, in catalog order
+      Map<String, Set<String>> catalogTables = Maps.newLinkedHashMap();
+      for (ColumnId columnId : catalog.keySet()) {
+        Set<String> columns = catalogTables.get(columnId.getTable());
+        if (columns == null) {
+          columns = Sets.newLinkedHashSet();
+          catalogTables.put(columnId.getTable(), columns);
+        }
+        columns.add(columnId.getColumn());
+      }
+      Collection<String> tables = sparseSchema.tablesIn(schema);
+      if (tables.isEmpty()) {
+        tables = catalogTables.keySet();
+      }
+      for (String table : tables) {
+        Set<String> catalogColumns = catalogTables.get(table);
+        if (catalogColumns == null) {
+          LOGGER.error("table does not exist for given schema");
+          System.exit(-1);
+        }
+        Collection<String> columns = sparseSchema.columnsIn(schema, table);
+        if (columns.isEmpty()) {
+          columns = catalogColumns;
         }
-        for (String table : tables) {
-          if (connector.checkTable(schema, table)) {
-            // Get the columns from the schema
-            Collection<String> columns = sparseSchema.columnsIn(schema, table);
-            if (columns.isEmpty()) {
-              columns = connector.getColumns(schema, table);
-            }
-            for (String column : columns) {
-              if (connector.checkColumn(schema, table, column)) {
-                if (metaConnector.hasStatistics(schema, table, column)) {
-                  denseSchema.addColumn(new ColumnId(schema, table, column));
-                } else {
-                  Logger logger = Logger.getLogger(DbUtils.class);
-                  logger.warn(
-                      "No statistics available for " + schema + "." + table + "." + column);
-                }
-              }
-              else{
-              	LOGGER.error("column does not exist for given schema and table");
-              	System.exit(-1);
-                
-              }
-            }
+        for (String column : columns) {
+          if (!catalogColumns.contains(column)) {
+            LOGGER.error("column does not exist for given schema and table");
+            System.exit(-1);
           }
-          else{
-          	LOGGER.error("table does not exist for given schema");
-          	System.exit(-1);
+          if (metaConnector.hasStatistics(schema, table, column)) {
+            ColumnId columnId = new ColumnId(schema, table, column);
+            denseSchema.addColumn(columnId);
+            columnTypes.put(columnId, catalog.get(columnId));
+          } else {
+            LOGGER.warn("No statistics available for " + schema + "." + table + "." + column);
           }
         }
       }
-      else{
-      	LOGGER.error("schema does not exist");
-      	System.exit(-1);
-      }
     }
-    return denseSchema;
+    return Pair.of(denseSchema, columnTypes);
   }
 
   public static Map<ColumnId, Boolean> validateSchema(DenseSchema schema,
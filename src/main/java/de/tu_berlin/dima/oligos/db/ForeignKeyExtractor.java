@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db;
+
+import static de.tu_berlin.dima.oligos.db.JdbcConstants.Keys.*;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Set;
+
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.javatuples.Quartet;
+
+import com.google.common.collect.Sets;
+
+import de.tu_berlin.dima.oligos.db.constraints.ForeignKey;
+import de.tu_berlin.dima.oligos.db.handler.jdbc.ForeignKeyBuilderHandler;
+import de.tu_berlin.dima.oligos.db.reference.SchemaRef;
+
+/**
+ * Reads foreign keys from the vendor specific catalog with a single query,
+ * instead of one <code>DatabaseMetaData</code> call per table or pair of
+ * tables. A {@link JdbcConnector} uses the extractor if one is set and falls
+ * back to <code>DatabaseMetaData</code> otherwise.
+ * <br />
+ * Both queries return one row per foreign key column with the column names of
+ * {@link JdbcConstants.Keys}, ordered by child schema, child table, foreign
+ * key name, and key sequence.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public abstract class ForeignKeyExtractor {
+
+  /**
+   * Returns the query for all foreign keys of the database.
+   */
+  protected abstract String getForeignKeysQuery();
+
+  /**
+   * Returns the query for all foreign keys, whose child or parent is in the
+   * schema. The first parameter is the child schema and the second parameter
+   * is the parent schema.
+   */
+  protected abstract String getSchemaForeignKeysQuery();
+
+  /**
+   * Retrieves all foreign keys of the database.
+   * @param connector Connector to the database
+   * @return all foreign keys
+   * @throws SQLException if a database access error occurs
+   */
+  public Set<ForeignKey> getForeignKeys(final JdbcConnector connector)
+      throws SQLException {
+    return connector.query(getForeignKeysQuery(), new ForeignKeyBuilderHandler());
+  }
+
+  /**
+   * Retrieves all foreign keys, where the schema is either the parent schema,
+   * the child schema, or both.
+   * @param connector Connector to the database
+   * @param schema The schema to get the foreign keys for
+   * @return all foreign keys for the schema
+   * @throws SQLException if a database access error occurs
+   */
+  public Set<ForeignKey> getForeignKeys(final JdbcConnector connector
+      , final SchemaRef schema) throws SQLException {
+    String schemaName = schema.getSchemaName();
+    return connector.query(getSchemaForeignKeysQuery(), new ForeignKeyBuilderHandler()
+        , schemaName, schemaName);
+  }
+
+  /**
+   * Retrieves the references of all foreign keys, whose parent is in the
+   * schema, as (parent table, parent column, child table, child column).
+   * @param connector Connector to the database
+   * @param schema The parent schema
+   * @return the references column by column
+   * @throws SQLException if a database access error occurs
+   */
+  public Set<Quartet<String, String, String, String>> getReferences(
+      final JdbcConnector connector, final String schema) throws SQLException {
+    return connector.query(getSchemaForeignKeysQuery(), new ReferencesHandler(schema)
+        , schema, schema);
+  }
+
+  private static final class ReferencesHandler
+      implements ResultSetHandler<Set<Quartet<String, String, String, String>>> {
+
+    private final String parentSchema;
+
+    public ReferencesHandler(final String parentSchema) {
+      this.parentSchema = parentSchema;
+    }
+
+    @Override
+    public Set<Quartet<String, String, String, String>> handle(final ResultSet rs)
+        throws SQLException {
+      Set<Quartet<String, String, String, String>> references = Sets.newHashSet();
+      while (rs.next()) {
+        if (parentSchema.equals(rs.getString(PARENT_SCHEMA))) {
+          references.add(new Quartet<String, String, String, String>(
+              rs.getString(PARENT_TABLE),
+              rs.getString(PARENT_COLUMN),
+              rs.getString(CHILD_TABLE),
+              rs.getString(CHILD_COLUMN)));
+        }
+      }
+      return references;
+    }
+  }
+}
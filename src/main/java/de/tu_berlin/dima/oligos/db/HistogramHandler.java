@@ -22,6 +22,7 @@ import org.apache.commons.dbutils.ResultSetHandler;
 import com.google.common.collect.Maps;
 
 import de.tu_berlin.dima.oligos.type.util.parser.Parser;
+import de.tu_berlin.dima.oligos.type.util.parser.Parsers;
 
 public class HistogramHandler<T> implements ResultSetHandler<Map<T, Long>> {
 
@@ -56,11 +57,14 @@ public class HistogramHandler<T> implements ResultSetHandler<Map<T, Long>> {
   @Override
   public Map<T, Long> handle(ResultSet rs) throws SQLException {
     Map<T, Long> mostFrequentValues = Maps.newLinkedHashMap();
+    // resolve the column names once instead of for every row
+    int keyIndex = (keyColumnName != null) ? rs.findColumn(keyColumnName) : keyColumnIndex;
+    int valIndex = (valColumnName != null) ? rs.findColumn(valColumnName) : valColumnIndex;
     while (rs.next()) {
-    	String colvalue = (keyColumnName != null) ? rs.getString(keyColumnName) : rs.getString(keyColumnIndex) ;
+      String colvalue = rs.getString(keyIndex);
       if (colvalue != null) {
-      	T value = parser.fromString(colvalue.replaceAll("'", ""));
-        long count = (valColumnName != null) ? rs.getLong(valColumnName) : rs.getLong(valColumnIndex);
+        T value = parser.fromString(Parsers.removeAllQuotes(colvalue));
+        long count = rs.getLong(valIndex);
         mostFrequentValues.put(value, count);
       }
     }
@@ -22,15 +22,23 @@ import static de.tu_berlin.dima.oligos.util.Predicates.hasChildSchema;
 import static de.tu_berlin.dima.oligos.util.Predicates.hasParent;
 import static de.tu_berlin.dima.oligos.util.Predicates.hasParentSchema;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.dbutils.DbUtils;
 import org.apache.commons.dbutils.QueryRunner;
@@ -41,8 +49,10 @@ import org.apache.commons.dbutils.handlers.ScalarHandler;
 import org.apache.log4j.Logger;
 import org.javatuples.Quartet;
 
+import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import de.tu_berlin.dima.oligos.db.constraints.ForeignKey;
@@ -55,6 +65,7 @@ import de.tu_berlin.dima.oligos.db.reference.EmptyRef;
 import de.tu_berlin.dima.oligos.db.reference.SchemaRef;
 import de.tu_berlin.dima.oligos.db.reference.TableRef;
 import de.tu_berlin.dima.oligos.type.Types;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
 import de.tu_berlin.dima.oligos.type.util.TypeInfo;
 import de.tu_berlin.dima.oligos.type.util.parser.Parser;
 
@@ -71,8 +82,23 @@ public class JdbcConnector {
 
   private static final Logger LOGGER = Logger.getLogger(JdbcConnector.class);
  
+  /**
+   * Default number of prepared statements kept per connection.
+   */
+  public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+  // FIXME remove flag from call to QueryRunner constructor
+  // temporary fix to circumvent DBUTILS-117
+  // see https://issues.apache.org/jira/browse/DBUTILS-117
+  private static final QueryRunner RUNNER = new QueryRunner(true);
+
   private final Connection connection;
   private final DatabaseMetaData metaData;
+  private final Map<String, PreparedStatement> statements;
+  private final AtomicLong statementCacheHits;
+  private final AtomicLong statementCacheMisses;
+  private ForeignKeyExtractor foreignKeyExtractor;
+  private final List<QueryListener> queryListeners;
 
   /**
    * Returns a new JdbcConnector wrapping the connection and caches the
@@ -83,8 +109,34 @@ public class JdbcConnector {
    * @since 0.3.1
    */
   public JdbcConnector(final Connection connection) throws SQLException {
+    this(connection, DEFAULT_STATEMENT_CACHE_SIZE);
+  }
+
+  /**
+   * Returns a new JdbcConnector wrapping the connection, that keeps up to
+   * <code>statementCacheSize</code> prepared statements open. Queries are
+   * prepared once and reused for every further execution, the least recently
+   * used statement is closed if the cache is full.
+   * <br />
+   * Like the wrapped connection, a JdbcConnector must not be used by several
+   * threads at the same time.
+   * @param connection
+   * @param statementCacheSize maximum number of cached prepared statements
+   * @throws SQLException if there occurs an error while retrieving the database
+   *  meta data through the connection.
+   * @since 0.3.1
+   */
+  public JdbcConnector(final Connection connection, final int statementCacheSize)
+      throws SQLException {
+    Preconditions.checkArgument(statementCacheSize > 0,
+        "statement cache size must be positive");
     this.connection = connection;
     this.metaData = connection.getMetaData();
+    this.statements = new StatementCache(statementCacheSize);
+    this.statementCacheHits = new AtomicLong();
+    this.statementCacheMisses = new AtomicLong();
+    this.foreignKeyExtractor = null;
+    this.queryListeners = new CopyOnWriteArrayList<QueryListener>();
   }
 
   /**
@@ -97,6 +149,37 @@ public class JdbcConnector {
     return connection;
   }
 
+  /**
+   * Sets the extractor that reads foreign keys from the vendor specific catalog
+   * with one query per schema. Without an extractor, or if the extractor
+   * fails, foreign keys are retrieved table by table through
+   * <code>DatabaseMetaData</code>.
+   * @param foreignKeyExtractor the extractor or <code>null</code>
+   * @since 0.3.1
+   */
+  public void setForeignKeyExtractor(final ForeignKeyExtractor foreignKeyExtractor) {
+    this.foreignKeyExtractor = foreignKeyExtractor;
+  }
+
+  public ForeignKeyExtractor getForeignKeyExtractor() {
+    return foreignKeyExtractor;
+  }
+
+  /**
+   * Adds a listener that is notified with the elapsed time and the number of
+   * rows of every query executed through {@link #query}, {@link #scalarQuery},
+   * {@link #mapQuery}, and {@link #histogramQuery}.
+   * @param queryListener the listener
+   * @since 0.3.1
+   */
+  public void addQueryListener(final QueryListener queryListener) {
+    queryListeners.add(Preconditions.checkNotNull(queryListener));
+  }
+
+  public void removeQueryListener(final QueryListener queryListener) {
+    queryListeners.remove(queryListener);
+  }
+
   /******************************************************************************
    * RELATIONS AND ATTRIBUTES
    *****************************************************************************/
@@ -238,6 +321,13 @@ public class JdbcConnector {
    */
   @Deprecated
   public Set<Quartet<String, String, String, String>> getReferences(final String schema) throws SQLException{
+    if (foreignKeyExtractor != null) {
+      try {
+        return foreignKeyExtractor.getReferences(this, schema);
+      } catch (SQLException e) {
+        logExtractorFailure(e);
+      }
+    }
     Set<Quartet<String, String, String, String>> references = Sets.newHashSet();
     ResultSet result;
     Collection<String> tables = this.getTables(schema);
@@ -277,6 +367,10 @@ public class JdbcConnector {
    */
   public Set<ForeignKey> getForeignKeys(
       final SchemaRef schema) throws SQLException {
+    Set<ForeignKey> extracted = extractForeignKeys(schema);
+    if (extracted != null) {
+      return extracted;
+    }
     Set<ForeignKey> fKeys = Sets.newHashSet();
     fKeys.addAll(getImportedKeys(schema));
     fKeys.addAll(getExportedKeys(schema));
@@ -316,7 +410,14 @@ public class JdbcConnector {
    * @see {@link ForeignKey}, {@link #getForeignKeys()}
    */
   public Set<ForeignKey> getCrossReferences() throws SQLException {
-    // TODO increase performance
+    if (foreignKeyExtractor != null) {
+      try {
+        return foreignKeyExtractor.getForeignKeys(this);
+      } catch (SQLException e) {
+        logExtractorFailure(e);
+      }
+    }
+    // quadratic number of meta data calls, only used as fallback
     Set<ForeignKey> fKeys = Sets.newHashSet();
     TableRef[] tables = getTables().toArray(new TableRef[1]);
     int length = tables.length;
@@ -341,6 +442,17 @@ public class JdbcConnector {
   public Set<ForeignKey> getCrossReferences(
       final SchemaRef firstSchema,
       final SchemaRef secondSchema) throws SQLException {
+    Set<ForeignKey> extracted = extractForeignKeys(firstSchema);
+    if (extracted != null) {
+      Set<ForeignKey> fKeys = Sets.newHashSet();
+      for (ForeignKey fKey : extracted) {
+        if ((isIn(fKey.getChild(), firstSchema) && isIn(fKey.getParent(), secondSchema))
+            || (isIn(fKey.getChild(), secondSchema) && isIn(fKey.getParent(), firstSchema))) {
+          fKeys.add(fKey);
+        }
+      }
+      return fKeys;
+    }
     Set<ForeignKey> fKeys = Sets.newHashSet();
     Collection<TableRef> firstTables = getTables(firstSchema);
     Collection<TableRef> secondTables = getTables(secondSchema);
@@ -391,6 +503,16 @@ public class JdbcConnector {
    */
   public Set<ForeignKey> getImportedKeys(
       final SchemaRef schema) throws SQLException {
+    Set<ForeignKey> extracted = extractForeignKeys(schema);
+    if (extracted != null) {
+      Set<ForeignKey> fKeys = Sets.newHashSet();
+      for (ForeignKey fKey : extracted) {
+        if (isIn(fKey.getChild(), schema) && !isIn(fKey.getParent(), schema)) {
+          fKeys.add(fKey);
+        }
+      }
+      return fKeys;
+    }
     Set<ForeignKey> fKeys = Sets.newHashSet();
     Predicate<ResultSet> pred =
         and(hasChildSchema(schema), not(hasParentSchema(schema)));
@@ -434,6 +556,16 @@ public class JdbcConnector {
    */
   public Set<ForeignKey> getExportedKeys(
       final SchemaRef schema) throws SQLException {
+    Set<ForeignKey> extracted = extractForeignKeys(schema);
+    if (extracted != null) {
+      Set<ForeignKey> fKeys = Sets.newHashSet();
+      for (ForeignKey fKey : extracted) {
+        if (isIn(fKey.getParent(), schema) && !isIn(fKey.getChild(), schema)) {
+          fKeys.add(fKey);
+        }
+      }
+      return fKeys;
+    }
     Set<ForeignKey> fKeys = Sets.newHashSet();
     Predicate<ResultSet> pred =
         and(hasParentSchema(schema), not(hasChildSchema(schema)));
@@ -466,6 +598,32 @@ public class JdbcConnector {
     return handler.handle(rs);
   }
 
+  /**
+   * Retrieves all foreign keys of the schema through the
+   * {@link ForeignKeyExtractor}.
+   * @return the foreign keys or <code>null</code> if there is no extractor or
+   *  the extractor failed
+   */
+  private Set<ForeignKey> extractForeignKeys(final SchemaRef schema) {
+    if (foreignKeyExtractor != null) {
+      try {
+        return foreignKeyExtractor.getForeignKeys(this, schema);
+      } catch (SQLException e) {
+        logExtractorFailure(e);
+      }
+    }
+    return null;
+  }
+
+  private void logExtractorFailure(final SQLException e) {
+    LOGGER.warn("Cannot read foreign keys from the catalog, falling back to "
+        + "database meta data: " + e.getLocalizedMessage());
+  }
+
+  private static boolean isIn(final TableRef table, final SchemaRef schema) {
+    return table.getSchemaName().equals(schema.getSchemaName());
+  }
+
   /**
    * @deprecated As of version 0.3.1, replaced by {@link #hasSchema(SchemaRef)}.
    * @param schema
@@ -548,20 +706,50 @@ public class JdbcConnector {
    *****************************************************************************/
   
   /**
-   * @deprecated As of 0.3.1, public methods should not return <code>ResultSet</code>.
-   * @param query
-   * @param parameters
-   * @return
-   * @throws SQLException
+   * Executes the query with the given parameters and converts the result set
+   * using the handler.
+   * @param query SQL query with <code>?</code> place holders
+   * @param handler Converts the result set into the result object
+   * @param parameters Query parameters
+   * @return the result object created by the handler
+   * @throws SQLException if a database access error occurs
+   * @since 0.3.1
    */
-  @Deprecated
-  public ResultSet executeQuery(final String query, final Object... parameters) throws SQLException {
-    PreparedStatement stmt = connection.prepareStatement(query);
-    for (int i = 1; i <= parameters.length; i++) {
-      stmt.setObject(i, parameters[i-1]);
+  public <T> T query(
+      final String query,
+      final ResultSetHandler<T> handler,
+      final Object... parameters) throws SQLException {
+    return execute(query, prepare(query), handler, parameters);
+  }
+
+  /**
+   * Executes the query with the given parameters and converts the result set
+   * using the handler. The fetch size is passed to the driver as a hint for
+   * the number of rows transferred per round-trip, which matters for large
+   * result sets such as whole dictionary views. The statement is shared
+   * through the statement cache, so its previous fetch size is restored
+   * afterwards.
+   * @param query SQL query with <code>?</code> place holders
+   * @param fetchSize Number of rows fetched at once
+   * @param handler Converts the result set into the result object
+   * @param parameters Query parameters
+   * @return the result object created by the handler
+   * @throws SQLException if a database access error occurs
+   * @since 0.3.1
+   */
+  public <T> T query(
+      final String query,
+      final int fetchSize,
+      final ResultSetHandler<T> handler,
+      final Object... parameters) throws SQLException {
+    PreparedStatement stmt = prepare(query);
+    int previousFetchSize = stmt.getFetchSize();
+    stmt.setFetchSize(fetchSize);
+    try {
+      return execute(query, stmt, handler, parameters);
+    } finally {
+      stmt.setFetchSize(previousFetchSize);
     }
-    ResultSet result = stmt.executeQuery();
-    return result;
   }
 
   public <T> T scalarQuery(
@@ -569,19 +757,14 @@ public class JdbcConnector {
       final String columnName,
       final Object... parameters) throws SQLException {
     ResultSetHandler<T> handler = new ScalarHandler<T>(columnName);
-    // FIXME remove flag from call to QueryRunner constructor
-    // temporary fix to circumvent DBUTILS-117
-    // see https://issues.apache.org/jira/browse/DBUTILS-117
-    QueryRunner runner = new QueryRunner(true);
-    return runner.query(connection, query, handler, parameters);
+    return query(query, handler, parameters);
   }
 
   public Map<String, Object> mapQuery(
       final String query,
       final Object... parameters) throws SQLException {
     ResultSetHandler<Map<String, Object>> handler = new MapHandler();
-    QueryRunner runner = new QueryRunner();
-    return runner.query(connection, query, handler, parameters);
+    return query(query, handler, parameters);
   }
 
   public <T> Map<T, Long> histogramQuery(
@@ -591,17 +774,240 @@ public class JdbcConnector {
       final Parser<T> parser,
       final Object...parameters) throws SQLException {
   	ResultSetHandler<Map<T, Long>> handler = new HistogramHandler<T>(keyColumnName, valueColumnName, parser);
-    QueryRunner runner = new QueryRunner();
-    Map<T, Long> ret = runner.query(connection, query, handler, parameters);
-    return ret;
+    return query(query, handler, parameters);
   }
-  
+
+  /**
+   * Returns the prepared statement for the query from the statement cache or
+   * prepares and caches it if it is not cached yet.
+   */
+  private PreparedStatement prepare(final String query) throws SQLException {
+    PreparedStatement stmt = statements.get(query);
+    if (stmt != null && !stmt.isClosed()) {
+      statementCacheHits.incrementAndGet();
+    } else {
+      statementCacheMisses.incrementAndGet();
+      stmt = connection.prepareStatement(query);
+      statements.put(query, stmt);
+    }
+    return stmt;
+  }
+
+  private <T> T execute(
+      final String query,
+      final PreparedStatement stmt,
+      final ResultSetHandler<T> handler,
+      final Object... parameters) throws SQLException {
+    if (queryListeners.isEmpty()) {
+      RUNNER.fillStatement(stmt, parameters);
+      ResultSet rs = stmt.executeQuery();
+      try {
+        return handler.handle(rs);
+      } finally {
+        DbUtils.close(rs);
+      }
+    }
+    for (QueryListener listener : queryListeners) {
+      listener.queryStarted(query);
+    }
+    long start = System.nanoTime();
+    RowCounter counter = new RowCounter();
+    boolean failed = true;
+    try {
+      RUNNER.fillStatement(stmt, parameters);
+      ResultSet rs = stmt.executeQuery();
+      try {
+        T result = handler.handle(counter.wrap(rs));
+        failed = false;
+        return result;
+      } finally {
+        DbUtils.close(rs);
+      }
+    } finally {
+      long nanos = System.nanoTime() - start;
+      for (QueryListener listener : queryListeners) {
+        listener.queryExecuted(query, nanos, counter.rows, failed);
+      }
+    }
+  }
+
+  /******************************************************************************
+   * STATEMENT CACHE
+   *****************************************************************************/
+
+  /**
+   * Returns the number of queries that were served by an already prepared
+   * statement.
+   * @return number of statement cache hits
+   * @since 0.3.1
+   */
+  public long getStatementCacheHits() {
+    return statementCacheHits.get();
+  }
+
+  /**
+   * Returns the number of queries that had to be prepared, because they were
+   * not or no longer part of the statement cache.
+   * @return number of statement cache misses
+   * @since 0.3.1
+   */
+  public long getStatementCacheMisses() {
+    return statementCacheMisses.get();
+  }
+
+  /**
+   * Returns the number of currently cached prepared statements.
+   * @return size of the statement cache
+   * @since 0.3.1
+   */
+  public int getStatementCacheSize() {
+    return statements.size();
+  }
+
+  /**
+   * Closes and removes all cached prepared statements. The underlying
+   * connection stays open.
+   * @since 0.3.1
+   */
+  public void clearStatementCache() {
+    for (PreparedStatement stmt : statements.values()) {
+      DbUtils.closeQuietly(stmt);
+    }
+    statements.clear();
+  }
+
+  /**
+   * Closes all cached prepared statements and the underlying connection.
+   * @throws SQLException if a database access error occurs
+   * @since 0.3.1
+   */
+  public void close() throws SQLException {
+    LOGGER.debug("Statement cache: " + getStatementCacheHits() + " hits, "
+        + getStatementCacheMisses() + " misses");
+    clearStatementCache();
+    connection.close();
+  }
+
+  /**
+   * Bounded map of prepared statements in access order, that closes the least
+   * recently used statement when the capacity is exceeded.
+   */
+  private static final class StatementCache extends LinkedHashMap<String, PreparedStatement> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int capacity;
+
+    public StatementCache(final int capacity) {
+      super(16, 0.75f, true);
+      this.capacity = capacity;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(final Entry<String, PreparedStatement> eldest) {
+      if (size() > capacity) {
+        DbUtils.closeQuietly(eldest.getValue());
+        return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Counts the rows a result set handler reads, by wrapping the result set
+   * into a proxy that counts the successful calls of <code>next()</code>.
+   */
+  private static final class RowCounter implements InvocationHandler {
+
+    private ResultSet resultSet;
+    private long rows;
+
+    public ResultSet wrap(final ResultSet resultSet) {
+      this.resultSet = resultSet;
+      return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader()
+          , new Class<?>[] { ResultSet.class }, this);
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args)
+        throws Throwable {
+      try {
+        Object result = method.invoke(resultSet, args);
+        if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+          rows++;
+        }
+        return result;
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
   public TypeInfo typeQuery(
       final String schema,
       final String table,
       final String column) throws SQLException {
     ResultSet result = metaData.getColumns(null, schema, table, column);
-    if (result.next()){
+    try {
+      // the names are patterns, skip columns that only match them
+      while (result.next()) {
+        if (schema.equals(result.getString("TABLE_SCHEM"))
+            && table.equals(result.getString("TABLE_NAME"))
+            && column.equals(result.getString("COLUMN_NAME"))) {
+          return toTypeInfo(result);
+        }
+      }
+    } finally {
+      DbUtils.close(result);
+    }
+    return null;
+  }
+
+  /**
+   * Retrieves the type information of all columns in the schema with a single
+   * meta data call.
+   * @param schema Name of the schema
+   * @return type information of all columns in the schema
+   * @throws SQLException if a database access error occurs
+   * @since 0.3.1
+   */
+  public Map<ColumnId, TypeInfo> typeQuery(final String schema) throws SQLException {
+    return typeQuery(schema, null);
+  }
+
+  /**
+   * Retrieves the type information of all columns in the table with a single
+   * meta data call. The names are matched exactly, although the meta data
+   * call treats them as <code>LIKE</code> patterns, e.g. <code>_</code> does
+   * not match other characters.
+   * @param schema Name of the schema
+   * @param table Name of the table, <code>null</code> for all tables
+   * @return type information of all columns in the table
+   * @throws SQLException if a database access error occurs
+   * @since 0.3.1
+   */
+  public Map<ColumnId, TypeInfo> typeQuery(final String schema, final String table)
+      throws SQLException {
+    Map<ColumnId, TypeInfo> types = Maps.newLinkedHashMap();
+    ResultSet result = metaData.getColumns(null, schema, table, null);
+    try {
+      while (result.next()) {
+        String tableSchema = result.getString("TABLE_SCHEM");
+        String tableName = result.getString("TABLE_NAME");
+        if (!schema.equals(tableSchema) || (table != null && !table.equals(tableName))) {
+          continue;
+        }
+        ColumnId columnId = new ColumnId(tableSchema, tableName
+            , result.getString("COLUMN_NAME"));
+        types.put(columnId, toTypeInfo(result));
+      }
+    } finally {
+      DbUtils.close(result);
+    }
+    return types;
+  }
+
+  private static TypeInfo toTypeInfo(final ResultSet result) throws SQLException {
     String typeName = (String) result.getString("TYPE_NAME");
     int length;
     int scale;
@@ -611,8 +1017,5 @@ public class JdbcConnector {
     typeNo = result.getInt("DATA_TYPE");
     Class<?> type = Types.convert(typeNo, length);
     return new TypeInfo(typeName, length, scale, type);
-    }
-    else
-    	return null;
   }
 }
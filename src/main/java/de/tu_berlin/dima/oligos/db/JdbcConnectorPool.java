@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+/**
+ * Bounded pool of {@link JdbcConnector}s, each wrapping its own JDBC
+ * {@link Connection}. A connector is handed out to exactly one caller at a
+ * time, i.e. between {@link #acquire()} and {@link #release(JdbcConnector)}
+ * the caller owns the connector and its connection exclusively.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class JdbcConnectorPool {
+
+  private static final Logger LOGGER = Logger.getLogger(JdbcConnectorPool.class);
+
+  private final List<JdbcConnector> connectors;
+  private final BlockingQueue<JdbcConnector> idle;
+
+  /**
+   * Opens <code>size</code> connections to the given url and wraps each of
+   * them into a {@link JdbcConnector}.
+   * @param url JDBC connection string
+   * @param properties Connection properties, e.g. user and password
+   * @param size Number of connections in the pool
+   * @throws SQLException if one of the connections cannot be established,
+   *  connections opened so far are closed again.
+   * @since 0.3.1
+   */
+  public JdbcConnectorPool(final String url, final Properties properties
+      , final int size) throws SQLException {
+    Preconditions.checkArgument(size > 0, "Pool size must be positive");
+    this.connectors = Lists.newArrayListWithCapacity(size);
+    this.idle = new ArrayBlockingQueue<JdbcConnector>(size);
+    try {
+      for (int i = 0; i < size; i++) {
+        Connection connection = DriverManager.getConnection(url, properties);
+        JdbcConnector connector = new JdbcConnector(connection);
+        connectors.add(connector);
+        idle.add(connector);
+      }
+    } catch (SQLException e) {
+      close();
+      throw e;
+    }
+    LOGGER.debug("Opened " + size + " pooled connections");
+  }
+
+  /**
+   * Returns the number of connectors managed by this pool.
+   * @return pool size
+   * @since 0.3.1
+   */
+  public int size() {
+    return connectors.size();
+  }
+
+  /**
+   * Returns the number of connectors that are currently not acquired.
+   * @return number of idle connectors
+   * @since 0.3.1
+   */
+  public int getIdleCount() {
+    return idle.size();
+  }
+
+  /**
+   * Adds the query listener to all connectors in the pool.
+   * @param queryListener the listener
+   * @see JdbcConnector#addQueryListener(QueryListener)
+   * @since 0.3.1
+   */
+  public void addQueryListener(final QueryListener queryListener) {
+    for (JdbcConnector connector : connectors) {
+      connector.addQueryListener(queryListener);
+    }
+  }
+
+  /**
+   * Takes an idle connector from the pool, waiting until one is released if
+   * all connectors are currently in use.
+   * @return a connector exclusively owned by the caller until released
+   * @throws InterruptedException if interrupted while waiting
+   * @since 0.3.1
+   */
+  public JdbcConnector acquire() throws InterruptedException {
+    return idle.take();
+  }
+
+  /**
+   * Returns a connector previously obtained by {@link #acquire()} to the pool.
+   * @param connector the connector to hand back
+   * @since 0.3.1
+   */
+  public void release(final JdbcConnector connector) {
+    Preconditions.checkArgument(connectors.contains(connector),
+        "Connector does not belong to this pool");
+    idle.offer(connector);
+  }
+
+  /**
+   * Closes all connections of the pool, regardless of whether they are
+   * currently acquired or not.
+   * @throws SQLException if closing one of the connections fails
+   * @since 0.3.1
+   */
+  public void close() throws SQLException {
+    SQLException first = null;
+    for (JdbcConnector connector : connectors) {
+      try {
+        connector.close();
+      } catch (SQLException e) {
+        if (first == null) {
+          first = e;
+        }
+      }
+    }
+    idle.clear();
+    if (first != null) {
+      throw first;
+    }
+  }
+}
@@ -49,6 +49,7 @@ public abstract class JdbcConstants {
     public final static String CHILD_TABLE = "FKTABLE_NAME";
     public final static String CHILD_COLUMN = "FKCOLUMN_NAME";
     public final static String SEQUENCE_NUMBER = "KEY_SEQ";
+    public final static String NAME = "FK_NAME";
   }
 
   /**
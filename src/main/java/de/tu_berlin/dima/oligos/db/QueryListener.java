@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db;
+
+/**
+ * Gets notified about every query executed through a {@link JdbcConnector},
+ * e.g. to observe the load of the database. Listeners may be shared by the
+ * connectors of a {@link JdbcConnectorPool} and therefore must be thread-safe.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public interface QueryListener {
+
+  /**
+   * Called before the query is executed.
+   * @param query SQL query with <code>?</code> place holders
+   */
+  public void queryStarted(final String query);
+
+  /**
+   * Called after the query was executed and its result set was handled.
+   * @param query SQL query with <code>?</code> place holders
+   * @param nanos Elapsed time of the execution in nanoseconds
+   * @param rows Number of rows read from the result set
+   * @param failed Whether the execution failed with an exception
+   */
+  public void queryExecuted(final String query, final long nanos, final long rows
+      , final boolean failed);
+}
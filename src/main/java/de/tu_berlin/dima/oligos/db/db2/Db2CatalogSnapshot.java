@@ -0,0 +1,385 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db.db2;
+
+import java.io.Serializable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
+
+import de.tu_berlin.dima.oligos.db.JdbcConnector;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+
+/**
+ * In-memory snapshot of the DB2 catalog statistics for whole schemas or
+ * single tables. Instead of issuing several queries per column, the snapshot
+ * is filled by a handful of set-oriented queries against
+ * <code>SYSCAT.COLUMNS</code>, <code>SYSCAT.TABCONST</code>/
+ * <code>SYSCAT.KEYCOLUSE</code>, <code>SYSSTAT.COLDIST</code>, and
+ * <code>SYSSTAT.TABLES</code>.
+ * <br />
+ * Every table is stamped with its <code>SYSCAT.TABLES.STATS_TIME</code>, so a
+ * snapshot that was stored on disk can be brought up to date by
+ * {@link #refresh(JdbcConnector, String, String)}, which only reloads tables
+ * whose statistics were collected again since.
+ * <br />
+ * The snapshot is not synchronized. It has to be loaded completely before it
+ * is shared between threads, afterwards it is only read.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class Db2CatalogSnapshot implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Logger LOGGER = Logger.getLogger(Db2CatalogSnapshot.class);
+
+  private final static String TABLE_PREDICATE = "AND tabname = ? ";
+  private final static String CONSTRAINT_TABLE_PREDICATE = "AND tc.tabname = ? ";
+
+  /**
+   * Stamp of tables without statistics, i.e. <code>STATS_TIME</code> is
+   * <code>null</code>.
+   */
+  private final static long NOT_ANALYZED = -1L;
+
+  private final static String STAMP_QUERY =
+      "SELECT tabname, stats_time " +
+      "FROM   SYSCAT.TABLES " +
+      "WHERE  tabschema = ? %s";
+  private final static String CARDINALITY_QUERY =
+      "SELECT tabname, card " +
+      "FROM   SYSSTAT.TABLES " +
+      "WHERE  tabschema = ? %s";
+  private final static String DOMAIN_QUERY =
+      "SELECT tabname, colname, low2key, high2key, numnulls, colcard " +
+      "FROM   SYSCAT.COLUMNS " +
+      "WHERE  tabschema = ? %s";
+  private final static String CONSTRAINT_QUERY =
+      "SELECT kcu.tabname, kcu.colname, tc.type " +
+      "FROM   SYSCAT.TABCONST tc, SYSCAT.KEYCOLUSE kcu " +
+      "WHERE  tc.constname = kcu.constname " +
+      "  AND  tc.tabschema = kcu.tabschema AND tc.tabname = kcu.tabname " +
+      "  AND  tc.tabschema = ? %s";
+  private final static String COLDIST_QUERY =
+      "SELECT tabname, colname, type, colvalue, valcount " +
+      "FROM   SYSSTAT.COLDIST " +
+      "WHERE  tabschema = ? %s" +
+      "  AND  type IN ('F', 'Q') " +
+      "ORDER BY tabname, colname, type, seqno";
+
+  private final Map<ColumnId, Db2ColumnStatistics> columns;
+  private final Table<String, String, Long> cardinalities;
+  private final Table<String, String, Long> stamps;
+
+  public Db2CatalogSnapshot() {
+    this.columns = Maps.newHashMap();
+    this.cardinalities = HashBasedTable.create();
+    this.stamps = HashBasedTable.create();
+  }
+
+  /**
+   * Loads the statistics of all tables and columns in the schema.
+   * @param connector Connector used to query the catalog
+   * @param schema Name of the schema
+   * @throws SQLException if a database access error occurs
+   */
+  public void loadSchema(final JdbcConnector connector, final String schema)
+      throws SQLException {
+    load(connector, schema, null);
+  }
+
+  /**
+   * Loads the statistics of the table and all its columns.
+   * @param connector Connector used to query the catalog
+   * @param schema Name of the schema
+   * @param table Name of the table
+   * @throws SQLException if a database access error occurs
+   */
+  public void loadTable(final JdbcConnector connector, final String schema
+      , final String table) throws SQLException {
+    load(connector, schema, table);
+  }
+
+  /**
+   * Brings the statistics of the schema, or of the table if it is not
+   * <code>null</code>, up to date. Tables whose <code>STATS_TIME</code>
+   * differs from the stamp in the snapshot or that are not part of the
+   * snapshot yet are (re)loaded, tables that were dropped are removed, and all
+   * other tables are kept as they are.
+   * @param connector Connector used to query the catalog
+   * @param schema Name of the schema
+   * @param table Name of the table or <code>null</code> for the whole schema
+   * @return the number of reloaded tables
+   * @throws SQLException if a database access error occurs
+   */
+  public int refresh(final JdbcConnector connector, final String schema
+      , final String table) throws SQLException {
+    Map<String, Long> current = Maps.newHashMap();
+    connector.query(String.format(STAMP_QUERY, getPredicate(table)),
+        new StampHandler(current), getParameters(schema, table));
+    Map<String, Long> cached = Maps.newHashMap(stamps.row(schema));
+    if (table != null) {
+      cached.keySet().retainAll(Collections.singleton(table));
+    }
+    Set<String> stale = Sets.newHashSet();
+    for (Entry<String, Long> e : current.entrySet()) {
+      if (!e.getValue().equals(cached.get(e.getKey()))) {
+        stale.add(e.getKey());
+      }
+    }
+    Set<String> dropped = Sets.difference(cached.keySet(), current.keySet());
+    invalidate(schema, Sets.union(stale, dropped));
+    if (table == null && !stale.isEmpty() && stale.size() == current.size()) {
+      // nothing to keep, load the whole schema at once
+      load(connector, schema, null);
+    } else {
+      for (String staleTable : stale) {
+        load(connector, schema, staleTable);
+      }
+    }
+    LOGGER.debug("Refreshed " + stale.size() + " of " + current.size()
+        + " tables in " + schema);
+    return stale.size();
+  }
+
+  private void invalidate(final String schema, final Set<String> tables) {
+    if (tables.isEmpty()) {
+      return;
+    }
+    Iterator<ColumnId> iter = columns.keySet().iterator();
+    while (iter.hasNext()) {
+      ColumnId columnId = iter.next();
+      if (columnId.getSchema().equals(schema) && tables.contains(columnId.getTable())) {
+        iter.remove();
+      }
+    }
+    for (String table : tables) {
+      cardinalities.remove(schema, table);
+      stamps.remove(schema, table);
+    }
+  }
+
+  private void load(final JdbcConnector connector, final String schema
+      , final String table) throws SQLException {
+    int numColumns = columns.size();
+    String predicate = getPredicate(table);
+    String constraintPredicate = (table != null) ? CONSTRAINT_TABLE_PREDICATE : "";
+    Object[] parameters = getParameters(schema, table);
+    // stamp first, statistics collected meanwhile are reloaded next time
+    Map<String, Long> current = Maps.newHashMap();
+    connector.query(String.format(STAMP_QUERY, predicate),
+        new StampHandler(current), parameters);
+    for (Entry<String, Long> e : current.entrySet()) {
+      stamps.put(schema, e.getKey(), e.getValue());
+    }
+    connector.query(String.format(CARDINALITY_QUERY, predicate),
+        new CardinalityHandler(schema), parameters);
+    connector.query(String.format(DOMAIN_QUERY, predicate),
+        new DomainHandler(schema), parameters);
+    for (Entry<ColumnId, TypeInfo> e : connector.typeQuery(schema, table).entrySet()) {
+      Db2ColumnStatistics statistics = columns.get(e.getKey());
+      if (statistics != null) {
+        statistics.setTypeInfo(e.getValue());
+      }
+    }
+    connector.query(String.format(CONSTRAINT_QUERY, constraintPredicate),
+        new ConstraintHandler(schema), parameters);
+    connector.query(String.format(COLDIST_QUERY, predicate),
+        new ColdistHandler(schema), parameters);
+    LOGGER.debug("Loaded catalog statistics of " + (columns.size() - numColumns)
+        + " columns from " + schema);
+  }
+
+  /**
+   * Checks whether the snapshot contains the column.
+   * @param columnId the column to look up
+   * @return <code>true</code> if the column's statistics were loaded
+   */
+  public boolean containsColumn(final ColumnId columnId) {
+    return columns.containsKey(columnId);
+  }
+
+  /**
+   * Returns the catalog rows of the column.
+   * @param columnId the column to look up
+   * @return the column statistics or <code>null</code> if the column is not
+   *  part of the snapshot
+   */
+  public Db2ColumnStatistics getColumn(final ColumnId columnId) {
+    return columns.get(columnId);
+  }
+
+  public Db2ColumnStatistics getColumn(final String schema, final String table
+      , final String column) {
+    return getColumn(new ColumnId(schema, table, column));
+  }
+
+  /**
+   * Returns the cardinality of the table.
+   * @param schema Name of the schema
+   * @param table Name of the table
+   * @return the cardinality or <code>null</code> if the table is not part of
+   *  the snapshot
+   */
+  public Long getCardinality(final String schema, final String table) {
+    return cardinalities.get(schema, table);
+  }
+
+  private Db2ColumnStatistics getOrCreate(final ColumnId columnId) {
+    Db2ColumnStatistics statistics = columns.get(columnId);
+    if (statistics == null) {
+      statistics = new Db2ColumnStatistics();
+      columns.put(columnId, statistics);
+    }
+    return statistics;
+  }
+
+  private static String getPredicate(final String table) {
+    return (table != null) ? TABLE_PREDICATE : "";
+  }
+
+  private static Object[] getParameters(final String schema, final String table) {
+    return (table != null) ? new Object[] { schema, table } : new Object[] { schema };
+  }
+
+  private static Long getLong(final ResultSet rs, final String columnName)
+      throws SQLException {
+    long value = rs.getLong(columnName);
+    return rs.wasNull() ? null : value;
+  }
+
+  private static final class StampHandler implements ResultSetHandler<Void> {
+
+    private final Map<String, Long> stamps;
+
+    public StampHandler(final Map<String, Long> stamps) {
+      this.stamps = stamps;
+    }
+
+    @Override
+    public Void handle(final ResultSet rs) throws SQLException {
+      while (rs.next()) {
+        Timestamp statsTime = rs.getTimestamp("stats_time");
+        long stamp = (statsTime != null) ? statsTime.getTime() : NOT_ANALYZED;
+        stamps.put(rs.getString("tabname"), stamp);
+      }
+      return null;
+    }
+  }
+
+  private final class CardinalityHandler implements ResultSetHandler<Void> {
+
+    private final String schema;
+
+    public CardinalityHandler(final String schema) {
+      this.schema = schema;
+    }
+
+    @Override
+    public Void handle(final ResultSet rs) throws SQLException {
+      while (rs.next()) {
+        Long card = getLong(rs, "card");
+        if (card != null) {
+          cardinalities.put(schema, rs.getString("tabname"), card);
+        }
+      }
+      return null;
+    }
+  }
+
+  private final class DomainHandler implements ResultSetHandler<Void> {
+
+    private final String schema;
+
+    public DomainHandler(final String schema) {
+      this.schema = schema;
+    }
+
+    @Override
+    public Void handle(final ResultSet rs) throws SQLException {
+      while (rs.next()) {
+        ColumnId columnId = new ColumnId(schema, rs.getString("tabname"), rs.getString("colname"));
+        getOrCreate(columnId).setDomain(rs.getString("low2key"), rs.getString("high2key"),
+            getLong(rs, "numnulls"), getLong(rs, "colcard"));
+      }
+      return null;
+    }
+  }
+
+  private final class ConstraintHandler implements ResultSetHandler<Void> {
+
+    private final String schema;
+
+    public ConstraintHandler(final String schema) {
+      this.schema = schema;
+    }
+
+    @Override
+    public Void handle(final ResultSet rs) throws SQLException {
+      while (rs.next()) {
+        ColumnId columnId = new ColumnId(schema, rs.getString("tabname"), rs.getString("colname"));
+        Db2ColumnStatistics statistics = columns.get(columnId);
+        if (statistics != null) {
+          statistics.addConstraint(rs.getString("type"));
+        }
+      }
+      return null;
+    }
+  }
+
+  private final class ColdistHandler implements ResultSetHandler<Void> {
+
+    private final String schema;
+
+    public ColdistHandler(final String schema) {
+      this.schema = schema;
+    }
+
+    @Override
+    public Void handle(final ResultSet rs) throws SQLException {
+      while (rs.next()) {
+        ColumnId columnId = new ColumnId(schema, rs.getString("tabname"), rs.getString("colname"));
+        Db2ColumnStatistics statistics = columns.get(columnId);
+        if (statistics != null) {
+          String value = rs.getString("colvalue");
+          long count = rs.getLong("valcount");
+          if ("F".equals(rs.getString("type"))) {
+            statistics.addMostFrequentValue(value, count);
+          } else {
+            statistics.addQuantile(value, count);
+          }
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -16,10 +16,13 @@
 package de.tu_berlin.dima.oligos.db.db2;
 
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import org.apache.commons.lang3.tuple.Pair;
+
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
@@ -28,6 +31,7 @@ import de.tu_berlin.dima.oligos.db.JdbcConnector;
 import de.tu_berlin.dima.oligos.type.util.ColumnId;
 import de.tu_berlin.dima.oligos.type.util.Constraint;
 import de.tu_berlin.dima.oligos.type.util.parser.Parser;
+import de.tu_berlin.dima.oligos.type.util.parser.Parsers;
 
 public class Db2ColumnConnector<T> implements ColumnConnector<T> {
   
@@ -56,6 +60,7 @@ public class Db2ColumnConnector<T> implements ColumnConnector<T> {
   private final String table;
   private final String column;
   private final Parser<T> parser;
+  private final Db2ColumnStatistics statistics;
   
   public Db2ColumnConnector(final JdbcConnector jdbcConnector, final ColumnId columnId
       , final Parser<T> parser) {
@@ -64,18 +69,32 @@ public class Db2ColumnConnector<T> implements ColumnConnector<T> {
 
   public Db2ColumnConnector(final JdbcConnector jdbcConnector, final String schema
       , final String table, final String column, final Parser<T> parser) {
+    this(jdbcConnector, schema, table, column, parser, null);
+  }
+
+  /**
+   * Creates a column connector that serves all requests from the snapshot if
+   * it contains the column, and queries the catalog otherwise.
+   * @since 0.3.1
+   */
+  public Db2ColumnConnector(final JdbcConnector jdbcConnector, final String schema
+      , final String table, final String column, final Parser<T> parser
+      , final Db2CatalogSnapshot snapshot) {
     this.connector = jdbcConnector;
     this.schema = schema;
     this.table = table;
     this.column = column;
     this.parser = parser;
+    this.statistics = (snapshot != null)
+        ? snapshot.getColumn(schema, table, column) : null;
   }
 
   @Override
   public Set<Constraint> getConstraints() throws SQLException {
     Set<Constraint> constraints = Sets.newHashSet();
-    String con = connector.scalarQuery(CONSTRAINT_QUERY, "type", schema,
-        table, column);
+    String con = (statistics != null)
+        ? statistics.getConstraintType()
+        : connector.<String>scalarQuery(CONSTRAINT_QUERY, "type", schema, table, column);
     if (con != null) {
       if (con.equals("U")) {
         constraints.add(Constraint.UNIQUE);
@@ -90,34 +109,49 @@ public class Db2ColumnConnector<T> implements ColumnConnector<T> {
 
   @Override
   public long getNumNulls() throws SQLException {
+    if (statistics != null) {
+      return statistics.getNumNulls();
+    }
     return connector.<Long>scalarQuery(DOMAIN_QUERY, "numnulls", schema, table, column);
   }
 
   @Override
   public long getCardinality() throws SQLException {
+    if (statistics != null) {
+      return statistics.getColCard();
+    }
     return connector.<Long>scalarQuery(DOMAIN_QUERY, "colcard", schema, table, column);
   }
 
   public T getMin() throws SQLException {
-    String minStr = connector.scalarQuery(DOMAIN_QUERY, "low2key", schema, table, column);
+    String minStr = (statistics != null)
+        ? statistics.getLow2key()
+        : connector.<String>scalarQuery(DOMAIN_QUERY, "low2key", schema, table, column);
     return parser.fromString(minStr);
   }
 
   public T getMax() throws SQLException {
-    String minStr = connector.scalarQuery(DOMAIN_QUERY, "high2key", schema, table, column);
+    String minStr = (statistics != null)
+        ? statistics.getHigh2key()
+        : connector.<String>scalarQuery(DOMAIN_QUERY, "high2key", schema, table, column);
     return parser.fromString(minStr);
   }
 
   @Override
   public Map<T, Long> getMostFrequentValues() throws SQLException {
+    if (statistics != null) {
+      return parse(statistics.getMostFrequentValues());
+    }
     return connector.histogramQuery(
         MOST_FREQUENT_QUERY, "colvalue", "valcount", parser, schema, table, column);
   }
 
   @Override
   public Map<T, Long> getHistogram() throws SQLException {
-    Map<T, Long> rawHist = connector.histogramQuery(
-        QUANTILE_HISTOGRAM_QUERY, "colvalue", "valcount", parser, schema, table, column);
+    Map<T, Long> rawHist = (statistics != null)
+        ? parse(statistics.getQuantiles())
+        : connector.histogramQuery(
+            QUANTILE_HISTOGRAM_QUERY, "colvalue", "valcount", parser, schema, table, column);
     Map<T, Long> normHist = Maps.newLinkedHashMap();
     long lastFreq = 0L;
     for (Entry<T, Long> e : rawHist.entrySet()) {
@@ -128,4 +162,20 @@ public class Db2ColumnConnector<T> implements ColumnConnector<T> {
     }
     return normHist;
   }
+
+  /**
+   * Parses the raw <code>COLDIST</code> rows the same way the
+   * {@link de.tu_berlin.dima.oligos.db.HistogramHandler} does for query results.
+   */
+  private Map<T, Long> parse(final List<Pair<String, Long>> rows) {
+    Map<T, Long> values = Maps.newLinkedHashMap();
+    for (Pair<String, Long> row : rows) {
+      String colvalue = row.getLeft();
+      if (colvalue != null) {
+        T value = parser.fromString(Parsers.removeAllQuotes(colvalue));
+        values.put(value, row.getRight());
+      }
+    }
+    return values;
+  }
 }
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db.db2;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.google.common.collect.Lists;
+
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+
+/**
+ * Raw catalog rows of a single DB2 column, i.e. the <code>SYSCAT.COLUMNS</code>
+ * domain values, the first key constraint type from
+ * <code>SYSCAT.TABCONST</code>, the frequent values and quantiles from
+ * <code>SYSSTAT.COLDIST</code> in <code>seqno</code> order, and the JDBC type
+ * information. Values are kept as
+ * returned by the catalog, parsing is left to the {@link Db2ColumnConnector}.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class Db2ColumnStatistics implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private TypeInfo typeInfo;
+  private String low2key;
+  private String high2key;
+  private Long numNulls;
+  private Long colCard;
+  private String constraintType;
+  private final List<Pair<String, Long>> mostFrequentValues;
+  private final List<Pair<String, Long>> quantiles;
+
+  public Db2ColumnStatistics() {
+    this.mostFrequentValues = Lists.newArrayList();
+    this.quantiles = Lists.newArrayList();
+  }
+
+  public TypeInfo getTypeInfo() {
+    return typeInfo;
+  }
+
+  public String getLow2key() {
+    return low2key;
+  }
+
+  public String getHigh2key() {
+    return high2key;
+  }
+
+  public Long getNumNulls() {
+    return numNulls;
+  }
+
+  public Long getColCard() {
+    return colCard;
+  }
+
+  /**
+   * Returns the type of the first key constraint (<code>U</code>,
+   * <code>P</code>, or <code>F</code>) the column participates in.
+   * @return constraint type or <code>null</code> if there is none
+   */
+  public String getConstraintType() {
+    return constraintType;
+  }
+
+  /**
+   * Returns the frequent value rows (<code>type = 'F'</code>).
+   * @return pairs of raw column value and value count
+   */
+  public List<Pair<String, Long>> getMostFrequentValues() {
+    return Collections.unmodifiableList(mostFrequentValues);
+  }
+
+  /**
+   * Returns the quantile rows (<code>type = 'Q'</code>), where the value
+   * counts are cumulative.
+   * @return pairs of raw column value and cumulative value count
+   */
+  public List<Pair<String, Long>> getQuantiles() {
+    return Collections.unmodifiableList(quantiles);
+  }
+
+  /**
+   * Returns the number of frequent values that are not <code>null</code>.
+   * @return number of frequent values
+   */
+  public int getNumMostFrequentValues() {
+    int num = 0;
+    for (Pair<String, Long> value : mostFrequentValues) {
+      if (value.getLeft() != null) {
+        num++;
+      }
+    }
+    return num;
+  }
+
+  void setTypeInfo(final TypeInfo typeInfo) {
+    this.typeInfo = typeInfo;
+  }
+
+  void setDomain(final String low2key, final String high2key
+      , final Long numNulls, final Long colCard) {
+    this.low2key = low2key;
+    this.high2key = high2key;
+    this.numNulls = numNulls;
+    this.colCard = colCard;
+  }
+
+  void addConstraint(final String type) {
+    if (constraintType == null) {
+      constraintType = type;
+    }
+  }
+
+  void addMostFrequentValue(final String value, final long count) {
+    mostFrequentValues.add(Pair.of(value, count));
+  }
+
+  void addQuantile(final String value, final long count) {
+    quantiles.add(Pair.of(value, count));
+  }
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db.db2;
+
+import de.tu_berlin.dima.oligos.db.ForeignKeyExtractor;
+
+/**
+ * Reads foreign keys from <code>SYSCAT.REFERENCES</code> and
+ * <code>SYSCAT.KEYCOLUSE</code>. The columns of the foreign key and of the
+ * referenced key are matched by their position within the key.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class Db2ForeignKeyExtractor extends ForeignKeyExtractor {
+
+  private static final String QUERY =
+      "SELECT r.constname AS fk_name " +
+      "     , r.tabschema AS fktable_schem, r.tabname AS fktable_name " +
+      "     , fk.colname AS fkcolumn_name " +
+      "     , r.reftabschema AS pktable_schem, r.reftabname AS pktable_name " +
+      "     , pk.colname AS pkcolumn_name " +
+      "     , fk.colseq AS key_seq " +
+      "FROM SYSCAT.REFERENCES r " +
+      "JOIN SYSCAT.KEYCOLUSE fk " +
+      "  ON fk.constname = r.constname " +
+      " AND fk.tabschema = r.tabschema AND fk.tabname = r.tabname " +
+      "JOIN SYSCAT.KEYCOLUSE pk " +
+      "  ON pk.constname = r.refkeyname " +
+      " AND pk.tabschema = r.reftabschema AND pk.tabname = r.reftabname " +
+      " AND pk.colseq = fk.colseq " +
+      "%s" +
+      "ORDER BY r.tabschema, r.tabname, r.constname, fk.colseq";
+
+  private static final String SCHEMA_PREDICATE =
+      "WHERE r.tabschema = ? OR r.reftabschema = ? ";
+
+  @Override
+  protected String getForeignKeysQuery() {
+    return String.format(QUERY, "");
+  }
+
+  @Override
+  protected String getSchemaForeignKeysQuery() {
+    return String.format(QUERY, SCHEMA_PREDICATE);
+  }
+
+}
@@ -50,9 +50,27 @@ public class Db2MetaConnector implements MetaConnector {
       "WHERE  tabschema = ? AND tabname = ? AND colname = ?";
 
   private final JdbcConnector connector;
+  private final Db2CatalogSnapshot snapshot;
 
   public Db2MetaConnector(final JdbcConnector jdbcConnector) {
+    this(jdbcConnector, null);
+  }
+
+  /**
+   * Creates a meta connector that answers {@link #hasStatistics(ColumnId)},
+   * {@link #isEnumerated(ColumnId)}, and {@link #getColumnType(ColumnId)} from
+   * the snapshot if it contains the column, and queries the catalog otherwise.
+   * @since 0.3.1
+   */
+  public Db2MetaConnector(final JdbcConnector jdbcConnector
+      , final Db2CatalogSnapshot snapshot) {
     this.connector = jdbcConnector;
+    this.snapshot = snapshot;
+  }
+
+  private Db2ColumnStatistics getStatistics(final String schema, final String table
+      , final String column) {
+    return (snapshot != null) ? snapshot.getColumn(schema, table, column) : null;
   }
 
   @Override
@@ -80,7 +98,10 @@ public class Db2MetaConnector implements MetaConnector {
   @Override
   public boolean hasStatistics(String schema, String table, String column)
       throws SQLException {
-    Long card = connector.scalarQuery(DOMAIN_QUERY, "COLCARD", schema, table, column);
+    Db2ColumnStatistics statistics = getStatistics(schema, table, column);
+    Long card = (statistics != null)
+        ? statistics.getColCard()
+        : connector.<Long>scalarQuery(DOMAIN_QUERY, "COLCARD", schema, table, column);
     if (card != null) {
       return (card != -1) ? true : false; 
     } else {
@@ -99,6 +120,10 @@ public class Db2MetaConnector implements MetaConnector {
   @Override
   public boolean isEnumerated(String schema, String table, String column)
       throws SQLException {
+    Db2ColumnStatistics statistics = getStatistics(schema, table, column);
+    if (statistics != null && statistics.getColCard() != null) {
+      return statistics.getColCard() <= statistics.getNumMostFrequentValues();
+    }
     Map<String, Object> result = connector.mapQuery(
         ENUMERATED_QUERY, schema, table, column, schema, table, column);
     if (result != null) {
@@ -121,6 +146,10 @@ public class Db2MetaConnector implements MetaConnector {
   @Override
   public TypeInfo getColumnType(final String schema, final String table, final String column)
       throws SQLException {
+    Db2ColumnStatistics statistics = getStatistics(schema, table, column);
+    if (statistics != null && statistics.getTypeInfo() != null) {
+      return statistics.getTypeInfo();
+    }
   	return connector.typeQuery(schema, table, column);
   }
 
@@ -28,13 +28,24 @@ public class Db2TableConnector implements TableConnector {
       "WHERE  tabschema = ? AND tabname = ?";
 
   private final JdbcConnector connector;
+  private final Db2CatalogSnapshot snapshot;
 
   public Db2TableConnector(final JdbcConnector jdbcConnector) {
+    this(jdbcConnector, null);
+  }
+
+  public Db2TableConnector(final JdbcConnector jdbcConnector
+      , final Db2CatalogSnapshot snapshot) {
     this.connector = jdbcConnector;
+    this.snapshot = snapshot;
   }
 
   @Override
   public long getCardinality(final String schema, final String table) throws SQLException {
+    Long card = (snapshot != null) ? snapshot.getCardinality(schema, table) : null;
+    if (card != null) {
+      return card;
+    }
     return connector.<Long>scalarQuery(QUERY, "card", schema, table);
   }
 
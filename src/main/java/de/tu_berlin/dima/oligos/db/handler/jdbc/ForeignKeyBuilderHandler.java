@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db.handler.jdbc;
+
+import static de.tu_berlin.dima.oligos.db.JdbcConstants.Keys.*;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.dbutils.ResultSetHandler;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Strings;
+
+import de.tu_berlin.dima.oligos.db.constraints.ForeignKey;
+import de.tu_berlin.dima.oligos.db.reference.ColumnRef;
+import de.tu_berlin.dima.oligos.db.reference.TableRef;
+
+/**
+ * {@link org.apache.commons.dbutils.ResultSetHandler ResultSetHandler}
+ * implementation that converts a <code>ResultSet</code> with one row per
+ * foreign key column into a <code>Set</code> of <code>ForeignKey</code>s using
+ * the {@link ForeignKey.Builder}.
+ * <br />
+ * Unlike {@link ForeignKeysHandler} the rows of a foreign key are recognized
+ * by the child table and the foreign key name, hence the <code>ResultSet</code>
+ * must be ordered by child schema, child table, and foreign key name.
+ * 
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class ForeignKeyBuilderHandler implements ResultSetHandler<Set<ForeignKey>> {
+
+  /**
+   * Converts the given <code>ResultSet</code> into a <code>Set</code> of
+   * <code>ForeignKey</code>s.
+   * @param rs Untouched <code>ResultSet</code> with the columns of a
+   *   {@link ForeignKeysHandler} and additionally
+   *   <ol>
+   *     <li>FK_NAME String => foreign key name</li>
+   *   </ol>
+   * @return A <code>Set</code> containing no, one, or more <code>ForeignKey</code>s
+   */
+  @Override
+  public Set<ForeignKey> handle(ResultSet rs) throws SQLException {
+    Set<ForeignKey> foreignKeys = new HashSet<ForeignKey>();
+    ForeignKey.Builder builder = null;
+    TableRef lastChild = null;
+    String lastName = null;
+    while (rs.next()) {
+      String name = Strings.nullToEmpty(rs.getString(NAME));
+      TableRef child = new TableRef(
+          Strings.nullToEmpty(rs.getString(CHILD_SCHEMA)), rs.getString(CHILD_TABLE));
+      TableRef parent = new TableRef(
+          Strings.nullToEmpty(rs.getString(PARENT_SCHEMA)), rs.getString(PARENT_TABLE));
+      if (builder == null || !child.equals(lastChild) || !Objects.equal(name, lastName)) {
+        if (builder != null) {
+          foreignKeys.add(builder.build());
+        }
+        builder = ForeignKey.builder().setName(name);
+        lastChild = child;
+        lastName = name;
+      }
+      builder.addColumns(new ColumnRef(child, rs.getString(CHILD_COLUMN)),
+          new ColumnRef(parent, rs.getString(PARENT_COLUMN)));
+    }
+    if (builder != null) {
+      foreignKeys.add(builder.build());
+    }
+    return foreignKeys;
+  }
+
+}
@@ -0,0 +1,392 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db.oracle;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
+
+import de.tu_berlin.dima.oligos.db.JdbcConnector;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+
+/**
+ * In-memory snapshot of the Oracle data dictionary statistics of whole owners
+ * (schemas). The snapshot streams <code>ALL_TABLES</code>,
+ * <code>ALL_TAB_COLUMNS</code>, <code>ALL_TAB_COL_STATISTICS</code>,
+ * <code>ALL_TAB_HISTOGRAMS</code>, and <code>ALL_CONSTRAINTS</code>/
+ * <code>ALL_CONS_COLUMNS</code> once per owner with a large fetch size,
+ * instead of querying the slow dictionary views for every single column.
+ * <br />
+ * Every table is stamped with its <code>ALL_TAB_STATISTICS.LAST_ANALYZED</code>,
+ * so a snapshot that was stored on disk can be brought up to date by
+ * {@link #refreshOwner(JdbcConnector, String)}, which only reloads tables that
+ * were analyzed again since.
+ * <br />
+ * The snapshot is not synchronized. It has to be loaded completely before it
+ * is shared between threads, afterwards it is only read.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class OracleCatalogSnapshot implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Logger LOGGER = Logger.getLogger(OracleCatalogSnapshot.class);
+
+  private static final int FETCH_SIZE = 5000;
+
+  /**
+   * Stamp of tables that were never analyzed, i.e. <code>LAST_ANALYZED</code>
+   * is <code>null</code>.
+   */
+  private static final long NOT_ANALYZED = -1L;
+
+  private static final String TABLE_PREDICATE = "AND table_name = ? ";
+  private static final String CONSTRAINT_TABLE_PREDICATE = "AND ac.table_name = ? ";
+
+  private static final String STAMP_QUERY =
+          "SELECT table_name, last_analyzed FROM ALL_TAB_STATISTICS " +
+          "WHERE owner = ? AND object_type = 'TABLE' %s";
+
+  private static final String CARDINALITY_QUERY =
+          "SELECT table_name, num_rows FROM ALL_TABLES WHERE owner = ? %s";
+
+  private static final String DOMAIN_QUERY =
+          "SELECT table_name, column_name, low_value, high_value, num_nulls, num_distinct " +
+          "FROM ALL_TAB_COLUMNS " +
+          "WHERE owner = ? %s";
+
+  private static final String STATISTICS_QUERY =
+          "SELECT table_name, column_name, histogram, num_distinct " +
+          "FROM ALL_TAB_COL_STATISTICS " +
+          "WHERE owner = ? %s";
+
+  private static final String CONSTRAINT_QUERY =
+          "SELECT cc.table_name, cc.column_name, ac.constraint_type " +
+          "FROM ALL_CONSTRAINTS ac, ALL_CONS_COLUMNS cc " +
+          "WHERE ac.owner = cc.owner " +
+            "AND ac.constraint_name = cc.constraint_name " +
+            "AND ac.table_name = cc.table_name " +
+            "AND ac.owner = ? %s";
+
+  private static final String HISTOGRAM_QUERY =
+          "SELECT table_name, column_name, endpoint_value, endpoint_actual_value, " +
+            "endpoint_number, endpoint_repeat_count " +
+          "FROM ALL_TAB_HISTOGRAMS " +
+          "WHERE owner = ? %s" +
+          "ORDER BY table_name, column_name, endpoint_number";
+
+  private final Map<ColumnId, OracleColumnStatistics> columns;
+  private final Table<String, String, Long> cardinalities;
+  private final Table<String, String, Long> stamps;
+
+  public OracleCatalogSnapshot() {
+    this.columns = Maps.newHashMap();
+    this.cardinalities = HashBasedTable.create();
+    this.stamps = HashBasedTable.create();
+  }
+
+  /**
+   * Loads the dictionary statistics of all tables and columns of the owner.
+   * @param connector Connector used to query the dictionary
+   * @param owner Name of the owner (schema)
+   * @throws SQLException if a database access error occurs
+   */
+  public void loadOwner(final JdbcConnector connector, final String owner)
+      throws SQLException {
+    load(connector, owner, null);
+  }
+
+  /**
+   * Loads the dictionary statistics of the table and all its columns.
+   * @param connector Connector used to query the dictionary
+   * @param owner Name of the owner (schema)
+   * @param table Name of the table
+   * @throws SQLException if a database access error occurs
+   */
+  public void loadTable(final JdbcConnector connector, final String owner
+      , final String table) throws SQLException {
+    load(connector, owner, table);
+  }
+
+  /**
+   * Brings the statistics of the owner up to date. Tables whose
+   * <code>LAST_ANALYZED</code> differs from the stamp in the snapshot or that
+   * are not part of the snapshot yet are (re)loaded, tables that were dropped
+   * are removed, and all other tables are kept as they are.
+   * @param connector Connector used to query the dictionary
+   * @param owner Name of the owner (schema)
+   * @return the number of reloaded tables
+   * @throws SQLException if a database access error occurs
+   */
+  public int refreshOwner(final JdbcConnector connector, final String owner)
+      throws SQLException {
+    Map<String, Long> current = Maps.newHashMap();
+    connector.query(String.format(STAMP_QUERY, ""), FETCH_SIZE,
+        new StampHandler(current), owner);
+    Map<String, Long> cached = stamps.row(owner);
+    Set<String> stale = Sets.newHashSet();
+    for (Entry<String, Long> e : current.entrySet()) {
+      if (!e.getValue().equals(cached.get(e.getKey()))) {
+        stale.add(e.getKey());
+      }
+    }
+    Set<String> dropped = Sets.newHashSet(Sets.difference(cached.keySet(), current.keySet()));
+    invalidate(owner, Sets.union(stale, dropped));
+    if (!stale.isEmpty() && stale.size() == current.size()) {
+      // nothing to keep, load the whole owner at once
+      load(connector, owner, null);
+    } else {
+      for (String table : stale) {
+        load(connector, owner, table);
+      }
+    }
+    LOGGER.debug("Refreshed " + stale.size() + " of " + current.size()
+        + " tables of " + owner);
+    return stale.size();
+  }
+
+  private void invalidate(final String owner, final Set<String> tables) {
+    if (tables.isEmpty()) {
+      return;
+    }
+    Iterator<ColumnId> iter = columns.keySet().iterator();
+    while (iter.hasNext()) {
+      ColumnId columnId = iter.next();
+      if (columnId.getSchema().equals(owner) && tables.contains(columnId.getTable())) {
+        iter.remove();
+      }
+    }
+    for (String table : tables) {
+      cardinalities.remove(owner, table);
+      stamps.remove(owner, table);
+    }
+  }
+
+  private void load(final JdbcConnector connector, final String owner
+      , final String table) throws SQLException {
+    int numColumns = columns.size();
+    String predicate = (table != null) ? TABLE_PREDICATE : "";
+    String constraintPredicate = (table != null) ? CONSTRAINT_TABLE_PREDICATE : "";
+    Object[] parameters = (table != null)
+        ? new Object[] { owner, table } : new Object[] { owner };
+    // stamp first, statistics gathered meanwhile are reloaded next time
+    Map<String, Long> current = Maps.newHashMap();
+    connector.query(String.format(STAMP_QUERY, predicate), FETCH_SIZE,
+        new StampHandler(current), parameters);
+    for (Entry<String, Long> e : current.entrySet()) {
+      stamps.put(owner, e.getKey(), e.getValue());
+    }
+    connector.query(String.format(CARDINALITY_QUERY, predicate), FETCH_SIZE,
+        new CardinalityHandler(owner), parameters);
+    connector.query(String.format(DOMAIN_QUERY, predicate), FETCH_SIZE,
+        new DomainHandler(owner), parameters);
+    for (Entry<ColumnId, TypeInfo> e : connector.typeQuery(owner, table).entrySet()) {
+      OracleColumnStatistics statistics = columns.get(e.getKey());
+      if (statistics != null) {
+        statistics.setTypeInfo(e.getValue());
+      }
+    }
+    connector.query(String.format(STATISTICS_QUERY, predicate), FETCH_SIZE,
+        new StatisticsHandler(owner), parameters);
+    connector.query(String.format(CONSTRAINT_QUERY, constraintPredicate), FETCH_SIZE,
+        new ConstraintHandler(owner), parameters);
+    connector.query(String.format(HISTOGRAM_QUERY, predicate), FETCH_SIZE,
+        new EndpointHandler(owner), parameters);
+    LOGGER.debug("Loaded dictionary statistics of " + (columns.size() - numColumns)
+        + " columns from " + owner);
+  }
+
+  /**
+   * Checks whether the snapshot contains the column.
+   * @param columnId the column to look up
+   * @return <code>true</code> if the column's statistics were loaded
+   */
+  public boolean containsColumn(final ColumnId columnId) {
+    return columns.containsKey(columnId);
+  }
+
+  /**
+   * Returns the dictionary rows of the column.
+   * @param columnId the column to look up
+   * @return the column statistics or <code>null</code> if the column is not
+   *  part of the snapshot
+   */
+  public OracleColumnStatistics getColumn(final ColumnId columnId) {
+    return columns.get(columnId);
+  }
+
+  public OracleColumnStatistics getColumn(final String owner, final String table
+      , final String column) {
+    return getColumn(new ColumnId(owner, table, column));
+  }
+
+  /**
+   * Returns the number of rows of the table.
+   * @param owner Name of the owner
+   * @param table Name of the table
+   * @return the number of rows or <code>null</code> if the table is not part
+   *  of the snapshot or has not been analyzed
+   */
+  public Long getCardinality(final String owner, final String table) {
+    return cardinalities.get(owner, table);
+  }
+
+  private static final class StampHandler implements ResultSetHandler<Void> {
+
+    private final Map<String, Long> stamps;
+
+    public StampHandler(final Map<String, Long> stamps) {
+      this.stamps = stamps;
+    }
+
+    @Override
+    public Void handle(final ResultSet rs) throws SQLException {
+      while (rs.next()) {
+        Timestamp lastAnalyzed = rs.getTimestamp("LAST_ANALYZED");
+        long stamp = (lastAnalyzed != null) ? lastAnalyzed.getTime() : NOT_ANALYZED;
+        stamps.put(rs.getString("TABLE_NAME"), stamp);
+      }
+      return null;
+    }
+  }
+
+  private abstract class RowHandler implements ResultSetHandler<Void> {
+
+    protected final String owner;
+
+    public RowHandler(final String owner) {
+      this.owner = owner;
+    }
+
+    protected OracleColumnStatistics getStatistics(final ResultSet rs)
+        throws SQLException {
+      ColumnId columnId = new ColumnId(owner, rs.getString("TABLE_NAME"), rs.getString("COLUMN_NAME"));
+      return columns.get(columnId);
+    }
+  }
+
+  private final class CardinalityHandler extends RowHandler {
+
+    public CardinalityHandler(final String owner) {
+      super(owner);
+    }
+
+    @Override
+    public Void handle(final ResultSet rs) throws SQLException {
+      while (rs.next()) {
+        BigDecimal numRows = rs.getBigDecimal("NUM_ROWS");
+        if (numRows != null) {
+          cardinalities.put(owner, rs.getString("TABLE_NAME"), numRows.longValueExact());
+        }
+      }
+      return null;
+    }
+  }
+
+  private final class DomainHandler extends RowHandler {
+
+    public DomainHandler(final String owner) {
+      super(owner);
+    }
+
+    @Override
+    public Void handle(final ResultSet rs) throws SQLException {
+      while (rs.next()) {
+        ColumnId columnId = new ColumnId(owner, rs.getString("TABLE_NAME"), rs.getString("COLUMN_NAME"));
+        OracleColumnStatistics statistics = new OracleColumnStatistics();
+        statistics.setDomain(rs.getBytes("LOW_VALUE"), rs.getBytes("HIGH_VALUE"),
+            rs.getBigDecimal("NUM_NULLS"), rs.getBigDecimal("NUM_DISTINCT"));
+        columns.put(columnId, statistics);
+      }
+      return null;
+    }
+  }
+
+  private final class StatisticsHandler extends RowHandler {
+
+    public StatisticsHandler(final String owner) {
+      super(owner);
+    }
+
+    @Override
+    public Void handle(final ResultSet rs) throws SQLException {
+      while (rs.next()) {
+        OracleColumnStatistics statistics = getStatistics(rs);
+        if (statistics != null) {
+          statistics.setStatistics(rs.getString("HISTOGRAM"), rs.getBigDecimal("NUM_DISTINCT"));
+        }
+      }
+      return null;
+    }
+  }
+
+  private final class ConstraintHandler extends RowHandler {
+
+    public ConstraintHandler(final String owner) {
+      super(owner);
+    }
+
+    @Override
+    public Void handle(final ResultSet rs) throws SQLException {
+      while (rs.next()) {
+        OracleColumnStatistics statistics = getStatistics(rs);
+        if (statistics != null) {
+          statistics.addConstraint(rs.getString("CONSTRAINT_TYPE"));
+        }
+      }
+      return null;
+    }
+  }
+
+  private final class EndpointHandler extends RowHandler {
+
+    public EndpointHandler(final String owner) {
+      super(owner);
+    }
+
+    @Override
+    public Void handle(final ResultSet rs) throws SQLException {
+      while (rs.next()) {
+        OracleColumnStatistics statistics = getStatistics(rs);
+        if (statistics != null) {
+          statistics.addEndpoint(new OracleColumnStatistics.Endpoint(
+              rs.getBigDecimal("ENDPOINT_VALUE"),
+              rs.getString("ENDPOINT_ACTUAL_VALUE"),
+              rs.getLong("ENDPOINT_NUMBER"),
+              rs.getLong("ENDPOINT_REPEAT_COUNT")));
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -17,8 +17,6 @@
 package de.tu_berlin.dima.oligos.db.oracle;
 
 import java.math.BigDecimal;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.LinkedHashMap;
@@ -27,7 +25,6 @@ import java.util.Map;
 import java.util.Set;
 
 import com.google.common.collect.Sets;
-import org.apache.commons.dbutils.QueryRunner;
 import org.apache.commons.dbutils.ResultSetHandler;
 import org.apache.commons.dbutils.handlers.ColumnListHandler;
 import org.apache.commons.lang3.tuple.Pair;
@@ -79,6 +76,7 @@ public final class OracleColumnConnector<T> implements ColumnConnector<T> {
   private final String table;
   private final String column;
   private final Parser<T> parser;
+  private final OracleColumnStatistics statistics;
 
   /* CACHED VALUES, field are initialized in a lazy manner */
   // domain query cache
@@ -100,28 +98,50 @@ public final class OracleColumnConnector<T> implements ColumnConnector<T> {
           final JdbcConnector connector,
           final String schema, final String table, final String column,
           final Parser<T> parser) {
+    this(connector, schema, table, column, parser, null);
+  }
+
+  /**
+   * Creates a column connector that serves all requests from the snapshot if
+   * it contains the column, and queries the data dictionary otherwise.
+   * @since 0.3.1
+   */
+  public OracleColumnConnector(
+          final JdbcConnector connector,
+          final String schema, final String table, final String column,
+          final Parser<T> parser, final OracleCatalogSnapshot snapshot) {
     this.connector = connector;
     this.schema = schema;
     this.table = table;
     this.column = column;
     this.parser = parser;
+    this.statistics = (snapshot != null) ? snapshot.getColumn(schema, table, column) : null;
   }
 
   @SuppressWarnings({"unchecked"})
   private void getDomainValues() throws SQLException {
     if (!isDomainCached) {
-      Map<String, Object> result = connector.mapQuery(DOMAIN_QUERY, schema, table, column);
+      if (statistics != null) {
+        numNulls = statistics.getNumNulls().longValueExact();
+        cardinality = statistics.getNumDistinct().longValueExact();
+        min = (T) OracleUtils.convert(statistics.getLowValue(), getTypeInfo());
+        max = (T) OracleUtils.convert(statistics.getHighValue(), getTypeInfo());
+      } else {
+        Map<String, Object> result = connector.mapQuery(DOMAIN_QUERY, schema, table, column);
+        numNulls = ((BigDecimal) result.get("NUM_NULLS")).longValueExact();
+        cardinality = ((BigDecimal) result.get("NUM_DISTINCT")).longValueExact();
+        min = (T) OracleUtils.convert((byte[]) result.get("LOW_VALUE"), getTypeInfo());
+        max = (T) OracleUtils.convert((byte[]) result.get("HIGH_VALUE"), getTypeInfo());
+      }
       isDomainCached = true;
-      numNulls = ((BigDecimal) result.get("NUM_NULLS")).longValueExact();
-      cardinality = ((BigDecimal) result.get("NUM_DISTINCT")).longValueExact();
-      min = (T) OracleUtils.convert((byte[]) result.get("LOW_VALUE"), getTypeInfo());
-      max = (T) OracleUtils.convert((byte[]) result.get("HIGH_VALUE"), getTypeInfo());
     }
   }
 
   private HistogramType getHistogramType() throws SQLException {
     if (histogramType == null) {
-      String type = connector.scalarQuery(HISTOGRAM_TYPE, "HISTOGRAM", schema, table, column);
+      String type = (statistics != null)
+          ? statistics.getHistogramType()
+          : connector.<String>scalarQuery(HISTOGRAM_TYPE, "HISTOGRAM", schema, table, column);
       // map histogram string to java enum (e.g., HEIGHT BALANCED -> HEIGHT_BALANCED)
       histogramType = HistogramType.valueOf(type.replace(' ', '_'));
     }
@@ -130,7 +150,11 @@ public final class OracleColumnConnector<T> implements ColumnConnector<T> {
 
   private TypeInfo getTypeInfo() throws SQLException {
     if (typeInfo == null) {
-      typeInfo = connector.typeQuery(schema, table, column);
+      if (statistics != null && statistics.getTypeInfo() != null) {
+        typeInfo = statistics.getTypeInfo();
+      } else {
+        typeInfo = connector.typeQuery(schema, table, column);
+      }
     }
     return typeInfo;
   }
@@ -155,9 +179,13 @@ public final class OracleColumnConnector<T> implements ColumnConnector<T> {
   public Set<Constraint> getConstraints() throws SQLException {
     if (constraints == null) {
       constraints = Sets.newHashSet();
-      ResultSetHandler<List<String>> handler = new ColumnListHandler<>("TYPE");
-      QueryRunner runner = new QueryRunner(true);
-      List<String> cons = runner.query(connector.getConnection(), CONSTRAINT_QUERY, handler, schema, table, column);
+      List<String> cons;
+      if (statistics != null) {
+        cons = statistics.getConstraintTypes();
+      } else {
+        ResultSetHandler<List<String>> handler = new ColumnListHandler<>("TYPE");
+        cons = connector.query(CONSTRAINT_QUERY, handler, schema, table, column);
+      }
 
       if (cons.contains("U")) {
         constraints.add(Constraint.UNIQUE);
@@ -214,37 +242,49 @@ public final class OracleColumnConnector<T> implements ColumnConnector<T> {
    * @return Mapping of values (bucket boundaries) to there apsolute count and repeat count if present.
    * @throws SQLException
    */
-  @SuppressWarnings("unchecked")
   public Map<T, Pair<Long, Long>> getRawHistogram() throws SQLException {
     if (rawHistogram == null) {
       rawHistogram = new LinkedHashMap<>();
-      Connection conn = connector.getConnection();
-      PreparedStatement stmt = conn.prepareStatement(HISTOGRAM_QUERY);
-      stmt.setString(1, schema);
-      stmt.setString(2, table);
-      stmt.setString(3, column);
-      ResultSet result = stmt.executeQuery();
-      long last = 0L;
-      while (result.next()) {
-        BigDecimal endpointValue = result.getBigDecimal("ENDPOINT_VALUE");
-        String endpointActualValue = result.getString("ENDPOINT_ACTUAL_VALUE");
-        long cumulativeCount = result.getLong("ENDPOINT_NUMBER");
-        long endpointRepeatCount = result.getLong("ENDPOINT_REPEAT_COUNT");
-        long count = cumulativeCount - last;
-        if (getTypeInfo().getType().equals(String.class)
-                && endpointActualValue != null
-                && endpointActualValue.length() > 0) {
-          rawHistogram.put(parser.fromString(endpointActualValue), Pair.of(count, endpointRepeatCount));
-        } else {
-          rawHistogram.put((T) OracleUtils.convertFromNumber(endpointValue, getTypeInfo()), Pair.of(count, endpointRepeatCount));
+      if (statistics != null) {
+        long last = 0L;
+        for (OracleColumnStatistics.Endpoint endpoint : statistics.getEndpoints()) {
+          addEndpoint(endpoint.getValue(), endpoint.getActualValue(),
+              endpoint.getNumber() - last, endpoint.getRepeatCount());
+          last = endpoint.getNumber();
         }
-        last = cumulativeCount;
+      } else {
+        connector.query(HISTOGRAM_QUERY, new ResultSetHandler<Void>() {
+          @Override
+          public Void handle(final ResultSet result) throws SQLException {
+            long last = 0L;
+            while (result.next()) {
+              BigDecimal endpointValue = result.getBigDecimal("ENDPOINT_VALUE");
+              String endpointActualValue = result.getString("ENDPOINT_ACTUAL_VALUE");
+              long cumulativeCount = result.getLong("ENDPOINT_NUMBER");
+              long endpointRepeatCount = result.getLong("ENDPOINT_REPEAT_COUNT");
+              addEndpoint(endpointValue, endpointActualValue, cumulativeCount - last, endpointRepeatCount);
+              last = cumulativeCount;
+            }
+            return null;
+          }
+        }, schema, table, column);
       }
-      stmt.close();
     }
     return rawHistogram;
   }
 
+  @SuppressWarnings("unchecked")
+  private void addEndpoint(final BigDecimal endpointValue, final String endpointActualValue,
+                           final long count, final long endpointRepeatCount) throws SQLException {
+    if (getTypeInfo().getType().equals(String.class)
+            && endpointActualValue != null
+            && endpointActualValue.length() > 0) {
+      rawHistogram.put(parser.fromString(endpointActualValue), Pair.of(count, endpointRepeatCount));
+    } else {
+      rawHistogram.put((T) OracleUtils.convertFromNumber(endpointValue, getTypeInfo()), Pair.of(count, endpointRepeatCount));
+    }
+  }
+
   @Override
   public Map<T, Long> getMostFrequentValues() throws SQLException {
     // TODO what about HYBRID histograms, is it possible to extract a frequency histogram?
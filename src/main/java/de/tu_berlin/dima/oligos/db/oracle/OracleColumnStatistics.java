@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db.oracle;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+
+/**
+ * Raw dictionary rows of a single Oracle column, i.e. the domain values from
+ * <code>ALL_TAB_COLUMNS</code>, the histogram type and number of distinct
+ * values from <code>ALL_TAB_COL_STATISTICS</code>, the endpoints from
+ * <code>ALL_TAB_HISTOGRAMS</code> ordered by endpoint number, the constraint
+ * types from <code>ALL_CONSTRAINTS</code>/<code>ALL_CONS_COLUMNS</code>, and
+ * the JDBC type information. Values are kept as returned by the dictionary,
+ * conversion is left to the {@link OracleColumnConnector}.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class OracleColumnStatistics implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private TypeInfo typeInfo;
+  private byte[] lowValue;
+  private byte[] highValue;
+  private BigDecimal numNulls;
+  private BigDecimal numDistinct;
+  private String histogramType;
+  private BigDecimal statisticsNumDistinct;
+  private final List<String> constraintTypes;
+  private final List<Endpoint> endpoints;
+
+  public OracleColumnStatistics() {
+    this.constraintTypes = Lists.newArrayList();
+    this.endpoints = Lists.newArrayList();
+  }
+
+  public TypeInfo getTypeInfo() {
+    return typeInfo;
+  }
+
+  public byte[] getLowValue() {
+    return lowValue;
+  }
+
+  public byte[] getHighValue() {
+    return highValue;
+  }
+
+  public BigDecimal getNumNulls() {
+    return numNulls;
+  }
+
+  /**
+   * Returns the number of distinct values from <code>ALL_TAB_COLUMNS</code>.
+   */
+  public BigDecimal getNumDistinct() {
+    return numDistinct;
+  }
+
+  /**
+   * Returns the histogram type from <code>ALL_TAB_COL_STATISTICS</code>,
+   * e.g. <code>FREQUENCY</code> or <code>HEIGHT BALANCED</code>.
+   */
+  public String getHistogramType() {
+    return histogramType;
+  }
+
+  /**
+   * Returns the number of distinct values from
+   * <code>ALL_TAB_COL_STATISTICS</code>.
+   */
+  public BigDecimal getStatisticsNumDistinct() {
+    return statisticsNumDistinct;
+  }
+
+  public List<String> getConstraintTypes() {
+    return Collections.unmodifiableList(constraintTypes);
+  }
+
+  public List<Endpoint> getEndpoints() {
+    return Collections.unmodifiableList(endpoints);
+  }
+
+  void setTypeInfo(final TypeInfo typeInfo) {
+    this.typeInfo = typeInfo;
+  }
+
+  void setDomain(final byte[] lowValue, final byte[] highValue
+      , final BigDecimal numNulls, final BigDecimal numDistinct) {
+    this.lowValue = lowValue;
+    this.highValue = highValue;
+    this.numNulls = numNulls;
+    this.numDistinct = numDistinct;
+  }
+
+  void setStatistics(final String histogramType, final BigDecimal numDistinct) {
+    this.histogramType = histogramType;
+    this.statisticsNumDistinct = numDistinct;
+  }
+
+  void addConstraint(final String type) {
+    constraintTypes.add(type);
+  }
+
+  void addEndpoint(final Endpoint endpoint) {
+    endpoints.add(endpoint);
+  }
+
+  /**
+   * Single row of <code>ALL_TAB_HISTOGRAMS</code>.
+   */
+  public static class Endpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BigDecimal value;
+    private final String actualValue;
+    private final long number;
+    private final long repeatCount;
+
+    public Endpoint(final BigDecimal value, final String actualValue
+        , final long number, final long repeatCount) {
+      this.value = value;
+      this.actualValue = actualValue;
+      this.number = number;
+      this.repeatCount = repeatCount;
+    }
+
+    public BigDecimal getValue() {
+      return value;
+    }
+
+    public String getActualValue() {
+      return actualValue;
+    }
+
+    /**
+     * Returns the cumulative endpoint number.
+     */
+    public long getNumber() {
+      return number;
+    }
+
+    public long getRepeatCount() {
+      return repeatCount;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db.oracle;
+
+import de.tu_berlin.dima.oligos.db.ForeignKeyExtractor;
+
+/**
+ * Reads foreign keys from <code>ALL_CONSTRAINTS</code> and
+ * <code>ALL_CONS_COLUMNS</code>. The columns of the foreign key and of the
+ * referenced key are matched by their position within the constraint.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class OracleForeignKeyExtractor extends ForeignKeyExtractor {
+
+	private static final String QUERY =
+			"SELECT c.constraint_name AS fk_name " +
+			"     , c.owner AS fktable_schem, c.table_name AS fktable_name " +
+			"     , cc.column_name AS fkcolumn_name " +
+			"     , p.owner AS pktable_schem, p.table_name AS pktable_name " +
+			"     , pc.column_name AS pkcolumn_name " +
+			"     , cc.position AS key_seq " +
+			"FROM all_constraints c " +
+			"JOIN all_cons_columns cc " +
+			"  ON cc.owner = c.owner AND cc.constraint_name = c.constraint_name " +
+			"JOIN all_constraints p " +
+			"  ON p.owner = c.r_owner AND p.constraint_name = c.r_constraint_name " +
+			"JOIN all_cons_columns pc " +
+			"  ON pc.owner = p.owner AND pc.constraint_name = p.constraint_name " +
+			" AND pc.position = cc.position " +
+			"WHERE c.constraint_type = 'R' " +
+			"%s"
+			+ "ORDER BY c.owner, c.table_name, c.constraint_name, cc.position";
+
+	private static final String SCHEMA_PREDICATE =
+			"AND (c.owner = ? OR c.r_owner = ?) ";
+
+	@Override
+	protected String getForeignKeysQuery() {
+		return String.format(QUERY, "");
+	}
+
+	@Override
+	protected String getSchemaForeignKeysQuery() {
+		return String.format(QUERY, SCHEMA_PREDICATE);
+	}
+
+}
@@ -46,9 +46,25 @@ public class OracleMetaConnector implements MetaConnector {
 			"AND column_name = ?";
 		  
 	private final JdbcConnector connector;
+	private final OracleCatalogSnapshot snapshot;
 
 	public OracleMetaConnector(final JdbcConnector jdbcConnector) {
+		this(jdbcConnector, null);
+	}
+
+	/**
+	 * Creates a meta connector that answers statistics, enumeration, and type
+	 * requests from the snapshot if it contains the column, and queries the
+	 * data dictionary otherwise.
+	 * @since 0.3.1
+	 */
+	public OracleMetaConnector(final JdbcConnector jdbcConnector, final OracleCatalogSnapshot snapshot) {
 		this.connector = jdbcConnector;
+		this.snapshot = snapshot;
+	}
+
+	private OracleColumnStatistics getStatistics(final String schema, final String table, final String column) {
+		return (snapshot != null) ? snapshot.getColumn(schema, table, column) : null;
 	}
 	  
 	@Override
@@ -75,6 +91,10 @@ public class OracleMetaConnector implements MetaConnector {
 	@Override
 	public boolean hasStatistics(String schema, String table, String column) throws SQLException {
 		//System.out.println("Domain query for <schema> = " + schema + ", <table> = " + table +", <column> = " + column);
+		OracleColumnStatistics statistics = getStatistics(schema, table, column);
+		if (statistics != null) {
+			return statistics.getNumDistinct() != null && statistics.getNumDistinct().longValueExact() != -1;
+		}
 		BigDecimal aux = connector.scalarQuery(DOMAIN_QUERY, "NUM_DISTINCT", schema, table, column);
 		Long card = aux.longValueExact();
 		if (card != null) {
@@ -94,6 +114,12 @@ public class OracleMetaConnector implements MetaConnector {
 
 	@Override
 	public boolean isEnumerated(String schema, String table, String column) throws SQLException {
+		OracleColumnStatistics statistics = getStatistics(schema, table, column);
+		if (statistics != null && statistics.getStatisticsNumDistinct() != null) {
+			long colCard = statistics.getStatisticsNumDistinct().longValueExact();
+			int numMostFreq = statistics.getEndpoints().size();
+			return colCard <= numMostFreq;
+		}
 		Map<String, Object> result = connector.mapQuery(
 	            ENUMERATED_QUERY, schema, table, column, schema, table, column);
 	    if (result != null) {
@@ -117,6 +143,10 @@ public class OracleMetaConnector implements MetaConnector {
 
 	@Override
 	public TypeInfo getColumnType(String schema, String table, String column) throws SQLException {
+		OracleColumnStatistics statistics = getStatistics(schema, table, column);
+		if (statistics != null && statistics.getTypeInfo() != null) {
+			return statistics.getTypeInfo();
+		}
 		return connector.typeQuery(schema, table, column);
 			//return connector.typeQuery(TYPE_QUERY, schema, table, column);
 	
@@ -12,13 +12,23 @@ public class OracleTableConnector implements TableConnector {
           "SELECT table_name, num_rows FROM all_tables WHERE owner = ? AND table_name = ?";
 
   private final JdbcConnector connector;
+  private final OracleCatalogSnapshot snapshot;
 
 	public OracleTableConnector(JdbcConnector connector) {
+    this(connector, null);
+	}
+
+	public OracleTableConnector(JdbcConnector connector, OracleCatalogSnapshot snapshot) {
     this.connector = connector;
+    this.snapshot = snapshot;
 	}
 
 	@Override
 	public long getCardinality(String schema, String table) throws SQLException {
+    Long numRows = (snapshot != null) ? snapshot.getCardinality(schema, table) : null;
+    if (numRows != null) {
+      return numRows;
+    }
     return connector.<BigDecimal>scalarQuery(QUERY, "NUM_ROWS", schema, table).longValueExact();
 	}
 
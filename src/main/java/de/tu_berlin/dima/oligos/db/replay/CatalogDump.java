@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db.replay;
+
+import java.io.Serializable;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.javatuples.Quartet;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
+
+import de.tu_berlin.dima.oligos.DenseSchema;
+import de.tu_berlin.dima.oligos.DriverName;
+import de.tu_berlin.dima.oligos.db.MetaConnector;
+import de.tu_berlin.dima.oligos.db.SchemaConnector;
+import de.tu_berlin.dima.oligos.db.TableConnector;
+import de.tu_berlin.dima.oligos.db.db2.Db2CatalogSnapshot;
+import de.tu_berlin.dima.oligos.db.oracle.OracleCatalogSnapshot;
+import de.tu_berlin.dima.oligos.db.oracle.OracleColumnStatistics;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+
+/**
+ * Captured catalog of a profiling run, that allows to profile the same
+ * columns again without a database connection.
+ * <br />
+ * The dump consists of the vendor specific catalog snapshot, which holds the
+ * raw catalog rows the column connectors work on, and of everything the
+ * {@link MetaConnector}, {@link TableConnector}, and {@link SchemaConnector}
+ * returned for the validated input schema, i.e. column types, enumeration
+ * flags, table cardinalities, and references. The replay connectors serve
+ * these values back.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class CatalogDump implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final DriverName driverName;
+  private final Serializable snapshot;
+  private final LinkedHashMap<ColumnId, TypeInfo> columns;
+  private final Set<ColumnId> enumerated;
+  private final Table<String, String, Long> cardinalities;
+  private final Map<String, Set<Quartet<String, String, String, String>>> references;
+
+  private CatalogDump(final DriverName driverName, final Serializable snapshot) {
+    this.driverName = driverName;
+    this.snapshot = snapshot;
+    this.columns = Maps.newLinkedHashMap();
+    this.enumerated = Sets.newHashSet();
+    this.cardinalities = HashBasedTable.create();
+    this.references = Maps.newHashMap();
+  }
+
+  /**
+   * Captures the catalog of the validated input schema through the given
+   * connectors.
+   * @param driverName Database driver the catalog was read with
+   * @param snapshot The {@link Db2CatalogSnapshot} or
+   *  {@link OracleCatalogSnapshot} the column connectors work on
+   * @param inputSchema The validated input schema
+   * @param columnTypes Type information of all columns in the input schema
+   * @param metaConnector Connector for the column meta data
+   * @param tableConnector Connector for the table cardinalities
+   * @param schemaConnector Connector for the references
+   * @return the captured catalog
+   * @throws SQLException if a database access error occurs
+   */
+  public static CatalogDump capture(final DriverName driverName
+      , final Serializable snapshot, final DenseSchema inputSchema
+      , final Map<ColumnId, TypeInfo> columnTypes, final MetaConnector metaConnector
+      , final TableConnector tableConnector, final SchemaConnector schemaConnector)
+          throws SQLException {
+    CatalogDump dump = new CatalogDump(driverName, snapshot);
+    for (ColumnId columnId : inputSchema) {
+      dump.columns.put(columnId, columnTypes.get(columnId));
+      if (metaConnector.isEnumerated(columnId)) {
+        dump.enumerated.add(columnId);
+      }
+    }
+    for (String schema : inputSchema.schemas()) {
+      for (String table : inputSchema.tablesIn(schema)) {
+        dump.cardinalities.put(schema, table, tableConnector.getCardinality(schema, table));
+      }
+      dump.references.put(schema, Sets.newHashSet(schemaConnector.getReferences(schema)));
+    }
+    return dump;
+  }
+
+  public DriverName getDriverName() {
+    return driverName;
+  }
+
+  /**
+   * Returns the DB2 catalog snapshot.
+   * @return the snapshot or <code>null</code> if the dump was not captured
+   *  from DB2
+   */
+  public Db2CatalogSnapshot getDb2Snapshot() {
+    return (snapshot instanceof Db2CatalogSnapshot) ? (Db2CatalogSnapshot) snapshot : null;
+  }
+
+  /**
+   * Returns the Oracle dictionary snapshot.
+   * @return the snapshot or <code>null</code> if the dump was not captured
+   *  from Oracle
+   */
+  public OracleCatalogSnapshot getOracleSnapshot() {
+    return (snapshot instanceof OracleCatalogSnapshot) ? (OracleCatalogSnapshot) snapshot : null;
+  }
+
+  /**
+   * Returns the captured columns in the order of the validated input schema.
+   * @return mapping of the captured columns to their type information
+   */
+  public Map<ColumnId, TypeInfo> getColumns() {
+    return Collections.unmodifiableMap(columns);
+  }
+
+  /**
+   * Checks whether the catalog snapshot holds everything the column
+   * connectors need to profile the column without a database connection.
+   * @param columnId the column to look up
+   * @return <code>true</code> if the column can be replayed
+   */
+  public boolean isCovered(final ColumnId columnId) {
+    if (snapshot instanceof Db2CatalogSnapshot) {
+      return getDb2Snapshot().containsColumn(columnId);
+    } else if (snapshot instanceof OracleCatalogSnapshot) {
+      OracleColumnStatistics statistics = getOracleSnapshot().getColumn(columnId);
+      return statistics != null && statistics.getTypeInfo() != null;
+    }
+    return false;
+  }
+
+  public boolean isEnumerated(final ColumnId columnId) {
+    return enumerated.contains(columnId);
+  }
+
+  /**
+   * Returns the captured cardinality of the table.
+   * @return the cardinality or <code>null</code> if the table was not captured
+   */
+  public Long getCardinality(final String schema, final String table) {
+    return cardinalities.get(schema, table);
+  }
+
+  /**
+   * Returns the captured references of the schema.
+   * @return the references or <code>null</code> if the schema was not captured
+   */
+  public Set<Quartet<String, String, String, String>> getReferences(final String schema) {
+    return references.get(schema);
+  }
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db.replay;
+
+import de.tu_berlin.dima.oligos.db.MetaConnector;
+import de.tu_berlin.dima.oligos.exception.ColumnDoesNotExistException;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+
+/**
+ * {@link MetaConnector} that serves the column meta data from a
+ * {@link CatalogDump}. Only the captured columns exist, and all of them have
+ * statistics.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class ReplayMetaConnector implements MetaConnector {
+
+  private final CatalogDump dump;
+
+  public ReplayMetaConnector(final CatalogDump dump) {
+    this.dump = dump;
+  }
+
+  @Override
+  public boolean hasColumn(final ColumnId columnId) {
+    return dump.getColumns().containsKey(columnId);
+  }
+
+  @Override
+  public boolean hasColumn(final String schema, final String table, final String column) {
+    return hasColumn(new ColumnId(schema, table, column));
+  }
+
+  @Override
+  public boolean hasStatistics(final ColumnId columnId) {
+    checkColumn(columnId);
+    return true;
+  }
+
+  @Override
+  public boolean hasStatistics(final String schema, final String table, final String column) {
+    return hasStatistics(new ColumnId(schema, table, column));
+  }
+
+  @Override
+  public boolean isEnumerated(final ColumnId columnId) {
+    checkColumn(columnId);
+    return dump.isEnumerated(columnId);
+  }
+
+  @Override
+  public boolean isEnumerated(final String schema, final String table, final String column) {
+    return isEnumerated(new ColumnId(schema, table, column));
+  }
+
+  @Override
+  public TypeInfo getColumnType(final ColumnId columnId) {
+    checkColumn(columnId);
+    return dump.getColumns().get(columnId);
+  }
+
+  @Override
+  public TypeInfo getColumnType(final String schema, final String table, final String column) {
+    return getColumnType(new ColumnId(schema, table, column));
+  }
+
+  private void checkColumn(final ColumnId columnId) {
+    if (!hasColumn(columnId)) {
+      throw new ColumnDoesNotExistException(columnId.getSchema(), columnId.getTable()
+          , columnId.getColumn());
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db.replay;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+import org.javatuples.Quartet;
+
+import de.tu_berlin.dima.oligos.db.SchemaConnector;
+
+/**
+ * {@link SchemaConnector} that serves the references from a
+ * {@link CatalogDump}.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class ReplaySchemaConnector implements SchemaConnector {
+
+  private final CatalogDump dump;
+
+  public ReplaySchemaConnector(final CatalogDump dump) {
+    this.dump = dump;
+  }
+
+  @Override
+  public Set<Quartet<String, String, String, String>> getReferences(final String schema)
+      throws SQLException {
+    Set<Quartet<String, String, String, String>> references = dump.getReferences(schema);
+    if (references == null) {
+      throw new SQLException("Schema " + schema + " was not captured");
+    }
+    return references;
+  }
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+
+import org.apache.log4j.Logger;
+
+import de.tu_berlin.dima.oligos.stat.Column;
+import de.tu_berlin.dima.oligos.stat.Schema;
+import de.tu_berlin.dima.oligos.stat.Table;
+import de.tu_berlin.dima.oligos.trace.Phase;
+import de.tu_berlin.dima.oligos.trace.Trace;
+import de.tu_berlin.dima.oligos.trace.Trace.Span;
+import de.tu_berlin.dima.oligos.type.MyriadType;
+import de.tu_berlin.dima.oligos.type.Types;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+
+/**
+ * Common base of the writers for Myriad generator prototypes. Provides the
+ * naming of parameters, functions, fields, and files as well as the
+ * distribution and domain files of the columns.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public abstract class AbstractMyriadWriter implements Writer {
+
+  private static final Logger LOGGER = Logger.getLogger(AbstractMyriadWriter.class);
+  private static final char FILE_SEPARATOR = '/';
+
+  protected final String generatorName;
+  protected final File outputDirectory;
+  protected final Schema schema;
+  private boolean writeDistributions;
+
+  public AbstractMyriadWriter(final Schema schema
+      , final File outputDirectory
+      , final String generatorName) {
+    this.generatorName = generatorName;
+    this.outputDirectory = outputDirectory;
+    this.schema = schema;
+    this.writeDistributions = true;
+  }
+
+  /**
+   * Sets whether {@link #write()} writes the distribution (domain) files
+   * along with the prototype, which is the default. Disable it if the files
+   * were already written table by table with {@link #writeDistributions(Table)}.
+   * @since 0.3.1
+   */
+  public void setWriteDistributions(final boolean writeDistributions) {
+    this.writeDistributions = writeDistributions;
+  }
+
+  /**
+   * Checks whether the column gets a probability function and a distribution
+   * file, i.e. whether it is no reference or is referenced itself.
+   */
+  protected boolean hasFunction(ColumnId columnId) {
+    return schema.isReferenced(columnId) || !schema.isReference(columnId);
+  }
+
+  /**
+   * Writes the distribution (domain) files of the columns of the table that
+   * get a probability function.
+   * @since 0.3.1
+   */
+  public void writeDistributions(final Table table) throws IOException, SQLException {
+    for (Column<?> column : table) {
+      writeDistributions(column);
+    }
+  }
+
+  /**
+   * Writes the distribution (domain) files of the column if it gets a
+   * probability function. Columns can be written concurrently, since each of
+   * them has its own files.
+   * @since 0.3.1
+   */
+  public void writeDistributions(final Column<?> column) throws IOException, SQLException {
+    if (hasFunction(column.getId())) {
+      writeDistributionFiles(column);
+    }
+  }
+
+  protected void writeDistribution(Column<?> column) throws IOException, SQLException {
+    if (writeDistributions) {
+      writeDistributionFiles(column);
+    }
+  }
+
+  private void writeDistributionFiles(Column<?> column) throws IOException, SQLException {
+    ColumnId columnId = column.getId();
+    File distFile = new File(outputDirectory, getRelativeDistributionPath(columnId));
+    File domainFile = new File(outputDirectory, getRelativeDomainPath(columnId));
+    DistributionWriter distWriter = new DistributionWriter(column, distFile, domainFile);
+    LOGGER.info("Write distribution for " + columnId.getQualifiedName() + " to " + distFile.getPath());
+    Span span = Trace.getInstance().start(Phase.DISTRIBUTION_WRITING);
+    try {
+      distWriter.write();
+    } finally {
+      span.stop();
+    }
+  }
+
+  /**
+   * Creates an empty prototype file and its parent folders.
+   */
+  protected File createPrototypeFile() throws IOException {
+    File xmlFile = new File(outputDirectory, generatorName + "-prototype.xml");
+    xmlFile.mkdirs();
+    xmlFile.delete();
+    xmlFile.createNewFile();
+    return xmlFile;
+  }
+
+  protected MyriadType getMyriadType(Column<?> column) {
+    if (column.isEnumerated()) {
+      return MyriadType.Enum;
+    } else {
+      Class<?> clazz = column.getTypeInfo().getType();
+      return Types.getMyriadType(clazz);
+    }
+  }
+
+  protected String getBaseCardinalityParam(String table, boolean isRef) {
+    String param = table.toLowerCase() + ".sequence.base_cardinality";
+    return isRef ? ("%" + param + "%") : param;
+  }
+  
+  protected String getFunctionKey(ColumnId column) {
+    return "Pr[" + column.getLowerCaseQualifiedName() + "]";
+  }
+  
+  protected String getDistributionPath(ColumnId column) {
+    return "${%ENV.config-dir% + \"" + getRelativeDistributionPath(column) + "\"}";
+  }
+  
+  protected String getRelativeDistributionPath(ColumnId columnId) {
+    return FILE_SEPARATOR +  "distributions" + FILE_SEPARATOR
+        + columnId.getQualifiedName(FILE_SEPARATOR).toLowerCase() + ".distribution";
+  }
+  
+  protected String getDomainPath(ColumnId column) {
+    return "${%ENV.config-dir% + \"" + getRelativeDomainPath(column) + "\"}";
+  }
+  
+  protected String getRelativeDomainPath(ColumnId columnId) {
+    return FILE_SEPARATOR +  "domains" + FILE_SEPARATOR
+        + columnId.getQualifiedName(FILE_SEPARATOR).toLowerCase() + ".domain";
+  }
+  
+  protected String getSetterKey(ColumnId columnId) {
+    return "set_" + columnId.getLowerCaseColumn();
+  }
+  
+  protected String getFieldRef(ColumnId columnId) {
+    return columnId.getLowerCaseTable() + ":" + "col_" + columnId.getLowerCaseColumn();
+  }
+
+  protected String getReferenceRef(ColumnId columnId) {
+    return getFieldRef(columnId) + "_ref";
+  }
+
+  protected String getReferenceType(ColumnId columnId) {
+    return schema.getReferencedColumn(columnId).getLowerCaseTable();
+  }
+
+}
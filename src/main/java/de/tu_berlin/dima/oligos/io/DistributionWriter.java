@@ -15,20 +15,24 @@
  ******************************************************************************/
 package de.tu_berlin.dima.oligos.io;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
 
 import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
 import com.google.common.io.Files;
 
 import de.tu_berlin.dima.oligos.stat.Column;
 import de.tu_berlin.dima.oligos.stat.distribution.histogram.Bucket;
-import de.tu_berlin.dima.oligos.stat.distribution.histogram.Histogram;
+import de.tu_berlin.dima.oligos.trace.ProfilingMetrics;
+import de.tu_berlin.dima.oligos.type.util.operator.Operator;
 import de.tu_berlin.dima.oligos.type.util.operator.Operators;
 
 public class DistributionWriter implements Writer {
@@ -54,61 +58,127 @@ public class DistributionWriter implements Writer {
   }
 
   public String getDomainString() {
-    long cardinality = column.getCardinality();
-    Histogram<?> exactValues = column.getDistribution().getExactValues();
-    StringBuilder strBld = new StringBuilder(getDomainFileHeader(cardinality));
-    strBld.append('\n');
-    int index = 0;
-    for (Bucket<?> exactBucket : exactValues) {
-      strBld.append(index++);
-      strBld.append(" ... ");
-      strBld.append("\"" + column.asString(exactBucket.getLowerBound()) + "\"");
-      strBld.append('\n');
+    StringBuilder strBld = new StringBuilder();
+    try {
+      writeDomain(strBld);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
     }
     return strBld.toString();
   }
 
   public String getDistributionString() throws SQLException {
-    Class<?> type = column.getTypeInfo().getType();
     StringBuilder strBld = new StringBuilder();
+    try {
+      writeDistribution(strBld);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return strBld.toString();
+  }
+
+  /**
+   * Writes the domain file content to <code>out</code>.
+   * <br />
+   * Values are appended as the histogram is iterated, no copy of the exact
+   * values is created.
+   * @param out Target of the domain file content
+   * @throws IOException if <code>out</code> cannot be written
+   */
+  public void writeDomain(final Appendable out) throws IOException {
+    writeDomain(column, out);
+  }
+
+  private static <T> void writeDomain(final Column<T> column, final Appendable out)
+      throws IOException {
+    Operator<T> operator = column.getOperator();
+    long cardinality = column.getCardinality();
+    out.append("@numberofvalues = ").append(String.valueOf(cardinality)).append('\n');
+    int index = 0;
+    for (Bucket<T> bucket : column.getDistribution()) {
+      if (isExact(bucket, operator)) {
+        out.append(String.valueOf(index++));
+        out.append(" ... ");
+        out.append('"').append(column.asString(bucket.getLowerBound())).append('"');
+        out.append('\n');
+      }
+    }
+  }
+
+  /**
+   * Writes the distribution file content to <code>out</code>.
+   * <br />
+   * The histogram is iterated once, which splits the buckets into exact values
+   * and ranges and counts both for the header. The entries are appended
+   * directly to <code>out</code> afterwards, only the buckets themselves are
+   * retained in between.
+   * @param out Target of the distribution file content
+   * @throws IOException if <code>out</code> cannot be written
+   * @throws SQLException if a bucket bound cannot be incremented
+   */
+  public void writeDistribution(final Appendable out) throws IOException, SQLException {
+    writeDistribution(column, out);
+  }
+
+  private static <T> void writeDistribution(final Column<T> column, final Appendable out)
+      throws IOException, SQLException {
+    Class<?> type = column.getTypeInfo().getType();
     boolean isEnum = column.isEnumerated();
-    Histogram<?> distribution = column.getDistribution();
-    Histogram<?> exactValues = distribution.getExactValues();
+    boolean quoted = QUOTED_TYPE.contains(type);
+    Operator<T> operator = column.getOperator();
     long numTotal = column.getNumberOfRecords();
-    int numExactVals = exactValues.getNumberOfBuckets();
-    int numBuckets = distribution.getNumberOfBuckets() - numExactVals;
+    List<Bucket<T>> exactValues = Lists.newArrayList();
+    List<Bucket<T>> buckets = Lists.newArrayList();
+    for (Bucket<T> bucket : column.getDistribution()) {
+      if (isExact(bucket, operator)) {
+        exactValues.add(bucket);
+      } else {
+        buckets.add(bucket);
+      }
+    }
     double nullProbability = column.getNullProbability();
-    strBld.append(getDistributionFileHeader(numExactVals, numBuckets, nullProbability));
-    strBld.append('\n');
-    strBld.append("# exact values");
-    strBld.append('\n');
+    out.append("@numberofexactvals = ").append(String.valueOf(exactValues.size())).append('\n');
+    out.append("@numberofbins = ").append(String.valueOf(buckets.size())).append('\n');
+    out.append("@nullprobability = ").append(String.valueOf(nullProbability)).append('\n');
+    out.append("# exact values");
+    out.append('\n');
     int index = 0;
-    for (Bucket<?> exactBucket : exactValues) {
-      double probability = exactBucket.getFrequency() / (double) numTotal;
-      String value = column.asString(exactBucket.getLowerBound());
+    for (Bucket<T> bucket : exactValues) {
+      double probability = bucket.getFrequency() / (double) numTotal;
+      String value = column.asString(bucket.getLowerBound());
+      appendProbability(out, probability);
       if (isEnum) {
-        strBld.append(getExactEntry(probability, value, index++));
+        out.append(String.valueOf(index++)).append(" } # ").append(value);
+      } else if (quoted) {
+        out.append('\'').append(value).append('\'').append(" }");
       } else {
-        if (QUOTED_TYPE.contains(type)) {
-          value = "\'" + value + "\'";
-        }
-        strBld.append(getExactEntry(probability, value));
+        out.append(value).append(" }");
       }
-      strBld.append('\n');
+      out.append('\n');
+    }
+    out.append("# bucket probabilities");
+    out.append('\n');
+    if (isEnum) {
+      return;
     }
-    strBld.append("# bucket probabilities");
-    strBld.append('\n');
-    for (Bucket<?> bucket : distribution.getNonExactValues()) {
+    for (Bucket<T> bucket : buckets) {
       String lowerBound = column.asString(bucket.getLowerBound());
       String upperBound = column.asString(Operators.increment(bucket.getUpperBound()));
       double probability = bucket.getFrequency() / (double) numTotal;
-      if (!isEnum) {
-        boolean quoted = QUOTED_TYPE.contains(type);
-        strBld.append(getBucketEntry(probability, lowerBound, upperBound, quoted));
-        strBld.append('\n');
+      appendProbability(out, probability);
+      out.append("x in [");
+      if (quoted) {
+        out.append('\'').append(lowerBound).append('\'');
+        out.append(", ");
+        out.append('\'').append(upperBound).append('\'');
+      } else {
+        out.append(lowerBound);
+        out.append(", ");
+        out.append(upperBound);
       }
+      out.append(") }");
+      out.append('\n');
     }
-    return strBld.toString();
   }
 
   public File createFile() {
@@ -120,78 +190,41 @@ public class DistributionWriter implements Writer {
     distributionFile.mkdirs();
     distributionFile.delete();
     distributionFile.createNewFile();
-    Files.write(getDistributionString(), distributionFile, Charsets.UTF_8);
+    BufferedWriter out = Files.newWriter(distributionFile, Charsets.UTF_8);
+    try {
+      writeDistribution(out);
+    } finally {
+      out.close();
+    }
     if (column.isEnumerated()) {
       domainFile.mkdirs();
       domainFile.delete();
       domainFile.createNewFile();
-      Files.write(getDomainString(), domainFile, Charsets.UTF_8);
+      out = Files.newWriter(domainFile, Charsets.UTF_8);
+      try {
+        writeDomain(out);
+      } finally {
+        out.close();
+      }
+      ProfilingMetrics.getInstance().bytesWritten(domainFile.length());
     }
+    ProfilingMetrics.getInstance().bytesWritten(distributionFile.length());
   }
 
-  private String getDomainFileHeader(long numValues) {
-    StringBuilder strBld = new StringBuilder();
-    strBld.append("@numberofvalues = ");
-    strBld.append(numValues);
-    return strBld.toString();
-  }
-
-  private String getDistributionFileHeader(int numExactVals, int numBuckets
-      , double nullProbability) {
-    StringBuilder strBld = new StringBuilder();
-    strBld.append("@numberofexactvals = ");
-    strBld.append(numExactVals);
-    strBld.append('\n');
-    strBld.append("@numberofbins = ");
-    strBld.append(numBuckets);
-    strBld.append('\n');
-    strBld.append("@nullprobability = ");
-    strBld.append(nullProbability);
-    return strBld.toString();
-  }
-
-  private String getExactEntry(double probability, String value) {
-    StringBuilder strBld = new StringBuilder();
-    strBld.append("p(X) = ");
-    strBld.append(String.valueOf(probability));
-    strBld.append('\t');
-    strBld.append("for X = { ");
-    strBld.append(value);
-    strBld.append(" }");
-    return strBld.toString();
+  private static void appendProbability(final Appendable out, final double probability)
+      throws IOException {
+    out.append("p(X) = ");
+    out.append(String.valueOf(probability));
+    out.append('\t');
+    out.append("for X = { ");
   }
 
-  private String getExactEntry(double probability, String value, int index) {
-    StringBuilder strBld = new StringBuilder(getExactEntry(probability, String.valueOf(index)));
-    strBld.append(" # ");
-    strBld.append(value);
-    return strBld.toString();
-  }
-
-  private String getBucketEntry(double probability, String lowerBound,
-      String upperBound, boolean quoted) {
-    StringBuilder strBld = new StringBuilder();
-    strBld.append("p(X) = ");
-    strBld.append(String.valueOf(probability));
-    strBld.append('\t');
-    strBld.append("for X = { ");
-    strBld.append("x in [");
-    if (quoted) {
-      strBld.append('\'');
-      strBld.append(lowerBound);
-      strBld.append('\'');
-      strBld.append(", ");
-      strBld.append('\'');
-      strBld.append(upperBound);
-      strBld.append('\'');
-    } else {
-      strBld.append(lowerBound);
-      strBld.append(", ");
-      strBld.append(upperBound);
-    }
-    strBld.append(")");
-    strBld.append(" }");
-    return strBld.toString();
+  /**
+   * Checks whether the bucket holds a single value, i.e. whether the operator
+   * of the histogram considers its bounds equal.
+   */
+  private static <T> boolean isExact(final Bucket<T> bucket, final Operator<T> operator) {
+    return operator.compare(bucket.getLowerBound(), bucket.getUpperBound()) == 0;
   }
 
 }
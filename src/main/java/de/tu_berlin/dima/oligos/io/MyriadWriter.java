@@ -38,27 +38,20 @@ import org.w3c.dom.Node;
 import de.tu_berlin.dima.oligos.stat.Column;
 import de.tu_berlin.dima.oligos.stat.Schema;
 import de.tu_berlin.dima.oligos.stat.Table;
-import de.tu_berlin.dima.oligos.type.MyriadType;
-import de.tu_berlin.dima.oligos.type.Types;
+import de.tu_berlin.dima.oligos.trace.ProfilingMetrics;
 import de.tu_berlin.dima.oligos.type.util.ColumnId;
 
-public class MyriadWriter implements Writer {
+public class MyriadWriter extends AbstractMyriadWriter {
   
   private static final Logger LOGGER = Logger.getLogger(MyriadWriter.class);
-  private static final char FILE_SEPARATOR = '/';
 
-  private final String generatorName;
-  private final File outputDirectory;
   private final Document document;
-  private final Schema schema;
   
   public MyriadWriter(final Schema schema
       , final File outputDirectory
       , final String generatorName) {
-    this.generatorName = generatorName;
-    this.outputDirectory = outputDirectory;
+    super(schema, outputDirectory, generatorName);
     this.document = createDocument();
-    this.schema = schema;
     createSkeleton();
   }
   
@@ -90,18 +83,13 @@ public class MyriadWriter implements Writer {
       Node setterChain = randomSequence.getElementsByTagName("setter_chain").item(0);
       recordSequences.appendChild(randomSequence);
       for (Column<?> column : table) {
-        String columnName = column.getColumn();
-        ColumnId columnId = new ColumnId(schemaName, tableName, columnName);
+        ColumnId columnId = column.getId();
         // create functions for current column if not reference
         // and write distribution (domain) file
-        if (schema.isReferenced(columnId) || !schema.isReference(columnId)) {
+        if (hasFunction(columnId)) {
           Element func = createFunction(column);
           functions.appendChild(func); 
-          File distFile = new File(outputDirectory, getRelativeDistributionPath(column.getId()));
-          File domainFile = new File(outputDirectory, getRelativeDomainPath(column.getId()));
-          DistributionWriter distWriter = new DistributionWriter(column, distFile, domainFile);
-          LOGGER.info("Write distribution for " + columnId.getQualifiedName() + " to " + distFile.getPath());
-          distWriter.write();
+          writeDistribution(column);
         }
         // create enum_set for column
         Element enumSet = createEnumSet(column);
@@ -180,7 +168,7 @@ public class MyriadWriter implements Writer {
     if (column.isUniqueHard()) {
       funcType = "uniform_probability[" + colType + "]";
       String min = column.getMin().toString();
-      String max = "${%" + columnId.getTable().toLowerCase() + ".sequence.cardinality% + " + min + "}";
+      String max = "${%" + columnId.getLowerCaseTable() + ".sequence.cardinality% + " + min + "}";
       Element argMin = createElement(Tag.Argument);
       argMin.setAttribute("key", "x_min");
       argMin.setAttribute("type", colType);
@@ -215,7 +203,7 @@ public class MyriadWriter implements Writer {
     if (column.isEnumerated()) {
       ColumnId columnId = column.getId();
       Element enumSet = createElement(Tag.EnumSet);
-      enumSet.setAttribute("key", columnId.getQualifiedName().toLowerCase());
+      enumSet.setAttribute("key", columnId.getLowerCaseQualifiedName());
       Element arg = createElement(Tag.Argument);
       arg.setAttribute("key", "path");
       arg.setAttribute("type", "String");
@@ -264,10 +252,10 @@ public class MyriadWriter implements Writer {
   private Element createRecordType(Column<?> column) {
     ColumnId columnId = column.getId();
     Element field = createElement(Tag.Field);
-    field.setAttribute("name", "col_" + columnId.getColumn().toLowerCase());
+    field.setAttribute("name", "col_" + columnId.getLowerCaseColumn());
     if (column.isEnumerated()) {
       field.setAttribute("type", "Enum");
-      field.setAttribute("enumref", columnId.getQualifiedName().toLowerCase());
+      field.setAttribute("enumref", columnId.getLowerCaseQualifiedName());
     } else {
       field.setAttribute("type", getMyriadType(column).getTypeName());
     }
@@ -277,7 +265,7 @@ public class MyriadWriter implements Writer {
   private Element createReference(Column<?> column) {
     ColumnId columnId = column.getId();
     Element reference = createElement(Tag.Reference);
-    reference.setAttribute("name", "col_" + columnId.getColumn().toLowerCase() + "_ref");
+    reference.setAttribute("name", "col_" + columnId.getLowerCaseColumn() + "_ref");
     reference.setAttribute("type", getReferenceType(columnId));
     return reference;
   }
@@ -288,7 +276,7 @@ public class MyriadWriter implements Writer {
     setter.setAttribute("key", getSetterKey(columnId) + "_ref");
     setter.setAttribute("type", "reference_setter");
     Element fieldArg =
-        createKeyTypeRefArgument("reference", "reference_ref", getReferenceRef(columnId).toLowerCase());
+        createKeyTypeRefArgument("reference", "reference_ref", getReferenceRef(columnId));
     setter.appendChild(fieldArg);
     Element randomReferenceProvider = createRandomReferenceProvider(column);
     setter.appendChild(randomReferenceProvider);
@@ -364,7 +352,7 @@ public class MyriadWriter implements Writer {
     min.setAttribute("value", String.valueOf(0));
     cardinality.appendChild(min);
     Element max = createKeyTypeArgument("max", "I64u");
-    max.setAttribute("value", "%" + columnId.getTable().toLowerCase() + ".sequence.cardinality%");
+    max.setAttribute("value", "%" + columnId.getLowerCaseTable() + ".sequence.cardinality%");
     cardinality.appendChild(max);
     clusteredValueProvider.appendChild(cardinality);
     return clusteredValueProvider;
@@ -394,7 +382,7 @@ public class MyriadWriter implements Writer {
     Element contextValueProvider =
         createKeyTypeArgument("value", "context_field_value_provider[" + myriadType + "]");
     String ref =
-        getReferenceRef(columnId) + ":col_" + schema.getReferencedColumn(columnId).getColumn().toLowerCase();
+        getReferenceRef(columnId) + ":col_" + schema.getReferencedColumn(columnId).getLowerCaseColumn();
     Element fieldArg = createKeyTypeRefArgument("field", "field_ref", ref);
     contextValueProvider.appendChild(fieldArg);
     return contextValueProvider;
@@ -419,10 +407,7 @@ public class MyriadWriter implements Writer {
   
   private void writeXml() throws TransformerException, IOException {
     // create XML file and parent folders
-    File xmlFile = new File(outputDirectory, generatorName + "-prototype.xml");
-    xmlFile.mkdirs();
-    xmlFile.delete();
-    xmlFile.createNewFile();
+    File xmlFile = createPrototypeFile();
     
     // set up a transformer
     TransformerFactory transfac = TransformerFactory.newInstance();
@@ -433,63 +418,16 @@ public class MyriadWriter implements Writer {
     // create string from XML tree
     document.setXmlStandalone(true);
     FileWriter fw = new FileWriter(xmlFile);
-    StreamResult result = new StreamResult(fw);
-    DOMSource source = new DOMSource(document);
-    trans.transform(source, result);
-  }
-  
-  private MyriadType getMyriadType(Column<?> column) {
-    if (column.isEnumerated()) {
-      return MyriadType.Enum;
-    } else {
-      Class<?> clazz = column.getTypeInfo().getType();
-      return Types.getMyriadType(clazz);
+    try {
+      StreamResult result = new StreamResult(fw);
+      DOMSource source = new DOMSource(document);
+      trans.transform(source, result);
+    } finally {
+      fw.close();
     }
-  }
-
-  private String getBaseCardinalityParam(String table, boolean isRef) {
-    String param = table.toLowerCase() + ".sequence.base_cardinality";
-    return isRef ? ("%" + param + "%") : param;
-  }
-  
-  private String getFunctionKey(ColumnId column) {
-    return "Pr[" + column.getQualifiedName().toLowerCase() + "]";
-  }
-  
-  private String getDistributionPath(ColumnId column) {
-    return "${%ENV.config-dir% + \"" + getRelativeDistributionPath(column) + "\"}";
-  }
-  
-  private String getRelativeDistributionPath(ColumnId columnId) {
-    return FILE_SEPARATOR +  "distributions" + FILE_SEPARATOR
-        + columnId.getQualifiedName(FILE_SEPARATOR).toLowerCase() + ".distribution";
+    ProfilingMetrics.getInstance().bytesWritten(xmlFile.length());
   }
   
-  private String getDomainPath(ColumnId column) {
-    return "${%ENV.config-dir% + \"" + getRelativeDomainPath(column) + "\"}";
-  }
-  
-  private String getRelativeDomainPath(ColumnId columnId) {
-    return FILE_SEPARATOR +  "domains" + FILE_SEPARATOR
-        + columnId.getQualifiedName(FILE_SEPARATOR).toLowerCase() + ".domain";
-  }
-  
-  private String getSetterKey(ColumnId columnId) {
-    return "set_" + columnId.getColumn().toLowerCase();
-  }
-  
-  private String getFieldRef(ColumnId columnId) {
-    return (columnId.getTable() + ":" + "col_" + columnId.getColumn()).toLowerCase();
-  }
-
-  private String getReferenceRef(ColumnId columnId) {
-    return getFieldRef(columnId) + "_ref";
-  }
-
-  private String getReferenceType(ColumnId columnId) {
-    return schema.getReferencedColumn(columnId).getTable().toLowerCase();
-  }
-
   public enum Tag {
     GeneratorPrototype("generator_prototype"),
     Parameters("parameters"),
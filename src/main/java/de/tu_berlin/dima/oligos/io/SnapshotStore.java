@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Reads and writes catalog snapshots as gzipped, serialized Java objects.
+ * <br />
+ * A snapshot file is only a cache, therefore unreadable files, e.g. written
+ * by an incompatible version, are reported and ignored rather than failing
+ * the whole run.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public final class SnapshotStore {
+
+  private static final Logger LOGGER = Logger.getLogger(SnapshotStore.class);
+
+  private SnapshotStore() {
+  }
+
+  /**
+   * Reads the snapshot from the file.
+   * @param file Snapshot file
+   * @param clazz Expected class of the snapshot
+   * @return the snapshot or <code>null</code> if the file does not exist or
+   *  does not contain a readable snapshot of the expected class
+   */
+  public static <T extends Serializable> T read(final File file, final Class<T> clazz) {
+    if (!file.isFile()) {
+      return null;
+    }
+    try {
+      ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(
+          new BufferedInputStream(new FileInputStream(file))));
+      try {
+        Object snapshot = in.readObject();
+        if (clazz.isInstance(snapshot)) {
+          return clazz.cast(snapshot);
+        }
+        LOGGER.warn("Ignoring snapshot " + file + " of unexpected type "
+            + snapshot.getClass().getName());
+      } finally {
+        in.close();
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Ignoring unreadable snapshot " + file + ": " + e.getLocalizedMessage());
+    } catch (ClassNotFoundException e) {
+      LOGGER.warn("Ignoring unreadable snapshot " + file + ": " + e.getLocalizedMessage());
+    }
+    return null;
+  }
+
+  /**
+   * Writes the snapshot to the file. The snapshot is written to a temporary
+   * file first, which replaces the file afterwards, so an interrupted run does
+   * not leave a truncated snapshot behind.
+   * @param file Snapshot file
+   * @param snapshot Snapshot to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(final File file, final Serializable snapshot)
+      throws IOException {
+    File dir = file.getAbsoluteFile().getParentFile();
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Cannot create directory " + dir);
+    }
+    File tmp = new File(dir, file.getName() + ".tmp");
+    ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(
+        new BufferedOutputStream(new FileOutputStream(tmp))));
+    try {
+      out.writeObject(snapshot);
+    } finally {
+      out.close();
+    }
+    if (file.exists() && !file.delete()) {
+      throw new IOException("Cannot replace snapshot " + file);
+    }
+    if (!tmp.renameTo(file)) {
+      throw new IOException("Cannot rename " + tmp + " to " + file);
+    }
+  }
+}
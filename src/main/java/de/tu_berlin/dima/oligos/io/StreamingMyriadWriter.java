@@ -0,0 +1,323 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.io;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import de.tu_berlin.dima.oligos.io.MyriadWriter.Tag;
+import de.tu_berlin.dima.oligos.stat.Column;
+import de.tu_berlin.dima.oligos.stat.Schema;
+import de.tu_berlin.dima.oligos.stat.Table;
+import de.tu_berlin.dima.oligos.trace.ProfilingMetrics;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+
+/**
+ * Writes the same generator prototype as {@link MyriadWriter}, but emits the
+ * XML with an <code>XMLStreamWriter</code> instead of building a DOM.
+ * <br />
+ * The schema is traversed once per section of the prototype, i.e. for the
+ * parameters, functions, enum sets, and record sequences, and every element
+ * is written as soon as it is created. Each <code>random_sequence</code>
+ * traverses the columns of its table once per child element, so no state
+ * beyond the current table is kept.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class StreamingMyriadWriter extends AbstractMyriadWriter {
+
+  private static final String INDENT = "  ";
+
+  private XMLStreamWriter xml;
+  private int depth;
+  private boolean hasChildren;
+
+  public StreamingMyriadWriter(final Schema schema
+      , final File outputDirectory
+      , final String generatorName) {
+    super(schema, outputDirectory, generatorName);
+  }
+
+  @Override
+  public void write() throws IOException, SQLException {
+    File xmlFile = createPrototypeFile();
+    OutputStream out = new BufferedOutputStream(new FileOutputStream(xmlFile));
+    try {
+      xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+      depth = 0;
+      hasChildren = false;
+      xml.writeStartDocument("UTF-8", "1.0");
+      writeGeneratorPrototype();
+      xml.writeCharacters("\n");
+      xml.writeEndDocument();
+      xml.close();
+    } catch (XMLStreamException e) {
+      throw new IOException("Error while writing XML document " + xmlFile, e);
+    } finally {
+      xml = null;
+      out.close();
+    }
+    ProfilingMetrics.getInstance().bytesWritten(xmlFile.length());
+  }
+
+  private void writeGeneratorPrototype() throws XMLStreamException, IOException, SQLException {
+    start(Tag.GeneratorPrototype);
+    xml.writeDefaultNamespace("http://www.dima.tu-berlin.de/myriad/prototype");
+    xml.writeNamespace("xsi", "http://www.w3.org/2001/XMLSchema-instance");
+    // parameters
+    start(Tag.Parameters);
+    for (Table table : schema) {
+      start(Tag.Parameter);
+      xml.writeAttribute("key", getBaseCardinalityParam(table.getTable(), false));
+      xml.writeCharacters(String.valueOf(table.getCardinality()));
+      end();
+    }
+    end();
+    // functions and distribution (domain) files
+    start(Tag.Functions);
+    for (Table table : schema) {
+      for (Column<?> column : table) {
+        if (hasFunction(column.getId())) {
+          writeFunction(column);
+          writeDistribution(column);
+        }
+      }
+    }
+    end();
+    // enum sets
+    start(Tag.EnumSets);
+    for (Table table : schema) {
+      for (Column<?> column : table) {
+        if (column.isEnumerated()) {
+          writeEnumSet(column);
+        }
+      }
+    }
+    end();
+    // record sequences
+    start(Tag.RecordSequences);
+    for (Table table : schema) {
+      writeRandomSequence(table);
+    }
+    end();
+    end();
+  }
+
+  private void writeFunction(Column<?> column) throws XMLStreamException {
+    ColumnId columnId = column.getId();
+    String colType = getMyriadType(column).getTypeName();
+    start(Tag.Function);
+    xml.writeAttribute("key", getFunctionKey(columnId));
+    if (column.isUniqueHard()) {
+      xml.writeAttribute("type", "uniform_probability[" + colType + "]");
+      String min = column.getMin().toString();
+      String max = "${%" + columnId.getLowerCaseTable() + ".sequence.cardinality% + " + min + "}";
+      writeArgument("x_min", colType, "value", min);
+      writeArgument("x_max", colType, "value", max);
+    } else if (column.isEnumerated()) {
+      xml.writeAttribute("type", "combined_probability[Enum]");
+      writeArgument("path", "String", "value", getDistributionPath(columnId));
+    } else {
+      xml.writeAttribute("type", "combined_probability[" + colType + "]");
+      writeArgument("path", "String", "value", getDistributionPath(columnId));
+    }
+    end();
+  }
+
+  private void writeEnumSet(Column<?> column) throws XMLStreamException {
+    ColumnId columnId = column.getId();
+    start(Tag.EnumSet);
+    xml.writeAttribute("key", columnId.getLowerCaseQualifiedName());
+    writeArgument("path", "String", "value", getDomainPath(columnId));
+    end();
+  }
+
+  private void writeRandomSequence(Table table) throws XMLStreamException {
+    String tableName = table.getTable();
+    start(Tag.RandomSequence);
+    xml.writeAttribute("key", tableName.toLowerCase());
+    // record_type
+    start(Tag.RecordType);
+    for (Column<?> column : table) {
+      writeRecordType(column);
+      if (schema.isReference(column.getId())) {
+        writeReference(column);
+      }
+    }
+    end();
+    // output_format
+    start(Tag.OutputFormat);
+    xml.writeAttribute("type", "csv");
+    writeArgument("quoted", "Bool", "value", "false");
+    writeArgument("delimiter", "Char", "value", "|");
+    for (Column<?> column : table) {
+      writeArgument("field", "field_ref", "ref", getFieldRef(column.getId()));
+    }
+    end();
+    // setter_chain
+    start(Tag.SetterChain);
+    for (Column<?> column : table) {
+      if (schema.isReference(column.getId())) {
+        writeReferenceSetter(column);
+      }
+      writeSetter(column, table);
+    }
+    end();
+    // cardinality_estimator
+    start(Tag.CardinalityEstimator);
+    xml.writeAttribute("type", "linear_scale_estimator");
+    writeArgument("base_cardinality", "I64u", "value", getBaseCardinalityParam(tableName, true));
+    end();
+    // sequence_iterator
+    start(Tag.SequenceIterator);
+    xml.writeAttribute("type", "partitioned_iterator");
+    end();
+    end();
+  }
+
+  private void writeRecordType(Column<?> column) throws XMLStreamException {
+    ColumnId columnId = column.getId();
+    start(Tag.Field);
+    xml.writeAttribute("name", "col_" + columnId.getLowerCaseColumn());
+    if (column.isEnumerated()) {
+      xml.writeAttribute("type", "Enum");
+      xml.writeAttribute("enumref", columnId.getLowerCaseQualifiedName());
+    } else {
+      xml.writeAttribute("type", getMyriadType(column).getTypeName());
+    }
+    end();
+  }
+
+  private void writeReference(Column<?> column) throws XMLStreamException {
+    ColumnId columnId = column.getId();
+    start(Tag.Reference);
+    xml.writeAttribute("name", "col_" + columnId.getLowerCaseColumn() + "_ref");
+    xml.writeAttribute("type", getReferenceType(columnId));
+    end();
+  }
+
+  private void writeReferenceSetter(Column<?> column) throws XMLStreamException {
+    ColumnId columnId = column.getId();
+    start(Tag.Setter);
+    xml.writeAttribute("key", getSetterKey(columnId) + "_ref");
+    xml.writeAttribute("type", "reference_setter");
+    writeArgument("reference", "reference_ref", "ref", getReferenceRef(columnId));
+    // random reference provider
+    ColumnId reffedCol = schema.getReferencedColumn(columnId);
+    startArgument("value", "random_reference_provider");
+    startArgument("predicate", "equality_predicate_provider");
+    startArgument("binder", "predicate_value_binder");
+    writeArgument("field", "field_ref", "ref", getFieldRef(reffedCol));
+    writeRandomValueProvider(reffedCol, getMyriadType(column).getTypeName());
+    end();
+    end();
+    end();
+    end();
+  }
+
+  private void writeSetter(Column<?> column, Table table) throws XMLStreamException {
+    ColumnId columnId = column.getId();
+    String myriadType = getMyriadType(column).getTypeName();
+    start(Tag.Setter);
+    xml.writeAttribute("key", getSetterKey(columnId));
+    xml.writeAttribute("type", "field_setter");
+    writeArgument("field", "field_ref", "ref", getFieldRef(columnId));
+    if (schema.isReference(columnId)) {
+      // context value provider for references, i.e. foreign keys
+      startArgument("value", "context_field_value_provider[" + myriadType + "]");
+      String ref = getReferenceRef(columnId) + ":col_"
+          + schema.getReferencedColumn(columnId).getLowerCaseColumn();
+      writeArgument("field", "field_ref", "ref", ref);
+      end();
+    } else if (column.isUniqueHard() || (column.getCardinality() >= table.getCardinality())) {
+      // clustered value provider for unique columns
+      startArgument("value", "clustered_value_provider[" + myriadType + "]");
+      writeArgument("probability", "function_ref", "ref", getFunctionKey(columnId));
+      startArgument("cardinality", "const_range_provider[I64u]");
+      writeArgument("min", "I64u", "value", String.valueOf(0));
+      writeArgument("max", "I64u", "value"
+          , "%" + columnId.getLowerCaseTable() + ".sequence.cardinality%");
+      end();
+      end();
+    } else {
+      // random value provider for all non key columns
+      writeRandomValueProvider(columnId, myriadType);
+    }
+    end();
+  }
+
+  private void writeRandomValueProvider(ColumnId columnId, String type)
+      throws XMLStreamException {
+    startArgument("value", "random_value_provider[" + type + "]");
+    writeArgument("probability", "function_ref", "ref", getFunctionKey(columnId));
+    end();
+  }
+
+  /**
+   * Starts an <code>argument</code> element with key and type attributes,
+   * which has to be closed with {@link #end()}.
+   */
+  private void startArgument(String key, String type) throws XMLStreamException {
+    start(Tag.Argument);
+    xml.writeAttribute("key", key);
+    xml.writeAttribute("type", type);
+  }
+
+  /**
+   * Writes an <code>argument</code> element with key and type attributes and
+   * a third attribute, i.e. <code>value</code> or <code>ref</code>.
+   */
+  private void writeArgument(String key, String type, String attribute, String value)
+      throws XMLStreamException {
+    startArgument(key, type);
+    xml.writeAttribute(attribute, value);
+    end();
+  }
+
+  private void start(Tag tag) throws XMLStreamException {
+    newLine();
+    xml.writeStartElement(tag.getName());
+    depth++;
+    hasChildren = false;
+  }
+
+  private void end() throws XMLStreamException {
+    depth--;
+    if (hasChildren) {
+      newLine();
+    }
+    xml.writeEndElement();
+    hasChildren = true;
+  }
+
+  private void newLine() throws XMLStreamException {
+    StringBuilder strBld = new StringBuilder("\n");
+    for (int i = 0; i < depth; i++) {
+      strBld.append(INDENT);
+    }
+    xml.writeCharacters(strBld.toString());
+  }
+
+}
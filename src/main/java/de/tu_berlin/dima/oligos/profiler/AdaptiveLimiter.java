@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.profiler;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+import de.tu_berlin.dima.oligos.db.QueryListener;
+
+/**
+ * Limits the number of columns profiled concurrently, adapting the limit to
+ * the observed latency of the catalog queries (additive increase,
+ * multiplicative decrease).
+ * <br />
+ * The limiter keeps the lowest latency seen for every distinct query as its
+ * baseline. A query that takes longer than <code>tolerance</code> times its
+ * baseline, or fails, signals congestion and multiplies the limit with
+ * <code>backoff</code>, at most once per <code>limit</code> queries. Every
+ * other query executed while the limit is fully used raises the limit by
+ * <code>1 / limit</code>, i.e. by one per <code>limit</code> queries. The
+ * limit starts at the floor and always stays between floor and ceiling.
+ * <br />
+ * Register the limiter as {@link QueryListener} of the connectors it governs.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class AdaptiveLimiter implements QueryListener {
+
+  public static final double DEFAULT_TOLERANCE = 2.0;
+  public static final double DEFAULT_BACKOFF = 0.75;
+
+  /** Latency differences below one millisecond are never congestion. */
+  private static final long MIN_SLACK = TimeUnit.MILLISECONDS.toNanos(1L);
+
+  private final int floor;
+  private final int ceiling;
+  private final double tolerance;
+  private final double backoff;
+  private final Lock lock;
+  private final Condition available;
+  private final Map<String, Long> baselines;
+  private double limit;
+  private int inFlight;
+  private long samples;
+  private long samplesSinceDecrease;
+  private long decreases;
+  private long acquisitions;
+  private long inFlightSum;
+  private int lowestLimit;
+  private int highestLimit;
+
+  public AdaptiveLimiter(final int floor, final int ceiling) {
+    this(floor, ceiling, DEFAULT_TOLERANCE, DEFAULT_BACKOFF);
+  }
+
+  /**
+   * @param floor Lowest limit
+   * @param ceiling Highest limit
+   * @param tolerance Factor by which a query may exceed its baseline latency
+   * @param backoff Factor the limit is multiplied with on congestion
+   */
+  public AdaptiveLimiter(final int floor, final int ceiling, final double tolerance
+      , final double backoff) {
+    Preconditions.checkArgument(floor > 0, "Floor must be positive");
+    Preconditions.checkArgument(ceiling >= floor, "Ceiling %s is below floor %s"
+        , ceiling, floor);
+    Preconditions.checkArgument(tolerance > 1.0, "Tolerance must be greater than 1");
+    Preconditions.checkArgument(backoff > 0.0 && backoff < 1.0
+        , "Backoff must be between 0 and 1");
+    this.floor = floor;
+    this.ceiling = ceiling;
+    this.tolerance = tolerance;
+    this.backoff = backoff;
+    this.lock = new ReentrantLock();
+    this.available = lock.newCondition();
+    this.baselines = Maps.newHashMap();
+    this.limit = floor;
+    this.lowestLimit = floor;
+    this.highestLimit = floor;
+  }
+
+  /**
+   * Waits until fewer columns than the current limit are in flight and takes
+   * a slot.
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void acquire() throws InterruptedException {
+    lock.lock();
+    try {
+      while (inFlight >= (int) limit) {
+        available.await();
+      }
+      inFlight++;
+      acquisitions++;
+      inFlightSum += inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns a slot taken by {@link #acquire()}.
+   */
+  public void release() {
+    lock.lock();
+    try {
+      Preconditions.checkState(inFlight > 0, "No slot acquired");
+      inFlight--;
+      available.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void queryStarted(final String query) {
+    // only completed queries carry a latency
+  }
+
+  @Override
+  public void queryExecuted(final String query, final long nanos, final long rows
+      , final boolean failed) {
+    lock.lock();
+    try {
+      samples++;
+      samplesSinceDecrease++;
+      Long baseline = baselines.get(query);
+      if (!failed && (baseline == null || nanos < baseline)) {
+        baselines.put(query, nanos);
+        baseline = nanos;
+      }
+      boolean congested = failed || nanos > tolerance * baseline + MIN_SLACK;
+      if (congested) {
+        if (samplesSinceDecrease >= limit && limit > floor) {
+          limit = Math.max(floor, limit * backoff);
+          samplesSinceDecrease = 0;
+          decreases++;
+          lowestLimit = Math.min(lowestLimit, (int) limit);
+        }
+      } else if (inFlight >= (int) limit) {
+        int previous = (int) limit;
+        limit = Math.min(ceiling, limit + 1.0 / limit);
+        if ((int) limit > previous) {
+          highestLimit = Math.max(highestLimit, (int) limit);
+          available.signalAll();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the current number of columns that may be in flight.
+   */
+  public int getLimit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getLowestLimit() {
+    lock.lock();
+    try {
+      return lowestLimit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getHighestLimit() {
+    lock.lock();
+    try {
+      return highestLimit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of queries observed so far.
+   */
+  public long getSamples() {
+    lock.lock();
+    try {
+      return samples;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns how often congestion decreased the limit.
+   */
+  public long getDecreases() {
+    lock.lock();
+    try {
+      return decreases;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the average number of columns in flight, including the acquiring
+   * one, whenever a slot was acquired.
+   */
+  public double getAverageConcurrency() {
+    lock.lock();
+    try {
+      return (acquisitions == 0) ? 0.0 : (double) inFlightSum / acquisitions;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public String toString() {
+    lock.lock();
+    try {
+      return String.format("limit %d (lowest %d, highest %d, floor %d, ceiling %d)"
+          + ", average concurrency %.2f, %d queries, %d decreases"
+          , (int) limit, lowestLimit, highestLimit, floor, ceiling
+          , getAverageConcurrency(), samples, decreases);
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.profiler;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * {@link Profiler} that can also profile without blocking the calling thread.
+ * The database is accessed on the threads of the given
+ * {@link ProfilingExecutor}, results of child profilers are composed as they
+ * complete.
+ * <br />
+ * Cancelling the returned future cancels all pending database calls of the
+ * profiler and its children.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public interface AsyncProfiler<T> extends Profiler<T> {
+
+  public ListenableFuture<T> profileAsync(final ProfilingExecutor executor);
+}
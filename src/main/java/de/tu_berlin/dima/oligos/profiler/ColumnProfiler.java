@@ -19,18 +19,27 @@ import java.sql.SQLException;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+
+import com.google.common.util.concurrent.ListenableFuture;
 
 import de.tu_berlin.dima.oligos.db.ColumnConnector;
 import de.tu_berlin.dima.oligos.stat.Column;
 import de.tu_berlin.dima.oligos.stat.distribution.histogram.CustomHistogram;
 import de.tu_berlin.dima.oligos.stat.distribution.histogram.Histogram;
+import de.tu_berlin.dima.oligos.stat.distribution.histogram.Histograms;
 import de.tu_berlin.dima.oligos.stat.distribution.histogram.QuantileHistogram;
+import de.tu_berlin.dima.oligos.trace.Phase;
+import de.tu_berlin.dima.oligos.trace.ProfilingMetrics;
+import de.tu_berlin.dima.oligos.trace.Trace;
+import de.tu_berlin.dima.oligos.trace.Trace.Span;
+import de.tu_berlin.dima.oligos.type.util.ColumnIdRegistry;
 import de.tu_berlin.dima.oligos.type.util.Constraint;
 import de.tu_berlin.dima.oligos.type.util.TypeInfo;
 import de.tu_berlin.dima.oligos.type.util.operator.Operator;
 import de.tu_berlin.dima.oligos.type.util.parser.Parser;
 
-public class ColumnProfiler<T> implements Profiler<Column<T>> {
+public class ColumnProfiler<T> implements AsyncProfiler<Column<T>> {
 
   protected final ColumnConnector<T> connector;
   protected final String schema;
@@ -63,41 +72,103 @@ public class ColumnProfiler<T> implements Profiler<Column<T>> {
 
   public QuantileHistogram<T> getQuantileHistogram() {
     try {
-    	Map<T, Long> rawHist = connector.getHistogram();
-    
-      T min = getMin(connector.getMin(), rawHist.keySet());
-      QuantileHistogram<T> histogram = new QuantileHistogram<T>(min, operator);
-      for (Entry<T, Long> entry : rawHist.entrySet()) {
-        T value = entry.getKey();
-        long count = entry.getValue();
-        histogram.addBound(value, count);
-      }
-      return histogram;
+      return getQuantileHistogram(connector.getHistogram(), connector.getMin());
     } catch (SQLException e) {
       throw new RuntimeException(e);
     }
   }
 
+  protected QuantileHistogram<T> getQuantileHistogram(final Map<T, Long> rawHist, final T low) {
+    T min = getMin(low, rawHist.keySet());
+    QuantileHistogram<T> histogram = Histograms.newQuantileHistogram(min, operator);
+    for (Entry<T, Long> entry : rawHist.entrySet()) {
+      T value = entry.getKey();
+      long count = entry.getValue();
+      histogram.addBound(value, count);
+    }
+    return histogram;
+  }
+
   public Column<T> profile() {
-  	try {
-    	Set<Constraint> constraints = connector.getConstraints();
+    Trace trace = Trace.getInstance();
+    Span span = trace.start(Phase.COLUMN_PROFILING);
+    long nanos = 0L;
+    RawColumnStatistics<T> statistics;
+    try {
+      statistics = fetch();
+    } finally {
+      nanos += span.stop();
+    }
+    span = trace.start(Phase.HISTOGRAM_BUILDING);
+    Column<T> profiled;
+    try {
+      profiled = build(statistics);
+    } finally {
+      nanos += span.stop();
+      if (trace.isEnabled()) {
+        trace.recordColumn(ColumnIdRegistry.getInstance().intern(schema, table, column), nanos);
+      }
+    }
+    ProfilingMetrics.getInstance().columnProfiled(profiled);
+    return profiled;
+  }
+
+  /**
+   * Fetches and builds the column on the executor, subject to its column
+   * timeout.
+   * @since 0.3.1
+   */
+  @Override
+  public ListenableFuture<Column<T>> profileAsync(final ProfilingExecutor executor) {
+    return executor.submitTimed(new Callable<Column<T>>() {
+      @Override
+      public Column<T> call() {
+        return profile();
+      }
+    }, schema + "." + table + "." + column);
+  }
+
+  /**
+   * Fetches the statistics of the column from the database, without building
+   * the distribution.
+   * @return the raw column statistics
+   * @since 0.3.1
+   */
+  public RawColumnStatistics<T> fetch() {
+    try {
+      Set<Constraint> constraints = connector.getConstraints();
       T min = connector.getMin();
-    	T max = connector.getMax();
-    	long cardinality = connector.getCardinality();
-  		long numNulls = connector.getNumNulls();
-  		Histogram<T> distribution = null;
-  		if (isEnum) {
-  			distribution = new CustomHistogram<T>(operator);
-  			for (Entry<T, Long> e : connector.getMostFrequentValues().entrySet()) {
-  				distribution.add(e.getKey(), e.getKey(), e.getValue());
-  			}
-  		} else {
-  			distribution = getQuantileHistogram();
-  		}
-  		return new Column<T>(schema, table, column, type, constraints, min, max,
-          cardinality, numNulls, distribution, parser);
+      T max = connector.getMax();
+      long cardinality = connector.getCardinality();
+      long numNulls = connector.getNumNulls();
+      Map<T, Long> mostFrequentValues = isEnum ? connector.getMostFrequentValues() : null;
+      Map<T, Long> histogram = isEnum ? null : connector.getHistogram();
+      return new RawColumnStatistics<T>(constraints, min, max, cardinality, numNulls
+          , mostFrequentValues, histogram);
     } catch (SQLException e) {
       throw new RuntimeException(e);
     }
   }
+
+  /**
+   * Builds the profiled column from the fetched statistics, does not access
+   * the database.
+   * @param statistics Statistics obtained by {@link #fetch()}
+   * @return the profiled column
+   * @since 0.3.1
+   */
+  public Column<T> build(final RawColumnStatistics<T> statistics) {
+    Histogram<T> distribution = null;
+    if (isEnum) {
+      distribution = new CustomHistogram<T>(operator);
+      for (Entry<T, Long> e : statistics.getMostFrequentValues().entrySet()) {
+        distribution.add(e.getKey(), e.getKey(), e.getValue());
+      }
+    } else {
+      distribution = getQuantileHistogram(statistics.getHistogram(), statistics.getMin());
+    }
+    return new Column<T>(schema, table, column, type, statistics.getConstraints()
+        , statistics.getMin(), statistics.getMax(), statistics.getCardinality()
+        , statistics.getNumNulls(), distribution, operator, parser);
+  }
 }
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.profiler;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+import org.javatuples.Quartet;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import de.tu_berlin.dima.oligos.db.JdbcConnector;
+import de.tu_berlin.dima.oligos.db.JdbcConnectorPool;
+import de.tu_berlin.dima.oligos.db.SchemaConnector;
+import de.tu_berlin.dima.oligos.db.TableConnector;
+import de.tu_berlin.dima.oligos.stat.Column;
+import de.tu_berlin.dima.oligos.stat.Schema;
+import de.tu_berlin.dima.oligos.stat.Table;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+
+/**
+ * Profiles a schema by fanning out the column profiling to an
+ * {@link ExecutorService}. Each column task acquires its own
+ * {@link JdbcConnector} from a {@link JdbcConnectorPool}, creates the column
+ * profiler through a {@link ColumnProfilerFactory} and profiles the column.
+ * <br />
+ * Table cardinalities and references are retrieved by the calling thread using
+ * the given table and schema connectors. Tables and columns are merged back in
+ * the order they were added, hence the resulting {@link Schema} is equal to
+ * the one of a sequential {@link SchemaProfiler} run.
+ * <br />
+ * With an {@link AdaptiveLimiter}, column tasks additionally wait for a slot
+ * of the limiter, so fewer columns than workers may be profiled at a time.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class ParallelSchemaProfiler implements Profiler<Schema> {
+
+  private static final Logger LOGGER = Logger.getLogger(ParallelSchemaProfiler.class);
+
+  private final String schema;
+  private final SchemaConnector schemaConnector;
+  private final TableConnector tableConnector;
+  private final ColumnProfilerFactory profilerFactory;
+  private final JdbcConnectorPool pool;
+  private final ExecutorService executor;
+  private final AdaptiveLimiter limiter;
+  private final Map<String, Map<ColumnId, TypeInfo>> tables;
+
+  public ParallelSchemaProfiler(final String schema
+      , final SchemaConnector schemaConnector, final TableConnector tableConnector
+      , final ColumnProfilerFactory profilerFactory, final JdbcConnectorPool pool
+      , final ExecutorService executor) {
+    this(schema, schemaConnector, tableConnector, profilerFactory, pool, executor, null);
+  }
+
+  /**
+   * @param limiter Limiter of the concurrently profiled columns, or
+   *  <code>null</code> to profile as many columns as there are workers
+   * @since 0.3.1
+   */
+  public ParallelSchemaProfiler(final String schema
+      , final SchemaConnector schemaConnector, final TableConnector tableConnector
+      , final ColumnProfilerFactory profilerFactory, final JdbcConnectorPool pool
+      , final ExecutorService executor, final AdaptiveLimiter limiter) {
+    this.schema = schema;
+    this.schemaConnector = schemaConnector;
+    this.tableConnector = tableConnector;
+    this.profilerFactory = profilerFactory;
+    this.pool = pool;
+    this.executor = executor;
+    this.limiter = limiter;
+    this.tables = Maps.newLinkedHashMap();
+  }
+
+  /**
+   * Adds the table to the profiled tables, without any columns so far.
+   * @param table name of the table
+   */
+  public void addTable(final String table) {
+    if (!tables.containsKey(table)) {
+      tables.put(table, Maps.<ColumnId, TypeInfo>newLinkedHashMap());
+    }
+  }
+
+  /**
+   * Adds the column to the profiled columns of its table.
+   * @param columnId the column to profile
+   * @param type type information of the column
+   */
+  public void addColumn(final ColumnId columnId, final TypeInfo type) {
+    String table = columnId.getTable();
+    addTable(table);
+    tables.get(table).put(columnId, type);
+  }
+
+  @Override
+  public Schema profile() {
+    // submit all columns upfront, so workers are not idle between tables
+    Map<String, List<Future<Column<?>>>> futures = Maps.newLinkedHashMap();
+    for (Entry<String, Map<ColumnId, TypeInfo>> table : tables.entrySet()) {
+      List<Future<Column<?>>> columnFutures = Lists.newArrayList();
+      for (Entry<ColumnId, TypeInfo> column : table.getValue().entrySet()) {
+        columnFutures.add(executor.submit(
+            new ColumnTask(column.getKey(), column.getValue())));
+      }
+      futures.put(table.getKey(), columnFutures);
+    }
+    LOGGER.debug("Submitted columns of " + futures.size() + " tables in " + schema);
+
+    try {
+      Set<Table> profiledTables = Sets.newLinkedHashSet();
+      for (Entry<String, List<Future<Column<?>>>> e : futures.entrySet()) {
+        String table = e.getKey();
+        long cardinality = tableConnector.getCardinality(schema, table);
+        Set<Column<?>> columns = Sets.newLinkedHashSet();
+        for (Future<Column<?>> future : e.getValue()) {
+          columns.add(getResult(future));
+        }
+        profiledTables.add(new Table(schema, table, cardinality, columns));
+      }
+      Set<Quartet<String, String, String, String>> references =
+          schemaConnector.getReferences(schema);
+      return new Schema(schema, profiledTables, references);
+    } catch (SQLException e) {
+      cancel(futures);
+      throw new RuntimeException(e);
+    } catch (RuntimeException e) {
+      cancel(futures);
+      throw e;
+    }
+  }
+
+  private static Column<?> getResult(final Future<Column<?>> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else {
+        throw new RuntimeException(cause);
+      }
+    }
+  }
+
+  private static void cancel(final Map<String, List<Future<Column<?>>>> futures) {
+    for (List<Future<Column<?>>> columnFutures : futures.values()) {
+      for (Future<Column<?>> future : columnFutures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  private final class ColumnTask implements Callable<Column<?>> {
+
+    private final ColumnId columnId;
+    private final TypeInfo type;
+
+    public ColumnTask(final ColumnId columnId, final TypeInfo type) {
+      this.columnId = columnId;
+      this.type = type;
+    }
+
+    @Override
+    public Column<?> call() throws Exception {
+      if (limiter != null) {
+        limiter.acquire();
+      }
+      try {
+        return new PooledColumnProfiler(columnId, type, profilerFactory, pool).profile();
+      } finally {
+        if (limiter != null) {
+          limiter.release();
+        }
+      }
+    }
+  }
+}
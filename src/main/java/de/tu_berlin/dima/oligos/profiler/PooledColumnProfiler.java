@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.profiler;
+
+import java.sql.SQLException;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import de.tu_berlin.dima.oligos.db.JdbcConnector;
+import de.tu_berlin.dima.oligos.db.JdbcConnectorPool;
+import de.tu_berlin.dima.oligos.stat.Column;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+
+/**
+ * Profiles a column with a {@link JdbcConnector} borrowed from a
+ * {@link JdbcConnectorPool}. The {@link ColumnProfiler} is created through a
+ * {@link ColumnProfilerFactory} once a connector is available, and the
+ * connector is returned as soon as the column is profiled.
+ * <br />
+ * Unlike column profilers that are bound to a connector upfront, pooled
+ * column profilers can be profiled concurrently by a {@link TableProfiler}.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class PooledColumnProfiler implements AsyncProfiler<Column<?>> {
+
+  private final ColumnId columnId;
+  private final TypeInfo type;
+  private final ColumnProfilerFactory profilerFactory;
+  private final JdbcConnectorPool pool;
+
+  public PooledColumnProfiler(final ColumnId columnId, final TypeInfo type
+      , final ColumnProfilerFactory profilerFactory, final JdbcConnectorPool pool) {
+    this.columnId = columnId;
+    this.type = type;
+    this.profilerFactory = profilerFactory;
+    this.pool = pool;
+  }
+
+  @Override
+  public Column<?> profile() {
+    JdbcConnector connector;
+    try {
+      connector = pool.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    try {
+      return profile(connector);
+    } finally {
+      pool.release(connector);
+    }
+  }
+
+  /**
+   * Fetches and builds the column on the executor, subject to its column
+   * timeout, which starts once a connector is acquired.
+   */
+  @Override
+  public ListenableFuture<Column<?>> profileAsync(final ProfilingExecutor executor) {
+    return executor.submitTimed(new ProfilingExecutor.PooledTask<Column<?>>() {
+      @Override
+      public Column<?> call(final JdbcConnector connector) {
+        return profile(connector);
+      }
+    }, columnId.toString(), pool);
+  }
+
+  private Column<?> profile(final JdbcConnector connector) {
+    try {
+      return profilerFactory.create(columnId, type, connector).profile();
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
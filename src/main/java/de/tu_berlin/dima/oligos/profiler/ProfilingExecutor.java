@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.profiler;
+
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.tu_berlin.dima.oligos.db.JdbcConnector;
+import de.tu_berlin.dima.oligos.db.JdbcConnectorPool;
+
+/**
+ * Runs the blocking database calls of {@link AsyncProfiler}s on a dedicated
+ * executor, and enforces the timeout of column profilers.
+ * <br />
+ * The timeout of a column starts when its profiler starts fetching, so
+ * columns waiting for a free thread or a pooled connector do not time out. A
+ * timed out column fails with a {@link TimeoutException} and its thread is
+ * interrupted.
+ * <br />
+ * Table and schema queries usually share a single {@link JdbcConnector},
+ * which must not be used by several threads at the same time. They are
+ * submitted with {@link #submitSerial(Callable)} and run one at a time.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class ProfilingExecutor {
+
+  private final ListeningExecutorService executor;
+  private final ListeningExecutorService serialExecutor;
+  private final ScheduledExecutorService scheduler;
+  private final long columnTimeout;
+  private final TimeUnit unit;
+
+  /**
+   * @param executor Executor running the database calls
+   * @param scheduler Scheduler of the column timeouts
+   * @param columnTimeout Timeout of a single column, or zero for none
+   * @param unit Unit of the timeout
+   */
+  public ProfilingExecutor(final ExecutorService executor
+      , final ScheduledExecutorService scheduler, final long columnTimeout
+      , final TimeUnit unit) {
+    this(executor, newSerialExecutor(), scheduler, columnTimeout, unit);
+  }
+
+  /**
+   * @param executor Executor running the database calls
+   * @param serialExecutor Single threaded executor running the table and
+   *  schema queries
+   * @param scheduler Scheduler of the column timeouts
+   * @param columnTimeout Timeout of a single column, or zero for none
+   * @param unit Unit of the timeout
+   */
+  public ProfilingExecutor(final ExecutorService executor
+      , final ExecutorService serialExecutor, final ScheduledExecutorService scheduler
+      , final long columnTimeout, final TimeUnit unit) {
+    Preconditions.checkArgument(columnTimeout >= 0, "Negative timeout %s", columnTimeout);
+    this.executor = MoreExecutors.listeningDecorator(executor);
+    this.serialExecutor = MoreExecutors.listeningDecorator(serialExecutor);
+    this.scheduler = scheduler;
+    this.columnTimeout = columnTimeout;
+    this.unit = unit;
+  }
+
+  /**
+   * Creates an executor with its own daemon threads, which have to be released
+   * with {@link #shutdown()}.
+   * @param threads Number of concurrent database calls
+   * @param columnTimeout Timeout of a single column, or zero for none
+   * @param unit Unit of the timeout
+   */
+  public static ProfilingExecutor create(final int threads, final long columnTimeout
+      , final TimeUnit unit) {
+    ExecutorService executor = Executors.newFixedThreadPool(threads
+        , new ThreadFactoryBuilder().setNameFormat("oligos-profiler-%d").setDaemon(true).build());
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("oligos-timeout-%d").setDaemon(true).build());
+    return new ProfilingExecutor(executor, newSerialExecutor(), scheduler, columnTimeout, unit);
+  }
+
+  private static ExecutorService newSerialExecutor() {
+    return Executors.newSingleThreadExecutor(
+        new ThreadFactoryBuilder().setNameFormat("oligos-serial-%d").setDaemon(true).build());
+  }
+
+  /**
+   * Runs the task on the executor.
+   */
+  public <V> ListenableFuture<V> submit(final Callable<V> task) {
+    return executor.submit(task);
+  }
+
+  /**
+   * Runs the task after all previously submitted serial tasks completed, i.e.
+   * serial tasks never run concurrently.
+   */
+  public <V> ListenableFuture<V> submitSerial(final Callable<V> task) {
+    return serialExecutor.submit(task);
+  }
+
+  /**
+   * Runs the task on the executor and fails it if it does not complete within
+   * the column timeout.
+   * @param task Task to run
+   * @param name Name of the task used in the timeout message
+   */
+  public <V> ListenableFuture<V> submitTimed(final Callable<V> task, final String name) {
+    return submitTimed(new PooledTask<V>() {
+      @Override
+      public V call(final JdbcConnector connector) throws Exception {
+        return task.call();
+      }
+    }, name, null);
+  }
+
+  /**
+   * Runs the task on the executor with a connector borrowed from the pool, and
+   * fails it if it does not complete within the column timeout. The timeout
+   * starts once the connector is acquired, the connector is returned to the
+   * pool when the task completes.
+   * @param task Task to run
+   * @param name Name of the task used in the timeout message
+   * @param pool Pool of the connectors, or <code>null</code> if the task does
+   *  not need one
+   * @since 0.3.1
+   */
+  public <V> ListenableFuture<V> submitTimed(final PooledTask<V> task, final String name
+      , final JdbcConnectorPool pool) {
+    final SettableFuture<V> result = SettableFuture.create();
+    final ListenableFuture<V> running = executor.submit(new Callable<V>() {
+      @Override
+      public V call() throws Exception {
+        JdbcConnector connector = (pool != null) ? pool.acquire() : null;
+        try {
+          ScheduledFuture<?> timer = (columnTimeout > 0) ? scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+              result.setException(new TimeoutException(
+                  name + " timed out after " + columnTimeout + " " + unit));
+            }
+          }, columnTimeout, unit) : null;
+          try {
+            return task.call(connector);
+          } finally {
+            if (timer != null) {
+              timer.cancel(false);
+            }
+          }
+        } finally {
+          if (connector != null) {
+            pool.release(connector);
+          }
+        }
+      }
+    });
+    if (columnTimeout == 0) {
+      return running;
+    }
+    Futures.addCallback(running, new FutureCallback<V>() {
+      @Override
+      public void onSuccess(final V value) {
+        result.set(value);
+      }
+
+      @Override
+      public void onFailure(final Throwable t) {
+        result.setException(t);
+      }
+    });
+    cancelWith(result, Collections.singleton(running));
+    return result;
+  }
+
+  /**
+   * Shuts down the executor and the scheduler, interrupting running tasks.
+   */
+  public void shutdown() {
+    executor.shutdownNow();
+    serialExecutor.shutdownNow();
+    scheduler.shutdownNow();
+  }
+
+  /**
+   * Cancels the child futures as soon as the parent future completes, e.g.
+   * because it was cancelled or one of its children failed. Completed
+   * children are not affected.
+   */
+  static void cancelWith(final ListenableFuture<?> parent
+      , final Iterable<? extends Future<?>> children) {
+    parent.addListener(new Runnable() {
+      @Override
+      public void run() {
+        for (Future<?> child : children) {
+          child.cancel(true);
+        }
+      }
+    }, MoreExecutors.sameThreadExecutor());
+  }
+
+  /**
+   * Task that runs on a connector borrowed from a {@link JdbcConnectorPool}.
+   * @since 0.3.1
+   */
+  public interface PooledTask<V> {
+
+    /**
+     * @param connector Connector owned by the task until it returns, or
+     *  <code>null</code> if the task was submitted without a pool
+     */
+    public V call(final JdbcConnector connector) throws Exception;
+  }
+}
@@ -44,33 +44,42 @@ public class PseudoColumnProfiler extends ColumnProfiler<String>  {
   }
 
   @Override
-  public Column<String> profile() {
+  public RawColumnStatistics<String> fetch() {
     try {
       Map<String, Long> quantileHistogram = connector.getHistogram();
       Map<String, Long> mostFrequentValues = connector.getMostFrequentValues();
-      Map<String, Long> exactValues = Maps.newTreeMap();
-      for (Entry<String, Long> e : mostFrequentValues.entrySet()) {
-        exactValues.put(e.getKey(), e.getValue());
-      }
-      
-      if (!isEnum) {
-        for (Entry<String, Long> e : quantileHistogram.entrySet()) {
-          String key = e.getKey();
-          long value = e.getValue();
-          if (!exactValues.containsKey(key)) {
-            exactValues.put(key, value);
-          }
-        }
-      }
       Set<Constraint> constraints = connector.getConstraints();      
       String min = connector.getMin();
       String max = connector.getMax();
-      long cardinality = exactValues.size();
       long numNulls = connector.getNumNulls();
-      Histogram<String> distribution = new StringHistogram(exactValues);
-      return new Column<String>(schema, table, column, type, constraints, min, max, cardinality, numNulls, distribution, parser);
+      // the cardinality is given by the number of exact values
+      return new RawColumnStatistics<String>(constraints, min, max, -1L, numNulls
+          , mostFrequentValues, quantileHistogram);
     } catch (SQLException e) {
       throw new RuntimeException(e);
     }
   }
+
+  @Override
+  public Column<String> build(RawColumnStatistics<String> statistics) {
+    Map<String, Long> exactValues = Maps.newTreeMap();
+    for (Entry<String, Long> e : statistics.getMostFrequentValues().entrySet()) {
+      exactValues.put(e.getKey(), e.getValue());
+    }
+    
+    if (!isEnum) {
+      for (Entry<String, Long> e : statistics.getHistogram().entrySet()) {
+        String key = e.getKey();
+        long value = e.getValue();
+        if (!exactValues.containsKey(key)) {
+          exactValues.put(key, value);
+        }
+      }
+    }
+    long cardinality = exactValues.size();
+    Histogram<String> distribution = new StringHistogram(exactValues);
+    return new Column<String>(schema, table, column, type, statistics.getConstraints()
+        , statistics.getMin(), statistics.getMax(), cardinality, statistics.getNumNulls()
+        , distribution, parser);
+  }
 }
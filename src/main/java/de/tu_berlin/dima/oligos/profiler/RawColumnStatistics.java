@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.profiler;
+
+import java.util.Map;
+import java.util.Set;
+
+import de.tu_berlin.dima.oligos.type.util.Constraint;
+
+/**
+ * Column statistics as they were fetched from the catalog, before any
+ * histogram is built from them. Separates the database bound part of
+ * {@link ColumnProfiler#profile()}, see {@link ColumnProfiler#fetch()}, from
+ * the CPU bound part, see {@link ColumnProfiler#build(RawColumnStatistics)}.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class RawColumnStatistics<T> {
+
+  private final Set<Constraint> constraints;
+  private final T min;
+  private final T max;
+  private final long cardinality;
+  private final long numNulls;
+  private final Map<T, Long> mostFrequentValues;
+  private final Map<T, Long> histogram;
+
+  /**
+   * @param mostFrequentValues Most frequent values or <code>null</code> if
+   *  they were not fetched
+   * @param histogram Raw quantile histogram or <code>null</code> if it was
+   *  not fetched
+   */
+  public RawColumnStatistics(final Set<Constraint> constraints, final T min, final T max
+      , final long cardinality, final long numNulls
+      , final Map<T, Long> mostFrequentValues, final Map<T, Long> histogram) {
+    this.constraints = constraints;
+    this.min = min;
+    this.max = max;
+    this.cardinality = cardinality;
+    this.numNulls = numNulls;
+    this.mostFrequentValues = mostFrequentValues;
+    this.histogram = histogram;
+  }
+
+  public Set<Constraint> getConstraints() {
+    return constraints;
+  }
+
+  public T getMin() {
+    return min;
+  }
+
+  public T getMax() {
+    return max;
+  }
+
+  public long getCardinality() {
+    return cardinality;
+  }
+
+  public long getNumNulls() {
+    return numNulls;
+  }
+
+  public Map<T, Long> getMostFrequentValues() {
+    return mostFrequentValues;
+  }
+
+  public Map<T, Long> getHistogram() {
+    return histogram;
+  }
+}
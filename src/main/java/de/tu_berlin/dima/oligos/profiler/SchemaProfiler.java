@@ -16,16 +16,26 @@
 package de.tu_berlin.dima.oligos.profiler;
 
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.javatuples.Quartet;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import de.tu_berlin.dima.oligos.db.SchemaConnector;
 import de.tu_berlin.dima.oligos.stat.Schema;
 import de.tu_berlin.dima.oligos.stat.Table;
 
-public class SchemaProfiler implements Profiler<Schema> {
+public class SchemaProfiler implements AsyncProfiler<Schema> {
   
   private final String schema;
   private final SchemaConnector connector;
@@ -54,6 +64,44 @@ public class SchemaProfiler implements Profiler<Schema> {
     return new Schema(schema, tables, references);
   }
   
+  /**
+   * Profiles the tables concurrently on the executor, the schema fails as soon
+   * as one of its tables fails. The references are queried by a serial task
+   * of the executor, since the schema connector is usually shared.
+   * @since 0.3.1
+   */
+  @Override
+  public ListenableFuture<Schema> profileAsync(final ProfilingExecutor executor) {
+    ListenableFuture<Set<Quartet<String, String, String, String>>> references =
+        executor.submitSerial(new Callable<Set<Quartet<String, String, String, String>>>() {
+      @Override
+      public Set<Quartet<String, String, String, String>> call() throws SQLException {
+        return connector.getReferences(schema);
+      }
+    });
+    List<ListenableFuture<Table>> tableFutures = Lists.newArrayList();
+    for (TableProfiler profiler : tableProfilers) {
+      tableFutures.add(profiler.profileAsync(executor));
+    }
+    final ListenableFuture<List<Table>> tables = Futures.allAsList(tableFutures);
+    ListenableFuture<Schema> result = Futures.transform(references
+        , new AsyncFunction<Set<Quartet<String, String, String, String>>, Schema>() {
+      @Override
+      public ListenableFuture<Schema> apply(
+          final Set<Quartet<String, String, String, String>> refs) {
+        return Futures.transform(tables, new Function<List<Table>, Schema>() {
+          @Override
+          public Schema apply(final List<Table> profiledTables) {
+            return new Schema(schema, Sets.newLinkedHashSet(profiledTables), refs);
+          }
+        });
+      }
+    });
+    ProfilingExecutor.cancelWith(result, tableFutures);
+    ProfilingExecutor.cancelWith(result, ImmutableList.<Future<?>>of(references, tables));
+    return result;
+  }
+
   private Set<Table> getTables() {
     Set<Table> tables = Sets.newLinkedHashSet();
     for (TableProfiler profiler : tableProfilers) {
@@ -0,0 +1,335 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.profiler;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.apache.log4j.Logger;
+import org.javatuples.Quartet;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.SettableFuture;
+
+import de.tu_berlin.dima.oligos.db.JdbcConnector;
+import de.tu_berlin.dima.oligos.db.JdbcConnectorPool;
+import de.tu_berlin.dima.oligos.db.TableConnector;
+import de.tu_berlin.dima.oligos.stat.Column;
+import de.tu_berlin.dima.oligos.stat.Schema;
+import de.tu_berlin.dima.oligos.stat.Table;
+import de.tu_berlin.dima.oligos.trace.Phase;
+import de.tu_berlin.dima.oligos.trace.ProfilingMetrics;
+import de.tu_berlin.dima.oligos.trace.Trace;
+import de.tu_berlin.dima.oligos.trace.Trace.Span;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+
+/**
+ * Profiles a schema in three stages, each with its own executor, so that
+ * fetching from the database, building the histograms, and writing the
+ * output overlap:
+ * <ol>
+ * <li><i>fetch</i> creates the column profiler with a {@link JdbcConnector}
+ * from the pool and fetches the raw statistics, see
+ * {@link ColumnProfiler#fetch()},</li>
+ * <li><i>build</i> builds the column and its histogram, see
+ * {@link ColumnProfiler#build(RawColumnStatistics)},</li>
+ * <li><i>output</i> hands the column to the output function, e.g. to write
+ * its distribution files, and keeps the column the function returns.</li>
+ * </ol>
+ * Every stage admits at most <code>capacity</code> columns, queued or in
+ * progress. A stage that hands a column to a full stage blocks until that
+ * stage has room again, so the slowest stage throttles the ones before it and
+ * at most three times <code>capacity</code> columns are in flight.
+ * <br />
+ * Tables and columns are merged back in the order they were added.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class StagedSchemaProfiler implements Profiler<Schema> {
+
+  private static final Logger LOGGER = Logger.getLogger(StagedSchemaProfiler.class);
+
+  private final String schema;
+  private final Set<Quartet<String, String, String, String>> references;
+  private final TableConnector tableConnector;
+  private final ColumnProfilerFactory profilerFactory;
+  private final JdbcConnectorPool pool;
+  private final ExecutorService fetchExecutor;
+  private final ExecutorService buildExecutor;
+  private final ExecutorService outputExecutor;
+  private final Semaphore fetchPermits;
+  private final Semaphore buildPermits;
+  private final Semaphore outputPermits;
+  private final Function<Column<?>, Column<?>> output;
+  private final Map<String, Map<ColumnId, TypeInfo>> tables;
+
+  /**
+   * @param schema Name of the schema
+   * @param references References of the schema
+   * @param tableConnector Connector for the table cardinalities
+   * @param profilerFactory Factory for the column profilers
+   * @param pool Pool of the connectors used by the fetch stage, or
+   *  <code>null</code> if the profilers do not need a connector
+   * @param fetchExecutor Executor of the fetch stage
+   * @param buildExecutor Executor of the build stage
+   * @param outputExecutor Executor of the output stage
+   * @param capacity Number of columns each stage admits
+   * @param output Function applied by the output stage, it returns the
+   *  column that is kept for the profiled schema
+   */
+  public StagedSchemaProfiler(final String schema
+      , final Set<Quartet<String, String, String, String>> references
+      , final TableConnector tableConnector, final ColumnProfilerFactory profilerFactory
+      , final JdbcConnectorPool pool, final ExecutorService fetchExecutor
+      , final ExecutorService buildExecutor, final ExecutorService outputExecutor
+      , final int capacity, final Function<Column<?>, Column<?>> output) {
+    this.schema = schema;
+    this.references = references;
+    this.tableConnector = tableConnector;
+    this.profilerFactory = profilerFactory;
+    this.pool = pool;
+    this.fetchExecutor = fetchExecutor;
+    this.buildExecutor = buildExecutor;
+    this.outputExecutor = outputExecutor;
+    this.fetchPermits = new Semaphore(capacity);
+    this.buildPermits = new Semaphore(capacity);
+    this.outputPermits = new Semaphore(capacity);
+    this.output = output;
+    this.tables = Maps.newLinkedHashMap();
+  }
+
+  /**
+   * Adds the table to the profiled tables, without any columns so far.
+   * @param table name of the table
+   */
+  public void addTable(final String table) {
+    if (!tables.containsKey(table)) {
+      tables.put(table, Maps.<ColumnId, TypeInfo>newLinkedHashMap());
+    }
+  }
+
+  /**
+   * Adds the column to the profiled columns of its table.
+   * @param columnId the column to profile
+   * @param type type information of the column
+   */
+  public void addColumn(final ColumnId columnId, final TypeInfo type) {
+    String table = columnId.getTable();
+    addTable(table);
+    tables.get(table).put(columnId, type);
+  }
+
+  @Override
+  public Schema profile() {
+    Map<String, List<SettableFuture<Column<?>>>> futures = Maps.newLinkedHashMap();
+    try {
+      for (Entry<String, Map<ColumnId, TypeInfo>> table : tables.entrySet()) {
+        List<SettableFuture<Column<?>>> columnFutures = Lists.newArrayList();
+        futures.put(table.getKey(), columnFutures);
+        for (Entry<ColumnId, TypeInfo> column : table.getValue().entrySet()) {
+          SettableFuture<Column<?>> result = SettableFuture.create();
+          columnFutures.add(result);
+          submit(fetchPermits, fetchExecutor
+              , new FetchTask(column.getKey(), column.getValue(), result));
+        }
+      }
+      LOGGER.debug("Submitted columns of " + futures.size() + " tables in " + schema);
+
+      Set<Table> profiledTables = Sets.newLinkedHashSet();
+      for (Entry<String, List<SettableFuture<Column<?>>>> e : futures.entrySet()) {
+        String table = e.getKey();
+        long cardinality = tableConnector.getCardinality(schema, table);
+        Set<Column<?>> columns = Sets.newLinkedHashSet();
+        for (SettableFuture<Column<?>> future : e.getValue()) {
+          columns.add(getResult(future));
+        }
+        profiledTables.add(new Table(schema, table, cardinality, columns));
+      }
+      return new Schema(schema, profiledTables, references);
+    } catch (SQLException e) {
+      cancel(futures);
+      throw new RuntimeException(e);
+    } catch (RuntimeException e) {
+      cancel(futures);
+      throw e;
+    }
+  }
+
+  /**
+   * Submits the task to the executor of a stage, once the stage has room.
+   */
+  private static void submit(final Semaphore permits, final ExecutorService executor
+      , final Runnable task) {
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private static Column<?> getResult(final SettableFuture<Column<?>> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else {
+        throw new RuntimeException(cause);
+      }
+    }
+  }
+
+  private static void cancel(final Map<String, List<SettableFuture<Column<?>>>> futures) {
+    for (List<SettableFuture<Column<?>>> columnFutures : futures.values()) {
+      for (SettableFuture<Column<?>> future : columnFutures) {
+        future.cancel(false);
+      }
+    }
+  }
+
+  private final class FetchTask implements Runnable {
+
+    private final ColumnId columnId;
+    private final TypeInfo type;
+    private final SettableFuture<Column<?>> result;
+
+    public FetchTask(final ColumnId columnId, final TypeInfo type
+        , final SettableFuture<Column<?>> result) {
+      this.columnId = columnId;
+      this.type = type;
+      this.result = result;
+    }
+
+    @Override
+    public void run() {
+      try {
+        // skip columns of a failed or cancelled run
+        if (!result.isDone()) {
+          BuildTask<?> buildTask = fetch();
+          submit(buildPermits, buildExecutor, buildTask);
+        }
+      } catch (Throwable t) {
+        result.setException(t);
+      } finally {
+        fetchPermits.release();
+      }
+    }
+
+    private BuildTask<?> fetch() throws SQLException, InterruptedException {
+      JdbcConnector connector = (pool != null) ? pool.acquire() : null;
+      try {
+        return newBuildTask(profilerFactory.create(columnId, type, connector));
+      } finally {
+        if (pool != null) {
+          pool.release(connector);
+        }
+      }
+    }
+
+    private <T> BuildTask<T> newBuildTask(final ColumnProfiler<T> profiler) {
+      Span span = Trace.getInstance().start(Phase.COLUMN_PROFILING);
+      try {
+        return new BuildTask<T>(profiler, profiler.fetch(), result);
+      } finally {
+        Trace.getInstance().recordColumn(columnId, span.stop());
+      }
+    }
+  }
+
+  private final class BuildTask<T> implements Runnable {
+
+    private final ColumnProfiler<T> profiler;
+    private final RawColumnStatistics<T> statistics;
+    private final SettableFuture<Column<?>> result;
+
+    public BuildTask(final ColumnProfiler<T> profiler, final RawColumnStatistics<T> statistics
+        , final SettableFuture<Column<?>> result) {
+      this.profiler = profiler;
+      this.statistics = statistics;
+      this.result = result;
+    }
+
+    @Override
+    public void run() {
+      try {
+        if (!result.isDone()) {
+          Span span = Trace.getInstance().start(Phase.HISTOGRAM_BUILDING);
+          Column<T> column;
+          long nanos;
+          try {
+            column = profiler.build(statistics);
+          } finally {
+            nanos = span.stop();
+          }
+          Trace.getInstance().recordColumn(column.getId(), nanos);
+          ProfilingMetrics.getInstance().columnProfiled(column);
+          submit(outputPermits, outputExecutor, new OutputTask(column, result));
+        }
+      } catch (Throwable t) {
+        result.setException(t);
+      } finally {
+        buildPermits.release();
+      }
+    }
+  }
+
+  private final class OutputTask implements Runnable {
+
+    private final Column<?> column;
+    private final SettableFuture<Column<?>> result;
+
+    public OutputTask(final Column<?> column, final SettableFuture<Column<?>> result) {
+      this.column = column;
+      this.result = result;
+    }
+
+    @Override
+    public void run() {
+      try {
+        if (!result.isDone()) {
+          result.set(output.apply(column));
+        }
+      } catch (Throwable t) {
+        result.setException(t);
+      } finally {
+        outputPermits.release();
+      }
+    }
+  }
+}
@@ -17,20 +17,29 @@ package de.tu_berlin.dima.oligos.profiler;
 
 import java.sql.SQLException;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import de.tu_berlin.dima.oligos.db.TableConnector;
 import de.tu_berlin.dima.oligos.stat.Column;
 import de.tu_berlin.dima.oligos.stat.Table;
 
-public class TableProfiler implements Profiler<Table> {
+public class TableProfiler implements AsyncProfiler<Table> {
 
   private final String schema;
   private final String table;
   private final TableConnector connector;
-  private final Set<ColumnProfiler<?>> columnProfilers;
+  private final Set<AsyncProfiler<? extends Column<?>>> columnProfilers;
   
   public TableProfiler(final String schema, final String table, final TableConnector connector) {
     this(schema, table, connector, new LinkedHashSet<ColumnProfiler<?>>());
@@ -41,12 +50,21 @@ public class TableProfiler implements Profiler<Table> {
     this.schema = schema;
     this.table = table;
     this.connector = connector;
-    this.columnProfilers = columnProfilers;
+    this.columnProfilers = Sets.newLinkedHashSet();
+    this.columnProfilers.addAll(columnProfilers);
   }
   
   public void addColumnProfiler(final ColumnProfiler<?> columnProfiler) {
     columnProfilers.add(columnProfiler);
   }
+
+  /**
+   * Adds the profiler of a column, e.g. a {@link PooledColumnProfiler}.
+   * @since 0.3.1
+   */
+  public void addColumnProfiler(final AsyncProfiler<? extends Column<?>> columnProfiler) {
+    columnProfilers.add(columnProfiler);
+  }
   
   public Table profile() {
     try {
@@ -58,9 +76,51 @@ public class TableProfiler implements Profiler<Table> {
     }
   }
   
+  /**
+   * Profiles the columns concurrently on the executor, the table fails as
+   * soon as one of its columns fails.
+   * <br />
+   * The cardinality is queried by a serial task of the executor, since the
+   * table connector is usually shared. For the same reason, column profilers
+   * that are bound to a {@link de.tu_berlin.dima.oligos.db.JdbcConnector}
+   * must not share it, {@link PooledColumnProfiler}s borrow a connector for
+   * each column instead.
+   * @since 0.3.1
+   */
+  @Override
+  public ListenableFuture<Table> profileAsync(final ProfilingExecutor executor) {
+    ListenableFuture<Long> cardinality = executor.submitSerial(new Callable<Long>() {
+      @Override
+      public Long call() throws SQLException {
+        return connector.getCardinality(schema, table);
+      }
+    });
+    List<ListenableFuture<? extends Column<?>>> columnFutures = Lists.newArrayList();
+    for (AsyncProfiler<? extends Column<?>> profiler : columnProfilers) {
+      columnFutures.add(profiler.profileAsync(executor));
+    }
+    final ListenableFuture<List<Column<?>>> columns =
+        Futures.<Column<?>>allAsList(columnFutures);
+    ListenableFuture<Table> result = Futures.transform(cardinality
+        , new AsyncFunction<Long, Table>() {
+      @Override
+      public ListenableFuture<Table> apply(final Long card) {
+        return Futures.transform(columns, new Function<List<Column<?>>, Table>() {
+          @Override
+          public Table apply(final List<Column<?>> cols) {
+            return new Table(schema, table, card, Sets.newLinkedHashSet(cols));
+          }
+        });
+      }
+    });
+    ProfilingExecutor.cancelWith(result, columnFutures);
+    ProfilingExecutor.cancelWith(result, ImmutableList.<Future<?>>of(cardinality, columns));
+    return result;
+  }
+
   private Set<Column<?>> getColumnStatistics() {
     Set<Column<?>> columns = Sets.newLinkedHashSet();
-  	for (ColumnProfiler<?> profiler : this.columnProfilers) {
+  	for (AsyncProfiler<? extends Column<?>> profiler : this.columnProfilers) {
       Column<?> column = profiler.profile();
       columns.add(column);
     }
@@ -22,10 +22,15 @@ import java.sql.Timestamp;
 import java.util.HashSet;
 import java.util.Set;
 
+import com.google.common.base.Preconditions;
+
 import de.tu_berlin.dima.oligos.stat.distribution.histogram.Histogram;
 import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.ColumnIdRegistry;
 import de.tu_berlin.dima.oligos.type.util.Constraint;
 import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+import de.tu_berlin.dima.oligos.type.util.operator.Operator;
+import de.tu_berlin.dima.oligos.type.util.operator.OperatorManager;
 import de.tu_berlin.dima.oligos.type.util.parser.Parser;
 
 public class Column<T> {
@@ -47,6 +52,7 @@ public class Column<T> {
   private final String schema;
   private final String table;
   private final String column;
+  private final ColumnId id;
   private final TypeInfo type;
   private final Set<Constraint> constraints;
   private final T min;
@@ -54,6 +60,7 @@ public class Column<T> {
   private final long cardinality;
   private final long numNulls;
   private final Histogram<T> distribution;
+  private final Operator<T> operator;
   private final Parser<T> parser;
 
   public Column(final String schema, final String table, final String column
@@ -61,9 +68,27 @@ public class Column<T> {
       , final T min, final T max
       , final long cardinality, final long numNulls
       , final Histogram<T> distribution, final Parser<T> parser) {
+    this(schema, table, column, type, constraints, min, max, cardinality, numNulls
+        , distribution, null, parser);
+  }
+
+  /**
+   * Creates a column whose values are ordered by the given operator, which
+   * is the operator the distribution was built with.
+   * @param operator Operator of the column values or <code>null</code> to use
+   *  the default operator of the column type
+   * @since 0.3.1
+   */
+  public Column(final String schema, final String table, final String column
+      , final TypeInfo type, final Set<Constraint> constraints
+      , final T min, final T max
+      , final long cardinality, final long numNulls
+      , final Histogram<T> distribution, final Operator<T> operator
+      , final Parser<T> parser) {
     this.schema = schema;
     this.table = table;
     this.column = column;
+    this.id = ColumnIdRegistry.getInstance().intern(schema, table, column);
     this.type = type;
     this.constraints = constraints;
     this.min = min;
@@ -71,11 +96,24 @@ public class Column<T> {
     this.cardinality = cardinality;
     this.numNulls = numNulls;
     this.distribution = distribution;
+    this.operator = operator;
     this.parser = parser;
   }
 
+  /**
+   * Returns a copy of the column without its distribution, which keeps the
+   * meta data needed for the generator prototype only. Methods that depend on
+   * the distribution throw an <code>IllegalStateException</code> on the copy.
+   * @return the column without distribution
+   * @since 0.3.1
+   */
+  public Column<T> withoutDistribution() {
+    return new Column<T>(schema, table, column, type, constraints, min, max
+        , cardinality, numNulls, null, operator, parser);
+  }
+
   public ColumnId getId() {
-    return new ColumnId(schema, table, column);
+    return id;
   }
   
   public String getSchema() {
@@ -145,25 +183,48 @@ public class Column<T> {
   }
 
   public boolean isUniqueSoft() {
+    checkDistribution();
     return distribution.getTotalNumberOfValues() <= distribution.getCardinality();
   }
   
   public boolean hasDistribution() {
-    return !distribution.isEmpty();
+    return distribution != null && !distribution.isEmpty();
   }
 
   public long getNumberOfRecords() {
+    checkDistribution();
     return distribution.getTotalNumberOfValues() + numNulls;
   }
   
   public long getNumberOfValues() {
+    checkDistribution();
     return distribution.getTotalNumberOfValues();
   }
   
   public Histogram<T> getDistribution() {
+    checkDistribution();
     return distribution;
   }
 
+  /**
+   * Returns the operator that orders the values of the column.
+   * @return the operator the column was created with, or the default operator
+   *  of the column type
+   * @since 0.3.1
+   */
+  @SuppressWarnings("unchecked")
+  public Operator<T> getOperator() {
+    if (operator != null) {
+      return operator;
+    }
+    return (Operator<T>) OperatorManager.getOperator(type.getType());
+  }
+
+  private void checkDistribution() {
+    Preconditions.checkState(distribution != null
+        , "Distribution of %s has been released", getQualifiedName());
+  }
+
   public double getNullProbability() {
     if (numNulls == 0) {
       return 0.0;
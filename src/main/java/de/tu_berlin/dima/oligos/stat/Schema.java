@@ -16,45 +16,61 @@
 package de.tu_berlin.dima.oligos.stat;
 
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 import org.javatuples.Quartet;
 import org.jgrapht.DirectedGraph;
 import org.jgrapht.graph.DefaultDirectedGraph;
+import org.jgrapht.graph.UnmodifiableDirectedGraph;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.ColumnIdRegistry;
 import de.tu_berlin.dima.oligos.type.util.Reference;
 
 public class Schema implements Iterable<Table> {
 
   private final String schema;
   private final Set<Table> tables;
+  private final Set<String> tableNames;
   private final DirectedGraph<ColumnId, Reference> references;
+  private final Map<ColumnId, ColumnId> referencedColumns;
+  private final Set<ColumnId> referenced;
 
   public Schema(final String schema) {
-    this.schema = schema;
-    this.tables = Sets.newHashSet();
-    this.references = new DefaultDirectedGraph<ColumnId, Reference>(Reference.class);
+    this(schema, Sets.<Table>newHashSet()
+        , Sets.<Quartet<String, String, String, String>>newHashSet());
   }
   
   public Schema(final String schema, final Set<Table> tables
       , final Set<Quartet<String, String, String, String>> ris) {
     this.schema = schema;
     this.tables = tables;
+    this.tableNames = Sets.newHashSet();
     this.references = new DefaultDirectedGraph<ColumnId, Reference>(Reference.class);
+    this.referencedColumns = Maps.newHashMap();
+    this.referenced = Sets.newHashSet();
+    for (Table tab : tables) {
+      tableNames.add(tab.getTable().toLowerCase());
+    }
+    // the vertices are the interned ids, which the profiled columns share
+    ColumnIdRegistry registry = ColumnIdRegistry.getInstance();
     for (Quartet<String, String, String, String> q : ris) {
       String parentTable = q.getValue0();
-      String paretColumn = q.getValue1();
-      ColumnId parent = new ColumnId(schema, parentTable, paretColumn);
       String childTable = q.getValue2();
-      String childColumn = q.getValue3();
-      ColumnId child = new ColumnId(schema, childTable, childColumn);
       if (containsTable(parentTable) && containsTable(childTable)) {
+        ColumnId parent = registry.intern(schema, parentTable, q.getValue1());
+        ColumnId child = registry.intern(schema, childTable, q.getValue3());
         references.addVertex(parent);
         references.addVertex(child);
         Reference ref = new Reference(parent, child, Reference.Type.Foreign_Key);
-        references.addEdge(child, parent, ref);
+        if (references.addEdge(child, parent, ref) && !referencedColumns.containsKey(child)) {
+          // the first reference of a column is its referenced column
+          referencedColumns.put(child, parent);
+        }
+        referenced.add(parent);
       }
     }
   }
@@ -64,39 +80,33 @@ public class Schema implements Iterable<Table> {
   }
 
   public boolean containsTable(final String table) {
-    for (Table tab : tables) {
-      if (tab.getTable().equalsIgnoreCase(table)) {
-        return true;
-      }
-    }
-    return false;
+    return tableNames.contains(table.toLowerCase());
   }
 
   public boolean isReference(final ColumnId columnId) {
-    if (references.containsVertex(columnId)) {
-      Set<Reference> neighbors = references.outgoingEdgesOf(columnId);
-      return !neighbors.isEmpty();
-    } else {
-      return false;
-    }
+    return referencedColumns.containsKey(columnId);
   }
 
   public boolean isReferenced(final ColumnId columnId) {
-    if (references.containsVertex(columnId)) {
-      Set<Reference> neighors = references.incomingEdgesOf(columnId);
-      return !neighors.isEmpty();
-    } else {
-      return false;
-    }
+    return referenced.contains(columnId);
   }
 
+  /**
+   * Returns the column that is referenced by the column.
+   * @return the referenced column or <code>null</code> if the column is not a
+   *  reference
+   */
   public ColumnId getReferencedColumn(final ColumnId columnId) {
-    Set<Reference> neighbors = references.outgoingEdgesOf(columnId);
-    // neighbors should only contain one neighbour
-    for (Reference ref : neighbors) {
-      return references.getEdgeTarget(ref);
-    }
-    return null;
+    return referencedColumns.get(columnId);
+  }
+
+  /**
+   * Returns a read-only view of the reference graph, whose edges lead from
+   * the referencing to the referenced column.
+   * @since 0.3.1
+   */
+  public DirectedGraph<ColumnId, Reference> getReferenceGraph() {
+    return new UnmodifiableDirectedGraph<ColumnId, Reference>(references);
   }
 
   @Override
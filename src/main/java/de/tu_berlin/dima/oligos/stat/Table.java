@@ -64,6 +64,19 @@ public class Table implements Iterable<Column<?>> {
     columns.add(column);
   }
 
+  /**
+   * Returns a copy of the table whose columns have no distributions.
+   * @see Column#withoutDistribution()
+   * @since 0.3.1
+   */
+  public Table withoutDistributions() {
+    Set<Column<?>> cols = Sets.newLinkedHashSet();
+    for (Column<?> column : columns) {
+      cols.add(column.withoutDistribution());
+    }
+    return new Table(schema, table, cardinality, cols);
+  }
+
   @Override
   public int hashCode() {
     return Objects.hashCode(schema, table, cardinality, columns);
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.stat.distribution.histogram;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import de.tu_berlin.dima.oligos.type.util.operator.Operator;
+
+/**
+ * {@link QuantileHistogram} that keeps its upper bounds in sorted arrays
+ * instead of a <code>TreeMap</code>. Subclasses store a primitive key per
+ * bound, which is compared during the binary search of
+ * {@link #getBucketOf(Object)}, the original bound values are kept in a
+ * parallel array and returned as they were added. Frequencies are kept in a
+ * <code>long[]</code>.
+ * <br />
+ * Bounds are usually added in ascending order, so adding is an append. Bounds
+ * that are added out of order are sorted, and duplicates are resolved like
+ * <code>TreeMap.put</code>, the next time the histogram is read.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public abstract class ArrayQuantileHistogram<T> extends QuantileHistogram<T> {
+
+  protected static final int INITIAL_CAPACITY = 16;
+
+  private Object[] values;
+  private long[] frequencies;
+  private int size;
+  private long total;
+  private boolean sorted;
+
+  protected ArrayQuantileHistogram(final T min, final Operator<T> operator) {
+    super(min, operator);
+    this.values = new Object[INITIAL_CAPACITY];
+    this.frequencies = new long[INITIAL_CAPACITY];
+    this.size = 0;
+    this.total = 0L;
+    this.sorted = true;
+  }
+
+  /**
+   * Stores the primitive key of the value at the index.
+   */
+  protected abstract void setKey(int index, T value);
+
+  /**
+   * Compares the key at the index with the key of the value.
+   * @return a negative integer, zero, or a positive integer as the key at the
+   *  index is less than, equal to, or greater than the key of the value
+   */
+  protected abstract int compareKey(int index, T value);
+
+  /**
+   * Resizes the key array to the capacity, keeping the existing keys.
+   */
+  protected abstract void resizeKeys(int capacity);
+
+  @Override
+  public void addBound(final T upperBound, final long frequency) {
+    if (sorted && size > 0) {
+      int cmp = compareAt(size - 1, upperBound);
+      if (cmp == 0) {
+        total += frequency - frequencies[size - 1];
+        frequencies[size - 1] = frequency;
+        return;
+      } else if (cmp > 0) {
+        sorted = false;
+      }
+    }
+    append(upperBound, frequency);
+  }
+
+  @Override
+  public T getMax() {
+    seal();
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    return valueAt(size - 1);
+  }
+
+  @Override
+  public int getNumberOfBuckets() {
+    seal();
+    return size;
+  }
+
+  @Override
+  public int getBucketOf(final T value) {
+    seal();
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (compareAt(mid, value) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  @Override
+  public long getTotalNumberOfValues() {
+    seal();
+    return total;
+  }
+
+  @Override
+  public T getLowerBoundAt(final int bucket) {
+    seal();
+    if (bucket <= 0 || size == 0) {
+      return getMin();
+    }
+    return incrementAt(Math.min(bucket, size) - 1);
+  }
+
+  @Override
+  public T getUpperBoundAt(final int bucket) {
+    seal();
+    return (bucket >= 0 && bucket < size) ? valueAt(bucket) : null;
+  }
+
+  @Override
+  public long getFrequencyAt(final int bucket) {
+    seal();
+    checkIndex(bucket);
+    return frequencies[bucket];
+  }
+
+  @Override
+  public void setFrequencyAt(final int bucket, final long frequency) {
+    seal();
+    checkIndex(bucket);
+    total += frequency - frequencies[bucket];
+    frequencies[bucket] = frequency;
+  }
+
+  @Override
+  public SortedSet<T> getUpperBounds() {
+    seal();
+    SortedSet<T> uBounds = Sets.newTreeSet(getOperator());
+    for (int i = 0; i < size; i++) {
+      uBounds.add(valueAt(i));
+    }
+    return uBounds;
+  }
+
+  @Override
+  public List<Long> getFrequencies() {
+    seal();
+    List<Long> freqs = Lists.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      freqs.add(frequencies[i]);
+    }
+    return freqs;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    seal();
+    return size == 0;
+  }
+
+  /**
+   * Returns the value following the bound at the index.
+   */
+  protected T incrementAt(final int index) {
+    return getOperator().increment(valueAt(index));
+  }
+
+  @SuppressWarnings("unchecked")
+  private T valueAt(final int index) {
+    return (T) values[index];
+  }
+
+  /**
+   * Compares by primitive key first and uses the operator for ties, e.g. for
+   * timestamps that differ in the sub-millisecond part only.
+   */
+  private int compareAt(final int index, final T value) {
+    int cmp = compareKey(index, value);
+    return (cmp != 0) ? cmp : getOperator().compare(valueAt(index), value);
+  }
+
+  private void append(final T value, final long frequency) {
+    if (size == values.length) {
+      int capacity = values.length * 2;
+      values = Arrays.copyOf(values, capacity);
+      frequencies = Arrays.copyOf(frequencies, capacity);
+      resizeKeys(capacity);
+    }
+    values[size] = value;
+    frequencies[size] = frequency;
+    setKey(size, value);
+    total += frequency;
+    size++;
+  }
+
+  private void checkIndex(final int bucket) {
+    if (bucket < 0 || bucket >= size) {
+      throw new IndexOutOfBoundsException("Bucket: " + bucket + ", Size: " + size);
+    }
+  }
+
+  /**
+   * Sorts bounds that were added out of order.
+   */
+  private void seal() {
+    if (sorted) {
+      return;
+    }
+    SortedMap<T, Long> buckets = new TreeMap<T, Long>(getOperator());
+    for (int i = 0; i < size; i++) {
+      buckets.put(valueAt(i), frequencies[i]);
+    }
+    size = 0;
+    total = 0L;
+    for (Entry<T, Long> e : buckets.entrySet()) {
+      append(e.getKey(), e.getValue());
+    }
+    sorted = true;
+  }
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.stat.distribution.histogram;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import de.tu_berlin.dima.oligos.type.util.operator.Operator;
+import de.tu_berlin.dima.oligos.type.util.operator.date.EpochOperator;
+
+/**
+ * {@link ArrayQuantileHistogram} with epoch millisecond keys for
+ * <code>java.sql.Date</code>, <code>Time</code>, and <code>Timestamp</code>
+ * values. Values within the same millisecond are ordered by the operator.
+ * Lower bounds are computed from the keys if the operator is an
+ * {@link EpochOperator}.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class EpochQuantileHistogram<T extends Date> extends ArrayQuantileHistogram<T> {
+
+  private final EpochOperator<T> epochOperator;
+  private long[] keys;
+
+  public EpochQuantileHistogram(final T min, final Operator<T> operator) {
+    super(min, operator);
+    this.epochOperator = (operator instanceof EpochOperator)
+        ? (EpochOperator<T>) operator : null;
+    this.keys = new long[INITIAL_CAPACITY];
+  }
+
+  @Override
+  protected void setKey(final int index, final T value) {
+    keys[index] = value.getTime();
+  }
+
+  @Override
+  protected int compareKey(final int index, final T value) {
+    return Long.compare(keys[index], value.getTime());
+  }
+
+  @Override
+  protected T incrementAt(final int index) {
+    if (epochOperator == null) {
+      return super.incrementAt(index);
+    }
+    return epochOperator.fromEpoch(epochOperator.increment(keys[index]));
+  }
+
+  @Override
+  protected void resizeKeys(final int capacity) {
+    keys = Arrays.copyOf(keys, capacity);
+  }
+}
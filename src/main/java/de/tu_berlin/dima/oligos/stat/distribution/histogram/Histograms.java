@@ -16,10 +16,13 @@
 package de.tu_berlin.dima.oligos.stat.distribution.histogram;
 
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.SortedSet;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
@@ -27,67 +30,110 @@ import de.tu_berlin.dima.oligos.type.util.operator.Operator;
 
 public abstract class Histograms {
 
+  /**
+   * Creates an empty {@link QuantileHistogram} for the type of the minimum.
+   * <br />
+   * Integral, floating point, and temporal values get an
+   * {@link ArrayQuantileHistogram} with primitive keys, all other types, or a
+   * <code>null</code> minimum, get the generic <code>TreeMap</code> based
+   * implementation.
+   * @param min Minimum value of the column
+   * @param operator Operator for the type of the column
+   * @return an empty quantile histogram
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public static <T> QuantileHistogram<T> newQuantileHistogram(T min, Operator<T> operator) {
+    if (min instanceof Integer || min instanceof Short || min instanceof Byte) {
+      return new IntQuantileHistogram((Number) min, (Operator) operator);
+    } else if (min instanceof Long) {
+      return new LongQuantileHistogram((Number) min, (Operator) operator);
+    } else if (min instanceof Double || min instanceof Float) {
+      return new DoubleQuantileHistogram((Number) min, (Operator) operator);
+    } else if (min instanceof Date) {
+      return new EpochQuantileHistogram((Date) min, (Operator) operator);
+    } else {
+      return new QuantileHistogram<T>(min, operator);
+    }
+  }
+
+  /**
+   * Combines a quantile histogram with the most frequent values of a column.
+   * Each most frequent value becomes a bucket of its own and the frequency of
+   * the quantile bucket it falls into is reduced accordingly.
+   * <br />
+   * The buckets of <code>hist</code> and the sorted most frequent values are
+   * merged in a single pass, therefore the buckets must be iterated in
+   * ascending, non-overlapping order, as all histograms in this package do.
+   * Most frequent values that are not covered by any bucket are dropped.
+   * @param hist Quantile histogram of the column
+   * @param mostFrequent Most frequent values and their frequencies
+   * @param operator Operator for the type of the column
+   * @return the combined histogram
+   */
   public static <T> Histogram<T> combineHistograms(Histogram<T> hist, Map<T, Long> mostFrequent, Operator<T> operator) throws SQLException {
     Histogram<T> histogram = new CustomHistogram<T>(operator);
-    // Make a deep copy to keep function side effect free
-    mostFrequent = Maps.newHashMap(mostFrequent);
+    List<T> elems = Lists.newArrayList(mostFrequent.keySet());
+    Collections.sort(elems, operator);
     // generate histogram with one sized buckets
     if (hist.isEmpty()) {
-      for (Entry<T, Long> e : mostFrequent.entrySet()) {
-        T value = e.getKey();
-        long count = e.getValue();
-        histogram.add(value, value, count);
+      for (T elem : elems) {
+        histogram.add(elem, elem, mostFrequent.get(elem));
       }
+      return histogram;
     }
+    // index of the first most frequent element that is not merged yet
+    int next = 0;
     for (Bucket<T> bucket : hist) {
-      SortedSet<T> elemsInRange = collectElementsInRange(bucket, mostFrequent, operator);
-      // sum the most frequent elements in range
+      T lBound = bucket.getLowerBound();
+      T uBound = bucket.getUpperBound();
+      // skip elements below the current bucket
+      while (next < elems.size() && operator.compare(elems.get(next), lBound) < 0) {
+        next++;
+      }
+      // sum the most frequent elements in range, i.e. up to end (exclusive)
+      int end = next;
       long sumInRange = 0l;
-      for (T e : elemsInRange) {
-        sumInRange += mostFrequent.get(e);
+      while (end < elems.size() && operator.compare(elems.get(end), uBound) <= 0) {
+        sumInRange += mostFrequent.get(elems.get(end));
+        end++;
       }
       // adapt the frequency count of the current bucket
       // i.e. subtract the number of most frequent elements
-      bucket = new Bucket<T>(bucket.getLowerBound(), bucket.getUpperBound(), bucket.getFrequency() - sumInRange);
-      
+      long frequency = bucket.getFrequency() - sumInRange;
+
       // adapt the bucket
       // i.e. change the boundaries, introduce new buckets, ...
-      for (T elem : elemsInRange) {
-        T lBound = bucket.getLowerBound();
-        T uBound = bucket.getUpperBound();
+      for (; next < end; next++) {
+        T elem = elems.get(next);
         long elemCnt = mostFrequent.get(elem);
         // bucket has exact one element and this is the most frequent
         if (lBound.equals(uBound) && lBound.equals(elem)) {
           histogram.add(lBound, uBound, elemCnt);
-          mostFrequent.remove(elem);
         }
         // the most frequent element is the lower bound of the current bucket
         else if (lBound.equals(elem)) {
           histogram.add(lBound, elem, elemCnt);
-          bucket = new Bucket<T>(operator.increment(lBound), uBound, bucket.getFrequency());
-          mostFrequent.remove(elem);
+          lBound = operator.increment(lBound);
         }
         // the most frequent element is the upper bound of the current bucket
         else if (uBound.equals(elem)) {
-          histogram.add(lBound, operator.decrement(uBound), bucket.getFrequency());
+          histogram.add(lBound, operator.decrement(uBound), frequency);
           histogram.add(elem, elem, elemCnt);
-          mostFrequent.remove(elem);
         }
         // common case, that the most frequent value is within the current bucket
         else {
           // shrink the current bucket and add shrunk bucket and most frequent element to histogram
           long range = operator.range(lBound, uBound);
           long lowerSize = operator.range(lBound, elem);
-          long lowerFreq = lowerSize * bucket.getFrequency() / range;
+          long lowerFreq = lowerSize * frequency / range;
           histogram.add(lBound, operator.decrement(elem), lowerFreq);
           histogram.add(elem, elem, elemCnt);
           long upperSize = operator.range(operator.increment(elem), uBound);
-          long upperFreq = upperSize * bucket.getFrequency() / range;
-          bucket = new Bucket<T>(operator.increment(elem), uBound, upperFreq);
-          mostFrequent.remove(elem);
+          frequency = upperSize * frequency / range;
+          lBound = operator.increment(elem);
         }
       }
-      histogram.add(bucket.getLowerBound(), bucket.getUpperBound(), bucket.getFrequency());
+      histogram.add(lBound, uBound, frequency);
     }
     return histogram;
   }
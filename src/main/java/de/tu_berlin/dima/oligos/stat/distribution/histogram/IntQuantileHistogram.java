@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.stat.distribution.histogram;
+
+import java.util.Arrays;
+
+import de.tu_berlin.dima.oligos.type.util.operator.Operator;
+
+/**
+ * {@link ArrayQuantileHistogram} with <code>int</code> keys for
+ * <code>Byte</code>, <code>Short</code>, and <code>Integer</code> values.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class IntQuantileHistogram<T extends Number> extends ArrayQuantileHistogram<T> {
+
+  private int[] keys;
+
+  public IntQuantileHistogram(final T min, final Operator<T> operator) {
+    super(min, operator);
+    this.keys = new int[INITIAL_CAPACITY];
+  }
+
+  @Override
+  protected void setKey(final int index, final T value) {
+    keys[index] = value.intValue();
+  }
+
+  @Override
+  protected int compareKey(final int index, final T value) {
+    return Integer.compare(keys[index], value.intValue());
+  }
+
+  @Override
+  protected void resizeKeys(final int capacity) {
+    keys = Arrays.copyOf(keys, capacity);
+  }
+}
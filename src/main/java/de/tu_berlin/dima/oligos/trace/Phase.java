@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.trace;
+
+/**
+ * Phases of a profiling run recorded by the {@link Trace}.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public enum Phase {
+
+  /** Loading the catalog statistics into a snapshot. */
+  CATALOG_LOADING("catalog loading"),
+  /** Validating the input schema, including the type lookup. */
+  VALIDATION("validation"),
+  /** Fetching the statistics of the columns. */
+  COLUMN_PROFILING("column profiling"),
+  /** Building the histograms from the fetched statistics. */
+  HISTOGRAM_BUILDING("histogram building"),
+  /** Writing the distribution (domain) files. */
+  DISTRIBUTION_WRITING("distribution writing"),
+  /** Writing the generator prototype. */
+  PROTOTYPE_WRITING("prototype writing"),
+  /** Queries executed outside of any other phase, e.g. table cardinalities. */
+  OTHER("other");
+
+  private final String name;
+
+  private Phase(final String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+}
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.trace;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+import de.tu_berlin.dima.oligos.db.QueryListener;
+import de.tu_berlin.dima.oligos.stat.Column;
+import de.tu_berlin.dima.oligos.stat.Table;
+
+/**
+ * Live metrics of the running profiling run, e.g. to watch the throughput and
+ * the ETA of long runs through JMX or the {@link ProgressReporter}.
+ * <br />
+ * Profilers and writers update the metrics as they go, which only costs a few
+ * atomic increments. Queries are only counted if the metrics are registered
+ * as {@link QueryListener} of the connectors.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public final class ProfilingMetrics implements ProfilingMetricsMBean, QueryListener {
+
+  private static final Logger LOGGER = Logger.getLogger(ProfilingMetrics.class);
+
+  public static final String OBJECT_NAME = "de.tu_berlin.dima.oligos:type=ProfilingMetrics";
+
+  private static final ProfilingMetrics INSTANCE = new ProfilingMetrics();
+
+  private final AtomicLong columnsTotal;
+  private final AtomicLong columnsProfiled;
+  private final AtomicInteger queriesInFlight;
+  private final AtomicLong queries;
+  private final AtomicLong queryNanos;
+  private final AtomicLong histogramBuckets;
+  private final AtomicLong retainedBuckets;
+  private final AtomicLong bytesWritten;
+  private volatile long startNanos;
+  private volatile boolean enabled;
+
+  ProfilingMetrics() {
+    this.columnsTotal = new AtomicLong();
+    this.columnsProfiled = new AtomicLong();
+    this.queriesInFlight = new AtomicInteger();
+    this.queries = new AtomicLong();
+    this.queryNanos = new AtomicLong();
+    this.histogramBuckets = new AtomicLong();
+    this.retainedBuckets = new AtomicLong();
+    this.bytesWritten = new AtomicLong();
+    this.startNanos = System.nanoTime();
+    this.enabled = false;
+  }
+
+  public static ProfilingMetrics getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Marks the metrics as observed, i.e. they should be registered as
+   * {@link QueryListener} of the connectors.
+   */
+  public void enable() {
+    enabled = true;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Resets all metrics and starts the clock for the throughput.
+   * @param columns Number of columns to profile
+   */
+  public void start(final long columns) {
+    columnsTotal.set(columns);
+    columnsProfiled.set(0L);
+    queriesInFlight.set(0);
+    queries.set(0L);
+    queryNanos.set(0L);
+    histogramBuckets.set(0L);
+    retainedBuckets.set(0L);
+    bytesWritten.set(0L);
+    startNanos = System.nanoTime();
+  }
+
+  /**
+   * Registers the metrics at the platform MBean server, failures are logged.
+   */
+  public void register() {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (!server.isRegistered(name)) {
+        server.registerMBean(this, name);
+      }
+    } catch (JMException e) {
+      LOGGER.warn("Cannot register profiling metrics: " + e.getLocalizedMessage());
+    }
+  }
+
+  public void unregister() {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+    } catch (JMException e) {
+      LOGGER.warn("Cannot unregister profiling metrics: " + e.getLocalizedMessage());
+    }
+  }
+
+  /**
+   * Counts the column as profiled, along with the buckets of its histogram.
+   */
+  public void columnProfiled(final Column<?> column) {
+    columnsProfiled.incrementAndGet();
+    long buckets = getBuckets(column);
+    histogramBuckets.addAndGet(buckets);
+    retainedBuckets.addAndGet(buckets);
+  }
+
+  /**
+   * Counts the histogram of the column as released, e.g. after its
+   * distribution was written and only the column meta data is kept.
+   */
+  public void columnReleased(final Column<?> column) {
+    retainedBuckets.addAndGet(-getBuckets(column));
+  }
+
+  /**
+   * Counts the histograms of all columns of the table as released.
+   */
+  public void tableReleased(final Table table) {
+    for (Column<?> column : table) {
+      columnReleased(column);
+    }
+  }
+
+  public void bytesWritten(final long bytes) {
+    bytesWritten.addAndGet(bytes);
+  }
+
+  @Override
+  public void queryStarted(final String query) {
+    queriesInFlight.incrementAndGet();
+  }
+
+  @Override
+  public void queryExecuted(final String query, final long nanos, final long rows
+      , final boolean failed) {
+    queriesInFlight.decrementAndGet();
+    queries.incrementAndGet();
+    queryNanos.addAndGet(nanos);
+  }
+
+  @Override
+  public long getColumnsTotal() {
+    return columnsTotal.get();
+  }
+
+  @Override
+  public long getColumnsProfiled() {
+    return columnsProfiled.get();
+  }
+
+  @Override
+  public long getColumnsRemaining() {
+    return Math.max(0L, columnsTotal.get() - columnsProfiled.get());
+  }
+
+  @Override
+  public double getColumnsPerSecond() {
+    double seconds = (System.nanoTime() - startNanos) / 1e9;
+    return (seconds > 0.0) ? columnsProfiled.get() / seconds : 0.0;
+  }
+
+  @Override
+  public long getEtaSeconds() {
+    double rate = getColumnsPerSecond();
+    return (rate > 0.0) ? (long) Math.ceil(getColumnsRemaining() / rate) : -1L;
+  }
+
+  @Override
+  public long getElapsedSeconds() {
+    return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos);
+  }
+
+  @Override
+  public int getQueriesInFlight() {
+    return queriesInFlight.get();
+  }
+
+  @Override
+  public long getQueries() {
+    return queries.get();
+  }
+
+  @Override
+  public double getAverageQueryMillis() {
+    long count = queries.get();
+    return (count > 0) ? queryNanos.get() / 1e6 / count : 0.0;
+  }
+
+  @Override
+  public long getHistogramBuckets() {
+    return histogramBuckets.get();
+  }
+
+  @Override
+  public long getRetainedHistogramBuckets() {
+    return retainedBuckets.get();
+  }
+
+  @Override
+  public long getBytesWritten() {
+    return bytesWritten.get();
+  }
+
+  @Override
+  public long getHeapUsedBytes() {
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  @Override
+  public String toString() {
+    long total = getColumnsTotal();
+    long profiled = getColumnsProfiled();
+    long eta = getEtaSeconds();
+    return String.format(Locale.ROOT, "%d/%d columns (%.1f%%), %.2f columns/s, ETA %s"
+        + ", %d queries in flight, %.1f ms per query, %d buckets (%d retained)"
+        + ", %.1f MB written, %.1f MB heap used"
+        , profiled, total, (total > 0) ? 100.0 * profiled / total : 0.0
+        , getColumnsPerSecond(), (eta < 0) ? "unknown" : eta + "s"
+        , getQueriesInFlight(), getAverageQueryMillis(), getHistogramBuckets()
+        , getRetainedHistogramBuckets(), getBytesWritten() / 1048576.0
+        , getHeapUsedBytes() / 1048576.0);
+  }
+
+  private static long getBuckets(final Column<?> column) {
+    return column.hasDistribution() ? column.getDistribution().getNumberOfBuckets() : 0L;
+  }
+}
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.trace;
+
+/**
+ * Live counters and gauges of a profiling run, exposed through JMX.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public interface ProfilingMetricsMBean {
+
+  public long getColumnsTotal();
+
+  public long getColumnsProfiled();
+
+  public long getColumnsRemaining();
+
+  public double getColumnsPerSecond();
+
+  /**
+   * Returns the estimated seconds until all columns are profiled, or -1 if
+   * no column was profiled so far.
+   */
+  public long getEtaSeconds();
+
+  public long getElapsedSeconds();
+
+  public int getQueriesInFlight();
+
+  public long getQueries();
+
+  public double getAverageQueryMillis();
+
+  public long getHistogramBuckets();
+
+  /**
+   * Returns the histogram buckets of the profiled columns that were not
+   * released yet, i.e. that are still held in memory.
+   */
+  public long getRetainedHistogramBuckets();
+
+  public long getBytesWritten();
+
+  public long getHeapUsedBytes();
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.trace;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Periodically logs the {@link ProfilingMetrics} of the running profiling run.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class ProgressReporter {
+
+  private static final Logger LOGGER = Logger.getLogger(ProgressReporter.class);
+
+  private final ProfilingMetrics metrics;
+  private ScheduledExecutorService scheduler;
+
+  public ProgressReporter(final ProfilingMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Starts logging the metrics with the given period on a daemon thread.
+   */
+  public synchronized void start(final long period, final TimeUnit unit) {
+    if (scheduler != null) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        .setNameFormat("oligos-progress-%d").setDaemon(true).build());
+    scheduler.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        LOGGER.info("Progress: " + metrics);
+      }
+    }, period, period, unit);
+  }
+
+  /**
+   * Stops logging and logs the final metrics.
+   */
+  public synchronized void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+      LOGGER.info("Finished: " + metrics);
+    }
+  }
+}
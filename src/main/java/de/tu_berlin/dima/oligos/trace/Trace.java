@@ -0,0 +1,312 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.trace;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.Maps;
+
+import de.tu_berlin.dima.oligos.db.QueryListener;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+
+/**
+ * Records where a profiling run spends its time: wall time, query count, and
+ * rows fetched per {@link Phase} and per kind of catalog query, and the time
+ * spent on each column.
+ * <br />
+ * The trace is disabled by default, then {@link #start(Phase)} returns a span
+ * that records nothing. Phases nest per thread, a phase started while another
+ * one is running pauses the outer phase, so every nanosecond is attributed to
+ * exactly one phase. Times of phases running on several threads are summed.
+ * <br />
+ * Queries are attributed to the phase running on the executing thread, or to
+ * {@link Phase#OTHER}. The query kind is the first catalog object in the
+ * <code>FROM</code> clause, e.g. <code>SYSSTAT.COLDIST</code> or
+ * <code>ALL_TAB_HISTOGRAMS</code>. Register the trace as {@link QueryListener}
+ * of the connectors it observes.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public final class Trace implements QueryListener {
+
+  private static final Trace INSTANCE = new Trace();
+
+  private static final Pattern FROM = Pattern.compile("\\bFROM\\s+([\\w$#.\"]+)"
+      , Pattern.CASE_INSENSITIVE);
+
+  private final Map<Phase, Counter> phases;
+  private final ConcurrentMap<String, Counter> queryKinds;
+  private final ConcurrentMap<String, String> kindsByQuery;
+  private final ConcurrentMap<ColumnId, AtomicLong> columns;
+  private final ThreadLocal<Span> current;
+  private volatile boolean enabled;
+  private volatile long startNanos;
+
+  Trace() {
+    this.phases = new EnumMap<Phase, Counter>(Phase.class);
+    for (Phase phase : Phase.values()) {
+      phases.put(phase, new Counter());
+    }
+    this.queryKinds = new ConcurrentHashMap<String, Counter>();
+    this.kindsByQuery = new ConcurrentHashMap<String, String>();
+    this.columns = new ConcurrentHashMap<ColumnId, AtomicLong>();
+    this.current = new ThreadLocal<Span>();
+    this.enabled = false;
+  }
+
+  public static Trace getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Enables the trace and starts its wall clock.
+   */
+  public void enable() {
+    startNanos = System.nanoTime();
+    enabled = true;
+  }
+
+  public void disable() {
+    enabled = false;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Discards everything recorded so far.
+   */
+  public void reset() {
+    for (Counter counter : phases.values()) {
+      counter.reset();
+    }
+    queryKinds.clear();
+    columns.clear();
+    startNanos = System.nanoTime();
+  }
+
+  /**
+   * Starts the phase on the calling thread, which must stop the returned span
+   * in a <code>finally</code> block.
+   */
+  public Span start(final Phase phase) {
+    if (!enabled) {
+      return Span.NOOP;
+    }
+    long now = System.nanoTime();
+    Span parent = current.get();
+    if (parent != null) {
+      parent.pause(now);
+    }
+    Span span = new Span(this, phase, parent, now);
+    current.set(span);
+    return span;
+  }
+
+  /**
+   * Adds the time to the column, e.g. the time spent fetching and building it.
+   */
+  public void recordColumn(final ColumnId columnId, final long nanos) {
+    if (!enabled) {
+      return;
+    }
+    AtomicLong total = columns.get(columnId);
+    if (total == null) {
+      AtomicLong newTotal = new AtomicLong();
+      total = columns.putIfAbsent(columnId, newTotal);
+      if (total == null) {
+        total = newTotal;
+      }
+    }
+    total.addAndGet(nanos);
+  }
+
+  @Override
+  public void queryStarted(final String query) {
+    // queries are recorded once they completed
+  }
+
+  @Override
+  public void queryExecuted(final String query, final long nanos, final long rows
+      , final boolean failed) {
+    if (!enabled) {
+      return;
+    }
+    Span span = current.get();
+    Phase phase = (span != null) ? span.phase : Phase.OTHER;
+    phases.get(phase).addQuery(rows, failed);
+    String kind = getKind(query);
+    Counter counter = queryKinds.get(kind);
+    if (counter == null) {
+      Counter newCounter = new Counter();
+      counter = queryKinds.putIfAbsent(kind, newCounter);
+      if (counter == null) {
+        counter = newCounter;
+      }
+    }
+    counter.add(nanos);
+    counter.addQuery(rows, failed);
+  }
+
+  /**
+   * Returns the elapsed wall time since the trace was enabled or reset.
+   */
+  public long getWallNanos() {
+    return System.nanoTime() - startNanos;
+  }
+
+  public Counter getPhase(final Phase phase) {
+    return phases.get(phase);
+  }
+
+  /**
+   * Returns the counters of the query kinds, which count executions and
+   * failures instead of phases.
+   */
+  public Map<String, Counter> getQueryKinds() {
+    return Collections.unmodifiableMap(queryKinds);
+  }
+
+  /**
+   * Returns the nanoseconds spent on each recorded column.
+   */
+  public Map<ColumnId, Long> getColumns() {
+    Map<ColumnId, Long> times = Maps.newHashMap();
+    for (Map.Entry<ColumnId, AtomicLong> e : columns.entrySet()) {
+      times.put(e.getKey(), e.getValue().get());
+    }
+    return times;
+  }
+
+  private String getKind(final String query) {
+    String kind = kindsByQuery.get(query);
+    if (kind == null) {
+      Matcher matcher = FROM.matcher(query);
+      kind = matcher.find() ? matcher.group(1).replace("\"", "").toUpperCase() : "OTHER";
+      kindsByQuery.putIfAbsent(query, kind);
+    }
+    return kind;
+  }
+
+  /**
+   * Running phase on a thread.
+   */
+  public static final class Span {
+
+    private static final Span NOOP = new Span(null, null, null, 0L);
+
+    private final Trace trace;
+    private final Phase phase;
+    private final Span parent;
+    private long resumed;
+    private long elapsed;
+
+    private Span(final Trace trace, final Phase phase, final Span parent, final long now) {
+      this.trace = trace;
+      this.phase = phase;
+      this.parent = parent;
+      this.resumed = now;
+      this.elapsed = 0L;
+    }
+
+    private void pause(final long now) {
+      elapsed += now - resumed;
+    }
+
+    /**
+     * Stops the phase and resumes the phase it interrupted.
+     * @return the time attributed to this phase in nanoseconds
+     */
+    public long stop() {
+      if (trace == null) {
+        return 0L;
+      }
+      long now = System.nanoTime();
+      pause(now);
+      trace.phases.get(phase).add(elapsed);
+      trace.current.set(parent);
+      if (parent != null) {
+        parent.resumed = now;
+      }
+      return elapsed;
+    }
+  }
+
+  /**
+   * Thread-safe counter of a phase or query kind.
+   */
+  public static final class Counter {
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private void add(final long elapsed) {
+      count.incrementAndGet();
+      nanos.addAndGet(elapsed);
+    }
+
+    private void addQuery(final long fetched, final boolean failed) {
+      queries.incrementAndGet();
+      rows.addAndGet(fetched);
+      if (failed) {
+        failures.incrementAndGet();
+      }
+    }
+
+    private void reset() {
+      count.set(0L);
+      nanos.set(0L);
+      queries.set(0L);
+      rows.set(0L);
+      failures.set(0L);
+    }
+
+    /**
+     * Returns how often the phase ran, or how often the query was executed.
+     */
+    public long getCount() {
+      return count.get();
+    }
+
+    public long getNanos() {
+      return nanos.get();
+    }
+
+    public long getQueries() {
+      return queries.get();
+    }
+
+    public long getRows() {
+      return rows.get();
+    }
+
+    public long getFailures() {
+      return failures.get();
+    }
+  }
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.trace;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+
+/**
+ * Writes a {@link Trace} as JSON and CSV report next to the generator output,
+ * i.e. <code>&lt;generator&gt;-trace.json</code> and
+ * <code>&lt;generator&gt;-trace.csv</code>.
+ * <br />
+ * Both reports list the phases, the query kinds, and the slowest columns.
+ * Times are given in milliseconds. The CSV report has one row per entry with
+ * the columns <code>section, name, count, millis, queries, rows,
+ * failures</code>.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class TraceReport {
+
+  private static final Logger LOGGER = Logger.getLogger(TraceReport.class);
+
+  public static final int DEFAULT_TOP_COLUMNS = 20;
+
+  private final Trace trace;
+  private final int topColumns;
+
+  public TraceReport(final Trace trace) {
+    this(trace, DEFAULT_TOP_COLUMNS);
+  }
+
+  /**
+   * @param trace The recorded trace
+   * @param topColumns Number of slowest columns in the report
+   */
+  public TraceReport(final Trace trace, final int topColumns) {
+    this.trace = trace;
+    this.topColumns = topColumns;
+  }
+
+  /**
+   * Writes the JSON and the CSV report into the output directory.
+   * @param outputDirectory Output directory of the generator
+   * @param generatorName Name of the generator
+   * @throws IOException if a report cannot be written
+   */
+  public void write(final File outputDirectory, final String generatorName)
+      throws IOException {
+    File jsonFile = new File(outputDirectory, generatorName + "-trace.json");
+    File csvFile = new File(outputDirectory, generatorName + "-trace.csv");
+    outputDirectory.mkdirs();
+    PrintWriter json = open(jsonFile);
+    try {
+      writeJson(json);
+    } finally {
+      json.close();
+    }
+    PrintWriter csv = open(csvFile);
+    try {
+      writeCsv(csv);
+    } finally {
+      csv.close();
+    }
+    LOGGER.info("Wrote profiling trace to " + jsonFile.getPath() + " and " + csvFile.getPath());
+  }
+
+  public void writeJson(final PrintWriter out) {
+    out.println("{");
+    out.println("  \"wallMillis\": " + millis(trace.getWallNanos()) + ",");
+    out.println("  \"phases\": [");
+    Phase[] phases = Phase.values();
+    for (int i = 0; i < phases.length; i++) {
+      Trace.Counter counter = trace.getPhase(phases[i]);
+      out.print("    {\"phase\": " + quote(phases[i].getName())
+          + ", \"count\": " + counter.getCount()
+          + ", \"millis\": " + millis(counter.getNanos())
+          + ", \"queries\": " + counter.getQueries()
+          + ", \"rows\": " + counter.getRows()
+          + ", \"failures\": " + counter.getFailures() + "}");
+      out.println((i < phases.length - 1) ? "," : "");
+    }
+    out.println("  ],");
+    out.println("  \"queries\": [");
+    List<Entry<String, Trace.Counter>> kinds = getQueryKinds();
+    for (int i = 0; i < kinds.size(); i++) {
+      Trace.Counter counter = kinds.get(i).getValue();
+      out.print("    {\"kind\": " + quote(kinds.get(i).getKey())
+          + ", \"count\": " + counter.getCount()
+          + ", \"millis\": " + millis(counter.getNanos())
+          + ", \"rows\": " + counter.getRows()
+          + ", \"failures\": " + counter.getFailures() + "}");
+      out.println((i < kinds.size() - 1) ? "," : "");
+    }
+    out.println("  ],");
+    out.println("  \"slowestColumns\": [");
+    List<Entry<ColumnId, Long>> columns = getSlowestColumns();
+    for (int i = 0; i < columns.size(); i++) {
+      out.print("    {\"column\": " + quote(columns.get(i).getKey().getQualifiedName())
+          + ", \"millis\": " + millis(columns.get(i).getValue()) + "}");
+      out.println((i < columns.size() - 1) ? "," : "");
+    }
+    out.println("  ]");
+    out.println("}");
+  }
+
+  public void writeCsv(final PrintWriter out) {
+    out.println("section,name,count,millis,queries,rows,failures");
+    out.println("run,wall,1," + millis(trace.getWallNanos()) + ",,,");
+    for (Phase phase : Phase.values()) {
+      Trace.Counter counter = trace.getPhase(phase);
+      out.println("phase," + phase.getName() + "," + counter.getCount() + ","
+          + millis(counter.getNanos()) + "," + counter.getQueries() + ","
+          + counter.getRows() + "," + counter.getFailures());
+    }
+    for (Entry<String, Trace.Counter> kind : getQueryKinds()) {
+      Trace.Counter counter = kind.getValue();
+      out.println("query," + kind.getKey() + "," + counter.getCount() + ","
+          + millis(counter.getNanos()) + "," + counter.getQueries() + ","
+          + counter.getRows() + "," + counter.getFailures());
+    }
+    for (Entry<ColumnId, Long> column : getSlowestColumns()) {
+      out.println("column," + column.getKey().getQualifiedName() + ",1,"
+          + millis(column.getValue()) + ",,,");
+    }
+  }
+
+  /**
+   * Returns the query kinds, most time consuming first.
+   */
+  private List<Entry<String, Trace.Counter>> getQueryKinds() {
+    List<Entry<String, Trace.Counter>> kinds =
+        Lists.newArrayList(trace.getQueryKinds().entrySet());
+    Collections.sort(kinds, new Comparator<Entry<String, Trace.Counter>>() {
+      @Override
+      public int compare(final Entry<String, Trace.Counter> e1
+          , final Entry<String, Trace.Counter> e2) {
+        int cmp = Long.compare(e2.getValue().getNanos(), e1.getValue().getNanos());
+        return (cmp != 0) ? cmp : e1.getKey().compareTo(e2.getKey());
+      }
+    });
+    return kinds;
+  }
+
+  /**
+   * Returns the slowest columns, slowest first.
+   */
+  private List<Entry<ColumnId, Long>> getSlowestColumns() {
+    Map<ColumnId, Long> times = trace.getColumns();
+    List<Entry<ColumnId, Long>> columns = Lists.newArrayList(times.entrySet());
+    Collections.sort(columns, new Comparator<Entry<ColumnId, Long>>() {
+      @Override
+      public int compare(final Entry<ColumnId, Long> e1, final Entry<ColumnId, Long> e2) {
+        int cmp = e2.getValue().compareTo(e1.getValue());
+        return (cmp != 0) ? cmp
+            : e1.getKey().getQualifiedName().compareTo(e2.getKey().getQualifiedName());
+      }
+    });
+    return columns.subList(0, Math.min(topColumns, columns.size()));
+  }
+
+  private static PrintWriter open(final File file) throws IOException {
+    return new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+        new FileOutputStream(file), Charsets.UTF_8)));
+  }
+
+  private static String millis(final long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+  }
+
+  private static String quote(final String value) {
+    StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+    for (char c : value.toCharArray()) {
+      if (c == '"' || c == '\\') {
+        sb.append('\\');
+      }
+      sb.append(c);
+    }
+    return sb.append('"').toString();
+  }
+}
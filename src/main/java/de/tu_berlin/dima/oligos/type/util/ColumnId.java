@@ -15,18 +15,68 @@
  ******************************************************************************/
 package de.tu_berlin.dima.oligos.type.util;
 
+import java.io.Serializable;
+
 import com.google.common.base.Objects;
 import com.google.common.collect.ComparisonChain;
 
-public class ColumnId implements Comparable<ColumnId> {
+/**
+ * Fully qualified column name.
+ * <br />
+ * Column ids that are obtained from the {@link ColumnIdRegistry} are shared
+ * and carry a compact handle, see {@link #getHandle()}. The qualified and
+ * lower-cased names, as well as the hash code, are computed on first use and
+ * cached, so they are computed once per column when the ids are interned.
+ */
+public class ColumnId implements Comparable<ColumnId>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Handle of column ids that were not obtained from a registry.
+   * @since 0.3.1
+   */
+  public static final int NO_HANDLE = -1;
+
   private final String schema;
   private final String table;
   private final String column;
+  private final transient int handle;
+
+  private transient int hash;
+  private transient String qualifiedName;
+  private transient String lowerCaseQualifiedName;
+  private transient String lowerCaseTable;
+  private transient String lowerCaseColumn;
   
   public ColumnId(final String schema, final String table, final String column) {
+    this(schema, table, column, NO_HANDLE);
+  }
+
+  ColumnId(final String schema, final String table, final String column
+      , final int handle) {
     this.schema = schema;
     this.table = table;
     this.column = column;
+    this.handle = handle;
+  }
+
+  /**
+   * Handles are only valid within the registry that assigned them, a
+   * deserialized column id is therefore an ordinary one.
+   */
+  private Object readResolve() {
+    return new ColumnId(schema, table, column);
+  }
+
+  /**
+   * Returns the handle that was assigned by the {@link ColumnIdRegistry}.
+   * @return the handle or {@link #NO_HANDLE} if the column id was not
+   *  obtained from the registry
+   * @since 0.3.1
+   */
+  public int getHandle() {
+    return handle;
   }
 
   public String getSchema() {
@@ -42,7 +92,48 @@ public class ColumnId implements Comparable<ColumnId> {
   }
   
   public String getQualifiedName() {
-    return getQualifiedName('.');
+    String name = qualifiedName;
+    if (name == null) {
+      name = getQualifiedName('.');
+      qualifiedName = name;
+    }
+    return name;
+  }
+
+  /**
+   * @since 0.3.1
+   */
+  public String getLowerCaseQualifiedName() {
+    String name = lowerCaseQualifiedName;
+    if (name == null) {
+      name = getQualifiedName().toLowerCase();
+      lowerCaseQualifiedName = name;
+    }
+    return name;
+  }
+
+  /**
+   * @since 0.3.1
+   */
+  public String getLowerCaseTable() {
+    String name = lowerCaseTable;
+    if (name == null) {
+      name = table.toLowerCase();
+      lowerCaseTable = name;
+    }
+    return name;
+  }
+
+  /**
+   * @since 0.3.1
+   */
+  public String getLowerCaseColumn() {
+    String name = lowerCaseColumn;
+    if (name == null) {
+      name = column.toLowerCase();
+      lowerCaseColumn = name;
+    }
+    return name;
   }
   
   public String getQualifiedName(char delimiter) {
@@ -86,7 +177,12 @@ public class ColumnId implements Comparable<ColumnId> {
   
   @Override
   public int hashCode() {
-    return Objects.hashCode(schema, table, column);
+    int h = hash;
+    if (h == 0) {
+      h = Objects.hashCode(schema, table, column);
+      hash = h;
+    }
+    return h;
   }
 
   @Override
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.type.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Symbol table that interns column ids.
+ * <br />
+ * Every distinct schema, table, and column triple is mapped to a single
+ * {@link ColumnId} instance with a compact integer handle, handles are
+ * assigned consecutively starting at zero. Interning a known column neither
+ * allocates a new id nor hashes a composite key, and since interned ids are
+ * shared, their cached names are computed only once per column.
+ * <br />
+ * Interned ids are held weakly, an id that is no longer referenced, e.g.
+ * because the schema it was profiled for is gone, is released. Interning the
+ * column again yields a new id with a new handle, handles are never reused,
+ * so a stale handle never denotes another column.
+ * <br />
+ * The registry is thread-safe, columns are interned by concurrent profilers.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class ColumnIdRegistry {
+
+  private static final ColumnIdRegistry INSTANCE = new ColumnIdRegistry();
+
+  private final Map<String, Map<String, Map<String, Entry>>> index;
+  private final Map<Integer, Entry> columns;
+  private final ReferenceQueue<ColumnId> released;
+  private int nextHandle;
+
+  public ColumnIdRegistry() {
+    this.index = Maps.newHashMap();
+    this.columns = Maps.newHashMap();
+    this.released = new ReferenceQueue<ColumnId>();
+    this.nextHandle = 0;
+  }
+
+  /**
+   * Returns the registry that is shared by the profilers, the schema, and
+   * the writers.
+   */
+  public static ColumnIdRegistry getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the interned id of the column, the id is registered if the
+   * column is unknown so far.
+   * @return the interned column id
+   */
+  public synchronized ColumnId intern(final String schema, final String table
+      , final String column) {
+    expunge();
+    Map<String, Map<String, Entry>> tables = index.get(schema);
+    if (tables == null) {
+      tables = Maps.newHashMap();
+      index.put(schema, tables);
+    }
+    Map<String, Entry> cols = tables.get(table);
+    if (cols == null) {
+      cols = Maps.newHashMap();
+      tables.put(table, cols);
+    }
+    Entry entry = cols.get(column);
+    ColumnId columnId = (entry != null) ? entry.get() : null;
+    if (columnId == null) {
+      columnId = new ColumnId(schema, table, column, nextHandle++);
+      entry = new Entry(columnId, released);
+      cols.put(column, entry);
+      columns.put(entry.handle, entry);
+    }
+    return columnId;
+  }
+
+  /**
+   * Returns the interned instance of the column id.
+   * @return the interned column id
+   */
+  public ColumnId intern(final ColumnId columnId) {
+    if (isRegistered(columnId)) {
+      return columnId;
+    }
+    return intern(columnId.getSchema(), columnId.getTable(), columnId.getColumn());
+  }
+
+  /**
+   * Returns the column id with the handle.
+   * @param handle Handle of the column id
+   * @return the column id or <code>null</code> if the handle was not
+   *  assigned by this registry or the id has been released
+   */
+  public synchronized ColumnId get(final int handle) {
+    expunge();
+    Entry entry = columns.get(handle);
+    return (entry != null) ? entry.get() : null;
+  }
+
+  /**
+   * Returns the number of interned column ids. Released ids are counted until
+   * they are reclaimed by the garbage collector.
+   */
+  public synchronized int size() {
+    expunge();
+    return columns.size();
+  }
+
+  private boolean isRegistered(final ColumnId columnId) {
+    int handle = columnId.getHandle();
+    return handle >= 0 && get(handle) == columnId;
+  }
+
+  /**
+   * Removes the entries of the column ids that were reclaimed.
+   */
+  private void expunge() {
+    Reference<? extends ColumnId> reference;
+    while ((reference = released.poll()) != null) {
+      Entry entry = (Entry) reference;
+      columns.remove(entry.handle);
+      Map<String, Map<String, Entry>> tables = index.get(entry.schema);
+      Map<String, Entry> cols = tables.get(entry.table);
+      if (cols.get(entry.column) == entry) {
+        cols.remove(entry.column);
+      }
+      if (cols.isEmpty()) {
+        tables.remove(entry.table);
+      }
+      if (tables.isEmpty()) {
+        index.remove(entry.schema);
+      }
+    }
+  }
+
+  /**
+   * Weak reference to an interned column id, which retains the names and the
+   * handle to remove the id once it is reclaimed.
+   */
+  private static final class Entry extends WeakReference<ColumnId> {
+
+    private final String schema;
+    private final String table;
+    private final String column;
+    private final int handle;
+
+    Entry(final ColumnId columnId, final ReferenceQueue<ColumnId> queue) {
+      super(columnId, queue);
+      this.schema = columnId.getSchema();
+      this.table = columnId.getTable();
+      this.column = columnId.getColumn();
+      this.handle = columnId.getHandle();
+    }
+  }
+}
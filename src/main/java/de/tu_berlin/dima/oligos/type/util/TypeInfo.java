@@ -15,11 +15,14 @@
  ******************************************************************************/
 package de.tu_berlin.dima.oligos.type.util;
 
+import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
 
-public class TypeInfo {
-  
+public class TypeInfo implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
   private final String typeName;
   private final int length;
   private final int scale;
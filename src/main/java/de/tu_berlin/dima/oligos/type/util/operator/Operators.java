@@ -20,11 +20,19 @@ import java.math.BigInteger;
 import java.sql.SQLException;
 import java.sql.Time;
 import java.sql.Timestamp;
-import java.util.Calendar;
 import java.util.Date;
 
+import de.tu_berlin.dima.oligos.type.util.operator.date.DateOperator;
+import de.tu_berlin.dima.oligos.type.util.operator.date.TimeOperator;
+import de.tu_berlin.dima.oligos.type.util.operator.date.TimestampOperator;
+
 public final class Operators {
 
+  // temporal operators in the default time zone at the time of each call
+  private static final DateOperator DATE_OPERATOR = new DateOperator();
+  private static final TimeOperator TIME_OPERATOR = new TimeOperator();
+  private static final TimestampOperator TIMESTAMP_OPERATOR = new TimestampOperator();
+
   public static <T> T increment(T value) throws SQLException {
     @SuppressWarnings("unchecked")
     Class<T> clazz = (Class<T>) value.getClass();
@@ -65,7 +73,10 @@ public final class Operators {
 
   @SuppressWarnings("unchecked")
   public static <T extends Number> T decrement(T number) {
-    if (number instanceof Short) {
+    if (number instanceof Byte) {
+      return (T) decrement((Byte) number);
+    }
+    else if (number instanceof Short) {
       return (T) decrement((Short) number);
     }
     else if (number instanceof Integer) {
@@ -86,20 +97,14 @@ public final class Operators {
 
   @SuppressWarnings("unchecked")
   public static <T extends Date> T increment(T date) {
-    Calendar calendar = Calendar.getInstance();
-    calendar.clear();
-    calendar.setTime(date);
     if (date instanceof java.sql.Date) {
-      calendar.add(Calendar.DATE, 1);
-      return (T) new java.sql.Date(calendar.getTimeInMillis());
+      return (T) increment((java.sql.Date) date);
     }
     else if (date instanceof Time) {
-      calendar.add(Calendar.SECOND, 1);
-      return (T) new Time(calendar.getTimeInMillis());
+      return (T) increment((Time) date);
     }
     else if (date instanceof Timestamp) {
-      calendar.add(Calendar.MILLISECOND, 1);
-      return (T) new Timestamp(calendar.getTimeInMillis());
+      return (T) increment((Timestamp) date);
     }
     else {
       throw new IllegalArgumentException();
@@ -108,20 +113,14 @@ public final class Operators {
 
   @SuppressWarnings("unchecked")
   public static <T extends Date> T decrement(T date) {
-    Calendar calendar = Calendar.getInstance();
-    calendar.clear();
-    calendar.setTime(date);
     if (date instanceof java.sql.Date) {
-      calendar.add(Calendar.DATE, -1);
-      return (T) new java.sql.Date(calendar.getTimeInMillis());
+      return (T) decrement((java.sql.Date) date);
     }
     else if (date instanceof Time) {
-      calendar.add(Calendar.SECOND, -1);
-      return (T) new Time(calendar.getTimeInMillis());
+      return (T) decrement((Time) date);
     }
     else if (date instanceof Timestamp) {
-      calendar.add(Calendar.MILLISECOND, -1);
-      return (T) new Timestamp(calendar.getTimeInMillis());
+      return (T) decrement((Timestamp) date);
     }
     else {
       throw new IllegalArgumentException();
@@ -179,51 +178,27 @@ public final class Operators {
   }
 
   public static Timestamp increment(Timestamp timestamp) {
-    Calendar calendar = Calendar.getInstance();
-    calendar.clear();
-    calendar.setTime(timestamp);
-    calendar.add(Calendar.MILLISECOND, 1);
-    return new Timestamp(calendar.getTimeInMillis());
+    return TIMESTAMP_OPERATOR.increment(timestamp);
   }
 
   public static Timestamp decrement(Timestamp timestamp) {
-    Calendar calendar = Calendar.getInstance();
-    calendar.clear();
-    calendar.setTime(timestamp);
-    calendar.add(Calendar.MILLISECOND, 1);
-    return new Timestamp(calendar.getTimeInMillis());
+    return TIMESTAMP_OPERATOR.decrement(timestamp);
   }
 
   public static Time increment(Time time) {
-    Calendar calendar = Calendar.getInstance();
-    calendar.clear();
-    calendar.setTime(time);
-    calendar.add(Calendar.SECOND, 1);
-    return new Time(calendar.getTimeInMillis());
+    return TIME_OPERATOR.increment(time);
   }
 
   public static Time decrement(Time time) {
-    Calendar calendar = Calendar.getInstance();
-    calendar.clear();
-    calendar.setTime(time);
-    calendar.add(Calendar.SECOND, -1);
-    return new Time(calendar.getTimeInMillis());
+    return TIME_OPERATOR.decrement(time);
   }
 
   public static java.sql.Date increment(java.sql.Date date) {
-    Calendar calendar = Calendar.getInstance();
-    calendar.clear();
-    calendar.setTime(date);
-    calendar.add(Calendar.DATE, 1);
-    return new java.sql.Date(calendar.getTimeInMillis());
+    return DATE_OPERATOR.increment(date);
   }
 
   public static java.sql.Date decrement(java.sql.Date date) {
-    Calendar calendar = Calendar.getInstance();
-    calendar.clear();
-    calendar.setTime(date);
-    calendar.add(Calendar.DATE, -1);
-    return new java.sql.Date(calendar.getTimeInMillis());
+    return DATE_OPERATOR.decrement(date);
   }
 
   public static <T extends Comparable<T>> T min(T val1, T val2) {
@@ -16,9 +16,117 @@
 package de.tu_berlin.dima.oligos.type.util.operator.date;
 
 import java.util.Date;
+import java.util.TimeZone;
 
-import de.tu_berlin.dima.oligos.type.util.operator.AbstractOperator;
+/**
+ * Base class of the temporal operators, which implements the operations on
+ * values through their epoch milliseconds.
+ * <br />
+ * Calendar arithmetic is done in the time zone of the operator without
+ * instantiating a <code>Calendar</code>. Operators created without a time
+ * zone use the default time zone of the JVM at the time of each call, like
+ * <code>Calendar.getInstance()</code> and the parsers do.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public abstract class AbstractDateOperator<T extends Date> implements EpochOperator<T> {
 
-public abstract class AbstractDateOperator extends AbstractOperator<Date> {
+  protected static final long MILLIS_PER_SECOND = 1000L;
+  protected static final long MILLIS_PER_DAY = 24L * 60L * 60L * MILLIS_PER_SECOND;
 
+  // null for the current default time zone
+  private final TimeZone zone;
+
+  protected AbstractDateOperator() {
+    this.zone = null;
+  }
+
+  protected AbstractDateOperator(final TimeZone zone) {
+    this.zone = (TimeZone) zone.clone();
+  }
+
+  /**
+   * Returns the time zone of the operator.
+   * @return the time zone given on construction, or the current default
+   *  time zone
+   */
+  public TimeZone getTimeZone() {
+    return (zone != null) ? (TimeZone) zone.clone() : TimeZone.getDefault();
+  }
+
+  @Override
+  public long toEpoch(final T value) {
+    return value.getTime();
+  }
+
+  @Override
+  public int compare(final T o1, final T o2) {
+    return o1.compareTo(o2);
+  }
+
+  @Override
+  public T increment(final T value) {
+    return fromEpoch(increment(toEpoch(value)));
+  }
+
+  @Override
+  public T decrement(final T value) {
+    return fromEpoch(decrement(toEpoch(value)));
+  }
+
+  @Override
+  public long range(final T val1, final T val2) {
+    return range(toEpoch(val1), toEpoch(val2));
+  }
+
+  @Override
+  public T min(final T val1, final T val2) {
+    return (val1.compareTo(val2) <= 0) ? val1 : val2;
+  }
+
+  @Override
+  public T max(final T val1, final T val2) {
+    return (val1.compareTo(val2) >= 0) ? val1 : val2;
+  }
+
+  /**
+   * Returns the day since 1970-01-01 of the epoch milliseconds in the time
+   * zone of the operator.
+   */
+  protected long toEpochDay(final long millis) {
+    return toEpochDay(millis, zone());
+  }
+
+  /**
+   * Adds the number of days to the epoch milliseconds, keeping the local time
+   * of day in the time zone of the operator, i.e. a day is 23 or 25 hours long
+   * across a daylight saving time change. Local times that are skipped or
+   * repeated by a change are resolved like <code>Calendar.add</code> does.
+   */
+  protected long plusDays(final long millis, final long days) {
+    TimeZone zone = zone();
+    long offset = zone.getOffset(millis);
+    long local = millis + offset + days * MILLIS_PER_DAY;
+    long utc = local - offset;
+    // adjust by the change of the offset, unless that changes the day
+    long delta = offset - zone.getOffset(utc);
+    if (delta != 0 && toEpochDay(utc + delta, zone) == floorDiv(local, MILLIS_PER_DAY)) {
+      utc += delta;
+    }
+    return utc;
+  }
+
+  private TimeZone zone() {
+    return (zone != null) ? zone : TimeZone.getDefault();
+  }
+
+  private static long toEpochDay(final long millis, final TimeZone zone) {
+    return floorDiv(millis + zone.getOffset(millis), MILLIS_PER_DAY);
+  }
+
+  private static long floorDiv(final long x, final long y) {
+    long q = x / y;
+    return ((x % y != 0) && ((x ^ y) < 0)) ? q - 1 : q;
+  }
 }
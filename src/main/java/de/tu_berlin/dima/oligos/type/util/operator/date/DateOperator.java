@@ -16,44 +16,36 @@
 package de.tu_berlin.dima.oligos.type.util.operator.date;
 
 import java.sql.Date;
-import org.joda.time.DateTime;
-import org.joda.time.Days;
+import java.util.TimeZone;
 
-import de.tu_berlin.dima.oligos.type.util.operator.Operator;
-import de.tu_berlin.dima.oligos.type.util.operator.Operators;
+public class DateOperator extends AbstractDateOperator<Date> {
 
-public class DateOperator implements Operator<Date> {
-
-  @Override
-  public int compare(Date o1, Date o2) {
-    return o1.compareTo(o2);
+  public DateOperator() {
+    super();
   }
 
-  @Override
-  public Date increment(Date value) {
-    return Operators.increment(value);
+  public DateOperator(TimeZone zone) {
+    super(zone);
   }
 
   @Override
-  public Date decrement(Date value) {
-    return Operators.decrement(value);
+  public Date fromEpoch(long millis) {
+    return new Date(millis);
   }
 
   @Override
-  public long range(Date val1, Date val2) {
-    DateTime dt1 = new DateTime(val1);
-    DateTime dt2 = new DateTime(val2);
-    return Days.daysBetween(dt1, dt2).getDays();
+  public long increment(long millis) {
+    return plusDays(millis, 1);
   }
 
   @Override
-  public Date min(Date val1, Date val2) {
-    return (val1.compareTo(val2) <= 0) ? val1 : val2;
+  public long decrement(long millis) {
+    return plusDays(millis, -1);
   }
 
   @Override
-  public Date max(Date val1, Date val2) {
-    return (val1.compareTo(val2) >= 0) ? val1 : val2;
+  public long range(long millis1, long millis2) {
+    return toEpochDay(millis2) - toEpochDay(millis1);
   }
 
 }
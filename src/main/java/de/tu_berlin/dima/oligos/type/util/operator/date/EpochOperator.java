@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.type.util.operator.date;
+
+import java.util.Date;
+
+import de.tu_berlin.dima.oligos.type.util.operator.Operator;
+
+/**
+ * {@link Operator} for temporal values, that additionally works on the epoch
+ * milliseconds of the values, i.e. <code>Date.getTime()</code>. The primitive
+ * methods neither allocate values nor calendars, so callers that keep
+ * temporal values as <code>long</code>, e.g. histograms, only create a value
+ * for the final result.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public interface EpochOperator<T extends Date> extends Operator<T> {
+
+  /**
+   * Converts the value into epoch milliseconds.
+   * @param value
+   *  Value to convert
+   * @return
+   *  Milliseconds since 1970-01-01 00:00:00 UTC
+   */
+  public long toEpoch(T value);
+
+  /**
+   * Converts epoch milliseconds into a value.
+   * @param millis
+   *  Milliseconds since 1970-01-01 00:00:00 UTC
+   * @return
+   *  Value for the given milliseconds
+   */
+  public T fromEpoch(long millis);
+
+  /**
+   * Increments the given epoch milliseconds by the minimum amount of the type
+   * @param millis
+   *  Epoch milliseconds to increment
+   * @return
+   *  Incremented epoch milliseconds
+   */
+  public long increment(long millis);
+
+  /**
+   * Decrements the given epoch milliseconds by the minimum amount of the type
+   * @param millis
+   *  Epoch milliseconds to decrement
+   * @return
+   *  Decremented epoch milliseconds
+   */
+  public long decrement(long millis);
+
+  /**
+   * Calculates the range between the given epoch milliseconds in the unit of
+   * the type, see {@link Operator#range(Object, Object)}.
+   * @param millis1
+   * @param millis2
+   * @return
+   *  Range between millis1 and millis2
+   */
+  public long range(long millis1, long millis2);
+}
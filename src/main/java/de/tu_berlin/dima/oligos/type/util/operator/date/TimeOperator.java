@@ -16,39 +16,36 @@
 package de.tu_berlin.dima.oligos.type.util.operator.date;
 
 import java.sql.Time;
-import de.tu_berlin.dima.oligos.type.util.operator.Operator;
-import de.tu_berlin.dima.oligos.type.util.operator.Operators;
+import java.util.TimeZone;
 
-public class TimeOperator implements Operator<Time> {
+public class TimeOperator extends AbstractDateOperator<Time> {
 
-  @Override
-  public int compare(Time o1, Time o2) {
-    return o1.compareTo(o2);
+  public TimeOperator() {
+    super();
   }
 
-  @Override
-  public Time increment(Time value) {
-    return Operators.increment(value);
+  public TimeOperator(TimeZone zone) {
+    super(zone);
   }
 
   @Override
-  public Time decrement(Time value) {
-    return Operators.decrement(value);
+  public Time fromEpoch(long millis) {
+    return new Time(millis);
   }
 
   @Override
-  public long range(Time val1, Time val2) {
-    return val2.getTime() - val1.getTime() + 1;
+  public long increment(long millis) {
+    return millis + MILLIS_PER_SECOND;
   }
 
   @Override
-  public Time min(Time val1, Time val2) {
-    return (val1.compareTo(val2) <= 0) ? val1 : val2;
+  public long decrement(long millis) {
+    return millis - MILLIS_PER_SECOND;
   }
 
   @Override
-  public Time max(Time val1, Time val2) {
-    return (val1.compareTo(val2) >= 0) ? val1 : val2;
+  public long range(long millis1, long millis2) {
+    return millis2 - millis1 + 1;
   }
 
 }
@@ -16,40 +16,37 @@
 package de.tu_berlin.dima.oligos.type.util.operator.date;
 
 import java.sql.Timestamp;
-import de.tu_berlin.dima.oligos.type.util.operator.Operator;
-import de.tu_berlin.dima.oligos.type.util.operator.Operators;
+import java.util.TimeZone;
 
-public class TimestampOperator implements Operator<Timestamp> {
+public class TimestampOperator extends AbstractDateOperator<Timestamp> {
 
-  @Override
-  public int compare(Timestamp o1, Timestamp o2) {
-    return o1.compareTo(o2);
+  public TimestampOperator() {
+    super();
   }
 
-  @Override
-  public Timestamp increment(Timestamp value) {
-    return Operators.increment(value);
+  public TimestampOperator(TimeZone zone) {
+    super(zone);
   }
 
   @Override
-  public Timestamp decrement(Timestamp value) {
-    return Operators.decrement(value);
+  public Timestamp fromEpoch(long millis) {
+    return new Timestamp(millis);
   }
 
   @Override
-  public long range(Timestamp val1, Timestamp val2) {
-    // TODO neglect nano seconds
-    return Math.abs(val1.getTime() - val2.getTime());
+  public long increment(long millis) {
+    return millis + 1;
   }
 
   @Override
-  public Timestamp min(Timestamp val1, Timestamp val2) {
-    return (val1.compareTo(val2) <= 0) ? val1 : val2;
+  public long decrement(long millis) {
+    return millis - 1;
   }
 
   @Override
-  public Timestamp max(Timestamp val1, Timestamp val2) {
-    return (val1.compareTo(val2) >= 0) ? val1 : val2;
+  public long range(long millis1, long millis2) {
+    // TODO neglect nano seconds
+    return Math.abs(millis1 - millis2);
   }
 
 }
@@ -18,7 +18,7 @@ package de.tu_berlin.dima.oligos.type.util.parser;
 public abstract class AbstractParser<T> implements Parser<T> {
 
   public String removeQuotes(final String value) {
-    return value.replaceAll("(^')|('$)","");
+    return Parsers.removeQuotes(value);
   }
 
   @Override
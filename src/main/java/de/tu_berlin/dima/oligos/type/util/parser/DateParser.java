@@ -17,19 +17,47 @@ package de.tu_berlin.dima.oligos.type.util.parser;
 
 import java.sql.Date;
 import java.text.SimpleDateFormat;
+import java.util.TimeZone;
 
 public class DateParser extends AbstractParser<Date> {
   
   private final static String DEFAULT_OUTPUT_FORMAT = "yyyy-MM-dd";
-  
+
+  private final static ThreadLocal<SimpleDateFormat> OUTPUT_FORMAT =
+      new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+          return new SimpleDateFormat(DEFAULT_OUTPUT_FORMAT);
+        }
+      };
+
+  /**
+   * Parses <code>yyyy-mm-dd</code> directly from the digits, other formats
+   * and years before {@link Parsers#MIN_DIRECT_YEAR} through
+   * <code>Date.valueOf</code>. Like the latter, dates are interpreted in the
+   * default time zone at the time of the call.
+   */
   @Override
   public Date fromString(String value) {
+    int begin = Parsers.begin(value);
+    int end = Parsers.end(value, begin);
+    if (end - begin == 10
+        && value.charAt(begin + 4) == '-' && value.charAt(begin + 7) == '-') {
+      int year = Parsers.digits(value, begin, begin + 4);
+      int month = Parsers.digits(value, begin + 5, begin + 7);
+      int day = Parsers.digits(value, begin + 8, begin + 10);
+      if (year >= Parsers.MIN_DIRECT_YEAR && month >= 1 && month <= 12
+          && day >= 1 && day <= 31) {
+        return new Date(Parsers.toEpochMillis(TimeZone.getDefault(), year, month, day, 0L));
+      }
+    }
   	return Date.valueOf(removeQuotes(value));
   }
 
   @Override
   public String toString(Object value) {
-    SimpleDateFormat outFormat = new SimpleDateFormat(DEFAULT_OUTPUT_FORMAT);
+    SimpleDateFormat outFormat = OUTPUT_FORMAT.get();
+    outFormat.setTimeZone(TimeZone.getDefault());
     return outFormat.format(value);
   }
 
@@ -19,7 +19,7 @@ public class IntegerParser extends AbstractParser<Integer> {
 
   @Override
   public Integer fromString(String value) {
-    return new Integer(removeQuotes(value));
+    return Integer.valueOf(removeQuotes(value));
   }
 
 }
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.type.util.parser;
+
+import java.util.TimeZone;
+
+/**
+ * Helpers for parsing catalog values without regular expressions and
+ * intermediate copies.
+ * <br />
+ * The quote helpers return the given string itself if there is nothing to
+ * remove, which is the common case for numerical catalog values. The digit
+ * helpers read fixed positions of a string, so temporal values can be parsed
+ * without splitting them first.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public final class Parsers {
+
+  private static final char QUOTE = '\'';
+  private static final long MILLIS_PER_DAY = 24L * 60L * 60L * 1000L;
+  // days from 0000-03-01 to 1970-01-01 in the proleptic Gregorian calendar
+  private static final long DAYS_0000_TO_1970 = 719468L;
+
+  /**
+   * First year that is parsed directly. Older values are handed to the JDK,
+   * which uses the Julian calendar before the Gregorian cutover.
+   */
+  static final int MIN_DIRECT_YEAR = 1600;
+
+  private Parsers() {
+  }
+
+  /**
+   * Removes a leading and a trailing single quote.
+   * @param value Value with optional enclosing quotes
+   * @return the value without enclosing quotes
+   */
+  public static String removeQuotes(final String value) {
+    int length = value.length();
+    int begin = (length > 0 && value.charAt(0) == QUOTE) ? 1 : 0;
+    int end = (length > begin && value.charAt(length - 1) == QUOTE) ? length - 1 : length;
+    return (begin == 0 && end == length) ? value : value.substring(begin, end);
+  }
+
+  /**
+   * Removes all single quotes, like <code>replaceAll("'", "")</code>.
+   * @param value Value with optional quotes
+   * @return the value without any quotes
+   */
+  public static String removeAllQuotes(final String value) {
+    int first = value.indexOf(QUOTE);
+    if (first < 0) {
+      return value;
+    }
+    int length = value.length();
+    int last = value.lastIndexOf(QUOTE);
+    if (first == 0 && last == length - 1 && value.indexOf(QUOTE, 1) == last) {
+      return value.substring(1, last);
+    }
+    StringBuilder sb = new StringBuilder(length - 1);
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c != QUOTE) {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Returns the index of the first character after a leading quote.
+   */
+  static int begin(final String value) {
+    return (value.length() > 0 && value.charAt(0) == QUOTE) ? 1 : 0;
+  }
+
+  /**
+   * Returns the index after the last character before a trailing quote.
+   */
+  static int end(final String value, final int begin) {
+    int length = value.length();
+    return (length > begin && value.charAt(length - 1) == QUOTE) ? length - 1 : length;
+  }
+
+  /**
+   * Parses the decimal digits in the range.
+   * @return the non-negative number or <code>-1</code> if the range contains
+   *  anything but digits
+   */
+  static int digits(final String value, final int begin, final int end) {
+    int n = 0;
+    for (int i = begin; i < end; i++) {
+      int d = value.charAt(i) - '0';
+      if (d < 0 || d > 9) {
+        return -1;
+      }
+      n = n * 10 + d;
+    }
+    return n;
+  }
+
+  /**
+   * Converts a local date and time in the time zone into epoch milliseconds.
+   * Local times that are skipped or repeated by a daylight saving time change
+   * are resolved like the JDK does, i.e. to the later instant.
+   * @param zone Time zone of the local date and time
+   * @param year Year, at least {@link #MIN_DIRECT_YEAR}
+   * @param month Month from 1 to 12
+   * @param day Day of month
+   * @param millisOfDay Milliseconds since midnight
+   * @return milliseconds since 1970-01-01 00:00:00 UTC
+   */
+  static long toEpochMillis(final TimeZone zone, final int year, final int month
+      , final int day, final long millisOfDay) {
+    long local = epochDay(year, month, day) * MILLIS_PER_DAY + millisOfDay;
+    int before = zone.getOffset(local - MILLIS_PER_DAY);
+    int after = zone.getOffset(local + MILLIS_PER_DAY);
+    if (before == after) {
+      return local - before;
+    }
+    // around a transition, prefer the later instant that maps to the local time
+    long later = local - Math.min(before, after);
+    long earlier = local - Math.max(before, after);
+    if (zone.getOffset(later) == local - later || zone.getOffset(earlier) != local - earlier) {
+      return later;
+    }
+    return earlier;
+  }
+
+  /**
+   * Returns the days since 1970-01-01 of a date in the proleptic Gregorian
+   * calendar.
+   */
+  static long epochDay(final int year, final int month, final int day) {
+    // shift the year to start in March, so the leap day is the last day
+    long y = (month <= 2) ? year - 1 : year;
+    long era = y / 400;
+    long yearOfEra = y - era * 400;
+    long dayOfYear = (153 * (month + ((month > 2) ? -3 : 9)) + 2) / 5 + day - 1;
+    long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - DAYS_0000_TO_1970;
+  }
+}
@@ -16,11 +16,30 @@
 package de.tu_berlin.dima.oligos.type.util.parser;
 
 import java.sql.Time;
+import java.util.TimeZone;
 
 public class TimeParser extends AbstractParser<Time> {
 
+  /**
+   * Parses <code>hh:mm:ss</code> directly from the digits, other formats
+   * through <code>Time.valueOf</code>. Like the latter, times are interpreted
+   * in the default time zone at the time of the call.
+   */
   @Override
   public Time fromString(String value) {
+    int begin = Parsers.begin(value);
+    int end = Parsers.end(value, begin);
+    if (end - begin == 8
+        && value.charAt(begin + 2) == ':' && value.charAt(begin + 5) == ':') {
+      int hour = Parsers.digits(value, begin, begin + 2);
+      int minute = Parsers.digits(value, begin + 3, begin + 5);
+      int second = Parsers.digits(value, begin + 6, begin + 8);
+      if (hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59
+          && second >= 0 && second <= 59) {
+        long millisOfDay = ((hour * 60L + minute) * 60L + second) * 1000L;
+        return new Time(Parsers.toEpochMillis(TimeZone.getDefault(), 1970, 1, 1, millisOfDay));
+      }
+    }
     return Time.valueOf(removeQuotes(value));
   }
 
@@ -16,11 +16,51 @@
 package de.tu_berlin.dima.oligos.type.util.parser;
 
 import java.sql.Timestamp;
+import java.util.TimeZone;
 
 public class TimestampParser extends AbstractParser<Timestamp> {
 
+  private final static int[] NANO_SCALE = {
+    1000000000, 100000000, 10000000, 1000000, 100000, 10000, 1000, 100, 10, 1
+  };
+
+  /**
+   * Parses <code>yyyy-mm-dd-hh.mm.ss[.f...]</code>, as well as the JDBC
+   * format, with up to nine fractional digits directly from the digits, other
+   * formats and years before {@link Parsers#MIN_DIRECT_YEAR} through
+   * <code>Timestamp.valueOf</code>. Like the latter, timestamps are
+   * interpreted in the default time zone at the time of the call.
+   */
   @Override
   public Timestamp fromString(String value) {
+    int begin = Parsers.begin(value);
+    int end = Parsers.end(value, begin);
+    int length = end - begin;
+    if (length >= 19 && length != 20 && length <= 29
+        && value.charAt(begin + 4) == '-' && value.charAt(begin + 7) == '-'
+        && isSeparator(value.charAt(begin + 10), '-', ' ')
+        && isSeparator(value.charAt(begin + 13), '.', ':')
+        && isSeparator(value.charAt(begin + 16), '.', ':')
+        && (length == 19 || value.charAt(begin + 19) == '.')) {
+      int year = Parsers.digits(value, begin, begin + 4);
+      int month = Parsers.digits(value, begin + 5, begin + 7);
+      int day = Parsers.digits(value, begin + 8, begin + 10);
+      int hour = Parsers.digits(value, begin + 11, begin + 13);
+      int minute = Parsers.digits(value, begin + 14, begin + 16);
+      int second = Parsers.digits(value, begin + 17, begin + 19);
+      int fraction = (length == 19) ? 0 : Parsers.digits(value, begin + 20, end);
+      if (year >= Parsers.MIN_DIRECT_YEAR && month >= 1 && month <= 12
+          && day >= 1 && day <= 31 && hour >= 0 && hour <= 23
+          && minute >= 0 && minute <= 59 && second >= 0 && second <= 59
+          && fraction >= 0) {
+        long millisOfDay = ((hour * 60L + minute) * 60L + second) * 1000L;
+        Timestamp timestamp = new Timestamp(
+            Parsers.toEpochMillis(TimeZone.getDefault(), year, month, day, millisOfDay));
+        int digits = Math.max(length - 20, 0);
+        timestamp.setNanos(fraction * NANO_SCALE[digits]);
+        return timestamp;
+      }
+    }
     char[] vals = removeQuotes(value).toCharArray();
     vals[10] = ' ';
     vals[13] = ':';
@@ -28,4 +68,8 @@ public class TimestampParser extends AbstractParser<Timestamp> {
     return Timestamp.valueOf(new String(vals));
   }
 
+  private static boolean isSeparator(final char c, final char sep1, final char sep2) {
+    return c == sep1 || c == sep2;
+  }
+
 }
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+
+public class DenseSchemaTest {
+
+  @Test
+  public void testIndex() {
+    ColumnId nName = new ColumnId("TPCH", "NATION", "N_NAME");
+    ColumnId rName = new ColumnId("TPCH", "REGION", "R_NAME");
+    ColumnId nKey = new ColumnId("TPCH", "NATION", "N_NATIONKEY");
+    ColumnId other = new ColumnId("OTHER", "T", "C");
+    DenseSchema schema = new DenseSchema(nName, rName, nKey, other, nName);
+
+    assertEquals(4, schema.size());
+    assertTrue(schema.contains(nKey));
+    assertThat(Lists.newArrayList(schema), contains(nName, rName, nKey, other));
+    assertThat(schema.schemas(), contains("TPCH", "OTHER"));
+    assertThat(schema.tablesIn("TPCH"), contains("NATION", "REGION"));
+    assertThat(schema.columnsIn("TPCH", "NATION"), contains("N_NAME", "N_NATIONKEY"));
+    assertThat(schema.tablesIn("MISSING"), empty());
+    assertThat(schema.columnsIn("TPCH", "MISSING"), empty());
+  }
+
+  @Test
+  public void testViews() {
+    DenseSchema schema = new DenseSchema();
+    Set<String> tables = schema.tablesIn("TPCH");
+    Set<String> schemas = schema.schemas();
+    schema.addColumn(new ColumnId("TPCH", "NATION", "N_NAME"));
+    assertThat(schemas, contains("TPCH"));
+    assertThat(tables, empty());
+    assertThat(schema.tablesIn("TPCH"), contains("NATION"));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testUnmodifiable() {
+    DenseSchema schema = new DenseSchema(new ColumnId("TPCH", "NATION", "N_NAME"));
+    schema.columnsIn("TPCH", "NATION").add("N_COMMENT");
+  }
+}
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.cli.PosixParser;
+import org.apache.log4j.BasicConfigurator;
+import org.apache.log4j.Logger;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+import de.tu_berlin.dima.oligos.Oligos;
+import de.tu_berlin.dima.oligos.db.Db2DerbyDriver;
+import de.tu_berlin.dima.oligos.db.SyntheticDerby;
+import de.tu_berlin.dima.oligos.exception.TypeNotSupportedException;
+
+/**
+ * Runs Oligos end to end against synthetic DB2 catalogs in embedded Derby,
+ * see {@link SyntheticDerby}, and reports the wall time, the number of
+ * executed queries, and the peak heap of every run.
+ * <br />
+ * Every shape <code>&lt;tables&gt;x&lt;columns&gt;</code> given on the
+ * command line is profiled in a fresh database, additional Oligos options,
+ * e.g. <code>--pipeline -t 4</code>, are passed with <code>-a</code>. The
+ * results are logged and written to <code>scale-benchmark.csv</code> in the
+ * output folder:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -Xmx4g --add-opens java.base/java.lang=ALL-UNNAMED \
+ *   -cp target/classes:target/test-classes:$(cat cp.txt) \
+ *   de.tu_berlin.dima.oligos.benchmark.ScaleBenchmark 10x10 100x100 1000x100
+ * </pre>
+ * The <code>--add-opens</code> option is needed from Java 9 on only, the
+ * schema parser defines its classes through reflection.
+ * <br />
+ * The peak heap is the sum of the peaks of all heap pools during the run, an
+ * upper bound, and includes the in-memory database, whose size is reported
+ * as baseline heap after it was populated.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class ScaleBenchmark {
+
+  private static final Logger LOGGER = Logger.getLogger(ScaleBenchmark.class);
+
+  private static final Options OPTS = new Options()
+      .addOption("f", "fanout", true, "Foreign keys per table (default 2)")
+      .addOption("m", "frequent", true, "Most frequent values per column (default 10)")
+      .addOption("q", "quantiles", true, "Quantiles per column (default 20)")
+      .addOption("o", "output", true, "Output folder (default target/scale-benchmark)")
+      .addOption("a", "args", true, "Additional Oligos options, e.g. \"--pipeline -t 4\"");
+
+  private static final String GENERATOR_NAME = "scale";
+  private static final String REPORT_NAME = "scale-benchmark.csv";
+  private static final String HEADER = "tables,columns,total_columns,fan_out,most_frequent"
+      + ",quantiles,wall_ms,queries,peak_heap_mb,baseline_heap_mb";
+
+  private final File outputDirectory;
+  private final int fanOut;
+  private final int mostFrequent;
+  private final int quantiles;
+  private final String[] oligosArgs;
+  private int runs;
+
+  public ScaleBenchmark(final File outputDirectory, final int fanOut, final int mostFrequent
+      , final int quantiles, final String... oligosArgs) {
+    this.outputDirectory = outputDirectory;
+    this.fanOut = fanOut;
+    this.mostFrequent = mostFrequent;
+    this.quantiles = quantiles;
+    this.oligosArgs = oligosArgs;
+    this.runs = 0;
+  }
+
+  /**
+   * Profiles a synthetic schema of the given shape.
+   * @param tables Number of tables
+   * @param columns Number of columns per table
+   * @return the measurements of the run
+   * @throws SQLException if the synthetic database cannot be created
+   */
+  public Result run(final int tables, final int columns)
+      throws SQLException, TypeNotSupportedException {
+    Db2DerbyDriver driver = Db2DerbyDriver.register();
+    String databaseName = "SCALE" + (++runs);
+    SyntheticDerby database = new SyntheticDerby(databaseName, tables, columns, fanOut
+        , mostFrequent, quantiles);
+    LOGGER.info("Creating " + tables + " tables with " + columns + " columns ...");
+    database.create();
+    try {
+      File runDirectory = new File(outputDirectory, tables + "x" + columns);
+      List<String> args = Lists.newArrayList("-j", "db2", "-h", "localhost", "-P", "50000"
+          , "-D", databaseName, "-u", database.getUserName(), "-p", ""
+          , "-o", runDirectory.getPath(), "-g", GENERATOR_NAME);
+      args.addAll(Lists.newArrayList(oligosArgs));
+      args.add(database.getUserName());
+
+      System.gc();
+      long baselineHeap = getUsedHeap();
+      resetPeakHeap();
+      driver.resetQueries();
+      long start = System.nanoTime();
+      Oligos.main(args.toArray(new String[args.size()]));
+      long wallNanos = System.nanoTime() - start;
+      long queries = driver.getQueries();
+      long peakHeap = getPeakHeap();
+      // Oligos configures log4j on every run
+      Logger.getRootLogger().removeAllAppenders();
+      BasicConfigurator.configure();
+      return new Result(tables, columns, wallNanos, queries, peakHeap, baselineHeap
+          , new File(runDirectory, GENERATOR_NAME + "-prototype.xml"));
+    } finally {
+      database.drop();
+    }
+  }
+
+  public String toCsv(final Result result) {
+    return String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%d,%d,%d,%.1f,%.1f"
+        , result.tables, result.columns, result.tables * result.columns, fanOut
+        , mostFrequent, quantiles, result.getWallMillis(), result.queries
+        , result.peakHeap / 1048576.0, result.baselineHeap / 1048576.0);
+  }
+
+  private static long getUsedHeap() {
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  private static void resetPeakHeap() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  private static long getPeakHeap() {
+    long peak = 0L;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+
+  /**
+   * Measurements of a single run.
+   */
+  public static final class Result {
+
+    private final int tables;
+    private final int columns;
+    private final long wallNanos;
+    private final long queries;
+    private final long peakHeap;
+    private final long baselineHeap;
+    private final File prototype;
+
+    Result(final int tables, final int columns, final long wallNanos, final long queries
+        , final long peakHeap, final long baselineHeap, final File prototype) {
+      this.tables = tables;
+      this.columns = columns;
+      this.wallNanos = wallNanos;
+      this.queries = queries;
+      this.peakHeap = peakHeap;
+      this.baselineHeap = baselineHeap;
+      this.prototype = prototype;
+    }
+
+    public long getWallMillis() {
+      return wallNanos / 1000000L;
+    }
+
+    public long getQueries() {
+      return queries;
+    }
+
+    public long getPeakHeap() {
+      return peakHeap;
+    }
+
+    public long getBaselineHeap() {
+      return baselineHeap;
+    }
+
+    /**
+     * Returns the generator prototype written by the run.
+     */
+    public File getPrototype() {
+      return prototype;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ROOT, "%d columns (%dx%d) in %d ms, %d queries"
+          + ", %.1f MB peak heap (%.1f MB baseline)", tables * columns, tables, columns
+          , getWallMillis(), queries, peakHeap / 1048576.0, baselineHeap / 1048576.0);
+    }
+  }
+
+  public static void main(final String[] args) throws ParseException, SQLException
+      , IOException, TypeNotSupportedException {
+    BasicConfigurator.configure();
+    CommandLine cmd = new PosixParser().parse(OPTS, args);
+    if (cmd.getArgs().length == 0) {
+      new HelpFormatter().printHelp(ScaleBenchmark.class.getSimpleName()
+          + " [options] <tables>x<columns> ...", OPTS);
+      System.exit(2);
+    }
+    File outputDirectory = new File(cmd.getOptionValue("output", "target/scale-benchmark"));
+    String oligosArgs = cmd.getOptionValue("args", "").trim();
+    ScaleBenchmark benchmark = new ScaleBenchmark(outputDirectory
+        , Integer.parseInt(cmd.getOptionValue("fanout", "2"))
+        , Integer.parseInt(cmd.getOptionValue("frequent", "10"))
+        , Integer.parseInt(cmd.getOptionValue("quantiles", "20"))
+        , oligosArgs.isEmpty() ? new String[0] : oligosArgs.split("\\s+"));
+    StringBuilder report = new StringBuilder(HEADER).append('\n');
+    for (String shape : cmd.getArgs()) {
+      String[] dimensions = shape.toLowerCase().split("x");
+      Result result = benchmark.run(Integer.parseInt(dimensions[0])
+          , Integer.parseInt(dimensions[1]));
+      LOGGER.info("Profiled " + result);
+      report.append(benchmark.toCsv(result)).append('\n');
+    }
+    File reportFile = new File(outputDirectory, REPORT_NAME);
+    Files.createParentDirs(reportFile);
+    Files.write(report, reportFile, Charsets.UTF_8);
+    System.out.print(report);
+  }
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.benchmark;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ScaleBenchmarkTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRun() throws Exception {
+    ScaleBenchmark benchmark = new ScaleBenchmark(folder.getRoot(), 2, 5, 10);
+    ScaleBenchmark.Result result = benchmark.run(3, 12);
+    assertTrue(result.getPrototype().isFile());
+    assertTrue(result.getQueries() > 0);
+    assertTrue(result.getPeakHeap() > 0);
+    File tableDir = new File(folder.getRoot(), "3x12/distributions/testuser/t00002");
+    assertTrue(tableDir.isDirectory());
+  }
+
+  @Test
+  public void testPipeline() throws Exception {
+    ScaleBenchmark benchmark =
+        new ScaleBenchmark(folder.getRoot(), 1, 3, 5, "--pipeline", "-t", "2");
+    ScaleBenchmark.Result result = benchmark.run(2, 9);
+    assertTrue(result.getPrototype().isFile());
+    assertTrue(result.getQueries() > 0);
+  }
+}
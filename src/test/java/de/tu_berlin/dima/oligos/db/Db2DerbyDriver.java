@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC driver that serves <code>jdbc:db2://host:port/database</code>
+ * connections from the in-memory Derby database of the same name, so the DB2
+ * code paths of Oligos can run without a DB2 instance, see
+ * {@link SyntheticDerby}.
+ * <br />
+ * Derby reserves schema names starting with <code>SYS</code>, therefore
+ * references to the <code>SYSCAT</code>, <code>SYSSTAT</code>, and
+ * <code>SYSIBM</code> views are rewritten to the {@link #CATALOG_SCHEMA}
+ * stand-in. The driver counts the statements executed through its
+ * connections.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public final class Db2DerbyDriver implements Driver {
+
+  public static final String CATALOG_SCHEMA = "DB2CAT";
+
+  private static final String DERBY_URL = "jdbc:derby:memory:";
+  private static final Pattern URL = Pattern.compile("jdbc:db2://[^/]*/(\\w+)");
+  private static final Pattern CATALOG_VIEW =
+      Pattern.compile("\\b(?:SYSCAT|SYSSTAT|SYSIBM)\\.(\\w+)");
+
+  private static final Db2DerbyDriver INSTANCE = new Db2DerbyDriver();
+  private static boolean registered = false;
+
+  private final AtomicLong queries;
+
+  private Db2DerbyDriver() {
+    this.queries = new AtomicLong();
+  }
+
+  /**
+   * Registers the driver at the <code>DriverManager</code>, if it is not
+   * registered yet.
+   * @return the registered driver
+   * @throws SQLException if the driver cannot be registered
+   */
+  public static synchronized Db2DerbyDriver register() throws SQLException {
+    if (!registered) {
+      DriverManager.registerDriver(INSTANCE);
+      registered = true;
+    }
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the connection string of the in-memory database for Oligos.
+   */
+  public static String getConnectionString(final String database) {
+    return "jdbc:db2://localhost:50000/" + database;
+  }
+
+  /**
+   * Rewrites the references to the DB2 catalog views of the query.
+   */
+  public static String rewrite(final String query) {
+    return CATALOG_VIEW.matcher(query).replaceAll(CATALOG_SCHEMA + ".\"$1\"");
+  }
+
+  /**
+   * Returns the number of statements executed since the last reset.
+   */
+  public long getQueries() {
+    return queries.get();
+  }
+
+  public void resetQueries() {
+    queries.set(0L);
+  }
+
+  @Override
+  public Connection connect(final String url, final Properties info) throws SQLException {
+    Matcher matcher = URL.matcher(url);
+    if (!matcher.matches()) {
+      return null;
+    }
+    Connection connection = DriverManager.getConnection(DERBY_URL + matcher.group(1), info);
+    return proxy(Connection.class, connection);
+  }
+
+  @Override
+  public boolean acceptsURL(final String url) {
+    return URL.matcher(url).matches();
+  }
+
+  @Override
+  public DriverPropertyInfo[] getPropertyInfo(final String url, final Properties info) {
+    return new DriverPropertyInfo[0];
+  }
+
+  @Override
+  public int getMajorVersion() {
+    return 0;
+  }
+
+  @Override
+  public int getMinorVersion() {
+    return 1;
+  }
+
+  @Override
+  public boolean jdbcCompliant() {
+    return false;
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  private <T> T proxy(final Class<T> type, final T target) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }
+        , new Rewriter(target)));
+  }
+
+  /**
+   * Rewrites the queries passed to connections and statements, wraps the
+   * statements created by a connection, and counts executed statements.
+   */
+  private final class Rewriter implements InvocationHandler {
+
+    private final Object target;
+
+    public Rewriter(final Object target) {
+      this.target = target;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args)
+        throws Throwable {
+      String name = method.getName();
+      if (args != null && args.length > 0 && args[0] instanceof String
+          && (name.startsWith("prepare") || name.startsWith("execute")
+              || name.equals("addBatch"))) {
+        args[0] = rewrite((String) args[0]);
+      }
+      if (name.startsWith("execute")) {
+        queries.incrementAndGet();
+      }
+      Object result;
+      try {
+        result = method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+      if (result instanceof CallableStatement) {
+        return proxy(CallableStatement.class, (CallableStatement) result);
+      } else if (result instanceof PreparedStatement) {
+        return proxy(PreparedStatement.class, (PreparedStatement) result);
+      } else if (result instanceof Statement) {
+        return proxy(Statement.class, (Statement) result);
+      } else {
+        return result;
+      }
+    }
+  }
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import de.tu_berlin.dima.oligos.DenseSchema;
+import de.tu_berlin.dima.oligos.SparseSchema;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+
+public class DbUtilsTest {
+
+  @ClassRule
+  public static TPCHDerby tpchDB = new TPCHDerby(false);
+
+  private static final String SCHEMA = "TESTUSER";
+
+  private JdbcConnector jdbcConnector;
+
+  @Before
+  public void setUp() throws SQLException {
+    jdbcConnector = new JdbcConnector(tpchDB.getConnection());
+  }
+
+  @Test
+  public void testResolveColumns() throws SQLException {
+    SparseSchema sparseSchema = new SparseSchema.SparseSchemaBuilder()
+        .addColumn(SCHEMA, "NATION", "N_NAME")
+        .addColumn(SCHEMA, "NATION", "N_NATIONKEY")
+        .addTable(SCHEMA, "REGION")
+        .build();
+    Pair<DenseSchema, Map<ColumnId, TypeInfo>> resolved = DbUtils.resolveSchema(
+        sparseSchema, jdbcConnector, new StatisticsStub());
+    ColumnId nName = new ColumnId(SCHEMA, "NATION", "N_NAME");
+    assertThat(Lists.newArrayList(resolved.getLeft()), contains(nName
+        , new ColumnId(SCHEMA, "NATION", "N_NATIONKEY")
+        , new ColumnId(SCHEMA, "REGION", "R_REGIONKEY")
+        , new ColumnId(SCHEMA, "REGION", "R_NAME")
+        , new ColumnId(SCHEMA, "REGION", "R_COMMENT")));
+    assertEquals(resolved.getLeft().toString(), resolved.getRight().keySet().toString());
+    TypeInfo expected = jdbcConnector.typeQuery(SCHEMA, "NATION", "N_NAME");
+    TypeInfo actual = resolved.getRight().get(nName);
+    assertEquals(expected.getTypeName(), actual.getTypeName());
+    assertEquals(expected.getLength(), actual.getLength());
+    assertEquals(expected.getType(), actual.getType());
+  }
+
+  @Test
+  public void testSkipColumnsWithoutStatistics() throws SQLException {
+    SparseSchema sparseSchema = new SparseSchema.SparseSchemaBuilder()
+        .addTable(SCHEMA, "REGION")
+        .build();
+    ColumnId rComment = new ColumnId(SCHEMA, "REGION", "R_COMMENT");
+    Pair<DenseSchema, Map<ColumnId, TypeInfo>> resolved = DbUtils.resolveSchema(
+        sparseSchema, jdbcConnector, new StatisticsStub(rComment));
+    assertThat(Lists.newArrayList(resolved.getLeft())
+        , contains(new ColumnId(SCHEMA, "REGION", "R_REGIONKEY")
+            , new ColumnId(SCHEMA, "REGION", "R_NAME")));
+    assertEquals(2, resolved.getRight().size());
+  }
+
+  @Test
+  public void testPopulateSchema() throws SQLException {
+    SparseSchema sparseSchema = new SparseSchema.SparseSchemaBuilder()
+        .addSchema(SCHEMA)
+        .build();
+    DenseSchema denseSchema = DbUtils.populateSchema(
+        sparseSchema, jdbcConnector, new StatisticsStub());
+    assertEquals(DbUtils.sparseToDenseSchema(sparseSchema, jdbcConnector).toString()
+        , denseSchema.toString());
+  }
+
+  @Test
+  public void testNamesAreNoPatterns() throws SQLException {
+    Statement stmt = tpchDB.getConnection().createStatement();
+    try {
+      stmt.execute("CREATE SCHEMA \"A_B\"");
+      stmt.execute("CREATE SCHEMA AXB");
+      stmt.execute("CREATE TABLE \"A_B\".\"T_1\" (X INTEGER)");
+      stmt.execute("CREATE TABLE \"A_B\".TX1 (Y INTEGER)");
+      stmt.execute("CREATE TABLE AXB.\"T_1\" (Z INTEGER)");
+      SparseSchema sparseSchema = new SparseSchema.SparseSchemaBuilder()
+          .addSchema("A_B")
+          .build();
+      Pair<DenseSchema, Map<ColumnId, TypeInfo>> resolved = DbUtils.resolveSchema(
+          sparseSchema, jdbcConnector, new StatisticsStub());
+      assertThat(Lists.newArrayList(resolved.getLeft())
+          , contains(new ColumnId("A_B", "TX1", "Y"), new ColumnId("A_B", "T_1", "X")));
+      assertEquals(1, jdbcConnector.typeQuery("A_B", "T_1").size());
+      assertNotNull(jdbcConnector.typeQuery("A_B", "T_1", "X"));
+      assertNull(jdbcConnector.typeQuery("A_B", "T_1", "Z"));
+    } finally {
+      stmt.execute("DROP TABLE AXB.\"T_1\"");
+      stmt.execute("DROP TABLE \"A_B\".TX1");
+      stmt.execute("DROP TABLE \"A_B\".\"T_1\"");
+      stmt.execute("DROP SCHEMA AXB RESTRICT");
+      stmt.execute("DROP SCHEMA \"A_B\" RESTRICT");
+      stmt.close();
+    }
+  }
+
+  /**
+   * Meta connector that reports statistics for all but the given columns.
+   */
+  private static class StatisticsStub implements MetaConnector {
+
+    private final Set<ColumnId> withoutStatistics;
+
+    public StatisticsStub(final ColumnId... withoutStatistics) {
+      this.withoutStatistics = Sets.newHashSet(withoutStatistics);
+    }
+
+    @Override
+    public boolean hasColumn(final ColumnId columnId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean hasColumn(final String schema, final String table, final String column) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean hasStatistics(final ColumnId columnId) {
+      return !withoutStatistics.contains(columnId);
+    }
+
+    @Override
+    public boolean hasStatistics(final String schema, final String table, final String column) {
+      return hasStatistics(new ColumnId(schema, table, column));
+    }
+
+    @Override
+    public boolean isEnumerated(final ColumnId columnId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isEnumerated(final String schema, final String table, final String column) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public TypeInfo getColumnType(final ColumnId columnId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public TypeInfo getColumnType(final String schema, final String table, final String column) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
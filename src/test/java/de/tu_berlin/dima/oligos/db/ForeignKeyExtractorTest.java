@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db;
+
+import static de.tu_berlin.dima.oligos.db.JdbcConstants.Keys.*;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.junit.Assert.assertThat;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+
+import de.tu_berlin.dima.oligos.db.reference.SchemaRef;
+import de.tu_berlin.dima.oligos.db.reference.TableRef;
+
+/**
+ * Checks that the set based foreign key retrieval through a
+ * {@link ForeignKeyExtractor} returns the same foreign keys as the table by
+ * table retrieval through <code>DatabaseMetaData</code>. Derby has no catalog
+ * view with foreign key columns, hence the test extractor reads the rows from
+ * a <code>VALUES</code> clause filled with the imported keys of all tables.
+ */
+public class ForeignKeyExtractorTest {
+
+  @ClassRule
+  public static TPCHDerby tpchDB = new TPCHDerby(false);
+
+  private static final SchemaRef SCHEMA = TPCHModel.getSchemas()[0];
+
+  private JdbcConnector metaDataConnector;
+  private JdbcConnector extractorConnector;
+
+  @Before
+  public void setUp() throws SQLException {
+    metaDataConnector = new JdbcConnector(tpchDB.getConnection());
+    extractorConnector = new JdbcConnector(tpchDB.getConnection());
+    extractorConnector.setForeignKeyExtractor(new ValuesForeignKeyExtractor(
+        getCatalogRows(metaDataConnector)));
+  }
+
+  @Test
+  public void testForeignKeys() throws SQLException {
+    assertThat(extractorConnector.getForeignKeys(),
+        hasItems(TPCHModel.getForeignKeys()));
+    assertThat(extractorConnector.getForeignKeys(),
+        equalTo(metaDataConnector.getForeignKeys()));
+    assertThat(extractorConnector.getCrossReferences(),
+        equalTo(metaDataConnector.getCrossReferences()));
+  }
+
+  @Test
+  public void testForeignKeysForSchema() throws SQLException {
+    assertThat(extractorConnector.getForeignKeys(SCHEMA),
+        equalTo(metaDataConnector.getForeignKeys(SCHEMA)));
+    assertThat(extractorConnector.getCrossReferences(SCHEMA, SCHEMA),
+        equalTo(metaDataConnector.getCrossReferences(SCHEMA, SCHEMA)));
+    assertThat(extractorConnector.getImportedKeys(SCHEMA),
+        equalTo(metaDataConnector.getImportedKeys(SCHEMA)));
+    assertThat(extractorConnector.getExportedKeys(SCHEMA),
+        equalTo(metaDataConnector.getExportedKeys(SCHEMA)));
+  }
+
+  @SuppressWarnings("deprecation")
+  @Test
+  public void testReferences() throws SQLException {
+    String schema = SCHEMA.getSchemaName();
+    assertThat(extractorConnector.getReferences(schema),
+        equalTo(metaDataConnector.getReferences(schema)));
+  }
+
+  @Test
+  public void testFallback() throws SQLException {
+    extractorConnector.setForeignKeyExtractor(new ValuesForeignKeyExtractor(null));
+    assertThat(extractorConnector.getForeignKeys(SCHEMA),
+        equalTo(metaDataConnector.getForeignKeys(SCHEMA)));
+  }
+
+  /**
+   * Builds one <code>VALUES</code> row per foreign key column from the
+   * imported keys of all tables.
+   */
+  private static List<String> getCatalogRows(final JdbcConnector connector)
+      throws SQLException {
+    List<String> rows = Lists.newArrayList();
+    for (TableRef table : connector.getTables(SCHEMA)) {
+      ResultSet rs = connector.getConnection().getMetaData().getImportedKeys(
+          null, table.getSchemaName(), table.getTableName());
+      while (rs.next()) {
+        // VARCHAR literals, otherwise Derby pads the values to the longest one
+        rows.add("(CAST('" + Joiner.on("' AS VARCHAR(128)), CAST('").join(rs.getString(NAME),
+            rs.getString(CHILD_SCHEMA), rs.getString(CHILD_TABLE), rs.getString(CHILD_COLUMN),
+            rs.getString(PARENT_SCHEMA), rs.getString(PARENT_TABLE), rs.getString(PARENT_COLUMN))
+            + "' AS VARCHAR(128)), " + rs.getShort(SEQUENCE_NUMBER) + ")");
+      }
+      rs.close();
+    }
+    return rows;
+  }
+
+  private static class ValuesForeignKeyExtractor extends ForeignKeyExtractor {
+
+    private final String query;
+
+    /**
+     * @param rows the catalog rows or <code>null</code> for an extractor, whose
+     *  queries fail
+     */
+    public ValuesForeignKeyExtractor(final List<String> rows) {
+      this.query = (rows == null)
+          ? "SELECT * FROM NO_SUCH_CATALOG %s"
+          : "SELECT * FROM (VALUES " + Joiner.on(", ").join(rows) + ") "
+              + "AS fk(FK_NAME, FKTABLE_SCHEM, FKTABLE_NAME, FKCOLUMN_NAME, "
+              + "PKTABLE_SCHEM, PKTABLE_NAME, PKCOLUMN_NAME, KEY_SEQ) "
+              + "%s ORDER BY FKTABLE_SCHEM, FKTABLE_NAME, FK_NAME, KEY_SEQ";
+    }
+
+    @Override
+    protected String getForeignKeysQuery() {
+      return String.format(query, "");
+    }
+
+    @Override
+    protected String getSchemaForeignKeysQuery() {
+      return String.format(query, "WHERE FKTABLE_SCHEM = ? OR PKTABLE_SCHEM = ?");
+    }
+  }
+}
@@ -33,10 +33,14 @@ import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.dbutils.ResultSetHandler;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.ClassRule;
@@ -46,10 +50,14 @@ import org.junit.experimental.theories.Theories;
 import org.junit.experimental.theories.Theory;
 import org.junit.runner.RunWith;
 
+import com.google.common.collect.Lists;
+
 import de.tu_berlin.dima.oligos.db.constraints.ForeignKey;
 import de.tu_berlin.dima.oligos.db.reference.ColumnRef;
 import de.tu_berlin.dima.oligos.db.reference.SchemaRef;
 import de.tu_berlin.dima.oligos.db.reference.TableRef;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
 //bug in hamcrest everyItem Matcher
 //https://github.com/hamcrest/JavaHamcrest/issues/40
 
@@ -149,6 +157,33 @@ public class JdbcConnectorTest {
     assertThat(actual, hasItems(expected));
   }
 
+  /**
+   * Tests {@link JdbcConnector#typeQuery(String)} and checks if the type
+   * information retrieved for the whole schema covers all columns of the schema
+   * and equals the type information retrieved column by column.
+   * @param schema the schema to retrieve the type information for
+   * @throws SQLException
+   */
+  @Theory
+  public void testTypeQueryForSchema(
+      @ParametersSuppliedBy(TPCHModel.class)
+      final SchemaRef schema) throws SQLException {
+    Map<ColumnId, TypeInfo> actual = jdbcConnector.typeQuery(schema.getSchemaName());
+    ColumnRef[] expected = TPCHModel.getColumns(schema);
+    assertThat(actual.size(), greaterThanOrEqualTo(expected.length));
+    for (ColumnRef column : expected) {
+      ColumnId columnId = new ColumnId(
+          column.getSchemaName(), column.getTableName(), column.getColumnName());
+      TypeInfo expectedType = jdbcConnector.typeQuery(
+          column.getSchemaName(), column.getTableName(), column.getColumnName());
+      TypeInfo actualType = actual.get(columnId);
+      assertThat(actualType.getTypeName(), equalTo(expectedType.getTypeName()));
+      assertThat(actualType.getLength(), equalTo(expectedType.getLength()));
+      assertThat(actualType.getScale(), equalTo(expectedType.getScale()));
+      assertThat(actualType.getType(), equalTo((Object) expectedType.getType()));
+    }
+  }
+
   /**
    * Tests {@link JdbcConnector#getColumns(TableRef)} and checks if the
    * retrieved columns are within the table and contain at least the columns
@@ -358,4 +393,101 @@ public class JdbcConnectorTest {
     assertThat(importedKeys, hasItems(expected));
   }
 
+  /**
+   * Tests that repeated queries reuse the cached prepared statement and that
+   * the least recently used statement is evicted if the cache is full.
+   * @throws SQLException
+   */
+  @Test
+  public void testStatementCache() throws SQLException {
+    String first = "SELECT 1 AS val FROM SYSIBM.SYSDUMMY1 WHERE 1 = ?";
+    String second = "SELECT 2 AS val FROM SYSIBM.SYSDUMMY1 WHERE 2 = ?";
+    JdbcConnector connector = new JdbcConnector(tpchDB.getConnection(), 1);
+    try {
+      Integer value = connector.scalarQuery(first, "val", 1);
+      assertThat(value, equalTo(1));
+      value = connector.scalarQuery(first, "val", 1);
+      assertThat(value, equalTo(1));
+      assertThat(connector.getStatementCacheHits(), equalTo(1L));
+      assertThat(connector.getStatementCacheMisses(), equalTo(1L));
+
+      connector.scalarQuery(second, "val", 2);
+      connector.scalarQuery(first, "val", 1);
+      assertThat(connector.getStatementCacheHits(), equalTo(1L));
+      assertThat(connector.getStatementCacheMisses(), equalTo(3L));
+      assertThat(connector.getStatementCacheSize(), equalTo(1));
+    } finally {
+      connector.clearStatementCache();
+    }
+  }
+
+  /**
+   * Tests that the fetch size of a query does not stick to the cached
+   * statement.
+   * @throws SQLException
+   */
+  @Test
+  public void testFetchSizeIsRestored() throws SQLException {
+    String query = "SELECT 1 AS val FROM SYSIBM.SYSDUMMY1 WHERE 1 = ?";
+    ResultSetHandler<Integer> fetchSize = new ResultSetHandler<Integer>() {
+      @Override
+      public Integer handle(final ResultSet rs) throws SQLException {
+        return rs.getStatement().getFetchSize();
+      }
+    };
+    JdbcConnector connector = new JdbcConnector(tpchDB.getConnection());
+    try {
+      int defaultFetchSize = connector.query(query, fetchSize, 1);
+      assertThat(connector.query(query, 500, fetchSize, 1), equalTo(500));
+      assertThat(connector.query(query, fetchSize, 1), equalTo(defaultFetchSize));
+      assertThat(connector.getStatementCacheMisses(), equalTo(1L));
+    } finally {
+      connector.clearStatementCache();
+    }
+  }
+
+  /**
+   * Tests that the query listener is notified about successful and failed
+   * queries and the number of rows read.
+   * @throws SQLException
+   */
+  @Test
+  public void testQueryListener() throws SQLException {
+    String query = "SELECT 1 AS val FROM SYSIBM.SYSDUMMY1 WHERE 1 = ?";
+    final List<String> queries = Lists.newArrayList();
+    final List<Boolean> failures = Lists.newArrayList();
+    final List<Long> rowCounts = Lists.newArrayList();
+    final List<String> started = Lists.newArrayList();
+    JdbcConnector connector = new JdbcConnector(tpchDB.getConnection());
+    connector.addQueryListener(new QueryListener() {
+      @Override
+      public void queryStarted(final String query) {
+        started.add(query);
+      }
+
+      @Override
+      public void queryExecuted(final String query, final long nanos, final long rows
+          , final boolean failed) {
+        assertThat(nanos, greaterThanOrEqualTo(0L));
+        queries.add(query);
+        rowCounts.add(rows);
+        failures.add(failed);
+      }
+    });
+    try {
+      connector.scalarQuery(query, "val", 1);
+      try {
+        connector.scalarQuery(query, "val", "no number");
+      } catch (SQLException e) {
+        // expected
+      }
+      assertThat(started, equalTo((List<String>) Lists.newArrayList(query, query)));
+      assertThat(queries, equalTo((List<String>) Lists.newArrayList(query, query)));
+      assertThat(failures, equalTo((List<Boolean>) Lists.newArrayList(false, true)));
+      assertThat(rowCounts, equalTo((List<Long>) Lists.newArrayList(1L, 0L)));
+    } finally {
+      connector.clearStatementCache();
+    }
+  }
+
 }
@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db;
+
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory Derby database with a synthetic schema of configurable shape and
+ * a stand-in for the DB2 catalog views that describes it, to run Oligos at
+ * scale through the {@link Db2DerbyDriver}.
+ * <br />
+ * The schema consists of <code>tables</code> tables with
+ * <code>columns</code> columns each. The first column of every table is its
+ * primary key, the next <code>fanOut</code> columns reference the primary
+ * keys of the preceding tables, the remaining columns cycle through the
+ * supported column types. Every column but the primary key gets
+ * <code>mostFrequent</code> most frequent values and every column gets
+ * <code>quantiles</code> quantiles in the catalog, single character columns
+ * are enumerated. The tables themselves stay empty, Oligos only reads the
+ * catalog.
+ *
+ * @author Christoph Brücke (christoph.bruecke@campus.tu-berlin.de)
+ * @since 0.3.1
+ */
+public class SyntheticDerby extends AbstractDbDerby {
+
+  private final static String CATALOG_URL = "/db2/catalog.sql";
+  private final static String INDEXES_URL = "/db2/indexes.sql";
+
+  /** Number of rows every table pretends to have */
+  public final static long CARDINALITY = 1000000L;
+
+  /** Number of distinct values of columns that are neither keys nor enumerated */
+  private final static long DISTINCT = 10000L;
+
+  private final static int BATCH_SIZE = 1000;
+  private final static long EPOCH = 1388534400000L;
+  private final static String[] TYPES =
+      { "INTEGER", "BIGINT", "DECIMAL", "DOUBLE", "DATE", "TIMESTAMP", "VARCHAR", "CHAR" };
+
+  private final String databaseName;
+  private final int tables;
+  private final int columns;
+  private final int fanOut;
+  private final int mostFrequent;
+  private final int quantiles;
+
+  public SyntheticDerby(final String databaseName, final int tables, final int columns
+      , final int fanOut, final int mostFrequent, final int quantiles) {
+    this.databaseName = databaseName;
+    this.tables = tables;
+    this.columns = columns;
+    this.fanOut = Math.max(0, Math.min(fanOut, columns - 1));
+    this.mostFrequent = mostFrequent;
+    this.quantiles = quantiles;
+  }
+
+  /**
+   * Creates the database, the synthetic schema, and its catalog.
+   * @throws SQLException if a database access error occurs
+   */
+  public void create() throws SQLException {
+    try {
+      before();
+    } catch (UnsupportedEncodingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Drops the database.
+   */
+  public void drop() {
+    after();
+  }
+
+  @Override
+  protected void before() throws SQLException, UnsupportedEncodingException {
+    super.before();
+    Connection connection = getConnection();
+    connection.setAutoCommit(false);
+    try {
+      createTables(connection);
+      createCatalog(connection);
+      connection.commit();
+    } finally {
+      connection.setAutoCommit(true);
+    }
+  }
+
+  @Override
+  public String getDataBaseName() {
+    return databaseName;
+  }
+
+  @Override
+  public InputStream getSchemaScript() {
+    return getClass().getResourceAsStream(CATALOG_URL);
+  }
+
+  @Override
+  public InputStream getConstraintScript() {
+    return getClass().getResourceAsStream(INDEXES_URL);
+  }
+
+  public int getNumberOfColumns() {
+    return tables * columns;
+  }
+
+  public static String getTableName(final int table) {
+    return String.format("T%05d", table);
+  }
+
+  public String getColumnName(final int column) {
+    if (column == 0) {
+      return "ID";
+    } else if (column <= fanOut) {
+      return "REF" + column;
+    } else {
+      return "C" + column;
+    }
+  }
+
+  /**
+   * Returns the type of the column, keys are integers.
+   */
+  public String getTypeName(final int column) {
+    return (column <= fanOut) ? "INTEGER" : TYPES[(column - fanOut - 1) % TYPES.length];
+  }
+
+  private void createTables(final Connection connection) throws SQLException {
+    Statement statement = connection.createStatement();
+    try {
+      for (int t = 0; t < tables; t++) {
+        StringBuilder ddl = new StringBuilder("CREATE TABLE ")
+            .append(getUserName()).append('.').append(getTableName(t)).append(" (");
+        for (int c = 0; c < columns; c++) {
+          String typeName = getTypeName(c);
+          ddl.append((c > 0) ? ", " : "").append(getColumnName(c)).append(' ')
+              .append(typeName).append(getTypeParameters(typeName));
+        }
+        statement.executeUpdate(ddl.append(')').toString());
+      }
+    } finally {
+      statement.close();
+    }
+  }
+
+  private void createCatalog(final Connection connection) throws SQLException {
+    String schema = getUserName();
+    Timestamp statsTime = new Timestamp(EPOCH);
+    Batch tableRows = new Batch(connection, "INSERT INTO DB2CAT.\"TABLES\" VALUES (?, ?, ?, ?)");
+    Batch columnRows = new Batch(connection
+        , "INSERT INTO DB2CAT.\"COLUMNS\" VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+    Batch coldistRows = new Batch(connection
+        , "INSERT INTO DB2CAT.\"COLDIST\" VALUES (?, ?, ?, ?, ?, ?, ?)");
+    Batch constRows = new Batch(connection, "INSERT INTO DB2CAT.\"TABCONST\" VALUES (?, ?, ?, ?)");
+    Batch keyRows = new Batch(connection
+        , "INSERT INTO DB2CAT.\"KEYCOLUSE\" VALUES (?, ?, ?, ?, ?)");
+    Batch referenceRows = new Batch(connection
+        , "INSERT INTO DB2CAT.\"REFERENCES\" VALUES (?, ?, ?, ?, ?, ?)");
+    for (int t = 0; t < tables; t++) {
+      String table = getTableName(t);
+      tableRows.add(schema, table, CARDINALITY, statsTime);
+      String primaryKey = "PK_" + table;
+      constRows.add(primaryKey, schema, table, "P");
+      keyRows.add(primaryKey, schema, table, getColumnName(0), (short) 1);
+      for (int c = 1; c <= fanOut && c <= t; c++) {
+        String foreignKey = "FK_" + table + "_" + c;
+        String parent = getTableName(t - c);
+        constRows.add(foreignKey, schema, table, "F");
+        keyRows.add(foreignKey, schema, table, getColumnName(c), (short) 1);
+        referenceRows.add(foreignKey, schema, table, "PK_" + parent, schema, parent);
+      }
+      for (int c = 0; c < columns; c++) {
+        String column = getColumnName(c);
+        String typeName = getTypeName(c);
+        long distinct = (c <= fanOut) ? CARDINALITY
+            : typeName.equals("CHAR") ? Math.max(1, Math.min(26, mostFrequent)) : DISTINCT;
+        columnRows.add(schema, table, column, (short) c, typeName, getLength(typeName)
+            , (short) (typeName.equals("DECIMAL") ? 2 : 0), (c == 0) ? "N" : "Y"
+            , literal(typeName, 0), literal(typeName, distinct - 1), 0L, distinct);
+        int numFrequent = (c == 0) ? 0 : (int) Math.min(mostFrequent, distinct);
+        for (int i = 0; i < numFrequent; i++) {
+          long value = (distinct <= mostFrequent) ? i : (i * 7919L) % distinct;
+          long count = CARDINALITY / (2L * (i + 1) * numFrequent) + 1;
+          coldistRows.add(schema, table, column, "F", (short) (i + 1)
+              , literal(typeName, value), count);
+        }
+        for (int i = 0; i < quantiles; i++) {
+          long value = (i + 1) * (distinct - 1) / quantiles;
+          long count = (i + 1) * CARDINALITY / quantiles;
+          coldistRows.add(schema, table, column, "Q", (short) (i + 1)
+              , literal(typeName, value), count);
+        }
+      }
+    }
+    for (Batch batch : new Batch[] {
+        tableRows, columnRows, coldistRows, constRows, keyRows, referenceRows }) {
+      batch.close();
+    }
+  }
+
+  private static String getTypeParameters(final String typeName) {
+    if (typeName.equals("DECIMAL")) {
+      return "(15, 2)";
+    } else if (typeName.equals("VARCHAR") || typeName.equals("CHAR")) {
+      return "(" + getLength(typeName) + ")";
+    } else {
+      return "";
+    }
+  }
+
+  private static int getLength(final String typeName) {
+    if (typeName.equals("DECIMAL")) {
+      return 15;
+    } else if (typeName.equals("VARCHAR")) {
+      return 25;
+    } else if (typeName.equals("CHAR")) {
+      return 1;
+    } else {
+      return 8;
+    }
+  }
+
+  /**
+   * Returns the <code>value</code>th smallest value of the type as DB2 stores
+   * it in the catalog, e.g. <code>'2014-01-01-00.00.00.000000'</code> for
+   * timestamps.
+   */
+  static String literal(final String typeName, final long value) {
+    if (typeName.equals("INTEGER")) {
+      return Long.toString(value);
+    } else if (typeName.equals("BIGINT")) {
+      return Long.toString(1000000000000L + value);
+    } else if (typeName.equals("DECIMAL")) {
+      return String.format("%d.%02d", value / 100, value % 100);
+    } else if (typeName.equals("DOUBLE")) {
+      return Double.toString(value + 0.5);
+    } else if (typeName.equals("DATE")) {
+      return "'" + new Date(EPOCH + TimeUnit.DAYS.toMillis(value)) + "'";
+    } else if (typeName.equals("TIMESTAMP")) {
+      char[] chrs = String.format("%-26s", new Timestamp(EPOCH + TimeUnit.MINUTES.toMillis(value)))
+          .replace(' ', '0').toCharArray();
+      chrs[10] = '-';
+      chrs[13] = '.';
+      chrs[16] = '.';
+      return "'" + String.valueOf(chrs) + "'";
+    } else if (typeName.equals("CHAR")) {
+      return "'" + (char) ('A' + value % 26) + "'";
+    } else {
+      return String.format("'VALUE%08d'", value);
+    }
+  }
+
+  /**
+   * Prepared insert statement that executes its rows in batches.
+   */
+  private static final class Batch {
+
+    private final PreparedStatement statement;
+    private int size;
+
+    public Batch(final Connection connection, final String insert) throws SQLException {
+      this.statement = connection.prepareStatement(insert);
+      this.size = 0;
+    }
+
+    public void add(final Object... values) throws SQLException {
+      for (int i = 0; i < values.length; i++) {
+        statement.setObject(i + 1, values[i]);
+      }
+      statement.addBatch();
+      if (++size == BATCH_SIZE) {
+        statement.executeBatch();
+        size = 0;
+      }
+    }
+
+    public void close() throws SQLException {
+      try {
+        if (size > 0) {
+          statement.executeBatch();
+        }
+      } finally {
+        statement.close();
+      }
+    }
+  }
+}
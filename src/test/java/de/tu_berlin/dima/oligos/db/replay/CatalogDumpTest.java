@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.db.replay;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.javatuples.Quartet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import de.tu_berlin.dima.oligos.DenseSchema;
+import de.tu_berlin.dima.oligos.DriverName;
+import de.tu_berlin.dima.oligos.Oligos;
+import de.tu_berlin.dima.oligos.db.MetaConnector;
+import de.tu_berlin.dima.oligos.db.SchemaConnector;
+import de.tu_berlin.dima.oligos.db.TableConnector;
+import de.tu_berlin.dima.oligos.db.db2.Db2CatalogSnapshot;
+import de.tu_berlin.dima.oligos.exception.ColumnDoesNotExistException;
+import de.tu_berlin.dima.oligos.io.SnapshotStore;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+
+public class CatalogDumpTest {
+
+  private static final ColumnId N_NATIONKEY = new ColumnId("TPCH", "NATION", "N_NATIONKEY");
+  private static final ColumnId N_REGIONKEY = new ColumnId("TPCH", "NATION", "N_REGIONKEY");
+  private static final Quartet<String, String, String, String> REFERENCE =
+      Quartet.with("REGION", "R_REGIONKEY", "NATION", "N_REGIONKEY");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testCaptureAndReplay() throws SQLException, IOException {
+    DenseSchema schema = new DenseSchema(N_NATIONKEY, N_REGIONKEY);
+    Map<ColumnId, TypeInfo> types = Maps.newLinkedHashMap();
+    types.put(N_NATIONKEY, new TypeInfo("INTEGER", 10, 0, Integer.class));
+    types.put(N_REGIONKEY, new TypeInfo("INTEGER", 10, 0, Integer.class));
+    CatalogDump captured = CatalogDump.capture(DriverName.db2, new Db2CatalogSnapshot()
+        , schema, types, new EnumeratedMetaConnector(N_REGIONKEY)
+        , new TableConnector() {
+          @Override
+          public long getCardinality(final String schema, final String table) {
+            return 25L;
+          }
+        }, new SchemaConnector() {
+          @Override
+          public Set<Quartet<String, String, String, String>> getReferences(final String schema) {
+            return Collections.singleton(REFERENCE);
+          }
+        });
+    File file = new File(folder.getRoot(), "tpch.dump");
+    SnapshotStore.write(file, captured);
+    CatalogDump dump = SnapshotStore.read(file, CatalogDump.class);
+
+    assertEquals(DriverName.db2, dump.getDriverName());
+    assertNotNull(dump.getDb2Snapshot());
+    assertNull(dump.getOracleSnapshot());
+    assertArrayEquals(new ColumnId[] { N_NATIONKEY, N_REGIONKEY }
+        , dump.getColumns().keySet().toArray());
+
+    MetaConnector metaConnector = new ReplayMetaConnector(dump);
+    assertTrue(metaConnector.hasStatistics(N_NATIONKEY));
+    assertFalse(metaConnector.isEnumerated(N_NATIONKEY));
+    assertTrue(metaConnector.isEnumerated(N_REGIONKEY));
+    assertEquals(Integer.class, metaConnector.getColumnType(N_REGIONKEY).getType());
+    assertFalse(metaConnector.hasColumn("TPCH", "NATION", "N_NAME"));
+    assertEquals(25L, new ReplayTableConnector(dump).getCardinality("TPCH", "NATION"));
+    assertEquals(Collections.singleton(REFERENCE)
+        , new ReplaySchemaConnector(dump).getReferences("TPCH"));
+  }
+
+  @Test(expected = ColumnDoesNotExistException.class)
+  public void testReplayUnknownColumn() throws SQLException {
+    CatalogDump dump = CatalogDump.capture(DriverName.db2, new Db2CatalogSnapshot()
+        , new DenseSchema(), Maps.<ColumnId, TypeInfo>newHashMap()
+        , new EnumeratedMetaConnector(), null, null);
+    new ReplayMetaConnector(dump).getColumnType(N_NATIONKEY);
+  }
+
+  @Test
+  public void testReplayUncoveredColumn() throws SQLException {
+    Map<ColumnId, TypeInfo> types = Maps.newHashMap();
+    types.put(N_NATIONKEY, new TypeInfo("INTEGER", 10, 0, Integer.class));
+    CatalogDump dump = CatalogDump.capture(DriverName.db2, new Db2CatalogSnapshot()
+        , new DenseSchema(N_NATIONKEY), types, new EnumeratedMetaConnector()
+        , new TableConnector() {
+          @Override
+          public long getCardinality(final String schema, final String table) {
+            return 25L;
+          }
+        }, new SchemaConnector() {
+          @Override
+          public Set<Quartet<String, String, String, String>> getReferences(final String schema) {
+            return Collections.emptySet();
+          }
+        });
+    assertFalse(dump.isCovered(N_NATIONKEY));
+    try {
+      Oligos.getReplayProfilerFactory(dump)
+          .create(N_NATIONKEY, types.get(N_NATIONKEY), null);
+      fail("Expected an SQLException for a column without captured statistics");
+    } catch (SQLException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("TPCH.NATION.N_NATIONKEY"));
+    }
+  }
+
+  private static class EnumeratedMetaConnector implements MetaConnector {
+
+    private final Set<ColumnId> enumerated;
+
+    public EnumeratedMetaConnector(final ColumnId... enumerated) {
+      this.enumerated = Sets.newHashSet(enumerated);
+    }
+
+    @Override
+    public boolean hasColumn(final ColumnId columnId) {
+      return true;
+    }
+
+    @Override
+    public boolean hasColumn(final String schema, final String table, final String column) {
+      return true;
+    }
+
+    @Override
+    public boolean hasStatistics(final ColumnId columnId) {
+      return true;
+    }
+
+    @Override
+    public boolean hasStatistics(final String schema, final String table, final String column) {
+      return true;
+    }
+
+    @Override
+    public boolean isEnumerated(final ColumnId columnId) {
+      return enumerated.contains(columnId);
+    }
+
+    @Override
+    public boolean isEnumerated(final String schema, final String table, final String column) {
+      return isEnumerated(new ColumnId(schema, table, column));
+    }
+
+    @Override
+    public TypeInfo getColumnType(final ColumnId columnId) {
+      return null;
+    }
+
+    @Override
+    public TypeInfo getColumnType(final String schema, final String table, final String column) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+
+import de.tu_berlin.dima.oligos.stat.Column;
+import de.tu_berlin.dima.oligos.stat.distribution.histogram.CustomHistogram;
+import de.tu_berlin.dima.oligos.stat.distribution.histogram.Histogram;
+import de.tu_berlin.dima.oligos.stat.distribution.histogram.Histograms;
+import de.tu_berlin.dima.oligos.stat.distribution.histogram.QuantileHistogram;
+import de.tu_berlin.dima.oligos.stat.distribution.histogram.StringHistogram;
+import de.tu_berlin.dima.oligos.type.util.Constraint;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+import de.tu_berlin.dima.oligos.type.util.operator.StringOperator;
+import de.tu_berlin.dima.oligos.type.util.operator.numerical.IntegerOperator;
+import de.tu_berlin.dima.oligos.type.util.parser.IntegerParser;
+import de.tu_berlin.dima.oligos.type.util.parser.StringParser;
+
+public class DistributionWriterTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testNumericDistribution() throws IOException, SQLException {
+    IntegerOperator operator = new IntegerOperator();
+    QuantileHistogram<Integer> quantiles = new QuantileHistogram<Integer>(0, operator);
+    quantiles.addBound(10, 14);
+    quantiles.addBound(20, 7);
+    Map<Integer, Long> mostFrequent = Maps.newHashMap();
+    mostFrequent.put(5, 4L);
+    Histogram<Integer> distribution =
+        Histograms.combineHistograms(quantiles, mostFrequent, operator);
+    Column<Integer> column = new Column<Integer>("S", "T", "C"
+        , new TypeInfo("INTEGER", 4, 0, Integer.class)
+        , Collections.<Constraint>emptySet(), 0, 20, 21, 0, distribution
+        , new IntegerParser());
+
+    String expected = "@numberofexactvals = 1\n"
+        + "@numberofbins = 3\n"
+        + "@nullprobability = 0.0\n"
+        + "# exact values\n"
+        + "p(X) = 0.2\tfor X = { 5 }\n"
+        + "# bucket probabilities\n"
+        + "p(X) = 0.25\tfor X = { x in [0, 5) }\n"
+        + "p(X) = 0.2\tfor X = { x in [6, 11) }\n"
+        + "p(X) = 0.35\tfor X = { x in [11, 21) }\n";
+    File distFile = new File(folder.getRoot(), "C.distribution");
+    File domainFile = new File(folder.getRoot(), "C.domain");
+    DistributionWriter writer = new DistributionWriter(column, distFile, domainFile);
+    writer.write();
+    assertEquals(expected, Files.toString(distFile, Charsets.UTF_8));
+    assertEquals(expected, writer.getDistributionString());
+    assertFalse(domainFile.exists());
+  }
+
+  @Test
+  public void testEnumeratedDistribution() throws IOException, SQLException {
+    Map<String, Long> values = Maps.newHashMap();
+    values.put("b", 1L);
+    values.put("a", 3L);
+    Column<String> column = new Column<String>("S", "T", "D"
+        , new TypeInfo("VARCHAR", 1, 0, String.class)
+        , Collections.<Constraint>emptySet(), "a", "b", 2, 0
+        , new StringHistogram(values), new StringParser());
+
+    File distFile = new File(folder.getRoot(), "D.distribution");
+    File domainFile = new File(folder.getRoot(), "D.domain");
+    new DistributionWriter(column, distFile, domainFile).write();
+    assertEquals("@numberofexactvals = 2\n"
+        + "@numberofbins = 0\n"
+        + "@nullprobability = 0.0\n"
+        + "# exact values\n"
+        + "p(X) = 0.75\tfor X = { 0 } # a\n"
+        + "p(X) = 0.25\tfor X = { 1 } # b\n"
+        + "# bucket probabilities\n", Files.toString(distFile, Charsets.UTF_8));
+    assertEquals("@numberofvalues = 2\n"
+        + "0 ... \"a\"\n"
+        + "1 ... \"b\"\n", Files.toString(domainFile, Charsets.UTF_8));
+  }
+
+  @Test
+  public void testExactValuesUseOperator() throws SQLException {
+    // orders case insensitive, unlike String.compareTo
+    StringOperator operator = new StringOperator() {
+      @Override
+      public int compare(String o1, String o2) {
+        return o1.compareToIgnoreCase(o2);
+      }
+    };
+    Histogram<String> distribution = new CustomHistogram<String>(operator);
+    distribution.add("a", "A", 2L);
+    distribution.add("b", "c", 2L);
+    Column<String> column = new Column<String>("S", "T", "E"
+        , new TypeInfo("VARCHAR", 1, 0, String.class)
+        , Collections.<Constraint>emptySet(), "a", "c", 3, 0
+        , distribution, operator, new StringParser());
+
+    String actual = new DistributionWriter(column, null, null).getDistributionString();
+    assertTrue(actual, actual.startsWith("@numberofexactvals = 1\n@numberofbins = 1\n"));
+    assertTrue(actual, actual.contains("{ 0 } # a\n"));
+  }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.HashMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.tu_berlin.dima.oligos.db.db2.Db2CatalogSnapshot;
+import de.tu_berlin.dima.oligos.db.oracle.OracleCatalogSnapshot;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+
+public class SnapshotStoreTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    File file = new File(folder.getRoot(), "out/types.snapshot");
+    HashMap<ColumnId, TypeInfo> types = new HashMap<ColumnId, TypeInfo>();
+    ColumnId columnId = new ColumnId("TPCH", "NATION", "N_NAME");
+    types.put(columnId, new TypeInfo("CHAR", 25, 0, String.class));
+    SnapshotStore.write(file, types);
+    SnapshotStore.write(file, types);
+
+    @SuppressWarnings("unchecked")
+    HashMap<ColumnId, TypeInfo> actual = SnapshotStore.read(file, HashMap.class);
+    assertNotNull(actual);
+    TypeInfo type = actual.get(columnId);
+    assertEquals("CHAR", type.getTypeName());
+    assertEquals(25, type.getLength());
+    assertEquals(String.class, type.getType());
+    assertFalse(new File(file.getParentFile(), file.getName() + ".tmp").exists());
+  }
+
+  @Test
+  public void testCatalogSnapshots() throws IOException {
+    File db2File = folder.newFile("db2.snapshot");
+    SnapshotStore.write(db2File, new Db2CatalogSnapshot());
+    assertNotNull(SnapshotStore.read(db2File, Db2CatalogSnapshot.class));
+    File oracleFile = folder.newFile("oracle.snapshot");
+    SnapshotStore.write(oracleFile, new OracleCatalogSnapshot());
+    assertNotNull(SnapshotStore.read(oracleFile, OracleCatalogSnapshot.class));
+    assertNull(SnapshotStore.read(oracleFile, Db2CatalogSnapshot.class));
+  }
+
+  @Test
+  public void testUnreadable() throws IOException {
+    assertNull(SnapshotStore.read(new File(folder.getRoot(), "missing"), HashMap.class));
+    File file = folder.newFile("broken.snapshot");
+    FileWriter writer = new FileWriter(file);
+    writer.write("no snapshot");
+    writer.close();
+    assertNull(SnapshotStore.read(file, HashMap.class));
+  }
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.javatuples.Quartet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+
+import de.tu_berlin.dima.oligos.stat.Column;
+import de.tu_berlin.dima.oligos.stat.Schema;
+import de.tu_berlin.dima.oligos.stat.Table;
+import de.tu_berlin.dima.oligos.stat.distribution.histogram.QuantileHistogram;
+import de.tu_berlin.dima.oligos.stat.distribution.histogram.StringHistogram;
+import de.tu_berlin.dima.oligos.type.util.Constraint;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+import de.tu_berlin.dima.oligos.type.util.operator.numerical.IntegerOperator;
+import de.tu_berlin.dima.oligos.type.util.parser.IntegerParser;
+import de.tu_berlin.dima.oligos.type.util.parser.StringParser;
+
+public class StreamingMyriadWriterTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testSameAsDom() throws Exception {
+    Schema schema = createSchema();
+    File domDir = folder.newFolder("dom");
+    File streamDir = folder.newFolder("stream");
+    new MyriadWriter(schema, domDir, "gen").write();
+    new StreamingMyriadWriter(schema, streamDir, "gen").write();
+
+    Document expected = parse(new File(domDir, "gen-prototype.xml"));
+    Document actual = parse(new File(streamDir, "gen-prototype.xml"));
+    assertTrue(expected.getDocumentElement().isEqualNode(actual.getDocumentElement()));
+    for (String path : new String[] { "distributions/tpch/nation/n_nationkey.distribution"
+        , "distributions/tpch/nation/n_name.distribution"
+        , "domains/tpch/nation/n_name.domain"
+        , "distributions/tpch/customer/c_custkey.distribution" }) {
+      assertEquals(path, Files.toString(new File(domDir, path), Charsets.UTF_8)
+          , Files.toString(new File(streamDir, path), Charsets.UTF_8));
+    }
+    // references have no distribution of their own
+    assertFalse(new File(streamDir, "distributions/tpch/customer/c_nationkey.distribution").exists());
+  }
+
+  @Test
+  public void testPipelined() throws Exception {
+    Schema schema = createSchema();
+    File expectedDir = folder.newFolder("expected");
+    File pipelineDir = folder.newFolder("pipeline");
+    new StreamingMyriadWriter(schema, expectedDir, "gen").write();
+
+    // distributions table by table, then the prototype from the meta data
+    Set<Table> tables = Sets.newLinkedHashSet();
+    AbstractMyriadWriter distributionWriter = new MyriadWriter(schema, pipelineDir, "gen");
+    for (Table table : schema) {
+      distributionWriter.writeDistributions(table);
+      tables.add(table.withoutDistributions());
+    }
+    Schema metaData = new Schema("TPCH", tables, createReferences());
+    for (AbstractMyriadWriter writer : new AbstractMyriadWriter[] {
+        new MyriadWriter(metaData, pipelineDir, "gen")
+        , new StreamingMyriadWriter(metaData, pipelineDir, "gen") }) {
+      writer.setWriteDistributions(false);
+      writer.write();
+      Document expected = parse(new File(expectedDir, "gen-prototype.xml"));
+      Document actual = parse(new File(pipelineDir, "gen-prototype.xml"));
+      assertTrue(expected.getDocumentElement().isEqualNode(actual.getDocumentElement()));
+    }
+    for (String path : new String[] { "distributions/tpch/nation/n_nationkey.distribution"
+        , "domains/tpch/nation/n_name.domain"
+        , "distributions/tpch/customer/c_custkey.distribution" }) {
+      assertEquals(path, Files.toString(new File(expectedDir, path), Charsets.UTF_8)
+          , Files.toString(new File(pipelineDir, path), Charsets.UTF_8));
+    }
+    assertFalse(new File(pipelineDir, "distributions/tpch/customer/c_nationkey.distribution").exists());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReleasedDistribution() throws Exception {
+    Table table = createSchema().iterator().next().withoutDistributions();
+    table.iterator().next().getDistribution();
+  }
+
+  private static Schema createSchema() throws SQLException {
+    Set<Constraint> pk = Collections.singleton(Constraint.PRIMARY_KEY);
+    Set<Constraint> none = Collections.emptySet();
+    TypeInfo integer = new TypeInfo("INTEGER", 4, 0, Integer.class);
+    Table nation = new Table("TPCH", "NATION", 25);
+    nation.addColumn(new Column<Integer>("TPCH", "NATION", "N_NATIONKEY", integer, pk
+        , 0, 24, 25, 0, newHistogram(24, 25), new IntegerParser()));
+    Map<String, Long> names = Maps.newHashMap();
+    names.put("GERMANY", 20L);
+    names.put("FRANCE", 5L);
+    nation.addColumn(new Column<String>("TPCH", "NATION", "N_NAME"
+        , new TypeInfo("CHAR", 25, 0, String.class), none, "FRANCE", "GERMANY", 2, 0
+        , new StringHistogram(names), new StringParser()));
+    Table customer = new Table("TPCH", "CUSTOMER", 100);
+    customer.addColumn(new Column<Integer>("TPCH", "CUSTOMER", "C_CUSTKEY", integer, pk
+        , 1, 100, 100, 0, newHistogram(100, 100), new IntegerParser()));
+    customer.addColumn(new Column<Integer>("TPCH", "CUSTOMER", "C_NATIONKEY", integer, none
+        , 0, 24, 25, 0, newHistogram(24, 100), new IntegerParser()));
+    return new Schema("TPCH", Sets.newHashSet(nation, customer), createReferences());
+  }
+
+  private static Set<Quartet<String, String, String, String>> createReferences() {
+    Set<Quartet<String, String, String, String>> references = Sets.newHashSet();
+    references.add(new Quartet<String, String, String, String>(
+        "NATION", "N_NATIONKEY", "CUSTOMER", "C_NATIONKEY"));
+    return references;
+  }
+
+  private static QuantileHistogram<Integer> newHistogram(int max, long frequency) {
+    QuantileHistogram<Integer> histogram =
+        new QuantileHistogram<Integer>(0, new IntegerOperator());
+    histogram.addBound(max, frequency);
+    return histogram;
+  }
+
+  private static Document parse(File file) throws Exception {
+    Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file);
+    removeWhitespace(document.getDocumentElement());
+    return document;
+  }
+
+  private static void removeWhitespace(Node node) {
+    Node child = node.getFirstChild();
+    while (child != null) {
+      Node next = child.getNextSibling();
+      if (child.getNodeType() == Node.TEXT_NODE && child.getTextContent().trim().isEmpty()) {
+        node.removeChild(child);
+      } else {
+        removeWhitespace(child);
+      }
+      child = next;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.profiler;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdaptiveLimiterTest {
+
+  private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+  @Test
+  public void testIncrease() throws InterruptedException {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(1, 3);
+    assertEquals(1, limiter.getLimit());
+    // the limit only grows while it is fully used
+    limiter.queryExecuted("q", 10 * MILLIS, 1L, false);
+    assertEquals(1, limiter.getLimit());
+    limiter.acquire();
+    limiter.queryExecuted("q", 10 * MILLIS, 1L, false);
+    assertEquals(2, limiter.getLimit());
+    limiter.acquire();
+    limiter.queryExecuted("q", 10 * MILLIS, 1L, false);
+    assertEquals(2, limiter.getLimit());
+    limiter.queryExecuted("q", 10 * MILLIS, 1L, false);
+    assertEquals(2, limiter.getLimit());
+    limiter.queryExecuted("q", 10 * MILLIS, 1L, false);
+    assertEquals(3, limiter.getLimit());
+    limiter.acquire();
+    for (int i = 0; i < 10; i++) {
+      limiter.queryExecuted("q", 10 * MILLIS, 1L, false);
+    }
+    assertEquals(3, limiter.getLimit());
+    assertEquals(3, limiter.getHighestLimit());
+    assertEquals(2.0, limiter.getAverageConcurrency(), 0.0);
+  }
+
+  @Test
+  public void testDecrease() throws InterruptedException {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(2, 8, 2.0, 0.5);
+    raise(limiter, 8);
+    assertEquals(8, limiter.getLimit());
+    // slow queries of another kind have their own baseline
+    limiter.queryExecuted("slow", 100 * MILLIS, 1L, false);
+    assertEquals(8, limiter.getLimit());
+    limiter.queryExecuted("q", 50 * MILLIS, 1L, false);
+    assertEquals(4, limiter.getLimit());
+    // at most one decrease per limit queries
+    limiter.queryExecuted("q", 50 * MILLIS, 1L, true);
+    assertEquals(4, limiter.getLimit());
+    for (int i = 0; i < 4; i++) {
+      limiter.queryExecuted("q", 50 * MILLIS, 1L, false);
+    }
+    assertEquals(2, limiter.getLimit());
+    for (int i = 0; i < 10; i++) {
+      limiter.queryExecuted("q", 50 * MILLIS, 1L, false);
+    }
+    assertEquals(2, limiter.getLimit());
+    assertEquals(2, limiter.getLowestLimit());
+    assertEquals(2L, limiter.getDecreases());
+  }
+
+  @Test
+  public void testAcquireBlocksAtLimit() throws InterruptedException {
+    final AdaptiveLimiter limiter = new AdaptiveLimiter(1, 2);
+    limiter.acquire();
+    final CountDownLatch acquired = new CountDownLatch(1);
+    Thread waiter = new Thread() {
+      @Override
+      public void run() {
+        try {
+          limiter.acquire();
+          acquired.countDown();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    waiter.start();
+    assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+    // raising the limit admits the waiting thread
+    limiter.queryExecuted("q", MILLIS, 1L, false);
+    assertTrue(acquired.await(10, TimeUnit.SECONDS));
+    waiter.join();
+  }
+
+  /**
+   * Acquires slots and reports fast queries until the limit is reached.
+   */
+  private static void raise(final AdaptiveLimiter limiter, final int limit)
+      throws InterruptedException {
+    int acquired = 0;
+    while (limiter.getLimit() < limit) {
+      while (acquired < limiter.getLimit()) {
+        limiter.acquire();
+        acquired++;
+      }
+      limiter.queryExecuted("q", 10 * MILLIS, 1L, false);
+    }
+  }
+}
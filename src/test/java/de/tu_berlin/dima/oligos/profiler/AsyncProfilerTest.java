@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.profiler;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.javatuples.Quartet;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import de.tu_berlin.dima.oligos.db.ColumnConnector;
+import de.tu_berlin.dima.oligos.db.JdbcConnector;
+import de.tu_berlin.dima.oligos.db.JdbcConnectorPool;
+import de.tu_berlin.dima.oligos.db.SchemaConnector;
+import de.tu_berlin.dima.oligos.db.SyntheticDerby;
+import de.tu_berlin.dima.oligos.db.TableConnector;
+import de.tu_berlin.dima.oligos.stat.Column;
+import de.tu_berlin.dima.oligos.stat.Schema;
+import de.tu_berlin.dima.oligos.stat.Table;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.Constraint;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+import de.tu_berlin.dima.oligos.type.util.operator.numerical.IntegerOperator;
+import de.tu_berlin.dima.oligos.type.util.parser.IntegerParser;
+
+public class AsyncProfilerTest {
+
+  private static final TypeInfo INTEGER = new TypeInfo("INTEGER", 4, 0, Integer.class);
+
+  private static final TableConnector TABLE_CONNECTOR = new TableConnector() {
+    @Override
+    public long getCardinality(final String schema, final String table) {
+      return 100L;
+    }
+  };
+
+  private static final SchemaConnector SCHEMA_CONNECTOR = new SchemaConnector() {
+    @Override
+    public Set<Quartet<String, String, String, String>> getReferences(final String schema) {
+      return Collections.singleton(Quartet.with("A", "A2", "B", "B1"));
+    }
+  };
+
+  @ClassRule
+  public static SyntheticDerby db = new SyntheticDerby("asyncprofiler", 6, 10, 2, 5, 10);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ProfilingExecutor executor;
+  private final CountDownLatch blocked = new CountDownLatch(1);
+
+  @After
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void testProfileAsync() throws Exception {
+    executor = ProfilingExecutor.create(2, 0L, TimeUnit.SECONDS);
+    SchemaProfiler profiler = newSchemaProfiler(new CountDownLatch(0), null);
+    Schema expected = profiler.profile();
+    Schema actual = profiler.profileAsync(executor).get(10, TimeUnit.SECONDS);
+
+    assertEquals(new ColumnId("S", "A", "A2")
+        , actual.getReferencedColumn(new ColumnId("S", "B", "B1")));
+    Iterator<Table> expectedTables = expected.iterator();
+    for (Table table : actual) {
+      Table expectedTable = expectedTables.next();
+      assertEquals(expectedTable.getTable(), table.getTable());
+      assertEquals(100L, table.getCardinality());
+      Iterator<Column<?>> expectedColumns = expectedTable.iterator();
+      for (Column<?> column : table) {
+        Column<?> expectedColumn = expectedColumns.next();
+        assertEquals(expectedColumn.getId(), column.getId());
+        assertEquals(expectedColumn.getDistribution().getTotalNumberOfValues()
+            , column.getDistribution().getTotalNumberOfValues());
+      }
+      assertFalse(expectedColumns.hasNext());
+    }
+    assertFalse(expectedTables.hasNext());
+  }
+
+  @Test
+  public void testProfileAsyncPooled() throws Exception {
+    executor = ProfilingExecutor.create(8, 0L, TimeUnit.SECONDS);
+    JdbcConnector connector = DerbyProfiling.connect(db);
+    JdbcConnectorPool pool = DerbyProfiling.newPool(db, 4);
+    try {
+      File expected = folder.newFolder("expected");
+      DerbyProfiling.write(DerbyProfiling.newSchemaProfiler(db, connector).profile(), expected);
+      // table and schema queries share the connector, columns use the pool
+      for (int i = 0; i < 3; i++) {
+        File actual = folder.newFolder("async" + i);
+        Schema schema = DerbyProfiling.newSchemaProfiler(db, connector, pool)
+            .profileAsync(executor).get(60, TimeUnit.SECONDS);
+        DerbyProfiling.write(schema, actual);
+        DerbyProfiling.assertSameFiles(expected, actual);
+      }
+      assertTrue(new File(expected, "distributions/testuser/t00005").isDirectory());
+      assertEquals(4, pool.getIdleCount());
+    } finally {
+      pool.close();
+      connector.close();
+    }
+  }
+
+  @Test
+  public void testTimeoutStartsWithConnector() throws Exception {
+    executor = ProfilingExecutor.create(4, 1000L, TimeUnit.MILLISECONDS);
+    JdbcConnectorPool pool = DerbyProfiling.newPool(db, 1);
+    ColumnProfilerFactory factory = new ColumnProfilerFactory() {
+      @Override
+      public ColumnProfiler<?> create(final ColumnId columnId, final TypeInfo type
+          , final JdbcConnector jdbcConnector) {
+        try {
+          Thread.sleep(400L);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return newColumnProfiler(columnId.getTable(), columnId.getColumn(), null, null);
+      }
+    };
+    try {
+      // four columns take longer than the timeout, but each holds the only
+      // connector for less
+      TableProfiler profiler = new TableProfiler("S", "A", TABLE_CONNECTOR);
+      for (int i = 1; i <= 4; i++) {
+        profiler.addColumnProfiler(new PooledColumnProfiler(new ColumnId("S", "A", "A" + i)
+            , INTEGER, factory, pool));
+      }
+      Table table = profiler.profileAsync(executor).get(30, TimeUnit.SECONDS);
+      assertEquals(4, Iterators.size(table.iterator()));
+    } finally {
+      pool.close();
+    }
+  }
+
+  @Test
+  public void testTimeout() throws InterruptedException {
+    executor = ProfilingExecutor.create(2, 100L, TimeUnit.MILLISECONDS);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    ListenableFuture<Schema> future =
+        newSchemaProfiler(new CountDownLatch(1), interrupted).profileAsync(executor);
+    try {
+      future.get(10, TimeUnit.SECONDS);
+      fail("Expected a timeout");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof TimeoutException);
+      assertTrue(e.getCause().getMessage().startsWith("S.B.B2"));
+    } catch (TimeoutException e) {
+      fail("Column timeout was not enforced");
+    }
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testCancel() throws InterruptedException {
+    executor = ProfilingExecutor.create(2, 0L, TimeUnit.SECONDS);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    ListenableFuture<Schema> future =
+        newSchemaProfiler(new CountDownLatch(1), interrupted).profileAsync(executor);
+    assertTrue(blocked.await(10, TimeUnit.SECONDS));
+    assertTrue(future.cancel(true));
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+  /**
+   * Creates a profiler of two tables, where the column B2 blocks until the
+   * latch is released, and counts down {@link #blocked} once it blocks.
+   */
+  private SchemaProfiler newSchemaProfiler(final CountDownLatch latch
+      , final CountDownLatch interrupted) {
+    SchemaProfiler schemaProfiler = new SchemaProfiler("S", SCHEMA_CONNECTOR);
+    TableProfiler a = new TableProfiler("S", "A", TABLE_CONNECTOR);
+    a.addColumnProfiler(newColumnProfiler("A", "A1", null, null));
+    a.addColumnProfiler(newColumnProfiler("A", "A2", null, null));
+    TableProfiler b = new TableProfiler("S", "B", TABLE_CONNECTOR);
+    b.addColumnProfiler(newColumnProfiler("B", "B1", null, null));
+    b.addColumnProfiler(newColumnProfiler("B", "B2", latch, interrupted));
+    schemaProfiler.add(a);
+    schemaProfiler.add(b);
+    return schemaProfiler;
+  }
+
+  private ColumnProfiler<Integer> newColumnProfiler(final String table
+      , final String column, final CountDownLatch latch, final CountDownLatch interrupted) {
+    return new ColumnProfiler<Integer>("S", table, column, INTEGER, false
+        , new ConnectorStub(latch, blocked, interrupted), new IntegerOperator()
+        , new IntegerParser());
+  }
+
+  private static class ConnectorStub implements ColumnConnector<Integer> {
+
+    private final CountDownLatch latch;
+    private final CountDownLatch blocked;
+    private final CountDownLatch interrupted;
+
+    public ConnectorStub(final CountDownLatch latch, final CountDownLatch blocked
+        , final CountDownLatch interrupted) {
+      this.latch = latch;
+      this.blocked = blocked;
+      this.interrupted = interrupted;
+    }
+
+    @Override
+    public long getNumNulls() {
+      return 0L;
+    }
+
+    @Override
+    public long getCardinality() {
+      return 20L;
+    }
+
+    @Override
+    public Set<Constraint> getConstraints() {
+      return Collections.<Constraint>emptySet();
+    }
+
+    @Override
+    public Integer getMin() {
+      return 1;
+    }
+
+    @Override
+    public Integer getMax() {
+      return 20;
+    }
+
+    @Override
+    public Map<Integer, Long> getMostFrequentValues() {
+      return Collections.<Integer, Long>emptyMap();
+    }
+
+    @Override
+    public Map<Integer, Long> getHistogram() {
+      if (latch != null) {
+        blocked.countDown();
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+          Thread.currentThread().interrupt();
+        }
+      }
+      return ImmutableMap.of(10, 50L, 20, 50L);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.profiler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+
+import de.tu_berlin.dima.oligos.DriverName;
+import de.tu_berlin.dima.oligos.Oligos;
+import de.tu_berlin.dima.oligos.db.Db2DerbyDriver;
+import de.tu_berlin.dima.oligos.db.JdbcConnector;
+import de.tu_berlin.dima.oligos.db.JdbcConnectorPool;
+import de.tu_berlin.dima.oligos.db.SyntheticDerby;
+import de.tu_berlin.dima.oligos.db.db2.Db2SchemaConnector;
+import de.tu_berlin.dima.oligos.db.db2.Db2TableConnector;
+import de.tu_berlin.dima.oligos.io.MyriadWriter;
+import de.tu_berlin.dima.oligos.stat.Schema;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+
+/**
+ * Profiles the synthetic schema of a {@link SyntheticDerby} through the
+ * {@link Db2DerbyDriver}, and compares the written generator specifications.
+ */
+final class DerbyProfiling {
+
+  private DerbyProfiling() {}
+
+  public static String getConnectionString(final SyntheticDerby db) {
+    return Db2DerbyDriver.getConnectionString(db.getDataBaseName());
+  }
+
+  public static Properties getProperties(final SyntheticDerby db) {
+    Properties properties = new Properties();
+    properties.setProperty("user", db.getUserName());
+    return properties;
+  }
+
+  public static JdbcConnector connect(final SyntheticDerby db) throws SQLException {
+    Db2DerbyDriver.register();
+    return new JdbcConnector(DriverManager.getConnection(getConnectionString(db)
+        , getProperties(db)));
+  }
+
+  /**
+   * Returns the profiled columns of the schema in the order of the meta data.
+   */
+  public static Map<ColumnId, TypeInfo> getColumns(final SyntheticDerby db
+      , final JdbcConnector connector) throws SQLException {
+    return connector.typeQuery(db.getUserName());
+  }
+
+  public static JdbcConnectorPool newPool(final SyntheticDerby db, final int size)
+      throws SQLException {
+    return new JdbcConnectorPool(getConnectionString(db), getProperties(db), size);
+  }
+
+  /**
+   * Creates a schema profiler whose profilers all use the given connector.
+   */
+  public static SchemaProfiler newSchemaProfiler(final SyntheticDerby db
+      , final JdbcConnector connector) throws SQLException {
+    return newSchemaProfiler(db, connector, null);
+  }
+
+  /**
+   * Creates a schema profiler whose column profilers borrow their connectors
+   * from the pool, table and schema queries use the given connector.
+   */
+  public static SchemaProfiler newSchemaProfiler(final SyntheticDerby db
+      , final JdbcConnector connector, final JdbcConnectorPool pool) throws SQLException {
+    String schema = db.getUserName();
+    ColumnProfilerFactory factory = Oligos.getProfilerFactory(DriverName.db2, null, null);
+    SchemaProfiler schemaProfiler = new SchemaProfiler(schema, new Db2SchemaConnector(connector));
+    Map<String, TableProfiler> tableProfilers = Maps.newLinkedHashMap();
+    for (Entry<ColumnId, TypeInfo> column : getColumns(db, connector).entrySet()) {
+      String table = column.getKey().getTable();
+      TableProfiler tableProfiler = tableProfilers.get(table);
+      if (tableProfiler == null) {
+        tableProfiler = new TableProfiler(schema, table, new Db2TableConnector(connector));
+        tableProfilers.put(table, tableProfiler);
+        schemaProfiler.add(tableProfiler);
+      }
+      if (pool != null) {
+        tableProfiler.addColumnProfiler(new PooledColumnProfiler(column.getKey()
+            , column.getValue(), factory, pool));
+      } else {
+        tableProfiler.addColumnProfiler(factory.create(column.getKey(), column.getValue()
+            , connector));
+      }
+    }
+    return schemaProfiler;
+  }
+
+  /**
+   * Writes the generator specification of the schema into the directory.
+   */
+  public static void write(final Schema schema, final File directory)
+      throws IOException, SQLException {
+    new MyriadWriter(schema, directory, "test").write();
+  }
+
+  /**
+   * Asserts that both directories contain the same files with the same
+   * content.
+   */
+  public static void assertSameFiles(final File expected, final File actual)
+      throws IOException {
+    String[] expectedNames = expected.list();
+    String[] actualNames = actual.list();
+    Arrays.sort(expectedNames);
+    Arrays.sort(actualNames);
+    assertArrayEquals(actual.getPath(), expectedNames, actualNames);
+    for (String name : expectedNames) {
+      File expectedFile = new File(expected, name);
+      File actualFile = new File(actual, name);
+      assertEquals(actualFile.getPath(), expectedFile.isDirectory(), actualFile.isDirectory());
+      if (expectedFile.isDirectory()) {
+        assertSameFiles(expectedFile, actualFile);
+      } else {
+        assertTrue(actualFile.getPath(), Files.equal(expectedFile, actualFile));
+      }
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.profiler;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.tu_berlin.dima.oligos.DriverName;
+import de.tu_berlin.dima.oligos.Oligos;
+import de.tu_berlin.dima.oligos.db.JdbcConnector;
+import de.tu_berlin.dima.oligos.db.JdbcConnectorPool;
+import de.tu_berlin.dima.oligos.db.SyntheticDerby;
+import de.tu_berlin.dima.oligos.db.db2.Db2SchemaConnector;
+import de.tu_berlin.dima.oligos.db.db2.Db2TableConnector;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+
+public class ParallelSchemaProfilerTest {
+
+  private static final ColumnId FAILING = new ColumnId("TESTUSER", "T00003", "C5");
+
+  @ClassRule
+  public static SyntheticDerby db = new SyntheticDerby("parallelprofiler", 6, 10, 2, 5, 10);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private JdbcConnector connector;
+
+  @Before
+  public void setUp() throws SQLException {
+    connector = DerbyProfiling.connect(db);
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    connector.close();
+  }
+
+  @Test
+  public void testSameOutputAsSequential() throws Exception {
+    File expected = folder.newFolder("sequential");
+    DerbyProfiling.write(DerbyProfiling.newSchemaProfiler(db, connector).profile(), expected);
+    assertTrue(new File(expected, "distributions/testuser/t00005").isDirectory());
+    ColumnProfilerFactory factory = Oligos.getProfilerFactory(DriverName.db2, null, null);
+    for (int threads : new int[] { 1, 2, 4, 8 }) {
+      JdbcConnectorPool pool = DerbyProfiling.newPool(db, threads);
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        File actual = folder.newFolder("parallel" + threads);
+        DerbyProfiling.write(newProfiler(factory, pool, executor).profile(), actual);
+        DerbyProfiling.assertSameFiles(expected, actual);
+        assertEquals(threads, pool.getIdleCount());
+      } finally {
+        executor.shutdownNow();
+        pool.close();
+      }
+    }
+  }
+
+  @Test
+  public void testReleaseOnFailure() throws Exception {
+    final ColumnProfilerFactory factory = Oligos.getProfilerFactory(DriverName.db2, null, null);
+    ColumnProfilerFactory failingFactory = new ColumnProfilerFactory() {
+      @Override
+      public ColumnProfiler<?> create(final ColumnId columnId, final TypeInfo type
+          , final JdbcConnector jdbcConnector) throws SQLException {
+        if (columnId.equals(FAILING)) {
+          throw new SQLException("unavailable");
+        }
+        return factory.create(columnId, type, jdbcConnector);
+      }
+    };
+    JdbcConnectorPool pool = DerbyProfiling.newPool(db, 4);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      newProfiler(failingFactory, pool, executor).profile();
+      fail("Expected a failed profiling run");
+    } catch (RuntimeException e) {
+      assertTrue(e.getCause() instanceof SQLException);
+    } finally {
+      // cancelled columns release their connectors once they stop
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+      assertEquals(4, pool.getIdleCount());
+      pool.close();
+    }
+  }
+
+  private ParallelSchemaProfiler newProfiler(final ColumnProfilerFactory factory
+      , final JdbcConnectorPool pool, final ExecutorService executor) throws SQLException {
+    ParallelSchemaProfiler profiler = new ParallelSchemaProfiler(db.getUserName()
+        , new Db2SchemaConnector(connector), new Db2TableConnector(connector), factory
+        , pool, executor);
+    Map<ColumnId, TypeInfo> columns = DerbyProfiling.getColumns(db, connector);
+    for (Entry<ColumnId, TypeInfo> column : columns.entrySet()) {
+      profiler.addColumn(column.getKey(), column.getValue());
+    }
+    return profiler;
+  }
+}
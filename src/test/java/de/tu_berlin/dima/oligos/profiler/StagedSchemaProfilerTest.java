@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.profiler;
+
+import static org.junit.Assert.*;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.javatuples.Quartet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+import de.tu_berlin.dima.oligos.db.ColumnConnector;
+import de.tu_berlin.dima.oligos.db.JdbcConnector;
+import de.tu_berlin.dima.oligos.db.TableConnector;
+import de.tu_berlin.dima.oligos.stat.Column;
+import de.tu_berlin.dima.oligos.stat.Schema;
+import de.tu_berlin.dima.oligos.stat.Table;
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+import de.tu_berlin.dima.oligos.type.util.Constraint;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+import de.tu_berlin.dima.oligos.type.util.operator.numerical.IntegerOperator;
+import de.tu_berlin.dima.oligos.type.util.parser.IntegerParser;
+
+public class StagedSchemaProfilerTest {
+
+  private static final TypeInfo INTEGER = new TypeInfo("INTEGER", 4, 0, Integer.class);
+
+  private ExecutorService fetchExecutor;
+  private ExecutorService buildExecutor;
+  private ExecutorService outputExecutor;
+
+  @Before
+  public void setUp() {
+    fetchExecutor = Executors.newFixedThreadPool(3);
+    buildExecutor = Executors.newFixedThreadPool(2);
+    outputExecutor = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    fetchExecutor.shutdownNow();
+    buildExecutor.shutdownNow();
+    outputExecutor.shutdownNow();
+  }
+
+  @Test
+  public void testProfile() {
+    final List<ColumnId> written = Collections.synchronizedList(Lists.<ColumnId>newArrayList());
+    StagedSchemaProfiler profiler = newProfiler(false, new Function<Column<?>, Column<?>>() {
+      @Override
+      public Column<?> apply(final Column<?> column) {
+        assertTrue(column.hasDistribution());
+        written.add(column.getId());
+        return column.withoutDistribution();
+      }
+    });
+    profiler.addColumn(new ColumnId("S", "B", "B1"), INTEGER);
+    profiler.addColumn(new ColumnId("S", "A", "A1"), INTEGER);
+    profiler.addColumn(new ColumnId("S", "B", "B2"), INTEGER);
+    profiler.addColumn(new ColumnId("S", "A", "A2"), INTEGER);
+    profiler.addColumn(new ColumnId("S", "B", "B3"), INTEGER);
+    profiler.addTable("C");
+    Schema schema = profiler.profile();
+
+    assertEquals(5, written.size());
+    Iterator<Table> tables = schema.iterator();
+    assertTable(tables.next(), "B", "B1", "B2", "B3");
+    assertTable(tables.next(), "A", "A1", "A2");
+    assertTable(tables.next(), "C");
+    assertFalse(tables.hasNext());
+  }
+
+  @Test
+  public void testFailure() {
+    StagedSchemaProfiler profiler = newProfiler(true, new Function<Column<?>, Column<?>>() {
+      @Override
+      public Column<?> apply(final Column<?> column) {
+        return column;
+      }
+    });
+    profiler.addColumn(new ColumnId("S", "A", "A1"), INTEGER);
+    profiler.addColumn(new ColumnId("S", "A", "A2"), INTEGER);
+    try {
+      profiler.profile();
+      fail("Expected a failed profiling run");
+    } catch (RuntimeException e) {
+      assertTrue(e.getCause() instanceof SQLException);
+    }
+  }
+
+  private StagedSchemaProfiler newProfiler(final boolean failing
+      , final Function<Column<?>, Column<?>> output) {
+    ColumnProfilerFactory factory = new ColumnProfilerFactory() {
+      @Override
+      public ColumnProfiler<?> create(final ColumnId columnId, final TypeInfo type
+          , final JdbcConnector jdbcConnector) {
+        return new ColumnProfiler<Integer>(columnId.getSchema(), columnId.getTable()
+            , columnId.getColumn(), type, false, new ConnectorStub(failing)
+            , new IntegerOperator(), new IntegerParser());
+      }
+    };
+    TableConnector tableConnector = new TableConnector() {
+      @Override
+      public long getCardinality(final String schema, final String table) {
+        return 100L;
+      }
+    };
+    return new StagedSchemaProfiler("S"
+        , Collections.<Quartet<String, String, String, String>>emptySet(), tableConnector
+        , factory, null, fetchExecutor, buildExecutor, outputExecutor, 1, output);
+  }
+
+  private static void assertTable(final Table table, final String name
+      , final String... columns) {
+    assertEquals(name, table.getTable());
+    assertEquals(100L, table.getCardinality());
+    Iterator<Column<?>> iter = table.iterator();
+    for (String column : columns) {
+      Column<?> actual = iter.next();
+      assertEquals(column, actual.getColumn());
+      assertFalse(actual.hasDistribution());
+    }
+    assertFalse(iter.hasNext());
+  }
+
+  private static class ConnectorStub implements ColumnConnector<Integer> {
+
+    private final boolean failing;
+
+    public ConnectorStub(final boolean failing) {
+      this.failing = failing;
+    }
+
+    @Override
+    public long getNumNulls() {
+      return 0L;
+    }
+
+    @Override
+    public long getCardinality() {
+      return 20L;
+    }
+
+    @Override
+    public Set<Constraint> getConstraints() {
+      return Collections.<Constraint>emptySet();
+    }
+
+    @Override
+    public Integer getMin() {
+      return 1;
+    }
+
+    @Override
+    public Integer getMax() {
+      return 20;
+    }
+
+    @Override
+    public Map<Integer, Long> getMostFrequentValues() {
+      return Collections.<Integer, Long>emptyMap();
+    }
+
+    @Override
+    public Map<Integer, Long> getHistogram() throws SQLException {
+      if (failing) {
+        throw new SQLException("unavailable");
+      }
+      return ImmutableMap.of(10, 50L, 20, 50L);
+    }
+  }
+}
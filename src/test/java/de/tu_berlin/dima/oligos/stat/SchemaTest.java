@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.stat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.javatuples.Quartet;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+
+public class SchemaTest {
+
+  @Test
+  public void testReferences() {
+    Set<Quartet<String, String, String, String>> references = Sets.newHashSet();
+    references.add(new Quartet<String, String, String, String>(
+        "NATION", "N_NATIONKEY", "CUSTOMER", "C_NATIONKEY"));
+    references.add(new Quartet<String, String, String, String>(
+        "region", "R_REGIONKEY", "NATION", "N_REGIONKEY"));
+    // the parent table is not part of the schema
+    references.add(new Quartet<String, String, String, String>(
+        "ORDERS", "O_ORDERKEY", "CUSTOMER", "C_ORDERKEY"));
+    Schema schema = new Schema("TPCH", Sets.newHashSet(new Table("TPCH", "NATION", 25)
+        , new Table("TPCH", "CUSTOMER", 100), new Table("TPCH", "REGION", 5)), references);
+
+    ColumnId nNationKey = new ColumnId("TPCH", "NATION", "N_NATIONKEY");
+    ColumnId cNationKey = new ColumnId("TPCH", "CUSTOMER", "C_NATIONKEY");
+    assertTrue(schema.containsTable("Region"));
+    assertFalse(schema.containsTable("ORDERS"));
+    assertTrue(schema.isReference(cNationKey));
+    assertFalse(schema.isReferenced(cNationKey));
+    assertTrue(schema.isReferenced(nNationKey));
+    assertFalse(schema.isReference(nNationKey));
+    assertEquals(nNationKey, schema.getReferencedColumn(cNationKey));
+    assertEquals(new ColumnId("TPCH", "region", "R_REGIONKEY")
+        , schema.getReferencedColumn(new ColumnId("TPCH", "NATION", "N_REGIONKEY")));
+    assertNull(schema.getReferencedColumn(new ColumnId("TPCH", "CUSTOMER", "C_ORDERKEY")));
+    assertEquals(2, schema.getReferenceGraph().edgeSet().size());
+  }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.stat.distribution.histogram;
+
+import static org.junit.Assert.*;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+
+import de.tu_berlin.dima.oligos.type.util.operator.numerical.IntegerOperator;
+
+public class HistogramsTest {
+
+  private final IntegerOperator operator = new IntegerOperator();
+
+  @Test
+  public void testCombineHistograms() throws SQLException {
+    QuantileHistogram<Integer> quantiles = new QuantileHistogram<Integer>(0, operator);
+    quantiles.addBound(10, 10);
+    quantiles.addBound(20, 10);
+    quantiles.addBound(30, 10);
+    quantiles.addBound(31, 5);
+    quantiles.addBound(40, 9);
+    Map<Integer, Long> mostFrequent = Maps.newHashMap();
+    mostFrequent.put(5, 3L);    // within a bucket
+    mostFrequent.put(11, 4L);   // lower bound
+    mostFrequent.put(30, 2L);   // upper bound
+    mostFrequent.put(31, 5L);   // single element bucket
+    mostFrequent.put(35, 2L);   // two elements in one bucket
+    mostFrequent.put(38, 1L);
+    mostFrequent.put(100, 7L);  // not covered
+    Histogram<Integer> histogram =
+        Histograms.combineHistograms(quantiles, mostFrequent, operator);
+
+    int[][] expected = { { 0, 4, 3 }, { 5, 5, 3 }, { 6, 10, 3 }, { 11, 11, 4 }
+        , { 12, 20, 6 }, { 21, 29, 8 }, { 30, 30, 2 }, { 31, 31, 5 }
+        , { 32, 34, 2 }, { 35, 35, 2 }, { 36, 37, 1 }, { 38, 38, 1 }
+        , { 39, 40, 1 } };
+    assertBuckets(expected, histogram);
+  }
+
+  @Test
+  public void testCombineEmptyHistogram() throws SQLException {
+    Map<Integer, Long> mostFrequent = Maps.newHashMap();
+    mostFrequent.put(30, 3L);
+    mostFrequent.put(10, 1L);
+    mostFrequent.put(20, 2L);
+    Histogram<Integer> histogram = Histograms.combineHistograms(
+        new QuantileHistogram<Integer>(0, operator), mostFrequent, operator);
+    int[][] expected = { { 10, 10, 1 }, { 20, 20, 2 }, { 30, 30, 3 } };
+    assertBuckets(expected, histogram);
+  }
+
+  private static void assertBuckets(final int[][] expected, final Histogram<Integer> actual) {
+    assertEquals(expected.length, actual.getNumberOfBuckets());
+    int i = 0;
+    for (Bucket<Integer> bucket : actual) {
+      assertEquals(Integer.valueOf(expected[i][0]), bucket.getLowerBound());
+      assertEquals(Integer.valueOf(expected[i][1]), bucket.getUpperBound());
+      assertEquals(expected[i][2], bucket.getFrequency());
+      i++;
+    }
+  }
+}
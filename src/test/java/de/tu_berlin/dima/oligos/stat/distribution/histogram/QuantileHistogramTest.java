@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.stat.distribution.histogram;
+
+import static org.junit.Assert.*;
+
+import java.sql.Timestamp;
+
+import org.junit.Test;
+
+import de.tu_berlin.dima.oligos.type.util.operator.Operator;
+import de.tu_berlin.dima.oligos.type.util.operator.date.TimestampOperator;
+import de.tu_berlin.dima.oligos.type.util.operator.numerical.DoubleOperator;
+import de.tu_berlin.dima.oligos.type.util.operator.numerical.IntegerOperator;
+import de.tu_berlin.dima.oligos.type.util.operator.numerical.LongOperator;
+import de.tu_berlin.dima.oligos.type.util.operator.numerical.ShortOperator;
+
+public class QuantileHistogramTest {
+
+  @Test
+  public void testFactory() {
+    assertTrue(Histograms.newQuantileHistogram((short) 1, new ShortOperator())
+        instanceof IntQuantileHistogram);
+    assertTrue(Histograms.newQuantileHistogram(1, new IntegerOperator())
+        instanceof IntQuantileHistogram);
+    assertTrue(Histograms.newQuantileHistogram(1L, new LongOperator())
+        instanceof LongQuantileHistogram);
+    assertTrue(Histograms.newQuantileHistogram(1.0, new DoubleOperator())
+        instanceof DoubleQuantileHistogram);
+    assertTrue(Histograms.newQuantileHistogram(new Timestamp(0L), new TimestampOperator())
+        instanceof EpochQuantileHistogram);
+    assertFalse(Histograms.newQuantileHistogram(null, new IntegerOperator())
+        instanceof ArrayQuantileHistogram);
+  }
+
+  @Test
+  public void testInteger() {
+    Integer[] bounds = { 10, 20, 30, 40, 50, 5, 30, 60 };
+    long[] freqs = { 3, 4, 5, 6, 7, 1, 8, 9 };
+    Integer[] probes = { -1, 0, 5, 10, 11, 30, 31, 60, 61 };
+    assertSameAsTreeMap(0, new IntegerOperator(), bounds, freqs, probes);
+  }
+
+  @Test
+  public void testLong() {
+    Long[] bounds = { 100L, 200L, 200L, 300L, Long.MAX_VALUE };
+    long[] freqs = { 1, 2, 3, 4, 5 };
+    Long[] probes = { Long.MIN_VALUE, 100L, 150L, 200L, 301L, Long.MAX_VALUE };
+    assertSameAsTreeMap(Long.MIN_VALUE, new LongOperator(), bounds, freqs, probes);
+  }
+
+  @Test
+  public void testDouble() {
+    Double[] bounds = { 1.5, 0.5, 2.5, 2.5, -1.0 };
+    long[] freqs = { 1, 2, 3, 4, 5 };
+    Double[] probes = { -2.0, -1.0, 0.0, 1.5, 2.0, 2.5, 3.0 };
+    assertSameAsTreeMap(-2.0, new DoubleOperator(), bounds, freqs, probes);
+  }
+
+  @Test
+  public void testTimestamp() {
+    // same millisecond, different nanos
+    Timestamp nanos = new Timestamp(2000L);
+    nanos.setNanos(nanos.getNanos() + 10);
+    Timestamp[] bounds = { new Timestamp(1000L), new Timestamp(2000L), nanos
+        , new Timestamp(3000L), new Timestamp(1500L) };
+    long[] freqs = { 1, 2, 3, 4, 5 };
+    Timestamp[] probes = { new Timestamp(0L), new Timestamp(1000L)
+        , new Timestamp(2000L), nanos, new Timestamp(2001L), new Timestamp(4000L) };
+    assertSameAsTreeMap(new Timestamp(0L), new TimestampOperator(), bounds, freqs, probes);
+  }
+
+  @Test
+  public void testSetFrequency() {
+    QuantileHistogram<Integer> histogram =
+        Histograms.newQuantileHistogram(0, new IntegerOperator());
+    for (int i = 1; i <= 100; i++) {
+      histogram.addBound(i * 10, 1);
+    }
+    assertEquals(100, histogram.getNumberOfBuckets());
+    assertEquals(100L, histogram.getTotalNumberOfValues());
+    histogram.setFrequencyAt(49, 51);
+    assertEquals(150L, histogram.getTotalNumberOfValues());
+    assertEquals(Integer.valueOf(491), histogram.getLowerBoundAt(49));
+    assertEquals(Integer.valueOf(500), histogram.getUpperBoundAt(49));
+    assertEquals(49, histogram.getBucketOf(500));
+    assertEquals(50, histogram.getBucketOf(501));
+  }
+
+  private static <T> void assertSameAsTreeMap(final T min, final Operator<T> operator
+      , final T[] bounds, final long[] freqs, final T[] probes) {
+    QuantileHistogram<T> expected = new QuantileHistogram<T>(min, operator);
+    QuantileHistogram<T> actual = Histograms.newQuantileHistogram(min, operator);
+    assertTrue(actual instanceof ArrayQuantileHistogram);
+    for (int i = 0; i < bounds.length; i++) {
+      expected.addBound(bounds[i], freqs[i]);
+      actual.addBound(bounds[i], freqs[i]);
+    }
+    assertEquals(expected.getNumberOfBuckets(), actual.getNumberOfBuckets());
+    assertEquals(expected.getTotalNumberOfValues(), actual.getTotalNumberOfValues());
+    assertEquals(expected.getMax(), actual.getMax());
+    assertEquals(expected.getUpperBounds(), actual.getUpperBounds());
+    assertEquals(expected.getFrequencies(), actual.getFrequencies());
+    for (int i = 0; i < expected.getNumberOfBuckets(); i++) {
+      assertEquals(expected.getLowerBoundAt(i), actual.getLowerBoundAt(i));
+      assertEquals(expected.getUpperBoundAt(i), actual.getUpperBoundAt(i));
+      assertEquals(expected.getFrequencyAt(i), actual.getFrequencyAt(i));
+    }
+    for (T probe : probes) {
+      assertEquals(String.valueOf(probe), expected.getBucketOf(probe), actual.getBucketOf(probe));
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.trace;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import de.tu_berlin.dima.oligos.stat.Column;
+import de.tu_berlin.dima.oligos.stat.distribution.histogram.QuantileHistogram;
+import de.tu_berlin.dima.oligos.type.util.Constraint;
+import de.tu_berlin.dima.oligos.type.util.TypeInfo;
+import de.tu_berlin.dima.oligos.type.util.operator.numerical.IntegerOperator;
+import de.tu_berlin.dima.oligos.type.util.parser.IntegerParser;
+
+public class ProfilingMetricsTest {
+
+  @Test
+  public void testProgress() throws InterruptedException {
+    ProfilingMetrics metrics = new ProfilingMetrics();
+    metrics.start(4L);
+    assertEquals(4L, metrics.getColumnsRemaining());
+    assertEquals(-1L, metrics.getEtaSeconds());
+
+    Column<Integer> column = newColumn();
+    Thread.sleep(5);
+    metrics.columnProfiled(column);
+    metrics.columnProfiled(column);
+    assertEquals(2L, metrics.getColumnsProfiled());
+    assertEquals(2L, metrics.getColumnsRemaining());
+    assertTrue(metrics.getColumnsPerSecond() > 0.0);
+    assertTrue(metrics.getEtaSeconds() >= 0L);
+    assertEquals(4L, metrics.getHistogramBuckets());
+    assertEquals(4L, metrics.getRetainedHistogramBuckets());
+
+    metrics.columnReleased(column);
+    assertEquals(4L, metrics.getHistogramBuckets());
+    assertEquals(2L, metrics.getRetainedHistogramBuckets());
+    metrics.bytesWritten(1024L);
+    assertEquals(1024L, metrics.getBytesWritten());
+
+    metrics.start(1L);
+    assertEquals(0L, metrics.getColumnsProfiled());
+    assertEquals(0L, metrics.getRetainedHistogramBuckets());
+  }
+
+  @Test
+  public void testQueries() {
+    ProfilingMetrics metrics = new ProfilingMetrics();
+    metrics.queryStarted("SELECT 1");
+    metrics.queryStarted("SELECT 2");
+    assertEquals(2, metrics.getQueriesInFlight());
+    metrics.queryExecuted("SELECT 1", TimeUnit.MILLISECONDS.toNanos(2L), 1L, false);
+    metrics.queryExecuted("SELECT 2", TimeUnit.MILLISECONDS.toNanos(4L), 0L, true);
+    assertEquals(0, metrics.getQueriesInFlight());
+    assertEquals(2L, metrics.getQueries());
+    assertEquals(3.0, metrics.getAverageQueryMillis(), 1e-9);
+  }
+
+  @Test
+  public void testRegister() throws Exception {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName(ProfilingMetrics.OBJECT_NAME);
+    ProfilingMetrics metrics = new ProfilingMetrics();
+    metrics.start(3L);
+    metrics.register();
+    try {
+      assertTrue(server.isRegistered(name));
+      assertEquals(3L, server.getAttribute(name, "ColumnsRemaining"));
+    } finally {
+      metrics.unregister();
+    }
+    assertFalse(server.isRegistered(name));
+  }
+
+  private static Column<Integer> newColumn() {
+    QuantileHistogram<Integer> histogram =
+        new QuantileHistogram<Integer>(0, new IntegerOperator());
+    histogram.addBound(10, 5L);
+    histogram.addBound(20, 5L);
+    return new Column<Integer>("S", "T", "C", new TypeInfo("INTEGER", 4, 0, Integer.class)
+        , Collections.<Constraint>emptySet(), 0, 20, 21, 0, histogram, new IntegerParser());
+  }
+}
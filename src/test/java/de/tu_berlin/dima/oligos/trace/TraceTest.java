@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.trace;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import de.tu_berlin.dima.oligos.type.util.ColumnId;
+
+public class TraceTest {
+
+  private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testDisabled() {
+    Trace trace = new Trace();
+    assertEquals(0L, trace.start(Phase.VALIDATION).stop());
+    trace.queryExecuted("SELECT 1 FROM SYSSTAT.COLDIST", MILLIS, 1L, false);
+    assertEquals(0L, trace.getPhase(Phase.VALIDATION).getCount());
+    assertEquals(0L, trace.getPhase(Phase.OTHER).getQueries());
+    assertTrue(trace.getQueryKinds().isEmpty());
+  }
+
+  @Test
+  public void testNestedPhases() throws InterruptedException {
+    Trace trace = new Trace();
+    trace.enable();
+    long start = System.nanoTime();
+    Trace.Span outer = trace.start(Phase.PROTOTYPE_WRITING);
+    Thread.sleep(5);
+    Trace.Span inner = trace.start(Phase.DISTRIBUTION_WRITING);
+    trace.queryExecuted("SELECT 1 FROM SYSSTAT.COLDIST WHERE a = ?", MILLIS, 3L, false);
+    Thread.sleep(20);
+    long innerNanos = inner.stop();
+    trace.queryExecuted("select 1 from all_tab_histograms", MILLIS, 2L, true);
+    long outerNanos = outer.stop();
+    long total = System.nanoTime() - start;
+    trace.queryExecuted("SELECT 1 FROM SYSSTAT.COLDIST WHERE b = ?", 2 * MILLIS, 4L, false);
+
+    assertTrue(innerNanos >= 20 * MILLIS);
+    // the outer phase is paused while the inner one runs
+    assertTrue(outerNanos >= 5 * MILLIS);
+    assertTrue(outerNanos + innerNanos <= total);
+    assertEquals(innerNanos, trace.getPhase(Phase.DISTRIBUTION_WRITING).getNanos());
+    assertEquals(1L, trace.getPhase(Phase.DISTRIBUTION_WRITING).getQueries());
+    assertEquals(3L, trace.getPhase(Phase.DISTRIBUTION_WRITING).getRows());
+    assertEquals(1L, trace.getPhase(Phase.PROTOTYPE_WRITING).getFailures());
+    assertEquals(1L, trace.getPhase(Phase.OTHER).getQueries());
+    assertEquals(0L, trace.getPhase(Phase.OTHER).getCount());
+
+    Trace.Counter coldist = trace.getQueryKinds().get("SYSSTAT.COLDIST");
+    assertEquals(2L, coldist.getCount());
+    assertEquals(3 * MILLIS, coldist.getNanos());
+    assertEquals(7L, coldist.getRows());
+    assertEquals(1L, trace.getQueryKinds().get("ALL_TAB_HISTOGRAMS").getFailures());
+  }
+
+  @Test
+  public void testReport() throws IOException {
+    Trace trace = new Trace();
+    trace.enable();
+    trace.start(Phase.VALIDATION).stop();
+    trace.queryExecuted("SELECT 1 FROM SYSSTAT.COLDIST", MILLIS, 1L, false);
+    for (int i = 1; i <= 5; i++) {
+      trace.recordColumn(new ColumnId("S", "T", "C" + i), i * MILLIS);
+    }
+    trace.recordColumn(new ColumnId("S", "T", "C1"), 10 * MILLIS);
+    new TraceReport(trace, 2).write(folder.getRoot(), "gen");
+
+    String json = Files.toString(new File(folder.getRoot(), "gen-trace.json"), Charsets.UTF_8);
+    assertTrue(json.contains("{\"phase\": \"validation\", \"count\": 1"));
+    assertTrue(json.contains("{\"kind\": \"SYSSTAT.COLDIST\", \"count\": 1, \"millis\": 1.000"));
+    assertTrue(json.contains("{\"column\": \"S.T.C1\", \"millis\": 11.000}"));
+    assertTrue(json.contains("{\"column\": \"S.T.C5\", \"millis\": 5.000}"));
+    assertFalse(json.contains("S.T.C4"));
+
+    List<String> csv = Files.readLines(new File(folder.getRoot(), "gen-trace.csv")
+        , Charsets.UTF_8);
+    assertEquals("section,name,count,millis,queries,rows,failures", csv.get(0));
+    assertTrue(csv.get(1).startsWith("run,wall,1,"));
+    assertTrue(csv.contains("query,SYSSTAT.COLDIST,1,1.000,1,1,0"));
+    assertEquals("column,S.T.C1,1,11.000,,,", csv.get(csv.size() - 2));
+    assertEquals(2 + Phase.values().length + 1 + 2, csv.size());
+  }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.type.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+
+public class ColumnIdRegistryTest {
+
+  @Test
+  public void testIntern() {
+    ColumnIdRegistry registry = new ColumnIdRegistry();
+    ColumnId nName = registry.intern("TPCH", "NATION", "N_NAME");
+    ColumnId rName = registry.intern("TPCH", "REGION", "R_NAME");
+    assertEquals(0, nName.getHandle());
+    assertEquals(1, rName.getHandle());
+    assertSame(nName, registry.intern("TPCH", "NATION", "N_NAME"));
+    assertSame(nName, registry.intern(new ColumnId("TPCH", "NATION", "N_NAME")));
+    assertSame(rName, registry.get(1));
+    assertEquals(2, registry.size());
+    assertEquals(new ColumnId("TPCH", "NATION", "N_NAME"), nName);
+    assertEquals(new ColumnId("TPCH", "NATION", "N_NAME").hashCode(), nName.hashCode());
+  }
+
+  @Test
+  public void testForeignHandle() {
+    ColumnIdRegistry registry = new ColumnIdRegistry();
+    ColumnIdRegistry other = new ColumnIdRegistry();
+    other.intern("TPCH", "NATION", "N_NAME");
+    ColumnId foreign = other.intern("TPCH", "REGION", "R_NAME");
+    ColumnId interned = registry.intern(foreign);
+    assertNotSame(foreign, interned);
+    assertEquals(0, interned.getHandle());
+  }
+
+  @Test
+  public void testRelease() throws InterruptedException {
+    ColumnIdRegistry registry = new ColumnIdRegistry();
+    ColumnId nName = registry.intern("TPCH", "NATION", "N_NAME");
+    registry.intern("TPCH", "REGION", "R_NAME");
+    for (int i = 0; i < 100 && registry.size() > 1; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertEquals(1, registry.size());
+    assertNull(registry.get(1));
+    assertSame(nName, registry.get(0));
+    // handles of released ids are not reused
+    ColumnId rName = registry.intern("TPCH", "REGION", "R_NAME");
+    assertEquals(2, rName.getHandle());
+    assertSame(nName, registry.intern("TPCH", "NATION", "N_NAME"));
+  }
+
+  @Test
+  public void testNames() {
+    ColumnId columnId = new ColumnIdRegistry().intern("TPCH", "NATION", "N_NAME");
+    assertEquals("TPCH.NATION.N_NAME", columnId.getQualifiedName());
+    assertEquals("tpch.nation.n_name", columnId.getLowerCaseQualifiedName());
+    assertEquals("nation", columnId.getLowerCaseTable());
+    assertEquals("n_name", columnId.getLowerCaseColumn());
+  }
+
+  @Test
+  public void testSerialization() throws IOException, ClassNotFoundException {
+    ColumnId columnId = new ColumnIdRegistry().intern("TPCH", "NATION", "N_NAME");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(columnId);
+    out.close();
+    ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    ColumnId actual = (ColumnId) in.readObject();
+    assertEquals(columnId, actual);
+    assertEquals(ColumnId.NO_HANDLE, actual.getHandle());
+  }
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.type.util.operator;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import de.tu_berlin.dima.oligos.type.util.operator.numerical.ByteOperator;
+
+public class OperatorsTest {
+
+  @Test
+  public void testByte() {
+    Number min = Byte.MIN_VALUE;
+    Number max = Byte.MAX_VALUE;
+    assertEquals(Byte.valueOf((byte) (Byte.MIN_VALUE + 1)), Operators.increment(min));
+    assertEquals(Byte.valueOf((byte) (Byte.MAX_VALUE - 1)), Operators.decrement(max));
+    // overflow wraps around like for the other integral types
+    assertEquals(Byte.valueOf(Byte.MIN_VALUE), Operators.increment(max));
+    assertEquals(Byte.valueOf(Byte.MAX_VALUE), Operators.decrement(min));
+  }
+
+  @Test
+  public void testByteOperator() {
+    Operator<Byte> operator = new ByteOperator();
+    assertEquals(Byte.valueOf((byte) (Byte.MIN_VALUE + 1)), operator.increment(Byte.MIN_VALUE));
+    assertEquals(Byte.valueOf((byte) (Byte.MAX_VALUE - 1)), operator.decrement(Byte.MAX_VALUE));
+    assertEquals(Byte.valueOf(Byte.MIN_VALUE), operator.decrement(operator.increment(Byte.MIN_VALUE)));
+    assertEquals(Byte.valueOf(Byte.MAX_VALUE), operator.increment(operator.decrement(Byte.MAX_VALUE)));
+  }
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.type.util.operator;
+
+import static org.junit.Assert.*;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.tu_berlin.dima.oligos.type.util.operator.date.DateOperator;
+import de.tu_berlin.dima.oligos.type.util.operator.date.TimeOperator;
+import de.tu_berlin.dima.oligos.type.util.operator.date.TimestampOperator;
+
+public class TemporalOperatorTest {
+
+  private final static long SEED = 0xDEADBEEF;
+  private final static int ITERATIONS = 10000;
+  // 1900-01-01 to 2040-01-01
+  private final static long MIN_MILLIS = -2208988800000L;
+  private final static long MAX_MILLIS = 2208988800000L;
+  private final static String[] ZONES = {
+    "UTC", "Europe/Berlin", "America/Sao_Paulo", "Australia/Lord_Howe"
+  };
+  private Random rand;
+
+  @Before
+  public void setUp() throws Exception {
+    this.rand = new Random(SEED);
+  }
+
+  @Test
+  public void testDateIncrementDecrement() {
+    for (String id : ZONES) {
+      TimeZone zone = TimeZone.getTimeZone(id);
+      DateOperator operator = new DateOperator(zone);
+      Calendar calendar = Calendar.getInstance(zone);
+      for (int i = 0; i < ITERATIONS; i++) {
+        long millis = nextMillis();
+        if (i % 2 == 0) {
+          calendar.setTimeInMillis(millis);
+          calendar.set(Calendar.HOUR_OF_DAY, 0);
+          calendar.set(Calendar.MINUTE, 0);
+          calendar.set(Calendar.SECOND, 0);
+          calendar.set(Calendar.MILLISECOND, 0);
+          millis = calendar.getTimeInMillis();
+        }
+        calendar.setTimeInMillis(millis);
+        calendar.add(Calendar.DATE, 1);
+        assertEquals(id, calendar.getTimeInMillis(), operator.increment(millis));
+        calendar.setTimeInMillis(millis);
+        calendar.add(Calendar.DATE, -1);
+        assertEquals(id, calendar.getTimeInMillis(), operator.decrement(millis));
+      }
+    }
+  }
+
+  @Test
+  public void testDateAcrossDaylightSavingTime() {
+    TimeZone zone = TimeZone.getTimeZone("Europe/Berlin");
+    DateOperator operator = new DateOperator(zone);
+    Calendar calendar = Calendar.getInstance(zone);
+    calendar.clear();
+    calendar.set(2014, Calendar.MARCH, 31);
+    Date summer = new Date(calendar.getTimeInMillis());
+    calendar.set(2014, Calendar.MARCH, 30);
+    Date winter = new Date(calendar.getTimeInMillis());
+    assertEquals(summer, operator.increment(winter));
+    assertEquals(winter, operator.decrement(summer));
+    assertEquals(23L * 60L * 60L * 1000L, summer.getTime() - winter.getTime());
+    assertEquals(1L, operator.range(winter, summer));
+    assertEquals(-1L, operator.range(summer, winter));
+  }
+
+  @Test
+  public void testDateRange() {
+    TimeZone zone = TimeZone.getTimeZone("Europe/Berlin");
+    DateOperator operator = new DateOperator(zone);
+    for (int i = 0; i < ITERATIONS; i++) {
+      long millis = nextMillis();
+      int days = rand.nextInt(1000);
+      long other = millis;
+      for (int j = 0; j < days; j++) {
+        other = operator.increment(other);
+      }
+      assertEquals(days, operator.range(millis, other));
+    }
+  }
+
+  @Test
+  public void testTime() {
+    TimeOperator operator = new TimeOperator();
+    for (int i = 0; i < ITERATIONS; i++) {
+      Time value = new Time(nextMillis());
+      assertEquals(value.getTime() + 1000L, operator.increment(value).getTime());
+      assertEquals(value.getTime() - 1000L, operator.decrement(value).getTime());
+      assertEquals(value, operator.decrement(operator.increment(value)));
+    }
+  }
+
+  @Test
+  public void testTimestamp() {
+    TimestampOperator operator = new TimestampOperator();
+    for (int i = 0; i < ITERATIONS; i++) {
+      Timestamp value = new Timestamp(nextMillis());
+      Timestamp inc = operator.increment(value);
+      Timestamp dec = operator.decrement(value);
+      assertEquals(value.getTime() + 1L, inc.getTime());
+      assertEquals(value.getTime() - 1L, dec.getTime());
+      assertTrue(operator.compare(dec, value) < 0);
+      assertTrue(operator.compare(value, inc) < 0);
+      assertEquals(2L, operator.range(dec, inc));
+    }
+  }
+
+  @Test
+  public void testOperators() {
+    Timestamp timestamp = new Timestamp(0L);
+    assertEquals(-1L, Operators.decrement(timestamp).getTime());
+    java.util.Date date = new Date(0L);
+    assertEquals(Date.class, Operators.increment(date).getClass());
+    assertEquals(new DateOperator().increment(new Date(0L)), Operators.increment(date));
+  }
+
+  @Test
+  public void testDefaultTimeZone() {
+    TimeZone defaultZone = TimeZone.getDefault();
+    try {
+      DateOperator operator = new DateOperator();
+      TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+      Calendar calendar = Calendar.getInstance();
+      calendar.clear();
+      calendar.set(2014, Calendar.MARCH, 30);
+      Date date = new Date(calendar.getTimeInMillis());
+      assertEquals(23L * 60L * 60L * 1000L, operator.increment(date).getTime() - date.getTime());
+      // the default time zone is looked up on every call
+      TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+      assertEquals(24L * 60L * 60L * 1000L, operator.increment(date).getTime() - date.getTime());
+      assertEquals("UTC", operator.getTimeZone().getID());
+      calendar = Calendar.getInstance();
+      calendar.setTime(date);
+      calendar.add(Calendar.DATE, 1);
+      assertEquals(calendar.getTimeInMillis(), Operators.increment(date).getTime());
+    } finally {
+      TimeZone.setDefault(defaultZone);
+    }
+  }
+
+  private long nextMillis() {
+    return MIN_MILLIS + (long) (rand.nextDouble() * (MAX_MILLIS - MIN_MILLIS));
+  }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright 2013 - 2014 DIMA Research Group, TU Berlin (http://www.dima.tu-berlin.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tu_berlin.dima.oligos.type.util.parser;
+
+import static org.junit.Assert.*;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParsersTest {
+
+  private final static long SEED = 0xDEADBEEF;
+  private final static int ITERATIONS = 10000;
+  private final static String[] ZONES = {
+    "UTC", "Europe/Berlin", "America/Sao_Paulo", "Australia/Lord_Howe"
+  };
+  private TimeZone defaultZone;
+  private Random rand;
+
+  @Before
+  public void setUp() throws Exception {
+    this.defaultZone = TimeZone.getDefault();
+    this.rand = new Random(SEED);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    TimeZone.setDefault(defaultZone);
+  }
+
+  @Test
+  public void testRemoveQuotes() {
+    String[] values = { "", "'", "''", "'''", "'a'", "a'", "'a", "a'b", "'a''b'", "1.5" };
+    for (String value : values) {
+      assertEquals(value.replaceAll("(^')|('$)", ""), Parsers.removeQuotes(value));
+      assertEquals(value.replaceAll("'", ""), Parsers.removeAllQuotes(value));
+    }
+    String value = "42";
+    assertSame(value, Parsers.removeQuotes(value));
+    assertSame(value, Parsers.removeAllQuotes(value));
+  }
+
+  @Test
+  public void testDate() {
+    for (String id : ZONES) {
+      TimeZone.setDefault(TimeZone.getTimeZone(id));
+      DateParser parser = new DateParser();
+      for (int i = 0; i < ITERATIONS; i++) {
+        String date = String.format("%04d-%02d-%02d"
+            , 1 + rand.nextInt(2100), 1 + rand.nextInt(12), 1 + rand.nextInt(31));
+        assertEquals(id + " " + date, Date.valueOf(date), parser.fromString("'" + date + "'"));
+      }
+      assertEquals("2014-03-30", parser.toString(parser.fromString("'2014-03-30'")));
+    }
+  }
+
+  @Test
+  public void testTimestamp() {
+    for (String id : ZONES) {
+      TimeZone.setDefault(TimeZone.getTimeZone(id));
+      TimestampParser parser = new TimestampParser();
+      for (int i = 0; i < ITERATIONS; i++) {
+        String date = String.format("%04d-%02d-%02d"
+            , 1 + rand.nextInt(2100), 1 + rand.nextInt(12), 1 + rand.nextInt(31));
+        String time = String.format("%02d:%02d:%02d"
+            , rand.nextInt(24), 15 * rand.nextInt(4), rand.nextInt(60));
+        String fraction = String.format("%09d", rand.nextInt(1000000000)).substring(rand.nextInt(9));
+        Timestamp expected = Timestamp.valueOf(date + " " + time + "." + fraction);
+        String db2 = date + "-" + time.replace(':', '.') + "." + fraction;
+        assertEquals(id + " " + db2, expected, parser.fromString("'" + db2 + "'"));
+        assertEquals(id + " " + db2, expected, parser.fromString(date + " " + time + "." + fraction));
+      }
+      assertEquals(Timestamp.valueOf("2014-01-01 00:00:00")
+          , parser.fromString("2014-01-01-00.00.00"));
+    }
+  }
+
+  @Test
+  public void testTime() {
+    for (String id : ZONES) {
+      TimeZone.setDefault(TimeZone.getTimeZone(id));
+      TimeParser parser = new TimeParser();
+      for (int i = 0; i < ITERATIONS; i++) {
+        String time = String.format("%02d:%02d:%02d"
+            , rand.nextInt(24), rand.nextInt(60), rand.nextInt(60));
+        assertEquals(id + " " + time, Time.valueOf(time), parser.fromString("'" + time + "'"));
+      }
+    }
+  }
+
+  @Test
+  public void testDefaultTimeZone() {
+    DateParser dateParser = new DateParser();
+    TimeParser timeParser = new TimeParser();
+    TimestampParser timestampParser = new TimestampParser();
+    // the default time zone is looked up on every call
+    for (String id : ZONES) {
+      TimeZone.setDefault(TimeZone.getTimeZone(id));
+      assertEquals(id, Date.valueOf("2014-03-30"), dateParser.fromString("'2014-03-30'"));
+      assertEquals(id, "2014-03-30", dateParser.toString(Date.valueOf("2014-03-30")));
+      assertEquals(id, Time.valueOf("12:34:56"), timeParser.fromString("'12:34:56'"));
+      assertEquals(id, Timestamp.valueOf("2014-03-30 02:30:00.5")
+          , timestampParser.fromString("'2014-03-30-02.30.00.5'"));
+    }
+  }
+}
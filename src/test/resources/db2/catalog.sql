@@ -0,0 +1,48 @@
+-- Stand-in for the DB2 catalog views Oligos reads, see Db2DerbyDriver.
+-- Derby reserves schema names starting with SYS, therefore SYSCAT, SYSSTAT,
+-- and SYSIBM are all mapped onto the DB2CAT schema.
+CREATE SCHEMA DB2CAT;
+
+CREATE TABLE DB2CAT."TABLES" ( TABSCHEMA   VARCHAR(128) NOT NULL,
+                               TABNAME     VARCHAR(128) NOT NULL,
+                               CARD        BIGINT,
+                               STATS_TIME  TIMESTAMP);
+
+CREATE TABLE DB2CAT."COLUMNS" ( TABSCHEMA  VARCHAR(128) NOT NULL,
+                                TABNAME    VARCHAR(128) NOT NULL,
+                                COLNAME    VARCHAR(128) NOT NULL,
+                                COLNO      SMALLINT NOT NULL,
+                                TYPENAME   VARCHAR(18) NOT NULL,
+                                LENGTH     INTEGER NOT NULL,
+                                SCALE      SMALLINT NOT NULL,
+                                NULLS      CHAR(1) NOT NULL,
+                                LOW2KEY    VARCHAR(254),
+                                HIGH2KEY   VARCHAR(254),
+                                NUMNULLS   BIGINT,
+                                COLCARD    BIGINT);
+
+CREATE TABLE DB2CAT."COLDIST" ( TABSCHEMA  VARCHAR(128) NOT NULL,
+                                TABNAME    VARCHAR(128) NOT NULL,
+                                COLNAME    VARCHAR(128) NOT NULL,
+                                TYPE       CHAR(1) NOT NULL,
+                                SEQNO      SMALLINT NOT NULL,
+                                COLVALUE   VARCHAR(254),
+                                VALCOUNT   BIGINT NOT NULL);
+
+CREATE TABLE DB2CAT."TABCONST" ( CONSTNAME  VARCHAR(128) NOT NULL,
+                                 TABSCHEMA  VARCHAR(128) NOT NULL,
+                                 TABNAME    VARCHAR(128) NOT NULL,
+                                 TYPE       CHAR(1) NOT NULL);
+
+CREATE TABLE DB2CAT."KEYCOLUSE" ( CONSTNAME  VARCHAR(128) NOT NULL,
+                                  TABSCHEMA  VARCHAR(128) NOT NULL,
+                                  TABNAME    VARCHAR(128) NOT NULL,
+                                  COLNAME    VARCHAR(128) NOT NULL,
+                                  COLSEQ     SMALLINT NOT NULL);
+
+CREATE TABLE DB2CAT."REFERENCES" ( CONSTNAME     VARCHAR(128) NOT NULL,
+                                   TABSCHEMA     VARCHAR(128) NOT NULL,
+                                   TABNAME       VARCHAR(128) NOT NULL,
+                                   REFKEYNAME    VARCHAR(128) NOT NULL,
+                                   REFTABSCHEMA  VARCHAR(128) NOT NULL,
+                                   REFTABNAME    VARCHAR(128) NOT NULL);
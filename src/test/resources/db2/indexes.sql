@@ -0,0 +1,7 @@
+-- Indexes of the DB2 catalog stand-in, created after the catalog tables.
+CREATE INDEX DB2CAT.TABLES_IDX ON DB2CAT."TABLES" (TABSCHEMA, TABNAME);
+CREATE INDEX DB2CAT.COLUMNS_IDX ON DB2CAT."COLUMNS" (TABSCHEMA, TABNAME, COLNAME);
+CREATE INDEX DB2CAT.COLDIST_IDX ON DB2CAT."COLDIST" (TABSCHEMA, TABNAME, COLNAME, TYPE, SEQNO);
+CREATE INDEX DB2CAT.TABCONST_IDX ON DB2CAT."TABCONST" (CONSTNAME);
+CREATE INDEX DB2CAT.KEYCOLUSE_IDX ON DB2CAT."KEYCOLUSE" (CONSTNAME);
+CREATE INDEX DB2CAT.REFERENCES_IDX ON DB2CAT."REFERENCES" (TABSCHEMA);